@@ -0,0 +1,87 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Búsqueda incremental de nombres de ejercicio sobre un catálogo sintético de nombres
+ * distintos (50k por defecto): construcción de IndiceNombres y consultas de distinta
+ * selectividad, desde una letra suelta hasta varios prefijos, comparadas con recorrer y
+ * normalizar todos los nombres en cada pulsación. El objetivo es que cada consulta del
+ * índice quede por debajo de 5 ms.
+ *
+ * Uso: bench/ejecutar.sh BenchBusqueda [nombres]
+ */
+public class BenchBusqueda {
+    private static final String[] MOVIMIENTOS = { "Press", "Sentadilla", "Remo", "Curl", "Peso Muerto",
+            "Elevación", "Extensión", "Jalón", "Zancada", "Fondos", "Aperturas", "Hip Thrust", "Dominadas",
+            "Pájaros", "Patada", "Crunch", "Plancha", "Empuje", "Tirón", "Encogimientos" };
+    private static final String[] VARIANTES = { "de Banca", "Inclinado", "Declinado", "Búlgara", "Frontal",
+            "Sumo", "Rumano", "Martillo", "Concentrado", "Lateral", "Posterior", "Militar", "Arnold",
+            "Francés", "Unilateral", "Cerrado", "Abierto", "Supino", "Prono", "Neutro" };
+    private static final String[] MATERIAL = { "con Barra", "con Mancuernas", "en Polea", "en Máquina",
+            "con Kettlebell", "con Banda", "en Multipower", "con Disco", "en Smith", "sin Material" };
+    private static final String[] CONSULTAS = { "p", "press", "press banc", "bulgara mancu", "sentadilla bulg 17",
+            "xyz" };
+
+    public static void main(String[] args) throws Exception {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        List<String> nombres = generarNombres(cantidad);
+        String sufijo = " [" + cantidad + "]";
+
+        Medidor.medir("IndiceNombres construcción" + sufijo, 5, 20,
+                () -> new IndiceNombres(nombres).getCantidad());
+
+        IndiceNombres indice = new IndiceNombres(nombres);
+        for (String consulta : CONSULTAS) {
+            Medidor.medir("buscar \"" + consulta + "\"" + sufijo, 200, 1000,
+                    () -> indice.buscar(consulta, 200).size());
+        }
+        Medidor.medir("recorrido lineal \"press banc\"" + sufijo, 5, 20,
+                () -> buscarRecorriendo(nombres, "press banc", 200).size());
+    }
+
+    /**
+     * Nombres distintos combinando movimiento, variante y material, con un número de
+     * serie cuando se agotan las combinaciones
+     */
+    private static List<String> generarNombres(int cantidad) {
+        Random random = new Random(42);
+        TreeSet<String> nombres = new TreeSet<>();
+        while (nombres.size() < cantidad) {
+            String nombre = MOVIMIENTOS[random.nextInt(MOVIMIENTOS.length)] + " "
+                    + VARIANTES[random.nextInt(VARIANTES.length)] + " "
+                    + MATERIAL[random.nextInt(MATERIAL.length)];
+            if (!nombres.add(nombre)) {
+                nombres.add(nombre + " " + random.nextInt(cantidad));
+            }
+        }
+        return new ArrayList<>(nombres);
+    }
+
+    /**
+     * Referencia sin índice: normaliza cada nombre y comprueba los prefijos
+     */
+    private static List<String> buscarRecorriendo(List<String> nombres, String consulta, int limite) {
+        String[] terminos = IndiceNombres.normalizar(consulta).trim().split(" +");
+        List<String> resultado = new ArrayList<>();
+        for (String nombre : nombres) {
+            String[] palabras = IndiceNombres.normalizar(nombre).trim().split(" +");
+            boolean encaja = true;
+            for (String termino : terminos) {
+                boolean encontrado = false;
+                for (String palabra : palabras) {
+                    if (palabra.startsWith(termino)) {
+                        encontrado = true;
+                        break;
+                    }
+                }
+                encaja &= encontrado;
+            }
+            if (encaja && resultado.add(nombre) && resultado.size() >= limite) {
+                break;
+            }
+        }
+        return resultado;
+    }
+}
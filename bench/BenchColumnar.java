@@ -0,0 +1,116 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Memoria retenida y coste de las agregaciones de HistorialColumnar frente a una
+ * List&lt;Ejercicio&gt; con las mismas filas (5M por defecto). Cada fila de la lista lleva
+ * sus propios String y LocalDate, como los devuelve el DAO.
+ *
+ * Uso: JAVA_OPTS=-Xmx3g bench/ejecutar.sh BenchColumnar [filas]
+ */
+public class BenchColumnar {
+    private static final String[] NOMBRES = { "Press de Banca con Barra", "Sentadilla con Barra (Squat)",
+            "Peso Muerto Convencional", "Remo con Barra", "Press Militar con Barra (De pie)", "Dominadas (Pull-ups)" };
+    private static final String[] GRUPOS = { "Pecho", "Piernas", "Espalda", "Espalda", "Hombros", "Espalda" };
+
+    public static void main(String[] args) throws Exception {
+        int filas = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int inicio = (int) LocalDate.of(2000, 1, 1).toEpochDay();
+
+        long antes = memoriaUsada();
+        List<Ejercicio> lista = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < filas; i++) {
+            int e = random.nextInt(NOMBRES.length);
+            lista.add(new Ejercicio(i + 1, new String(NOMBRES[e]), new String(GRUPOS[e]), 20 + random.nextInt(160) * 0.5,
+                    1 + random.nextInt(12), LocalDate.ofEpochDay(inicio + i / 500)));
+        }
+        long memoriaLista = memoriaUsada() - antes;
+
+        antes = memoriaUsada();
+        HistorialColumnar columnar = new HistorialColumnar();
+        random = new Random(42);
+        for (int i = 0; i < filas; i++) {
+            int e = random.nextInt(NOMBRES.length);
+            columnar.agregar(i + 1, columnar.internarNombre(NOMBRES[e]), columnar.internarGrupo(GRUPOS[e]),
+                    20 + random.nextInt(160) * 0.5, 1 + random.nextInt(12), inicio + i / 500);
+        }
+        long memoriaColumnar = memoriaUsada() - antes;
+
+        System.out.printf("%d filas: List<Ejercicio> %,d MB   columnar %,d MB%n", filas, memoriaLista >> 20,
+                memoriaColumnar >> 20);
+
+        String nombre = NOMBRES[0];
+        int nombreId = columnar.buscarNombre(nombre);
+        int[] dias = new int[columnar.contarDias(nombreId)];
+        double[] valores = new double[dias.length];
+
+        Medidor.medir("lista: volumen total de un ejercicio", 3, 10, () -> {
+            double suma = 0;
+            for (Ejercicio ejercicio : lista) {
+                if (ejercicio.getNombre().equals(nombre)) {
+                    suma += ejercicio.getPeso() * ejercicio.getRepeticiones();
+                }
+            }
+            return (long) suma;
+        });
+        Medidor.medir("columnar: volumen total de un ejercicio", 3, 10,
+                () -> (long) columnar.sumaVolumen(nombreId, Integer.MIN_VALUE, Integer.MAX_VALUE));
+
+        Medidor.medir("lista: peso máximo de un ejercicio", 3, 10, () -> {
+            double maximo = 0;
+            for (Ejercicio ejercicio : lista) {
+                if (ejercicio.getNombre().equals(nombre)) {
+                    maximo = Math.max(maximo, ejercicio.getPeso());
+                }
+            }
+            return (long) maximo;
+        });
+        Medidor.medir("columnar: peso máximo de un ejercicio", 3, 10, () -> (long) columnar.maximoPeso(nombreId));
+
+        Medidor.medir("lista: volumen móvil 7 días", 3, 10, () -> volumenMovilLista(lista, nombre, 7, dias, valores));
+        Medidor.medir("columnar: volumen móvil 7 días", 3, 10,
+                () -> columnar.volumenMovil(nombreId, 7, dias, valores));
+    }
+
+    /**
+     * Misma ventana móvil que HistorialColumnar.volumenMovil, sobre la lista (ordenada por fecha)
+     */
+    private static long volumenMovilLista(List<Ejercicio> lista, String nombre, int ventana, int[] dias,
+            double[] valores) {
+        int k = -1;
+        int inicioVentana = 0;
+        double suma = 0;
+        for (int i = 0; i < lista.size(); i++) {
+            Ejercicio ejercicio = lista.get(i);
+            if (!ejercicio.getNombre().equals(nombre)) {
+                continue;
+            }
+            long dia = ejercicio.getFecha().toEpochDay();
+            suma += ejercicio.getPeso() * ejercicio.getRepeticiones();
+            for (; lista.get(inicioVentana).getFecha().toEpochDay() <= dia - ventana; inicioVentana++) {
+                Ejercicio fuera = lista.get(inicioVentana);
+                if (fuera.getNombre().equals(nombre)) {
+                    suma -= fuera.getPeso() * fuera.getRepeticiones();
+                }
+            }
+            if (k < 0 || dias[k] != dia) {
+                k++;
+            }
+            dias[k] = (int) dia;
+            valores[k] = suma;
+        }
+        return k + 1;
+    }
+
+    private static long memoriaUsada() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
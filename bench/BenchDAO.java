@@ -0,0 +1,239 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Caminos calientes del DAO y de los modelos de la interfaz sobre bases sintéticas de
+ * GeneradorDatos (1k, 100k y 1M series por defecto): inserción individual y por lotes,
+ * consultas cortas con y sin pool de conexiones, lecturas por nombre y completas, nombres distintos (caché y recarga desde SQL),
+ * coste del mapeo de filas a Ejercicio y carga del detalle con el relleno de la tabla
+ * de historial.
+ *
+ * Después compara, sobre bases vacías, insertar {@code filasInsercion} series (10k y 1M
+ * por defecto) una a una con insertarEjercicio y de una vez con insertarEjercicios. Serie
+ * a serie se insertan como mucho MAXIMO_SERIE_A_SERIE y el resto se estima al mismo ritmo.
+ *
+ * Uso: JAVA_OPTS=-Xmx3g bench/ejecutar.sh BenchDAO [filas,filas,...] [filasInsercion,...]
+ */
+public class BenchDAO {
+    private static final String NOMBRE_INSERCION = "Benchmark de inserción";
+    private static final int TAMANO_LOTE = 1000;
+    // Un commit por serie: 1M tardaría decenas de minutos
+    private static final int MAXIMO_SERIE_A_SERIE = 20_000;
+    private static final String SQL_SERIE_POR_ID = "SELECT s.id, c.nombre, c.grupo_muscular, s.peso, "
+            + "s.repeticiones, s.fecha FROM series s JOIN catalogo_ejercicios c ON c.id = s.ejercicio_id WHERE s.id = ?";
+    private static final String SQL_CONTAR = "SELECT COUNT(*) FROM series s "
+            + "JOIN catalogo_ejercicios c ON c.id = s.ejercicio_id WHERE c.nombre = ?";
+
+    public static void main(String[] args) throws Exception {
+        String tamanos = args.length > 0 ? args[0] : "1000,100000,1000000";
+        for (String tamano : tamanos.split(",")) {
+            int filas = Integer.parseInt(tamano.trim());
+            DatabaseManager dbManager = GeneradorDatos.preparar(filas);
+            try {
+                medir(dbManager, filas);
+            } finally {
+                dbManager.cerrar();
+            }
+        }
+
+        String tamanosInsercion = args.length > 1 ? args[1] : "10000,1000000";
+        for (String tamano : tamanosInsercion.split(",")) {
+            compararInsercion(Integer.parseInt(tamano.trim()));
+        }
+    }
+
+    /**
+     * insertarEjercicio serie a serie frente a insertarEjercicios con todas, cada uno
+     * sobre una base nueva
+     */
+    private static void compararInsercion(int filas) throws Exception {
+        List<Ejercicio> series = new ArrayList<>(filas);
+        for (int i = 0; i < filas; i++) {
+            int e = i % GeneradorDatos.NOMBRES.length;
+            series.add(new Ejercicio(GeneradorDatos.NOMBRES[e], GeneradorDatos.GRUPOS[e], 40 + i % 80, 1 + i % 12,
+                    LocalDate.of(2015, 1, 1).plusDays(i / 20)));
+        }
+
+        DatabaseManager serieASerie = baseNueva("serie-a-serie");
+        EjercicioDAO daoSerieASerie = new EjercicioDAO(serieASerie);
+        int insertadas = Math.min(filas, MAXIMO_SERIE_A_SERIE);
+        long inicio = System.nanoTime();
+        for (int i = 0; i < insertadas; i++) {
+            if (!daoSerieASerie.insertarEjercicio(series.get(i))) {
+                throw new IllegalStateException("No se pudo insertar la serie " + i);
+            }
+        }
+        double segundosSerieASerie = (System.nanoTime() - inicio) / 1e9 * filas / insertadas;
+        serieASerie.cerrar();
+
+        DatabaseManager lote = baseNueva("lote");
+        inicio = System.nanoTime();
+        ResultadoLote resultado = new EjercicioDAO(lote).insertarEjercicios(series);
+        double segundosLote = (System.nanoTime() - inicio) / 1e9;
+        lote.cerrar();
+        if (resultado.getInsertados() != filas) {
+            throw new IllegalStateException("El lote insertó " + resultado.getInsertados() + " de " + filas);
+        }
+
+        System.out.printf(Locale.ROOT, "insertar %,d series: una a una %.1f s%s (%.0f filas/s), "
+                + "insertarEjercicios %.2f s (%.0f filas/s), %.0f veces más rápido%n", filas, segundosSerieASerie,
+                insertadas < filas ? " estimados con " + insertadas : "", filas / segundosSerieASerie, segundosLote,
+                filas / segundosLote, segundosSerieASerie / segundosLote);
+    }
+
+    private static DatabaseManager baseNueva(String nombre) throws Exception {
+        Path directorio = Paths.get("build", "bench-lotes");
+        Files.createDirectories(directorio);
+        String ruta = directorio.resolve(nombre + ".db").toString();
+        for (String sufijo : new String[] { "", "-wal", "-shm" }) {
+            Files.deleteIfExists(Paths.get(ruta + sufijo));
+        }
+        DatabaseManager dbManager = new DatabaseManager(ruta);
+        dbManager.initializeDatabase();
+        return dbManager;
+    }
+
+    private static void medir(DatabaseManager dbManager, int filas) throws Exception {
+        EjercicioDAO dao = new EjercicioDAO(dbManager);
+        String sufijo = " [" + filas + "]";
+        String nombre = GeneradorDatos.NOMBRES[0];
+        // Las lecturas completas se repiten menos cuanto mayor es la base
+        int rondas = filas >= 1_000_000 ? 5 : filas >= 100_000 ? 10 : 50;
+
+        try {
+            Medidor.medir("insertar 1 serie" + sufijo, 20, 100, () -> {
+                Ejercicio ejercicio = new Ejercicio(NOMBRE_INSERCION, "Otro", 50, 10, LocalDate.of(2024, 6, 1));
+                return dao.insertarEjercicio(ejercicio) ? 1 : 0;
+            });
+            Medidor.medir("insertar lote de " + TAMANO_LOTE + sufijo, 3, 20, () -> {
+                List<Ejercicio> lote = new ArrayList<>(TAMANO_LOTE);
+                for (int i = 0; i < TAMANO_LOTE; i++) {
+                    lote.add(new Ejercicio(NOMBRE_INSERCION, "Otro", 50 + i % 40, 1 + i % 12,
+                            LocalDate.of(2024, 6, 1).plusDays(i % 30)));
+                }
+                return dao.insertarEjercicios(lote).getInsertados();
+            });
+        } finally {
+            eliminarInsertados(dbManager, dao);
+        }
+
+        // Pool: la misma consulta con una conexión prestada (y su sentencia en caché) y con
+        // una conexión nueva por llamada, como hacía getConnection() antes del pool
+        String url = "jdbc:sqlite:" + dbManager.getRutaBaseDatos();
+        int idMedio = Math.max(1, filas / 2);
+        Medidor.medir("serie por id (pool)" + sufijo, 100, 1000,
+                () -> consultar(dbManager.getConnection(), SQL_SERIE_POR_ID, idMedio));
+        Medidor.medir("serie por id (sin pool)" + sufijo, 20, 200,
+                () -> consultar(DriverManager.getConnection(url), SQL_SERIE_POR_ID, idMedio));
+        Medidor.medir("contar historial (pool)" + sufijo, 5, rondas * 4,
+                () -> consultar(dbManager.getConnection(), SQL_CONTAR, nombre));
+        Medidor.medir("contar historial (sin pool)" + sufijo, 5, rondas * 4,
+                () -> consultar(DriverManager.getConnection(url), SQL_CONTAR, nombre));
+
+        Medidor.medir("leer por nombre" + sufijo, 2, rondas, () -> dao.obtenerEjerciciosPorNombre(nombre).size());
+        Medidor.medir("leer todo" + sufijo, 1, rondas, () -> dao.obtenerTodosLosEjercicios().size());
+        Medidor.medir("primera página del historial" + sufijo, 20, 200,
+                () -> dao.obtenerPaginaPorNombre(nombre, null, 0, HistorialTableModel.TAMANO_PAGINA).size());
+
+        Medidor.medir("nombres distintos (caché)" + sufijo, 100, 1000, () -> dao.obtenerNombresEjercicios().size());
+        Medidor.medir("nombres distintos (SQL a caché)" + sufijo, 20, 200, () -> dao.precargarCacheNombres() ? 1 : 0);
+
+        // Mapeo de filas: la misma consulta recorrida en crudo, con Ejercicio por fila y en columnas
+        Medidor.medir("ResultSet sin mapear" + sufijo, 1, rondas, () -> recorrerEnCrudo(dbManager));
+        Medidor.medir("ResultSet a Ejercicio" + sufijo, 1, rondas,
+                () -> dao.recorrerTodosLosEjercicios(EjercicioDAO.FETCH_SIZE_POR_DEFECTO, ejercicio -> { }));
+        Medidor.medir("ResultSet a columnas" + sufijo, 1, rondas,
+                () -> dao.recorrerSeries(null, EjercicioDAO.FETCH_SIZE_POR_DEFECTO, (id, n, g) -> { },
+                        (serieId, ejercicioId, peso, reps, dia) -> { }));
+
+        // Navegar al detalle: modelo (total + primera página) y relleno de la tabla visible
+        HistorialTableModel tabla = new HistorialTableModel(null);
+        Medidor.medir("cargar detalle y rellenar tabla" + sufijo, 20, 200, () -> {
+            DetalleEjercicioModelo detalle = DetalleEjercicioModelo.cargar(dao, nombre,
+                    HistorialTableModel.TAMANO_PAGINA);
+            tabla.cargar(detalle);
+            return rellenarVisible(tabla);
+        });
+    }
+
+    /**
+     * Ejecuta una consulta de un parámetro y cierra la conexión (si es del pool, la devuelve)
+     */
+    private static long consultar(Connection conexion, String sql, Object parametro) throws SQLException {
+        long total = 0;
+        try (Connection connection = conexion;
+                PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setObject(1, parametro);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    total += rs.getLong(1);
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Pide todas las celdas de la primera página, como al pintar la tabla
+     */
+    private static long rellenarVisible(HistorialTableModel tabla) {
+        long celdas = 0;
+        int visibles = Math.min(tabla.getRowCount(), HistorialTableModel.TAMANO_PAGINA);
+        for (int fila = 0; fila < visibles; fila++) {
+            for (int columna = 0; columna < tabla.getColumnCount(); columna++) {
+                celdas += tabla.getValueAt(fila, columna).hashCode();
+            }
+        }
+        return celdas;
+    }
+
+    private static long recorrerEnCrudo(DatabaseManager dbManager) throws SQLException, ClassNotFoundException {
+        String sql = "SELECT s.id, c.nombre, c.grupo_muscular, s.peso, s.repeticiones, s.fecha "
+                + "FROM series s JOIN catalogo_ejercicios c ON c.id = s.ejercicio_id ORDER BY s.fecha DESC, s.id DESC";
+        long filas = 0;
+        try (Connection connection = dbManager.getConnection();
+                PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setFetchSize(EjercicioDAO.FETCH_SIZE_POR_DEFECTO);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    filas++;
+                }
+            }
+        }
+        return filas;
+    }
+
+    /**
+     * Deja la base con las filas generadas para que la siguiente ejecución la reutilice
+     */
+    private static void eliminarInsertados(DatabaseManager dbManager, EjercicioDAO dao)
+            throws SQLException, ClassNotFoundException {
+        try (Connection connection = dbManager.getConnection()) {
+            connection.setAutoCommit(false);
+            for (String tabla : new String[] { "series", "agregados_ejercicio", "volumen_diario", "volumen_semanal" }) {
+                try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM " + tabla
+                        + " WHERE ejercicio_id IN (SELECT id FROM catalogo_ejercicios WHERE nombre = ?)")) {
+                    pstmt.setString(1, NOMBRE_INSERCION);
+                    pstmt.executeUpdate();
+                }
+            }
+            try (PreparedStatement pstmt = connection.prepareStatement(
+                    "DELETE FROM catalogo_ejercicios WHERE nombre = ?")) {
+                pstmt.setString(1, NOMBRE_INSERCION);
+                pstmt.executeUpdate();
+            }
+            connection.commit();
+        }
+        dao.precargarCacheNombres();
+    }
+}
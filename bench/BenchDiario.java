@@ -0,0 +1,48 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+
+/**
+ * Latencia de guardar una serie: insertarEjercicio (espera al commit de SQLite) frente a
+ * DiarioSeries.registrar con cada política de sincronización, que vuelve en cuanto la
+ * serie está en el fichero mapeado. Al final comprueba que el volcado alcanza a lo
+ * registrado.
+ *
+ * Uso: bench/ejecutar.sh BenchDiario
+ */
+public class BenchDiario {
+    private static final String NOMBRE = "Benchmark del diario";
+
+    public static void main(String[] args) throws Exception {
+        Path directorio = Paths.get("build", "bench-diario");
+        Files.createDirectories(directorio);
+        String rutaBaseDatos = directorio.resolve("latencia.db").toString();
+        for (String sufijo : new String[] { "", "-wal", "-shm", ".diario" }) {
+            Files.deleteIfExists(Paths.get(rutaBaseDatos + sufijo));
+        }
+
+        DatabaseManager dbManager = new DatabaseManager(rutaBaseDatos);
+        dbManager.initializeDatabase();
+        EjercicioDAO dao = new EjercicioDAO(dbManager);
+        LocalDate fecha = LocalDate.of(2024, 1, 1);
+
+        Medidor.medir("insertarEjercicio (commit)", 200, 1000,
+                () -> dao.insertarEjercicio(new Ejercicio(NOMBRE, "Pruebas", 50, 10, fecha)) ? 1 : 0);
+
+        for (DiarioSeries.Sincronizacion sincronizacion : DiarioSeries.Sincronizacion.values()) {
+            DiarioSeries diario = new DiarioSeries(Paths.get(rutaBaseDatos + ".diario"), dao, dbManager,
+                    sincronizacion);
+            diario.abrir();
+            int rondas = sincronizacion == DiarioSeries.Sincronizacion.SIEMPRE ? 1000 : 20_000;
+            Medidor.medir("diario registrar (" + sincronizacion.name().toLowerCase() + ")", rondas / 5, rondas,
+                    () -> diario.registrar(new Ejercicio(NOMBRE, "Pruebas", 50, 10, fecha)) ? 1 : 0);
+            long inicio = System.nanoTime();
+            boolean volcado = diario.esperarVolcado(60_000);
+            System.out.printf("  volcado pendiente: %.1f ms%s%n", (System.nanoTime() - inicio) / 1e6,
+                    volcado ? "" : " (sin terminar)");
+            diario.cerrar();
+        }
+        dbManager.cerrar();
+    }
+}
@@ -0,0 +1,52 @@
+import java.util.Random;
+
+/**
+ * Coste de reducir con LTTB un historial diario largo a distintos anchos de ventana, y de
+ * regenerar la capa estática completa del gráfico de progreso.
+ */
+public class BenchDownsampler {
+    private static final int[] ANOS = { 1, 10, 30 };
+    private static final int[] ANCHOS = { 300, 800, 1920 };
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+
+        for (int anos : ANOS) {
+            DatosProgreso datos = generar(anos * 365);
+            int[] dias = datos.getDias();
+            double[] valores = datos.getValores(DatosProgreso.Metrica.PESO);
+
+            for (int ancho : ANCHOS) {
+                int[] indices = new int[ancho];
+                Medidor.medir("lttb " + anos + " años -> " + ancho + " px", 2000, 2000,
+                        () -> DownsamplerLTTB.reducir(dias, valores, dias.length, ancho, indices));
+            }
+
+            GraficoProgreso grafico = new GraficoProgreso(java.awt.Color.DARK_GRAY, java.awt.Color.CYAN,
+                    java.awt.Color.GRAY, java.awt.Color.LIGHT_GRAY);
+            grafico.setDatos(datos, "");
+            Medidor.medir("capa estática " + anos + " años 450x200", 200, 200,
+                    () -> grafico.dibujarCapaEstatica(450, 200, 1.0).getRGB(0, 0));
+        }
+    }
+
+    /**
+     * Historial diario sintético: progresión lenta con ruido y alguna semana de descarga
+     */
+    static DatosProgreso generar(int dias) {
+        Random random = new Random(42);
+        int[] x = new int[dias];
+        double[] peso = new double[dias];
+        double[] volumen = new double[dias];
+        double[] unaRM = new double[dias];
+        int inicio = (int) java.time.LocalDate.of(2015, 1, 1).toEpochDay();
+        for (int i = 0; i < dias; i++) {
+            x[i] = inicio + i;
+            double base = 40 + i * 0.02 + random.nextGaussian() * 2.5;
+            peso[i] = (i / 7) % 9 == 8 ? base * 0.7 : base;
+            volumen[i] = peso[i] * (20 + random.nextInt(20));
+            unaRM[i] = AgregadosEjercicio.estimar1RM(peso[i], 1 + random.nextInt(10));
+        }
+        return new DatosProgreso("Sintético", x, peso, volumen, unaRM);
+    }
+}
@@ -0,0 +1,62 @@
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Escalado de EstadisticasEntrenamiento.calcular con el número de hilos sobre un registro
+ * sintético (5M filas por defecto), comprobando en cada caso que el resultado coincide
+ * exactamente con la referencia secuencial.
+ *
+ * Uso: JAVA_OPTS=-Xmx3g bench/ejecutar.sh BenchEstadisticas [filas]
+ */
+public class BenchEstadisticas {
+    private static final String[] GRUPOS = { "Pecho", "Espalda", "Piernas", "Brazos", "Hombros", "Core", "Glúteos" };
+
+    public static void main(String[] args) throws Exception {
+        int filas = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        HistorialColumnar historial = generar(filas);
+
+        EstadisticasEntrenamiento referencia = EstadisticasEntrenamiento.calcularSecuencial(historial);
+        Medidor.medir("referencia secuencial", 1, 3,
+                () -> EstadisticasEntrenamiento.calcularSecuencial(historial).getResumenes().size());
+
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        for (int hilos = 1; ; hilos = Math.min(hilos * 2, nucleos)) {
+            ForkJoinPool pool = new ForkJoinPool(hilos);
+            try {
+                EstadisticasEntrenamiento resultado = pool.submit(() -> EstadisticasEntrenamiento.calcular(historial))
+                        .get();
+                if (!resultado.equals(referencia)) {
+                    throw new AssertionError("El cálculo paralelo con " + hilos + " hilos no coincide con la referencia");
+                }
+                Medidor.medir("paralelo, " + hilos + " hilos", 2, 5,
+                        () -> pool.submit(() -> EstadisticasEntrenamiento.calcular(historial)).get()
+                                .getResumenes().size());
+            } finally {
+                pool.shutdown();
+            }
+            if (hilos == nucleos) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Unos 200 ejercicios repartidos en grupos, ~400 series por día y pesos con decimales
+     * arbitrarios para que el orden de las sumas importe
+     */
+    static HistorialColumnar generar(int filas) {
+        HistorialColumnar historial = new HistorialColumnar();
+        Random random = new Random(42);
+        int inicio = (int) LocalDate.of(2000, 1, 1).toEpochDay();
+        for (int i = 0; i < filas; i++) {
+            int ejercicio = random.nextInt(200);
+            int nombreId = historial.internarNombre("Ejercicio " + ejercicio);
+            int grupoId = historial.internarGrupo(GRUPOS[ejercicio % GRUPOS.length]);
+            int dia = inicio + i / 400;
+            double peso = 20 + ejercicio * 0.3 + (dia - inicio) * 0.01 + random.nextGaussian() * 3.7;
+            historial.agregar(i + 1, nombreId, grupoId, peso, 1 + random.nextInt(12), dia);
+        }
+        return historial;
+    }
+}
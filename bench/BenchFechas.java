@@ -0,0 +1,80 @@
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Coste de convertir a LocalDate la fecha de cada fila leída: desde el texto
+ * "yyyy-MM-dd" que se guardaba antes (formateador ISO_LOCAL_DATE, LocalDate.parse sin
+ * formateador y un análisis manual de los dígitos) y desde el epoch day que se guarda
+ * ahora (LocalDate.ofEpochDay y CodecFecha, que reutiliza las instancias).
+ *
+ * Uso: bench/ejecutar.sh BenchFechas [fechas]
+ */
+public class BenchFechas {
+
+    public static void main(String[] args) throws Exception {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        String[] fechas = new String[cantidad];
+        long[] dias = new long[cantidad];
+        LocalDate primerDia = LocalDate.of(2015, 1, 1);
+        for (int i = 0; i < cantidad; i++) {
+            LocalDate fecha = primerDia.plusDays(i % 4000);
+            fechas[i] = fecha.toString();
+            dias[i] = fecha.toEpochDay();
+        }
+
+        String sufijo = " [" + cantidad + "]";
+        Medidor.medir("LocalDate.parse(ISO_LOCAL_DATE)" + sufijo, 10, 50, () -> {
+            long suma = 0;
+            for (String fecha : fechas) {
+                suma += LocalDate.parse(fecha, DateTimeFormatter.ISO_LOCAL_DATE).toEpochDay();
+            }
+            return suma;
+        });
+        Medidor.medir("LocalDate.parse" + sufijo, 10, 50, () -> {
+            long suma = 0;
+            for (String fecha : fechas) {
+                suma += LocalDate.parse(fecha).toEpochDay();
+            }
+            return suma;
+        });
+        Medidor.medir("análisis manual" + sufijo, 10, 50, () -> {
+            long suma = 0;
+            for (String fecha : fechas) {
+                suma += analizar(fecha).toEpochDay();
+            }
+            return suma;
+        });
+        Medidor.medir("LocalDate.ofEpochDay" + sufijo, 10, 50, () -> {
+            long suma = 0;
+            for (long dia : dias) {
+                suma += LocalDate.ofEpochDay(dia).getDayOfMonth();
+            }
+            return suma;
+        });
+        Medidor.medir("CodecFecha.decodificar" + sufijo, 10, 50, () -> {
+            long suma = 0;
+            for (long dia : dias) {
+                suma += CodecFecha.decodificar(dia).getDayOfMonth();
+            }
+            return suma;
+        });
+    }
+
+    /**
+     * Análisis directo del formato fijo yyyy-MM-dd; LocalDate.of sigue validando el día
+     */
+    private static LocalDate analizar(String fecha) {
+        int anio = digitos(fecha, 0, 4);
+        int mes = digitos(fecha, 5, 7);
+        int dia = digitos(fecha, 8, 10);
+        return LocalDate.of(anio, mes, dia);
+    }
+
+    private static int digitos(String texto, int desde, int hasta) {
+        int valor = 0;
+        for (int i = desde; i < hasta; i++) {
+            valor = valor * 10 + (texto.charAt(i) - '0');
+        }
+        return valor;
+    }
+}
@@ -0,0 +1,184 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Instantáneas del historial: crea una de la base sintética de {@code filas} series
+ * mientras otro hilo sigue insertando, la verifica, la restaura en una base nueva y
+ * compara ambas (series y agregados). Después comprueba que una instantánea con un byte
+ * cambiado se rechaza sin tocar la base de datos, y mide como referencia la inserción
+ * serie a serie con insertarEjercicio.
+ *
+ * Uso: bench/ejecutar.sh BenchInstantanea [filas]
+ */
+public class BenchInstantanea {
+    private static final String HUELLA_SERIES = "SELECT COUNT(*), TOTAL(id), TOTAL(ejercicio_id), "
+            + "TOTAL(peso * repeticiones), TOTAL(fecha), COUNT(fecha) FROM series";
+    private static final String HUELLA_AGREGADOS = "SELECT (SELECT TOTAL(volumen_total) + TOTAL(total_series) "
+            + "+ TOTAL(ultima_serie_id) + TOTAL(ultima_fecha) + TOTAL(peso_maximo) + TOTAL(repeticiones_maximas) "
+            + "+ TOTAL(mejor_1rm) FROM agregados_ejercicio), (SELECT TOTAL(volumen) FROM volumen_diario), "
+            + "(SELECT TOTAL(volumen) FROM volumen_semanal), (SELECT COUNT(*) FROM catalogo_ejercicios)";
+    private static final int FILAS_SERIE_A_SERIE = 20_000;
+
+    public static void main(String[] args) throws Exception {
+        int filas = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        Path directorio = Paths.get("build", "bench-instantanea");
+        Files.createDirectories(directorio);
+
+        // Se trabaja sobre una copia para no ensuciar la base sintética compartida
+        DatabaseManager generada = GeneradorDatos.preparar(filas);
+        String rutaGenerada = generada.getRutaBaseDatos();
+        generada.cerrar();
+        String rutaOrigen = directorio.resolve("origen.db").toString();
+        borrarBase(rutaOrigen);
+        for (String sufijo : new String[] { "", "-wal" }) {
+            if (Files.exists(Paths.get(rutaGenerada + sufijo))) {
+                Files.copy(Paths.get(rutaGenerada + sufijo), Paths.get(rutaOrigen + sufijo));
+            }
+        }
+        DatabaseManager origen = new DatabaseManager(rutaOrigen);
+        origen.initializeDatabase();
+        EjercicioDAO daoOrigen = new EjercicioDAO(origen);
+        InstantaneaSeries instantaneas = new InstantaneaSeries(daoOrigen, origen);
+        Path fichero = directorio.resolve("gymtracker-" + filas + ".gts");
+        long bytesBase = Files.size(Paths.get(rutaOrigen));
+
+        // Instantánea en caliente: un hilo inserta series mientras se crea
+        AtomicBoolean escribiendo = new AtomicBoolean(true);
+        AtomicLong insertadasDurante = new AtomicLong();
+        Thread escritor = new Thread(() -> {
+            while (escribiendo.get()) {
+                if (daoOrigen.insertarEjercicio(new Ejercicio("Instantánea", "Pruebas", 50, 5, LocalDate.now()))) {
+                    insertadasDurante.incrementAndGet();
+                }
+            }
+        });
+        escritor.start();
+        long inicio = System.nanoTime();
+        InstantaneaSeries.Resumen creada = instantaneas.crear(fichero);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        escribiendo.set(false);
+        escritor.join();
+        System.out.printf(Locale.ROOT, "crear:      %s%n            %.1f s (%.0f filas/s), %.1f bytes/serie, "
+                + "%.1f%% de la base de datos (%d MB); %d series insertadas a la vez%n", creada, segundos,
+                creada.getFilas() / segundos, (double) creada.getBytes() / creada.getFilas(),
+                100.0 * creada.getBytes() / bytesBase, bytesBase >> 20, insertadasDurante.get());
+        if (creada.getFilas() < filas) {
+            throw new IllegalStateException("La instantánea tiene menos series que la base de datos");
+        }
+
+        inicio = System.nanoTime();
+        InstantaneaSeries.Resumen verificada = instantaneas.verificar(fichero);
+        segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf(Locale.ROOT, "verificar:  %.1f s (%.0f filas/s)%n", segundos, verificada.getFilas() / segundos);
+
+        // La base de origen sin las series insertadas durante la instantánea, para comparar
+        borrarInsertadasDespues(origen, creada.getFilas());
+
+        String rutaDestino = directorio.resolve("restaurada.db").toString();
+        borrarBase(rutaDestino);
+        DatabaseManager destino = new DatabaseManager(rutaDestino);
+        destino.initializeDatabase();
+        InstantaneaSeries restauracion = new InstantaneaSeries(new EjercicioDAO(destino), destino);
+        inicio = System.nanoTime();
+        InstantaneaSeries.Resumen restaurada = restauracion.restaurar(fichero);
+        segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf(Locale.ROOT, "restaurar:  %.1f s (%.0f filas/s)%n", segundos, restaurada.getFilas() / segundos);
+
+        String huellaOrigen = huella(origen);
+        String huellaDestino = huella(destino);
+        System.out.println("origen:     " + huellaOrigen);
+        System.out.println("restaurada: " + huellaDestino);
+        if (!huellaOrigen.equals(huellaDestino)) {
+            throw new IllegalStateException("La base restaurada no coincide con la de origen");
+        }
+
+        // Un byte cambiado en mitad del fichero: se rechaza y la base restaurada sigue igual
+        Path danada = directorio.resolve("danada.gts");
+        Files.copy(fichero, danada, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        try (RandomAccessFile acceso = new RandomAccessFile(danada.toFile(), "rw")) {
+            long posicion = acceso.length() / 2;
+            acceso.seek(posicion);
+            int valor = acceso.read();
+            acceso.seek(posicion);
+            acceso.write(valor ^ 0x10);
+        }
+        try {
+            restauracion.restaurar(danada);
+            throw new IllegalStateException("Se restauró una instantánea dañada");
+        } catch (IOException e) {
+            boolean intacta = huella(destino).equals(huellaDestino);
+            System.out.println("dañada:     rechazada (" + e.getMessage() + "), base "
+                    + (intacta ? "intacta" : "MODIFICADA"));
+            if (!intacta) {
+                System.exit(1);
+            }
+        }
+        Files.delete(danada);
+
+        // Referencia: insertarEjercicio serie a serie (una transacción por serie)
+        String rutaSerieASerie = directorio.resolve("serie-a-serie.db").toString();
+        borrarBase(rutaSerieASerie);
+        DatabaseManager serieASerie = new DatabaseManager(rutaSerieASerie);
+        serieASerie.initializeDatabase();
+        EjercicioDAO daoSerieASerie = new EjercicioDAO(serieASerie);
+        inicio = System.nanoTime();
+        for (int i = 0; i < FILAS_SERIE_A_SERIE; i++) {
+            daoSerieASerie.insertarEjercicio(new Ejercicio(GeneradorDatos.NOMBRES[i % GeneradorDatos.NOMBRES.length],
+                    GeneradorDatos.GRUPOS[i % GeneradorDatos.GRUPOS.length], 60, 8, LocalDate.of(2020, 1, 1)));
+        }
+        segundos = (System.nanoTime() - inicio) / 1e9;
+        double porSegundo = FILAS_SERIE_A_SERIE / segundos;
+        System.out.printf(Locale.ROOT, "insertarEjercicio: %.0f filas/s, %d series tardarían unos %.0f s%n",
+                porSegundo, restaurada.getFilas(), restaurada.getFilas() / porSegundo);
+
+        serieASerie.cerrar();
+        destino.cerrar();
+        origen.cerrar();
+    }
+
+    private static void borrarInsertadasDespues(DatabaseManager dbManager, long filas) throws Exception {
+        dbManager.escribir(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DELETE FROM series WHERE id > (SELECT id FROM series ORDER BY id "
+                        + "LIMIT 1 OFFSET " + (filas - 1) + ")");
+                statement.execute("DELETE FROM catalogo_ejercicios WHERE id NOT IN "
+                        + "(SELECT DISTINCT ejercicio_id FROM series)");
+            }
+            return null;
+        });
+        new AgregadosDAO(dbManager).reconstruir();
+    }
+
+    private static String huella(DatabaseManager dbManager) throws SQLException, ClassNotFoundException {
+        StringBuilder huella = new StringBuilder();
+        try (Connection connection = dbManager.getConnection();
+                Statement statement = connection.createStatement()) {
+            for (String sql : new String[] { HUELLA_SERIES, HUELLA_AGREGADOS }) {
+                try (ResultSet rs = statement.executeQuery(sql)) {
+                    rs.next();
+                    for (int i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
+                        huella.append(huella.length() > 0 ? " " : "").append(rs.getString(i));
+                    }
+                }
+            }
+        }
+        return huella.toString();
+    }
+
+    private static void borrarBase(String ruta) throws IOException {
+        for (String sufijo : new String[] { "", "-wal", "-shm" }) {
+            Files.deleteIfExists(Paths.get(ruta + sufijo));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Importación y exportación en streaming: genera un CSV y un JSON sintéticos de
+ * {@code filas} series (con un 0,1% de filas no válidas), los importa en bases de datos
+ * nuevas y vuelve a exportarlos, informando de filas por segundo y del máximo de memoria
+ * usada observado. Con un -Xmx pequeño se comprueba que la memoria no crece con el fichero.
+ *
+ * Uso: JAVA_OPTS=-Xmx64m bench/ejecutar.sh BenchIntercambio [filas]
+ */
+public class BenchIntercambio {
+    private static final String[] NOMBRES = { "Press de Banca", "Sentadilla", "Peso Muerto", "Remo con Barra",
+            "Press Militar", "Dominadas", "Curl \"Martillo\"", "Fondos, en paralelas" };
+    private static final String[] GRUPOS = { "Pecho", "Piernas", "Espalda", "Espalda", "Hombros", "Espalda",
+            "Bíceps", "Tríceps" };
+
+    public static void main(String[] args) throws Exception {
+        long filas = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        Path directorio = Paths.get("build", "bench-intercambio");
+        Files.createDirectories(directorio);
+
+        for (IntercambioSeries.Formato formato : IntercambioSeries.Formato.values()) {
+            String extension = formato.name().toLowerCase(Locale.ROOT);
+            Path origen = directorio.resolve("origen." + extension);
+            if (!Files.exists(origen) || Files.size(origen) == 0) {
+                generar(origen, formato, filas);
+            }
+
+            String rutaBaseDatos = directorio.resolve("importada-" + extension + ".db").toString();
+            for (String sufijo : new String[] { "", "-wal", "-shm" }) {
+                Files.deleteIfExists(Paths.get(rutaBaseDatos + sufijo));
+            }
+            DatabaseManager dbManager = new DatabaseManager(rutaBaseDatos);
+            dbManager.initializeDatabase();
+            IntercambioSeries intercambio = new IntercambioSeries(new EjercicioDAO(dbManager));
+
+            MedidorMemoria memoria = new MedidorMemoria();
+            long inicio = System.nanoTime();
+            IntercambioSeries.ResultadoImportacion resultado = intercambio.importar(origen);
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            System.out.printf(Locale.ROOT, "importar %-4s %6.0f MB: %s en %.1f s (%.0f filas/s), memoria máx. %d MB%n",
+                    extension, Files.size(origen) / 1e6, resultado, segundos, resultado.getLeidas() / segundos,
+                    memoria.detener());
+
+            Path destino = directorio.resolve("exportada." + extension);
+            memoria = new MedidorMemoria();
+            inicio = System.nanoTime();
+            long exportadas = intercambio.exportar(destino);
+            segundos = (System.nanoTime() - inicio) / 1e9;
+            System.out.printf(Locale.ROOT, "exportar %-4s %6.0f MB: %d series en %.1f s (%.0f filas/s), memoria máx. %d MB%n",
+                    extension, Files.size(destino) / 1e6, exportadas, segundos, exportadas / segundos,
+                    memoria.detener());
+            dbManager.cerrar();
+        }
+    }
+
+    private static void generar(Path fichero, IntercambioSeries.Formato formato, long filas) throws IOException {
+        Random random = new Random(42);
+        LocalDate inicio = LocalDate.of(2015, 1, 1);
+        boolean json = formato == IntercambioSeries.Formato.JSON;
+        try (BufferedWriter escritor = Files.newBufferedWriter(fichero, StandardCharsets.UTF_8)) {
+            escritor.write(json ? "[\n" : "nombre,grupo_muscular,peso,repeticiones,fecha\n");
+            for (long i = 0; i < filas; i++) {
+                int e = random.nextInt(NOMBRES.length);
+                double peso = 20 + random.nextInt(400) / 2.0;
+                // Una de cada mil filas sin repeticiones válidas
+                int repeticiones = i % 1000 == 999 ? 0 : 1 + random.nextInt(15);
+                String fecha = i % 50 == 0 ? "" : inicio.plusDays(i / 40).toString();
+                if (json) {
+                    StringBuilder objeto = new StringBuilder(i > 0 ? ",\n" : "").append("{\"nombre\":");
+                    Json.escribirCadena(NOMBRES[e], objeto);
+                    objeto.append(",\"grupoMuscular\":\"").append(GRUPOS[e]).append("\",\"peso\":").append(peso)
+                            .append(",\"repeticiones\":").append(repeticiones).append(",\"fecha\":")
+                            .append(fecha.isEmpty() ? "null" : "\"" + fecha + "\"").append('}');
+                    escritor.append(objeto);
+                } else {
+                    String nombre = NOMBRES[e].indexOf(',') >= 0 || NOMBRES[e].indexOf('"') >= 0
+                            ? "\"" + NOMBRES[e].replace("\"", "\"\"") + "\"" : NOMBRES[e];
+                    escritor.append(nombre).append(',').append(GRUPOS[e]).append(',')
+                            .append(Double.toString(peso)).append(',').append(Integer.toString(repeticiones))
+                            .append(',').append(fecha).append('\n');
+                }
+            }
+            if (json) {
+                escritor.write("\n]\n");
+            }
+        }
+    }
+
+    /**
+     * Muestrea el heap usado cada 50 ms en un hilo aparte
+     */
+    private static final class MedidorMemoria {
+        private volatile boolean activo = true;
+        private volatile long maximo;
+        private final Thread hilo;
+
+        MedidorMemoria() {
+            System.gc();
+            hilo = new Thread(() -> {
+                Runtime runtime = Runtime.getRuntime();
+                while (activo) {
+                    maximo = Math.max(maximo, runtime.totalMemory() - runtime.freeMemory());
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+            hilo.setDaemon(true);
+            hilo.start();
+        }
+
+        long detener() throws InterruptedException {
+            activo = false;
+            hilo.join();
+            return maximo / (1024 * 1024);
+        }
+    }
+}
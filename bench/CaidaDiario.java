@@ -0,0 +1,169 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Prueba de caídas del diario de series. En cada ronda arranca un proceso hijo que abre
+ * la base de datos y el diario (volcando lo que dejó la ronda anterior) y apunta series
+ * sin parar mientras el hilo de volcado las pasa a SQLite; a un tiempo aleatorio el
+ * padre lo mata con SIGKILL, casi siempre con un lote a medio volcar.
+ *
+ * Cada serie lleva un peso único y el hijo informa de las que registrar() confirmó. Al
+ * final el padre abre el diario una última vez y comprueba que todas las confirmadas
+ * están en series exactamente una vez (las que no llegó a confirmar pueden estar o no,
+ * pero tampoco repetidas). Termina con código 1 si falta o sobra alguna.
+ *
+ * El hijo apunta ráfagas de {@code rafaga} series cada 2 ms. Con 50 el volcado va a la
+ * par y el diario se vacía a menudo; con más (p. ej. 100) casi nunca se vacía y las
+ * muertes caen también durante la compactación del diario.
+ *
+ * Uso: bench/ejecutar.sh CaidaDiario [rondas] [sincronizacion] [rafaga]
+ */
+public class CaidaDiario {
+    private static final String NOMBRE = "Caída Diario";
+    private static final String GRUPO = "Pruebas";
+    private static final int SERIES_POR_RONDA = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--hijo")) {
+            hijo(args[1], Long.parseLong(args[2]), args[3], Integer.parseInt(args[4]));
+            return;
+        }
+
+        int rondas = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        String sincronizacion = args.length > 1 ? args[1] : "nunca";
+        int rafaga = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        Path directorio = Paths.get("build", "bench-diario");
+        Files.createDirectories(directorio);
+        String rutaBaseDatos = directorio.resolve("caida.db").toString();
+        for (String sufijo : new String[] { "", "-wal", "-shm", ".diario" }) {
+            Files.deleteIfExists(Paths.get(rutaBaseDatos + sufijo));
+        }
+
+        Set<Long> confirmadas = new HashSet<>();
+        long recuperadas = 0;
+        Random random = new Random(7);
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+        for (int ronda = 0; ronda < rondas; ronda++) {
+            Process hijo = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    "CaidaDiario", "--hijo", rutaBaseDatos, String.valueOf((long) ronda * SERIES_POR_RONDA),
+                    sincronizacion, String.valueOf(rafaga)).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+
+            Thread lector = new Thread(() -> leerHijo(hijo, confirmadas));
+            lector.start();
+            // Hasta que abre el diario (y la JVM arranca) no hay nada que matar
+            synchronized (confirmadas) {
+                while (hijo.isAlive() && !listo) {
+                    confirmadas.wait(100);
+                }
+                listo = false;
+            }
+            Thread.sleep(100 + random.nextInt(900));
+            hijo.destroyForcibly().waitFor();
+            lector.join();
+            recuperadas += recuperadasRonda;
+            System.out.printf("ronda %2d: %d confirmadas en total, %d pendientes al abrir%n", ronda + 1,
+                    confirmadas.size(), recuperadasRonda);
+        }
+
+        // Último arranque: vuelca lo que dejó la última ronda y comprueba
+        DatabaseManager dbManager = new DatabaseManager(rutaBaseDatos);
+        DiarioSeries diario = new DiarioSeries(Paths.get(rutaBaseDatos + ".diario"), new EjercicioDAO(dbManager),
+                dbManager, DiarioSeries.Sincronizacion.NUNCA);
+        diario.abrir();
+        recuperadas += diario.getPendientes();
+        diario.esperarVolcado(60_000);
+        diario.cerrar();
+
+        Set<Long> enBaseDatos = new HashSet<>();
+        long repetidas = 0;
+        try (Connection connection = dbManager.getConnection();
+                PreparedStatement pstmt = connection.prepareStatement(
+                        "SELECT s.peso FROM series s JOIN catalogo_ejercicios c ON c.id = s.ejercicio_id " +
+                        "WHERE c.nombre = ?")) {
+            pstmt.setString(1, NOMBRE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if (!enBaseDatos.add((long) rs.getDouble(1))) {
+                        repetidas++;
+                    }
+                }
+            }
+        }
+        dbManager.cerrar();
+
+        long perdidas = confirmadas.stream().filter(peso -> !enBaseDatos.contains(peso)).count();
+        System.out.printf("%d rondas: %d series confirmadas, %d en la base de datos, %d recuperadas del diario "
+                + "al arrancar; %d perdidas, %d repetidas%n", rondas, confirmadas.size(), enBaseDatos.size(),
+                recuperadas, perdidas, repetidas);
+        if (perdidas > 0 || repetidas > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean listo;
+    private static long recuperadasRonda;
+
+    private static void leerHijo(Process hijo, Set<Long> confirmadas) {
+        try (BufferedReader lector = new BufferedReader(
+                new InputStreamReader(hijo.getInputStream(), StandardCharsets.UTF_8))) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                synchronized (confirmadas) {
+                    if (linea.startsWith("pendientes ")) {
+                        recuperadasRonda = Long.parseLong(linea.substring(11));
+                        listo = true;
+                        confirmadas.notifyAll();
+                    } else if (!linea.isEmpty() && Character.isDigit(linea.charAt(0))) {
+                        confirmadas.add(Long.parseLong(linea));
+                    }
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // El hijo muere a mitad de una línea: esa serie simplemente no cuenta como confirmada
+        }
+    }
+
+    /**
+     * Proceso hijo: abre el diario y registra series hasta que lo matan, escribiendo el
+     * peso de cada una después de que registrar() la confirme
+     */
+    private static void hijo(String rutaBaseDatos, long primera, String sincronizacion, int rafaga)
+            throws Exception {
+        System.setProperty("gymtracker.diario.sincronizacion", sincronizacion);
+        PrintStream salida = new PrintStream(System.out, false, "UTF-8");
+        DatabaseManager dbManager = new DatabaseManager(rutaBaseDatos);
+        dbManager.initializeDatabase();
+        DiarioSeries diario = new DiarioSeries(Paths.get(rutaBaseDatos + ".diario"), new EjercicioDAO(dbManager),
+                dbManager, DiarioSeries.Sincronizacion.desdePropiedad());
+        diario.abrir();
+        salida.println("pendientes " + diario.getPendientes());
+        salida.flush();
+
+        LocalDate fecha = LocalDate.of(2024, 1, 1);
+        for (long peso = primera; peso < primera + SERIES_POR_RONDA; peso++) {
+            if (diario.registrar(new Ejercicio(NOMBRE, GRUPO, peso, 1, fecha))) {
+                salida.println(peso);
+            }
+            if (peso % rafaga == 0) {
+                salida.flush();
+                Thread.sleep(2);
+            }
+        }
+        salida.flush();
+    }
+}
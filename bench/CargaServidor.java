@@ -0,0 +1,226 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Prueba de carga del servidor HTTP: varios clientes concurrentes con conexiones
+ * keep-alive reparten peticiones entre varios usuarios durante un tiempo fijo (70%
+ * páginas de historial, 20% listas de nombres, 10% inserciones) e informa de las
+ * peticiones por segundo sostenidas y de la latencia (mediana, p99 y p99.9).
+ *
+ * Sin URL arranca un ServidorHttp en el mismo proceso sobre build/bench-servidor, con
+ * cada usuario precargado con un historial; con URL ataca un servidor ya arrancado
+ * (Main --servidor), cuyos usuarios deben existir ya.
+ *
+ * Uso: bench/ejecutar.sh CargaServidor [usuarios] [clientes] [segundos] [url]
+ */
+public class CargaServidor {
+    private static final String[] NOMBRES = { "Press de Banca", "Sentadilla", "Peso Muerto", "Remo con Barra",
+            "Press Militar", "Dominadas" };
+    private static final String[] GRUPOS = { "Pecho", "Piernas", "Espalda", "Espalda", "Hombros", "Espalda" };
+    private static final int SERIES_POR_USUARIO = 2000;
+    private static final int SEGUNDOS_CALENTAMIENTO = 3;
+
+    public static void main(String[] args) throws Exception {
+        int usuarios = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int clientes = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int segundos = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        ServidorHttp servidor = null;
+        String base;
+        if (args.length > 3) {
+            base = args[3].replaceAll("/$", "");
+        } else {
+            Path directorio = Paths.get("build", "bench-servidor");
+            borrar(directorio);
+            servidor = new ServidorHttp(0, directorio);
+            servidor.iniciar();
+            base = "http://localhost:" + servidor.getPuerto();
+            for (int u = 0; u < usuarios; u++) {
+                precargar(base, "usuario" + u);
+            }
+        }
+
+        try {
+            // Calentamiento para el JIT y las cachés; no cuenta en el resultado
+            ejecutar(base, usuarios, clientes, SEGUNDOS_CALENTAMIENTO);
+            Resultado resultado = ejecutar(base, usuarios, clientes, segundos);
+            resultado.imprimir(usuarios, clientes, segundos);
+        } finally {
+            if (servidor != null) {
+                servidor.detener(1);
+            }
+        }
+    }
+
+    private static final class Resultado {
+        final long[] latencias;
+        final long errores;
+
+        Resultado(long[] latencias, long errores) {
+            this.latencias = latencias;
+            this.errores = errores;
+        }
+
+        void imprimir(int usuarios, int clientes, int segundos) {
+            Arrays.sort(latencias);
+            System.out.printf(Locale.ROOT, "%d usuarios, %d clientes, %d s: %d peticiones, %.0f pet/s, %d errores%n",
+                    usuarios, clientes, segundos, latencias.length, latencias.length / (double) segundos, errores);
+            System.out.printf(Locale.ROOT, "latencia: mediana %.2f ms   p99 %.2f ms   p99.9 %.2f ms   máx %.2f ms%n",
+                    percentil(0.50), percentil(0.99), percentil(0.999),
+                    latencias.length > 0 ? latencias[latencias.length - 1] / 1e6 : 0);
+        }
+
+        double percentil(double p) {
+            if (latencias.length == 0) {
+                return 0;
+            }
+            return latencias[Math.min(latencias.length - 1, (int) Math.ceil(latencias.length * p) - 1)] / 1e6;
+        }
+    }
+
+    private static Resultado ejecutar(String base, int usuarios, int clientes, int segundos) throws Exception {
+        long fin = System.nanoTime() + segundos * 1_000_000_000L;
+        long[][] porCliente = new long[clientes][];
+        AtomicLong errores = new AtomicLong();
+        CountDownLatch terminados = new CountDownLatch(clientes);
+
+        for (int c = 0; c < clientes; c++) {
+            int cliente = c;
+            Thread hilo = new Thread(() -> {
+                Random random = new Random(cliente);
+                long[] latencias = new long[1024];
+                int n = 0;
+                while (System.nanoTime() < fin) {
+                    String usuario = "usuario" + random.nextInt(usuarios);
+                    int ejercicio = random.nextInt(NOMBRES.length);
+                    int tipo = random.nextInt(10);
+                    long inicio = System.nanoTime();
+                    try {
+                        int codigo;
+                        if (tipo < 7) {
+                            codigo = peticion("GET", base + "/usuarios/" + usuario + "/ejercicios/"
+                                    + codificar(NOMBRES[ejercicio]) + "/series?limite=50", null);
+                        } else if (tipo < 9) {
+                            codigo = peticion("GET", base + "/usuarios/" + usuario + "/ejercicios", null);
+                        } else {
+                            codigo = peticion("POST", base + "/usuarios/" + usuario + "/series",
+                                    serie(ejercicio, 40 + random.nextInt(60), 1 + random.nextInt(12),
+                                            LocalDate.now()));
+                        }
+                        if (codigo >= 400) {
+                            errores.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        errores.incrementAndGet();
+                    }
+                    if (n == latencias.length) {
+                        latencias = Arrays.copyOf(latencias, n * 2);
+                    }
+                    latencias[n++] = System.nanoTime() - inicio;
+                }
+                porCliente[cliente] = Arrays.copyOf(latencias, n);
+                terminados.countDown();
+            }, "carga-" + c);
+            hilo.start();
+        }
+        terminados.await();
+
+        int total = 0;
+        for (long[] latencias : porCliente) {
+            total += latencias.length;
+        }
+        long[] todas = new long[total];
+        int posicion = 0;
+        for (long[] latencias : porCliente) {
+            System.arraycopy(latencias, 0, todas, posicion, latencias.length);
+            posicion += latencias.length;
+        }
+        return new Resultado(todas, errores.get());
+    }
+
+    /**
+     * Historial inicial de un usuario en un único lote
+     */
+    private static void precargar(String base, String usuario) throws IOException {
+        Random random = new Random(usuario.hashCode());
+        StringBuilder lote = new StringBuilder("[");
+        LocalDate primerDia = LocalDate.of(2020, 1, 1);
+        for (int i = 0; i < SERIES_POR_USUARIO; i++) {
+            if (i > 0) {
+                lote.append(',');
+            }
+            lote.append(serie(random.nextInt(NOMBRES.length), 40 + random.nextInt(60), 1 + random.nextInt(12),
+                    primerDia.plusDays(i / 6)));
+        }
+        lote.append(']');
+        int codigo = peticion("POST", base + "/usuarios/" + usuario + "/series", lote.toString());
+        if (codigo != 201) {
+            throw new IOException("No se pudo precargar " + usuario + " (HTTP " + codigo + ")");
+        }
+    }
+
+    private static String serie(int ejercicio, double peso, int repeticiones, LocalDate fecha) {
+        return String.format(Locale.ROOT,
+                "{\"nombre\":\"%s\",\"grupoMuscular\":\"%s\",\"peso\":%.1f,\"repeticiones\":%d,\"fecha\":\"%s\"}",
+                NOMBRES[ejercicio], GRUPOS[ejercicio], peso, repeticiones, fecha);
+    }
+
+    /**
+     * Hace la petición y lee la respuesta entera para que la conexión vuelva al keep-alive
+     */
+    private static int peticion(String metodo, String url, String cuerpo) throws IOException {
+        HttpURLConnection conexion = (HttpURLConnection) new URL(url).openConnection();
+        conexion.setRequestMethod(metodo);
+        if (cuerpo != null) {
+            conexion.setDoOutput(true);
+            conexion.setRequestProperty("Content-Type", "application/json; charset=utf-8");
+            try (OutputStream salida = conexion.getOutputStream()) {
+                salida.write(cuerpo.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int codigo = conexion.getResponseCode();
+        try (InputStream entrada = codigo >= 400 ? conexion.getErrorStream() : conexion.getInputStream()) {
+            if (entrada != null) {
+                ByteArrayOutputStream descarte = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int leidos;
+                while ((leidos = entrada.read(buffer)) != -1) {
+                    descarte.write(buffer, 0, leidos);
+                }
+            }
+        }
+        return codigo;
+    }
+
+    private static String codificar(String texto) throws IOException {
+        return URLEncoder.encode(texto, "UTF-8").replace("+", "%20");
+    }
+
+    private static void borrar(Path directorio) throws IOException {
+        if (!Files.exists(directorio)) {
+            return;
+        }
+        try (Stream<Path> rutas = Files.walk(directorio)) {
+            for (Path ruta : (Iterable<Path>) rutas.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(ruta);
+            }
+        }
+    }
+}
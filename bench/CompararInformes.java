@@ -0,0 +1,69 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compara dos informes de benchmarks (líneas "nombre\tmediana\tp95" escritas por Medidor)
+ * caso a caso por la mediana y marca las regresiones que superan el umbral. Termina con
+ * código 1 si hay alguna, para poder usarlo en scripts.
+ *
+ * Uso: java CompararInformes base.tsv nuevo.tsv [umbral %, por defecto 10]
+ */
+public class CompararInformes {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: CompararInformes base.tsv nuevo.tsv [umbral %]");
+            System.exit(2);
+        }
+        Map<String, Double> base = leer(args[0]);
+        Map<String, Double> nuevo = leer(args[1]);
+        double umbral = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+
+        int regresiones = 0;
+        System.out.printf(Locale.ROOT, "%-45s %12s %12s %9s%n", "caso", "base (us)", "nuevo (us)", "cambio");
+        for (Map.Entry<String, Double> entrada : nuevo.entrySet()) {
+            Double anterior = base.get(entrada.getKey());
+            if (anterior == null) {
+                System.out.printf(Locale.ROOT, "%-45s %12s %12.1f %9s%n", entrada.getKey(), "-", entrada.getValue(),
+                        "nuevo");
+                continue;
+            }
+            double cambio = (entrada.getValue() - anterior) * 100 / anterior;
+            boolean regresion = cambio > umbral;
+            if (regresion) {
+                regresiones++;
+            }
+            System.out.printf(Locale.ROOT, "%-45s %12.1f %12.1f %+8.1f%%%s%n", entrada.getKey(), anterior,
+                    entrada.getValue(), cambio, regresion ? "  REGRESIÓN" : "");
+        }
+        for (String caso : base.keySet()) {
+            if (!nuevo.containsKey(caso)) {
+                System.out.printf(Locale.ROOT, "%-45s %12.1f %12s %9s%n", caso, base.get(caso), "-", "eliminado");
+            }
+        }
+
+        System.out.printf(Locale.ROOT, "%d regresiones por encima del %.0f%%%n", regresiones, umbral);
+        if (regresiones > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Mediana por caso; si un caso aparece varias veces se queda la última
+     */
+    private static Map<String, Double> leer(String fichero) throws IOException {
+        Map<String, Double> medianas = new LinkedHashMap<>();
+        for (String linea : Files.readAllLines(Paths.get(fichero), StandardCharsets.UTF_8)) {
+            String[] campos = linea.split("\t");
+            if (campos.length >= 2) {
+                medianas.put(campos[0], Double.parseDouble(campos[1]));
+            }
+        }
+        return medianas;
+    }
+}
@@ -0,0 +1,87 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cuenta las sentencias que lanza la pantalla de detalle: abrir un ejercicio
+ * (DetalleEjercicioModelo.cargar) sobre las bases sintéticas de 1k y 100k series, y
+ * guardar una serie nueva (insertarEjercicio + agregar). Falla (código 1) si abrir el
+ * detalle lanza más de SENTENCIAS_MAXIMAS sentencias (total, id del catálogo y los dos
+ * tramos de la primera página, con y sin fecha), si alguna lectura de series no está
+ * acotada (sin LIMIT ni COUNT) o si guardar vuelve a leer el historial.
+ *
+ * Uso: bench/ejecutar.sh ConsultasDetalle
+ */
+public class ConsultasDetalle {
+    private static final int[] TAMANOS = { 1_000, 100_000 };
+    private static final int SENTENCIAS_MAXIMAS = 4;
+
+    public static void main(String[] args) throws Exception {
+        boolean correcto = true;
+
+        for (int filas : TAMANOS) {
+            DatabaseManager dbManager = GeneradorDatos.preparar(filas);
+            EjercicioDAO dao = new EjercicioDAO(dbManager);
+            String nombre = GeneradorDatos.NOMBRES[0];
+            List<String> sentencias = new ArrayList<>();
+            dbManager.observarSentencias(sql -> {
+                synchronized (sentencias) {
+                    sentencias.add(sql.replaceAll("\\s+", " "));
+                }
+            });
+
+            DetalleEjercicioModelo modelo = DetalleEjercicioModelo.cargar(dao, nombre, HistorialTableModel.TAMANO_PAGINA);
+            List<String> alAbrir = copiar(sentencias);
+            System.out.printf("%,d series, abrir \"%s\" (%d registros): %d sentencias%n", filas, nombre,
+                    modelo.getTotal(), alAbrir.size());
+            for (String sql : alAbrir) {
+                boolean acotada = !leeSeries(sql) || sql.contains(" LIMIT ") || sql.startsWith("SELECT COUNT(*)");
+                System.out.println((acotada ? "  ok    " : "  FALLA ") + resumir(sql));
+                correcto &= acotada;
+            }
+            if (alAbrir.size() > SENTENCIAS_MAXIMAS) {
+                System.out.println("FALLA: abrir el detalle lanza más de " + SENTENCIAS_MAXIMAS + " sentencias");
+                correcto = false;
+            }
+
+            // Guardar: la primera página se corrige en memoria sin volver a leer series
+            Ejercicio nueva = new Ejercicio(nombre, modelo.getGrupoMuscular(), 100, 5, LocalDate.of(2100, 1, 1));
+            sentencias.clear();
+            if (!dao.insertarEjercicio(nueva)) {
+                throw new IllegalStateException("No se pudo insertar la serie de prueba");
+            }
+            modelo.agregar(nueva);
+            List<String> alGuardar = copiar(sentencias);
+            long lecturas = alGuardar.stream().filter(sql -> sql.startsWith("SELECT") && leeSeries(sql)).count();
+            System.out.printf("  guardar: %d sentencias, %d lecturas de series, último registro id %d%n",
+                    alGuardar.size(), lecturas, modelo.getUltimoRegistro().getId());
+            if (lecturas > 0 || modelo.getUltimoRegistro() != nueva) {
+                System.out.println("FALLA: guardar vuelve a leer el historial o no actualiza el modelo");
+                correcto = false;
+            }
+
+            dbManager.observarSentencias(null);
+            // La base sintética se comparte con otros benchmarks: se deja con las mismas filas
+            dao.eliminarEjercicio(nueva.getId());
+            dbManager.cerrar();
+        }
+
+        if (!correcto) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean leeSeries(String sql) {
+        return sql.contains("FROM series");
+    }
+
+    private static List<String> copiar(List<String> sentencias) {
+        synchronized (sentencias) {
+            return new ArrayList<>(sentencias);
+        }
+    }
+
+    private static String resumir(String sql) {
+        return sql.length() > 150 ? sql.substring(0, 147) + "..." : sql;
+    }
+}
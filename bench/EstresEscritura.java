@@ -0,0 +1,174 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Muchos hilos insertando series a la vez sobre una base de datos nueva, de dos formas:
+ *
+ *  - directo: cada hilo abre su propia transacción en una conexión del pool, como hacía
+ *    insertarEjercicio antes de la cola (lee el catálogo y después escribe). Las
+ *    transacciones compiten por el único escritor de SQLite y algunas fallan con SQLITE_BUSY.
+ *  - cola: EjercicioDAO.insertarEjercicio, que pasa por el hilo escritor de DatabaseManager
+ *    y confirma juntas las escrituras que llegan a la vez.
+ *
+ * Informa de las inserciones por segundo, los errores y el tamaño medio de cada commit.
+ *
+ * Uso: bench/ejecutar.sh EstresEscritura [hilos] [inserciones por hilo]
+ */
+public class EstresEscritura {
+    private static final String[] NOMBRES = { "Press de Banca", "Sentadilla", "Peso Muerto", "Remo con Barra" };
+    private static final String[] GRUPOS = { "Pecho", "Piernas", "Espalda", "Espalda" };
+
+    private interface Insercion {
+        boolean insertar(Ejercicio ejercicio) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int hilos = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int porHilo = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        Path directorio = Paths.get("build", "bench-escritura");
+        Files.createDirectories(directorio);
+
+        for (String modo : new String[] { "directo", "cola" }) {
+            Path fichero = directorio.resolve(modo + ".db");
+            borrar(fichero);
+            DatabaseManager dbManager = new DatabaseManager(fichero.toString());
+            dbManager.initializeDatabase();
+            EjercicioDAO dao = new EjercicioDAO(dbManager);
+
+            Insercion insercion = modo.equals("cola") ? dao::insertarEjercicio
+                    : ejercicio -> insertarDirecto(dbManager, dao.getAgregadosDAO(), ejercicio);
+            ejecutar(modo, dbManager, insercion, hilos, porHilo);
+            dbManager.cerrar();
+        }
+    }
+
+    private static void ejecutar(String modo, DatabaseManager dbManager, Insercion insercion, int hilos,
+            int porHilo) throws InterruptedException {
+        AtomicLong correctas = new AtomicLong();
+        AtomicLong ocupada = new AtomicLong();
+        AtomicLong otrosErrores = new AtomicLong();
+        CountDownLatch salida = new CountDownLatch(1);
+        CountDownLatch terminados = new CountDownLatch(hilos);
+        long gruposAntes = dbManager.getGruposEscritura();
+        long operacionesAntes = dbManager.getOperacionesEscritura();
+
+        for (int h = 0; h < hilos; h++) {
+            int hilo = h;
+            new Thread(() -> {
+                try {
+                    salida.await();
+                    for (int i = 0; i < porHilo; i++) {
+                        int e = (hilo + i) % NOMBRES.length;
+                        Ejercicio ejercicio = new Ejercicio(NOMBRES[e], GRUPOS[e], 40 + i % 60, 1 + i % 12,
+                                LocalDate.of(2024, 1, 1).plusDays(i % 365));
+                        try {
+                            if (insercion.insertar(ejercicio)) {
+                                correctas.incrementAndGet();
+                            } else {
+                                otrosErrores.incrementAndGet();
+                            }
+                        } catch (SQLException ex) {
+                            if (ex.getMessage() != null && ex.getMessage().contains("SQLITE_BUSY")) {
+                                ocupada.incrementAndGet();
+                            } else {
+                                otrosErrores.incrementAndGet();
+                            }
+                        }
+                    }
+                } catch (Exception ex) {
+                    otrosErrores.incrementAndGet();
+                } finally {
+                    terminados.countDown();
+                }
+            }, "escritor-" + h).start();
+        }
+
+        long inicio = System.nanoTime();
+        salida.countDown();
+        terminados.await();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        long grupos = dbManager.getGruposEscritura() - gruposAntes;
+        long operaciones = dbManager.getOperacionesEscritura() - operacionesAntes;
+        System.out.printf(Locale.ROOT,
+                "%-8s %d hilos x %d: %d correctas en %.2f s (%.0f ins/s), %d SQLITE_BUSY, %d otros errores%s%n",
+                modo, hilos, porHilo, correctas.get(), segundos, correctas.get() / segundos, ocupada.get(),
+                otrosErrores.get(),
+                grupos > 0 ? String.format(Locale.ROOT, ", %d commits (%.1f por commit)", grupos,
+                        operaciones / (double) grupos) : "");
+    }
+
+    /**
+     * insertarEjercicio tal como era antes de la cola: una transacción diferida por hilo
+     * que lee el catálogo antes de escribir. No se reintenta al recibir SQLITE_BUSY.
+     */
+    private static boolean insertarDirecto(DatabaseManager dbManager, AgregadosDAO agregadosDAO,
+            Ejercicio ejercicio) throws Exception {
+        try (Connection connection = dbManager.getConnection()) {
+            connection.setAutoCommit(false);
+
+            int ejercicioId = -1;
+            try (PreparedStatement pstmt = connection.prepareStatement(
+                    "SELECT id FROM catalogo_ejercicios WHERE nombre = ? AND grupo_muscular = ?")) {
+                pstmt.setString(1, ejercicio.getNombre());
+                pstmt.setString(2, ejercicio.getGrupoMuscular());
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        ejercicioId = rs.getInt(1);
+                    }
+                }
+            }
+            if (ejercicioId < 0) {
+                try (PreparedStatement pstmt = connection.prepareStatement(
+                        "INSERT INTO catalogo_ejercicios (nombre, grupo_muscular) VALUES (?, ?)")) {
+                    pstmt.setString(1, ejercicio.getNombre());
+                    pstmt.setString(2, ejercicio.getGrupoMuscular());
+                    pstmt.executeUpdate();
+                }
+                ejercicioId = ultimoId(connection);
+            }
+
+            try (PreparedStatement pstmt = connection.prepareStatement(
+                    "INSERT INTO series (ejercicio_id, peso, repeticiones, fecha) VALUES (?, ?, ?, ?)")) {
+                pstmt.setInt(1, ejercicioId);
+                pstmt.setDouble(2, ejercicio.getPeso());
+                pstmt.setInt(3, ejercicio.getRepeticiones());
+                CodecFecha.asignar(pstmt, 4, ejercicio.getFecha());
+                pstmt.executeUpdate();
+            }
+            int id = ultimoId(connection);
+
+            AgregadosDAO.Pendientes agregados = new AgregadosDAO.Pendientes();
+            agregados.sumar(ejercicioId, id, ejercicio);
+            agregadosDAO.aplicar(connection, agregados);
+
+            connection.commit();
+            return true;
+        }
+    }
+
+    private static int ultimoId(Connection connection) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement("SELECT last_insert_rowid()");
+                ResultSet rs = pstmt.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static void borrar(Path fichero) throws IOException {
+        for (String sufijo : new String[] { "", "-wal", "-shm" }) {
+            Files.deleteIfExists(Paths.get(fichero + sufijo));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Genera bases de datos sintéticas y deterministas para los benchmarks en
+ * build/bench-datos/gymtracker-&lt;filas&gt;.db. Las filas se insertan con el propio DAO
+ * (insertarEjercicios), de modo que el catálogo y los agregados quedan como en una base
+ * real. Si el fichero ya existe con el número de filas pedido se reutiliza.
+ *
+ * Uso: bench/ejecutar.sh GeneradorDatos [filas ...]
+ */
+public final class GeneradorDatos {
+    static final String[] NOMBRES = { "Press de Banca con Barra", "Press Inclinado con Mancuernas",
+            "Sentadilla con Barra (Squat)", "Prensa de Piernas", "Peso Muerto Convencional", "Remo con Barra",
+            "Dominadas (Pull-ups)", "Press Militar con Barra (De pie)", "Elevaciones Laterales", "Curl con Barra",
+            "Extensiones de Tríceps en Polea", "Plancha" };
+    static final String[] GRUPOS = { "Pecho", "Pecho", "Piernas", "Piernas", "Espalda", "Espalda", "Espalda",
+            "Hombros", "Hombros", "Brazos", "Brazos", "Core" };
+
+    private static final String DIRECTORIO = "build/bench-datos";
+    private static final int TAMANO_LOTE = 10_000;
+    // Unas 20 series por día de entrenamiento
+    private static final int SERIES_POR_DIA = 20;
+
+    private GeneradorDatos() {
+    }
+
+    public static void main(String[] args) {
+        for (String filas : args.length > 0 ? args : new String[] { "1000", "100000", "1000000" }) {
+            DatabaseManager dbManager = preparar(Integer.parseInt(filas));
+            dbManager.cerrar();
+        }
+    }
+
+    /**
+     * Devuelve un DatabaseManager sobre una base con exactamente {@code filas} series,
+     * generándola si hace falta. El llamador debe cerrarlo.
+     */
+    static DatabaseManager preparar(int filas) {
+        File fichero = new File(DIRECTORIO, "gymtracker-" + filas + ".db");
+        if (fichero.exists()) {
+            DatabaseManager existente = new DatabaseManager(fichero.getPath());
+            existente.initializeDatabase();
+            if (contarSeries(existente) == filas) {
+                return existente;
+            }
+            existente.cerrar();
+            borrar(fichero);
+        }
+
+        fichero.getParentFile().mkdirs();
+        System.out.printf("Generando %,d series en %s...%n", filas, fichero);
+        long inicio = System.nanoTime();
+
+        DatabaseManager dbManager = new DatabaseManager(fichero.getPath());
+        dbManager.initializeDatabase();
+        EjercicioDAO dao = new EjercicioDAO(dbManager);
+        Random random = new Random(42);
+        LocalDate primerDia = LocalDate.of(2015, 1, 1);
+        List<Ejercicio> lote = new ArrayList<>(TAMANO_LOTE);
+
+        for (int i = 0; i < filas; i++) {
+            int e = random.nextInt(NOMBRES.length);
+            // Un 1% de registros antiguos sin fecha, como los que dejó la versión inicial
+            LocalDate fecha = random.nextInt(100) == 0 ? null : primerDia.plusDays(i / SERIES_POR_DIA);
+            lote.add(new Ejercicio(NOMBRES[e], GRUPOS[e], 20 + random.nextInt(160) * 0.5, 1 + random.nextInt(12),
+                    fecha));
+            if (lote.size() == TAMANO_LOTE || i == filas - 1) {
+                ResultadoLote resultado = dao.insertarEjercicios(lote);
+                if (resultado.hayFallos()) {
+                    throw new IllegalStateException("No se pudo generar la base de datos de " + filas + " filas");
+                }
+                lote.clear();
+            }
+        }
+
+        System.out.printf("Generada en %.1f s%n", (System.nanoTime() - inicio) / 1e9);
+        return dbManager;
+    }
+
+    static long contarSeries(DatabaseManager dbManager) {
+        try (Connection connection = dbManager.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM series")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException | ClassNotFoundException e) {
+            System.err.println("Error al contar series: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    private static void borrar(File fichero) {
+        for (String sufijo : new String[] { "", "-wal", "-shm" }) {
+            new File(fichero.getPath() + sufijo).delete();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Arnés mínimo de microbenchmarks: ejecuta cada caso unas rondas de calentamiento para
+ * que el JIT compile el código y después mide cada ronda por separado, informando la
+ * mediana y el percentil 95 en microsegundos.
+ *
+ * Con -Dbench.salida=fichero cada resultado se añade además como una línea
+ * "nombre\tmediana\tp95" para que CompararInformes pueda comparar dos ejecuciones.
+ */
+public final class Medidor {
+
+    /**
+     * Código que se mide; el valor devuelto se consume para que el JIT no lo elimine
+     */
+    public interface Caso {
+        long ejecutar() throws Exception;
+    }
+
+    private static final String SALIDA = System.getProperty("bench.salida");
+
+    private static volatile long sumidero;
+
+    private Medidor() {
+    }
+
+    public static void medir(String nombre, int calentamiento, int rondas, Caso caso) throws Exception {
+        for (int i = 0; i < calentamiento; i++) {
+            sumidero += caso.ejecutar();
+        }
+
+        long[] tiempos = new long[rondas];
+        for (int i = 0; i < rondas; i++) {
+            long inicio = System.nanoTime();
+            sumidero += caso.ejecutar();
+            tiempos[i] = System.nanoTime() - inicio;
+        }
+
+        Arrays.sort(tiempos);
+        double mediana = tiempos[rondas / 2] / 1000.0;
+        double p95 = tiempos[Math.min(rondas - 1, (int) Math.ceil(rondas * 0.95) - 1)] / 1000.0;
+        System.out.printf("%-45s mediana %10.1f us   p95 %10.1f us%n", nombre, mediana, p95);
+        if (SALIDA != null) {
+            anotar(nombre, mediana, p95);
+        }
+    }
+
+    private static void anotar(String nombre, double mediana, double p95) throws IOException {
+        try (PrintWriter salida = new PrintWriter(new FileWriter(SALIDA, true))) {
+            salida.printf(Locale.ROOT, "%s\t%.1f\t%.1f%n", nombre, mediana, p95);
+        }
+    }
+}
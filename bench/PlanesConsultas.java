@@ -0,0 +1,169 @@
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Comprobación de planes de consulta: ejecuta las lecturas y escrituras del DAO sobre la
+ * base sintética de {@code filas} series, recoge el SQL de cada sentencia preparada y
+ * pasa cada una por EXPLAIN QUERY PLAN. Falla (código 1) si alguna consulta con WHERE
+ * recorre la tabla series entera, si el historial ordena en memoria en lugar de seguir
+ * idx_series_ejercicio_fecha, o si las consultas por ejercicio no usan ese índice.
+ *
+ * Al final borra el índice dentro de una transacción que se deshace y comprueba que las
+ * mismas reglas lo detectan, para que el arnés no pase por no mirar nada.
+ *
+ * Uso: bench/ejecutar.sh PlanesConsultas [filas]
+ */
+public class PlanesConsultas {
+    private static final String INDICE = "idx_series_ejercicio_fecha";
+    private static final String NOMBRE = GeneradorDatos.NOMBRES[0];
+
+    public static void main(String[] args) throws Exception {
+        int filas = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        DatabaseManager dbManager = GeneradorDatos.preparar(filas);
+        EjercicioDAO dao = new EjercicioDAO(dbManager);
+
+        Set<String> sentencias = new LinkedHashSet<>();
+        dbManager.observarSentencias(sql -> {
+            synchronized (sentencias) {
+                sentencias.add(sql);
+            }
+        });
+        ejercitarDAO(dao);
+        dbManager.observarSentencias(null);
+
+        int fallos = 0;
+        int conIndice = 0;
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbManager.getRutaBaseDatos())) {
+            for (String sql : sentencias) {
+                List<String> plan = plan(connection, sql);
+                if (plan == null) {
+                    continue;
+                }
+                String error = revisar(sql, plan);
+                if (plan.toString().contains(INDICE)) {
+                    conIndice++;
+                }
+                System.out.println((error == null ? "ok    " : "FALLA ") + resumir(sql));
+                for (String linea : plan) {
+                    System.out.println("         " + linea);
+                }
+                if (error != null) {
+                    System.out.println("         -> " + error);
+                    fallos++;
+                }
+            }
+
+            // Sin el índice las reglas tienen que saltar
+            int detectadas = 0;
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP INDEX " + INDICE);
+                for (String sql : sentencias) {
+                    List<String> plan = plan(connection, sql);
+                    if (plan != null && revisar(sql, plan) != null) {
+                        detectadas++;
+                    }
+                }
+            } finally {
+                connection.rollback();
+            }
+            System.out.printf("%d sentencias revisadas, %d con %s, %d fallos; sin el índice fallarían %d%n",
+                    sentencias.size(), conIndice, INDICE, fallos, detectadas);
+            if (detectadas == 0) {
+                System.out.println("FALLA: las reglas no detectan la falta del índice");
+                fallos++;
+            }
+        }
+
+        dbManager.cerrar();
+        if (fallos > 0 || conIndice == 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Las operaciones que hace la interfaz al abrir, paginar, editar y borrar series. La
+     * serie insertada se borra al final para no cambiar el número de filas de la base compartida.
+     */
+    private static void ejercitarDAO(EjercicioDAO dao) {
+        dao.contarEjerciciosPorNombre(NOMBRE);
+        List<Ejercicio> pagina = dao.obtenerPaginaPorNombre(NOMBRE, null, 0, 100);
+        Ejercicio ancla = pagina.get(pagina.size() - 1);
+        dao.obtenerPaginaPorNombre(NOMBRE, ancla, 0, 100);
+        dao.obtenerEjerciciosPorNombre(NOMBRE);
+        dao.recorrerSeries(NOMBRE, EjercicioDAO.FETCH_SIZE_POR_DEFECTO, (id, nombre, grupo) -> { },
+                (serieId, ejercicioId, peso, repeticiones, dia) -> { });
+        AgregadosDAO agregadosDAO = dao.getAgregadosDAO();
+        agregadosDAO.obtenerAgregados(NOMBRE);
+        agregadosDAO.obtenerVolumenDiario(NOMBRE);
+        agregadosDAO.obtenerVolumenSemanal(NOMBRE);
+
+        Ejercicio serie = new Ejercicio(NOMBRE, GeneradorDatos.GRUPOS[0], 80, 5, LocalDate.of(2016, 3, 1));
+        if (!dao.insertarEjercicio(serie)) {
+            throw new IllegalStateException("No se pudo insertar la serie de prueba");
+        }
+        serie.setPeso(85);
+        serie.setFecha(LocalDate.of(2016, 3, 2));
+        dao.actualizarEjercicio(serie);
+        dao.eliminarEjercicio(serie.getId());
+    }
+
+    /**
+     * Null si la regla no aplica (sentencias que no leen series)
+     */
+    private static String revisar(String sql, List<String> plan) {
+        boolean leeSeries = sql.contains("FROM series");
+        if (!leeSeries) {
+            return null;
+        }
+        boolean conFiltro = sql.contains(" WHERE ");
+        for (String linea : plan) {
+            boolean recorreSeries = linea.matches("SCAN (s|u|series)( .*)?") && !linea.contains("INDEX");
+            if (recorreSeries && conFiltro) {
+                return "recorre la tabla series entera";
+            }
+            if (linea.contains("TEMP B-TREE FOR ORDER BY") && sql.matches("(?s).*ORDER BY [su]\\.fecha.*")) {
+                return "ordena el historial en memoria";
+            }
+        }
+        if (sql.contains("ejercicio_id = ?") && !plan.toString().contains(INDICE)) {
+            return "no usa " + INDICE;
+        }
+        return null;
+    }
+
+    private static List<String> plan(Connection connection, String sql) throws SQLException {
+        String inicio = sql.trim().toUpperCase();
+        if (!(inicio.startsWith("SELECT") || inicio.startsWith("UPDATE") || inicio.startsWith("DELETE")
+                || inicio.startsWith("INSERT")) || inicio.startsWith("SELECT LAST_INSERT_ROWID")) {
+            return null;
+        }
+        List<String> plan = new ArrayList<>();
+        try (PreparedStatement pstmt = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            // El plan no depende de los valores: basta con enlazar NULL
+            for (int i = 1; i <= pstmt.getParameterMetaData().getParameterCount(); i++) {
+                pstmt.setNull(i, java.sql.Types.NULL);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    plan.add(rs.getString(4));
+                }
+            }
+        }
+        return plan;
+    }
+
+    private static String resumir(String sql) {
+        String linea = sql.replaceAll("\\s+", " ");
+        return linea.length() > 150 ? linea.substring(0, 147) + "..." : linea;
+    }
+}
@@ -0,0 +1,211 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Comprueba que los agregados mantenidos de forma incremental coinciden con los que
+ * calcula reconstruir(): sobre una base nueva aplica {@code operaciones} escrituras
+ * aleatorias (inserciones sueltas y en lote, cambios de peso, fecha y ejercicio, y
+ * borrados) y cada INTERVALO compara agregados_ejercicio, volumen_diario y
+ * volumen_semanal con el resultado de reconstruirlos. Los pesos son múltiplos de 0,5
+ * para que las sumas sean exactas. Falla (código 1) con la primera diferencia.
+ *
+ * Después mide obtenerAgregados sobre las bases sintéticas de 1k, 100k y 1M series:
+ * falla también si la mediana con 1M supera CRECIMIENTO_MAXIMO veces la de 1k.
+ *
+ * Uso: bench/ejecutar.sh VerificarAgregados [operaciones] [semilla]
+ */
+public class VerificarAgregados {
+    private static final String[] NOMBRES = { "Sentadilla", "Press de Banca", "Peso Muerto", "Dominadas" };
+    private static final String[] GRUPOS = { "Piernas", "Pecho", "Espalda", "Espalda" };
+    private static final String[] TABLAS = {
+            "SELECT * FROM agregados_ejercicio ORDER BY ejercicio_id",
+            "SELECT * FROM volumen_diario ORDER BY ejercicio_id, fecha",
+            "SELECT * FROM volumen_semanal ORDER BY ejercicio_id, semana" };
+    private static final int INTERVALO = 250;
+    private static final int[] TAMANOS = { 1_000, 100_000, 1_000_000 };
+    private static final int LECTURAS = 2_000;
+    private static final double CRECIMIENTO_MAXIMO = 3;
+
+    public static void main(String[] args) throws Exception {
+        int operaciones = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        long semilla = args.length > 1 ? Long.parseLong(args[1]) : 42;
+
+        Path directorio = Paths.get("build", "bench-agregados");
+        Files.createDirectories(directorio);
+        String ruta = directorio.resolve("verificar.db").toString();
+        for (String sufijo : new String[] { "", "-wal", "-shm" }) {
+            Files.deleteIfExists(Paths.get(ruta + sufijo));
+        }
+        DatabaseManager dbManager = new DatabaseManager(ruta);
+        dbManager.initializeDatabase();
+        EjercicioDAO dao = new EjercicioDAO(dbManager);
+        Random random = new Random(semilla);
+
+        int comprobaciones = 0;
+        for (int i = 1; i <= operaciones; i++) {
+            operar(dbManager, dao, random);
+            if (i % INTERVALO == 0 || i == operaciones) {
+                String diferencia = comparar(dbManager, dao.getAgregadosDAO());
+                if (diferencia != null) {
+                    System.out.println("FALLA tras " + i + " operaciones (semilla " + semilla + "): " + diferencia);
+                    System.exit(1);
+                }
+                comprobaciones++;
+            }
+        }
+        System.out.printf("%d operaciones aleatorias, %d comprobaciones contra reconstruir(): coinciden (%d series)%n",
+                operaciones, comprobaciones, contar(dbManager, "SELECT COUNT(*) FROM series"));
+        dbManager.cerrar();
+
+        double[] medianas = new double[TAMANOS.length];
+        for (int i = 0; i < TAMANOS.length; i++) {
+            medianas[i] = medirLectura(TAMANOS[i]);
+        }
+        double crecimiento = medianas[medianas.length - 1] / medianas[0];
+        if (crecimiento > CRECIMIENTO_MAXIMO) {
+            System.out.printf(Locale.ROOT, "FALLA: la lectura es %.1f veces más lenta con %,d series que con %,d%n",
+                    crecimiento, TAMANOS[TAMANOS.length - 1], TAMANOS[0]);
+            System.exit(1);
+        }
+    }
+
+    private static void operar(DatabaseManager dbManager, EjercicioDAO dao, Random random) throws Exception {
+        int tipo = random.nextInt(100);
+        int id = tipo < 50 ? 0 : idAleatorio(dbManager, random);
+        if (id == 0 && tipo >= 40) {
+            tipo = 0;
+        }
+
+        if (tipo < 40) {
+            dao.insertarEjercicio(serieAleatoria(random));
+        } else if (tipo < 50) {
+            List<Ejercicio> lote = new ArrayList<>();
+            for (int i = 1 + random.nextInt(20); i > 0; i--) {
+                lote.add(serieAleatoria(random));
+            }
+            dao.insertarEjercicios(lote);
+        } else if (tipo < 75) {
+            // Cambia peso, repeticiones y fecha; a veces también de ejercicio
+            Ejercicio cambio = serieAleatoria(random);
+            cambio.setId(id);
+            if (random.nextInt(3) > 0) {
+                try (Connection connection = dbManager.getConnection();
+                        Statement statement = connection.createStatement();
+                        ResultSet rs = statement.executeQuery("SELECT c.nombre, c.grupo_muscular FROM series s "
+                                + "JOIN catalogo_ejercicios c ON c.id = s.ejercicio_id WHERE s.id = " + id)) {
+                    rs.next();
+                    cambio.setNombre(rs.getString(1));
+                    cambio.setGrupoMuscular(rs.getString(2));
+                }
+            }
+            dao.actualizarEjercicio(cambio);
+        } else {
+            dao.eliminarEjercicio(id);
+        }
+    }
+
+    private static Ejercicio serieAleatoria(Random random) {
+        int e = random.nextInt(NOMBRES.length);
+        double peso = random.nextInt(400) / 2.0;
+        int repeticiones = 1 + random.nextInt(15);
+        // Pocos días para que se repitan días y semanas; alguna serie sin fecha
+        LocalDate fecha = random.nextInt(20) == 0 ? null : LocalDate.of(2024, 1, 1).plusDays(random.nextInt(90));
+        return new Ejercicio(NOMBRES[e], GRUPOS[e], peso, repeticiones, fecha);
+    }
+
+    private static int idAleatorio(DatabaseManager dbManager, Random random) throws Exception {
+        int total = contar(dbManager, "SELECT COUNT(*) FROM series");
+        if (total == 0) {
+            return 0;
+        }
+        return contar(dbManager, "SELECT id FROM series ORDER BY id LIMIT 1 OFFSET " + random.nextInt(total));
+    }
+
+    /**
+     * Null si los agregados coinciden con los reconstruidos; si no, la primera diferencia
+     */
+    private static String comparar(DatabaseManager dbManager, AgregadosDAO agregadosDAO) throws Exception {
+        List<List<String>> incrementales = volcar(dbManager);
+        if (!agregadosDAO.reconstruir()) {
+            return "reconstruir() falló";
+        }
+        List<List<String>> reconstruidos = volcar(dbManager);
+        for (int t = 0; t < TABLAS.length; t++) {
+            List<String> a = incrementales.get(t);
+            List<String> b = reconstruidos.get(t);
+            for (int i = 0; i < Math.max(a.size(), b.size()); i++) {
+                String filaA = i < a.size() ? a.get(i) : "(ninguna)";
+                String filaB = i < b.size() ? b.get(i) : "(ninguna)";
+                if (!filaA.equals(filaB)) {
+                    return TABLAS[t] + "\n  incremental:  " + filaA + "\n  reconstruido: " + filaB;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static List<List<String>> volcar(DatabaseManager dbManager) throws SQLException, ClassNotFoundException {
+        List<List<String>> tablas = new ArrayList<>();
+        try (Connection connection = dbManager.getConnection();
+                Statement statement = connection.createStatement()) {
+            for (String sql : TABLAS) {
+                List<String> filas = new ArrayList<>();
+                try (ResultSet rs = statement.executeQuery(sql)) {
+                    int columnas = rs.getMetaData().getColumnCount();
+                    while (rs.next()) {
+                        Object[] valores = new Object[columnas];
+                        for (int i = 0; i < columnas; i++) {
+                            valores[i] = rs.getObject(i + 1);
+                        }
+                        filas.add(Arrays.toString(valores));
+                    }
+                }
+                tablas.add(filas);
+            }
+        }
+        return tablas;
+    }
+
+    /**
+     * Mediana en microsegundos
+     */
+    private static double medirLectura(int filas) throws Exception {
+        DatabaseManager dbManager = GeneradorDatos.preparar(filas);
+        AgregadosDAO agregadosDAO = new EjercicioDAO(dbManager).getAgregadosDAO();
+        String nombre = GeneradorDatos.NOMBRES[0];
+        AgregadosEjercicio agregados = null;
+        for (int i = 0; i < LECTURAS; i++) {
+            agregados = agregadosDAO.obtenerAgregados(nombre);
+        }
+        long[] tiempos = new long[LECTURAS];
+        for (int i = 0; i < LECTURAS; i++) {
+            long inicio = System.nanoTime();
+            agregadosDAO.obtenerAgregados(nombre);
+            tiempos[i] = System.nanoTime() - inicio;
+        }
+        Arrays.sort(tiempos);
+        System.out.printf(Locale.ROOT, "obtenerAgregados con %,d series (%,d del ejercicio): mediana %.1f us, p99 %.1f us%n",
+                filas, agregados.getTotalSeries(), tiempos[LECTURAS / 2] / 1e3, tiempos[LECTURAS * 99 / 100] / 1e3);
+        dbManager.cerrar();
+        return tiempos[LECTURAS / 2] / 1e3;
+    }
+
+    private static int contar(DatabaseManager dbManager, String sql) throws SQLException, ClassNotFoundException {
+        try (Connection connection = dbManager.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
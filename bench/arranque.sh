@@ -0,0 +1,60 @@
+#!/bin/bash
+# Tiempo hasta el primer frame de GymTrackerGUI y hasta que la base de datos está lista
+# (se inicializa en paralelo) con el jar de build.sh: varios arranques en frío con el
+# CDS por defecto del JDK y con el archivo AppCDS de la aplicación, cada uno sobre una
+# copia de la base de datos. Informa la mediana y el p95 en ms y, con
+# SALIDA=fichero, añade las líneas al informe en el formato de Medidor (en us).
+# Uso: [ARRANQUES=10] [SALIDA=informe.tsv] bench/arranque.sh
+set -e
+cd "$(dirname "$0")/.."
+raiz="$(pwd)"
+
+if [ -z "$DISPLAY" ]; then
+  echo "Hace falta una pantalla (DISPLAY) para medir el arranque" >&2
+  exit 1
+fi
+if [ ! -f build/gymtracker.jar ]; then
+  ./build.sh
+fi
+
+trabajo="$(mktemp -d)"
+trap 'rm -rf "$trabajo"' EXIT
+
+# Mediana y p95 de una lista de tiempos en ms; con SALIDA se anotan en us como Medidor
+resumir() {
+  local nombre="$1"
+  shift
+  local ordenados=($(printf '%s\n' "$@" | sort -n))
+  local n=${#ordenados[@]}
+  local mediana=${ordenados[$((n / 2))]}
+  local p95=${ordenados[$(((n * 95 + 99) / 100 - 1))]}
+  printf '%-45s mediana %6d ms   p95 %6d ms\n' "$nombre" "$mediana" "$p95"
+  if [ -n "$SALIDA" ]; then
+    printf '%s\t%d.0\t%d.0\n' "$nombre" "$((mediana * 1000))" "$((p95 * 1000))" >> "$SALIDA"
+  fi
+}
+
+medir() {
+  local variante="$1"
+  shift
+  local frames=()
+  local bases=()
+  for ((i = 0; i < ${ARRANQUES:-10}; i++)); do
+    rm -rf "$trabajo/database" && mkdir -p "$trabajo/database"
+    if [ -f database/Gymtracker.db ]; then
+      cp database/Gymtracker.db "$trabajo/database/"
+    fi
+    local salida
+    salida="$(cd "$trabajo" && java "$@" -Dgymtracker.arranque.medir=true -Dgymtracker.arranque.salir=true \
+      -jar "$raiz/build/gymtracker.jar")"
+    frames+=("$(sed -n 's/^Arranque: primer frame en \([0-9]*\) ms$/\1/p' <<< "$salida")")
+    bases+=("$(sed -n 's/^Arranque: base de datos lista a los \([0-9]*\) ms.*/\1/p' <<< "$salida")")
+  done
+  resumir "arranque hasta primer frame ($variante)" "${frames[@]}"
+  resumir "arranque hasta base de datos lista ($variante)" "${bases[@]}"
+}
+
+medir "CDS del JDK"
+if [ -f build/gymtracker.jsa ]; then
+  medir "AppCDS" -XX:SharedArchiveFile="$raiz/build/gymtracker.jsa" -Xshare:auto
+fi
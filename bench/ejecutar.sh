@@ -0,0 +1,9 @@
+#!/bin/bash
+# Compila src/ y bench/ en build/bench y ejecuta el benchmark indicado.
+# Uso: [JAVA_OPTS=...] bench/ejecutar.sh [ClaseBenchmark] [argumentos]   (por defecto BenchDownsampler)
+set -e
+cd "$(dirname "$0")/.."
+
+mkdir -p build/bench
+javac -encoding UTF-8 -cp "lib/*" -d build/bench src/*.java bench/*.java
+java $JAVA_OPTS -cp "build/bench:lib/*" "${1:-BenchDownsampler}" "${@:2}"
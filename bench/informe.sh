@@ -0,0 +1,24 @@
+#!/bin/bash
+# Ejecuta la batería de benchmarks y guarda un informe comparable en
+# build/bench-informes/<fecha>-<commit>.tsv. Si se indica un informe anterior, compara
+# con él caso a caso (mediana) y termina con error si algún caso empeora más del umbral.
+# Uso: [JAVA_OPTS=...] [TAMANOS=1000,100000,1000000] bench/informe.sh [informe-base.tsv] [umbral %]
+set -e
+cd "$(dirname "$0")/.."
+
+mkdir -p build/bench build/bench-informes
+javac -encoding UTF-8 -cp "lib/*" -d build/bench src/*.java bench/*.java
+
+commit=$(git rev-parse --short HEAD 2>/dev/null || echo local)
+informe="build/bench-informes/$(date +%Y%m%d-%H%M%S)-$commit.tsv"
+opciones="${JAVA_OPTS:--Xmx3g} -Djava.awt.headless=true -Dbench.salida=$informe"
+
+java $opciones -cp "build/bench:lib/*" BenchDAO "${TAMANOS:-1000,100000,1000000}"
+java $opciones -cp "build/bench:lib/*" BenchFechas
+java $opciones -cp "build/bench:lib/*" BenchDownsampler
+java $opciones -cp "build/bench:lib/*" BenchBusqueda
+
+echo "Informe: $informe"
+if [ -n "$1" ]; then
+  java -cp build/bench CompararInformes "$1" "$informe" "${2:-10}"
+fi
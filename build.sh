@@ -0,0 +1,62 @@
+#!/bin/bash
+# Construye la aplicación en Linux:
+#   build/gymtracker.jar  jar ejecutable con sqlite-jdbc y slf4j dentro, reproducible
+#                         (mismo contenido y fechas de entrada en cada construcción)
+#   build/gymtracker.jsa  archivo AppCDS con las clases cargadas hasta el primer frame
+#                         (JDK 13 o superior y pantalla disponible; si no, se omite)
+# Uso: ./build.sh [--sin-cds]
+set -e
+cd "$(dirname "$0")"
+raiz="$(pwd)"
+
+# Fecha fija para las entradas del jar: la del último commit, o SOURCE_DATE_EPOCH
+fecha="${SOURCE_DATE_EPOCH:-$(git log -1 --format=%ct 2>/dev/null || echo 315532800)}"
+
+rm -rf build/clases build/jar build/gymtracker.jar build/gymtracker.jsa
+mkdir -p build/clases build/jar
+
+echo "Compilando..."
+javac -encoding UTF-8 --release 8 -cp "lib/*" -d build/clases src/*.java
+
+# Dependencias desempaquetadas sin sus manifiestos ni firmas
+for dependencia in lib/*.jar; do
+  (cd build/jar && jar xf "$raiz/$dependencia")
+done
+rm -f build/jar/META-INF/MANIFEST.MF build/jar/META-INF/*.SF build/jar/META-INF/*.RSA build/jar/META-INF/*.DSA
+# Un jar con todas las dependencias no es un módulo: sus module-info sobran
+find build/jar -name module-info.class -delete
+cp -r build/clases/. build/jar/
+
+# El manifiesto se añade como una entrada más (--no-manifest) para que jar no lo
+# regenere con la hora actual; las entradas van en orden fijo y con la fecha fijada
+mkdir -p build/jar/META-INF
+printf 'Manifest-Version: 1.0\r\nMain-Class: Main\r\nCreated-By: GymTracker build.sh\r\n\r\n' \
+  > build/jar/META-INF/MANIFEST.MF
+find build/jar -exec touch -h -d "@$fecha" {} +
+(cd build/jar && { echo META-INF/MANIFEST.MF; find . -type f ! -path ./META-INF/MANIFEST.MF | cut -c3- \
+  | LC_ALL=C sort; } > ../entradas.txt)
+(cd build/jar && TZ=UTC jar --create --no-manifest --file ../gymtracker.jar @../entradas.txt)
+rm -f build/entradas.txt
+echo "Jar: build/gymtracker.jar ($(sha256sum build/gymtracker.jar | cut -c1-16))"
+
+if [ "$1" = "--sin-cds" ]; then
+  exit 0
+fi
+if [ -z "$DISPLAY" ]; then
+  echo "Sin pantalla (DISPLAY): se omite el archivo AppCDS"
+  exit 0
+fi
+
+# Ejecución de entrenamiento: arranca hasta el primer frame y la base de datos lista,
+# sobre una copia de la base de datos, y vuelca las clases cargadas. La ruta del jar
+# debe ser la misma al ejecutar.
+echo "Generando archivo AppCDS..."
+entrenamiento="$(mktemp -d)"
+mkdir -p "$entrenamiento/database"
+if [ -f database/Gymtracker.db ]; then
+  cp database/Gymtracker.db "$entrenamiento/database/"
+fi
+(cd "$entrenamiento" && java -XX:ArchiveClassesAtExit="$raiz/build/gymtracker.jsa" \
+  -Dgymtracker.arranque.salir=true -jar "$raiz/build/gymtracker.jar" > /dev/null)
+rm -rf "$entrenamiento"
+echo "AppCDS: build/gymtracker.jsa"
@@ -0,0 +1,11 @@
+#!/bin/bash
+# Ejecuta el jar construido por build.sh, usando el archivo AppCDS si existe.
+# Uso: [JAVA_OPTS=...] ./run.sh [argumentos de Main]
+cd "$(dirname "$0")"
+raiz="$(pwd)"
+
+cds=""
+if [ -f build/gymtracker.jsa ]; then
+  cds="-XX:SharedArchiveFile=$raiz/build/gymtracker.jsa -Xshare:auto"
+fi
+exec java $cds $JAVA_OPTS -jar "$raiz/build/gymtracker.jar" "$@"
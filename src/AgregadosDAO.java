@@ -0,0 +1,450 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Acceso a las marcas y volúmenes precalculados por ejercicio del catálogo
+ * (agregados_ejercicio, volumen_diario y volumen_semanal).
+ *
+ * EjercicioDAO los mantiene dentro de la misma transacción de cada escritura: las
+ * inserciones se suman de forma incremental y las modificaciones o borrados recalculan
+ * solo el ejercicio, el día y la semana afectados. Las lecturas buscan por clave y no
+ * dependen de la longitud del historial.
+ */
+public class AgregadosDAO {
+    // Misma fórmula que AgregadosEjercicio.estimar1RM
+    private static final String EXPRESION_1RM =
+            "CASE WHEN s.repeticiones = 1 THEN s.peso ELSE s.peso * (1 + s.repeticiones / 30.0) END";
+    // Lunes de la semana de s.fecha (epoch day)
+    private static final String EXPRESION_SEMANA = CodecFecha.expresionLunes("s.fecha");
+    private static final String SUBCONSULTA_ULTIMA =
+            "FROM series u WHERE u.ejercicio_id = s.ejercicio_id ORDER BY u.fecha DESC, u.id DESC LIMIT 1";
+
+    private static final String INSERT_AGREGADOS_DESDE_SERIES =
+            "INSERT INTO agregados_ejercicio (ejercicio_id, peso_maximo, repeticiones_maximas, mejor_1rm, " +
+            "volumen_total, total_series, ultima_serie_id, ultima_fecha) " +
+            "SELECT s.ejercicio_id, MAX(s.peso), MAX(s.repeticiones), MAX(" + EXPRESION_1RM + "), " +
+            "SUM(s.peso * s.repeticiones), COUNT(*), " +
+            "(SELECT u.id " + SUBCONSULTA_ULTIMA + "), (SELECT u.fecha " + SUBCONSULTA_ULTIMA + ") " +
+            "FROM series s";
+    private static final String INSERT_DIARIO_DESDE_SERIES =
+            "INSERT INTO volumen_diario (ejercicio_id, fecha, volumen, series, peso_maximo, mejor_1rm) " +
+            "SELECT s.ejercicio_id, s.fecha, SUM(s.peso * s.repeticiones), COUNT(*), MAX(s.peso), " +
+            "MAX(" + EXPRESION_1RM + ") FROM series s";
+    private static final String INSERT_SEMANAL_DESDE_SERIES =
+            "INSERT INTO volumen_semanal (ejercicio_id, semana, volumen, series) " +
+            "SELECT s.ejercicio_id, " + EXPRESION_SEMANA + ", SUM(s.peso * s.repeticiones), COUNT(*) FROM series s";
+
+    // La serie nueva (excluded) va antes en el historial que la última guardada
+    private static final String ES_POSTERIOR =
+            "(excluded.ultima_fecha IS NOT NULL AND (ultima_fecha IS NULL OR excluded.ultima_fecha > ultima_fecha " +
+            "OR (excluded.ultima_fecha = ultima_fecha AND excluded.ultima_serie_id > ultima_serie_id))) " +
+            "OR (excluded.ultima_fecha IS NULL AND ultima_fecha IS NULL " +
+            "AND excluded.ultima_serie_id > ultima_serie_id)";
+    private static final String UPSERT_AGREGADOS =
+            "INSERT INTO agregados_ejercicio (ejercicio_id, peso_maximo, repeticiones_maximas, mejor_1rm, " +
+            "volumen_total, total_series, ultima_serie_id, ultima_fecha) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (ejercicio_id) DO UPDATE SET " +
+            "peso_maximo = MAX(peso_maximo, excluded.peso_maximo), " +
+            "repeticiones_maximas = MAX(repeticiones_maximas, excluded.repeticiones_maximas), " +
+            "mejor_1rm = MAX(mejor_1rm, excluded.mejor_1rm), " +
+            "volumen_total = volumen_total + excluded.volumen_total, " +
+            "total_series = total_series + excluded.total_series, " +
+            "ultima_serie_id = CASE WHEN " + ES_POSTERIOR + " THEN excluded.ultima_serie_id ELSE ultima_serie_id END, " +
+            "ultima_fecha = CASE WHEN " + ES_POSTERIOR + " THEN excluded.ultima_fecha ELSE ultima_fecha END";
+    private static final String UPSERT_DIARIO =
+            "INSERT INTO volumen_diario (ejercicio_id, fecha, volumen, series, peso_maximo, mejor_1rm) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (ejercicio_id, fecha) DO UPDATE SET " +
+            "volumen = volumen + excluded.volumen, series = series + excluded.series, " +
+            "peso_maximo = MAX(peso_maximo, excluded.peso_maximo), mejor_1rm = MAX(mejor_1rm, excluded.mejor_1rm)";
+    private static final String UPSERT_SEMANAL =
+            "INSERT INTO volumen_semanal (ejercicio_id, semana, volumen, series) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (ejercicio_id, semana) DO UPDATE SET " +
+            "volumen = volumen + excluded.volumen, series = series + excluded.series";
+
+    private DatabaseManager dbManager;
+
+    public AgregadosDAO() {
+        this(DatabaseManager.getInstance());
+    }
+
+    AgregadosDAO(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+    }
+
+    /**
+     * Series insertadas en una transacción, acumuladas por ejercicio, día y semana para
+     * escribirlas con una sola sentencia por clave
+     */
+    static final class Pendientes {
+        private final Map<Integer, Acumulado> porEjercicio = new HashMap<>();
+        private final Map<Integer, Map<LocalDate, Acumulado>> porDia = new HashMap<>();
+        private final Map<Integer, Map<LocalDate, Acumulado>> porSemana = new HashMap<>();
+
+        void sumar(int ejercicioId, int serieId, Ejercicio serie) {
+            sumar(ejercicioId, serieId, serie.getPeso(), serie.getRepeticiones(), serie.getFecha());
+        }
+
+        void sumar(int ejercicioId, int serieId, double peso, int repeticiones, LocalDate fecha) {
+            double volumen = peso * repeticiones;
+            double estimado = AgregadosEjercicio.estimar1RM(peso, repeticiones);
+
+            Acumulado total = porEjercicio.get(ejercicioId);
+            if (total == null) {
+                total = new Acumulado();
+                porEjercicio.put(ejercicioId, total);
+            }
+            total.pesoMaximo = Math.max(total.pesoMaximo, peso);
+            total.repeticionesMaximas = Math.max(total.repeticionesMaximas, repeticiones);
+            total.mejor1RM = Math.max(total.mejor1RM, estimado);
+            total.volumen += volumen;
+            total.series++;
+            if (total.ultimaSerieId == 0 || esPosterior(fecha, serieId, total.ultimaFecha, total.ultimaSerieId)) {
+                total.ultimaSerieId = serieId;
+                total.ultimaFecha = fecha;
+            }
+
+            if (fecha != null) {
+                sumarPeriodo(porDia, ejercicioId, fecha, peso, volumen, estimado);
+                sumarPeriodo(porSemana, ejercicioId, inicioSemana(fecha), peso, volumen, estimado);
+            }
+        }
+
+        boolean estaVacio() {
+            return porEjercicio.isEmpty();
+        }
+
+        private static void sumarPeriodo(Map<Integer, Map<LocalDate, Acumulado>> periodos, int ejercicioId,
+                LocalDate inicio, double peso, double volumen, double estimado) {
+            Acumulado acumulado = periodos.computeIfAbsent(ejercicioId, id -> new HashMap<>())
+                    .computeIfAbsent(inicio, f -> new Acumulado());
+            acumulado.pesoMaximo = Math.max(acumulado.pesoMaximo, peso);
+            acumulado.mejor1RM = Math.max(acumulado.mejor1RM, estimado);
+            acumulado.volumen += volumen;
+            acumulado.series++;
+        }
+    }
+
+    private static final class Acumulado {
+        double pesoMaximo = Double.NEGATIVE_INFINITY;
+        int repeticionesMaximas = Integer.MIN_VALUE;
+        double mejor1RM = Double.NEGATIVE_INFINITY;
+        double volumen;
+        int series;
+        int ultimaSerieId;
+        LocalDate ultimaFecha;
+    }
+
+    /**
+     * Suma las series pendientes a los agregados. Debe llamarse dentro de la transacción
+     * que las insertó.
+     */
+    void aplicar(Connection connection, Pendientes pendientes) throws SQLException {
+        if (pendientes.estaVacio()) {
+            return;
+        }
+
+        try (PreparedStatement pstmt = connection.prepareStatement(UPSERT_AGREGADOS)) {
+            for (Map.Entry<Integer, Acumulado> entrada : pendientes.porEjercicio.entrySet()) {
+                Acumulado total = entrada.getValue();
+                pstmt.setInt(1, entrada.getKey());
+                pstmt.setDouble(2, total.pesoMaximo);
+                pstmt.setInt(3, total.repeticionesMaximas);
+                pstmt.setDouble(4, total.mejor1RM);
+                pstmt.setDouble(5, total.volumen);
+                pstmt.setInt(6, total.series);
+                pstmt.setInt(7, total.ultimaSerieId);
+                CodecFecha.asignar(pstmt, 8, total.ultimaFecha);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+
+        aplicarPeriodos(connection, UPSERT_DIARIO, pendientes.porDia, true);
+        aplicarPeriodos(connection, UPSERT_SEMANAL, pendientes.porSemana, false);
+    }
+
+    /**
+     * {@code conMarcas}: la tabla guarda también el peso máximo y el mejor 1RM del periodo
+     */
+    private void aplicarPeriodos(Connection connection, String sql,
+            Map<Integer, Map<LocalDate, Acumulado>> periodos, boolean conMarcas) throws SQLException {
+        if (periodos.isEmpty()) {
+            return;
+        }
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (Map.Entry<Integer, Map<LocalDate, Acumulado>> porEjercicio : periodos.entrySet()) {
+                for (Map.Entry<LocalDate, Acumulado> periodo : porEjercicio.getValue().entrySet()) {
+                    pstmt.setInt(1, porEjercicio.getKey());
+                    CodecFecha.asignar(pstmt, 2, periodo.getKey());
+                    pstmt.setDouble(3, periodo.getValue().volumen);
+                    pstmt.setInt(4, periodo.getValue().series);
+                    if (conMarcas) {
+                        pstmt.setDouble(5, periodo.getValue().pesoMaximo);
+                        pstmt.setDouble(6, periodo.getValue().mejor1RM);
+                    }
+                    pstmt.addBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Recalcula desde series los agregados de un ejercicio y, si hay fecha, el día y la
+     * semana de esa fecha. Se usa tras modificar o borrar una serie, dentro de la misma
+     * transacción y antes de borrar la entrada del catálogo si se queda sin series.
+     */
+    void recalcular(Connection connection, int ejercicioId, LocalDate fecha) throws SQLException {
+        ejecutar(connection, "DELETE FROM agregados_ejercicio WHERE ejercicio_id = ?", ejercicioId);
+        ejecutar(connection, INSERT_AGREGADOS_DESDE_SERIES + " WHERE s.ejercicio_id = ? GROUP BY s.ejercicio_id",
+                ejercicioId);
+        if (fecha == null) {
+            return;
+        }
+
+        ejecutar(connection, "DELETE FROM volumen_diario WHERE ejercicio_id = ? AND fecha = ?", ejercicioId, fecha);
+        ejecutar(connection, INSERT_DIARIO_DESDE_SERIES + " WHERE s.ejercicio_id = ? AND s.fecha = ? " +
+                "GROUP BY s.ejercicio_id, s.fecha", ejercicioId, fecha);
+
+        LocalDate lunes = inicioSemana(fecha);
+        ejecutar(connection, "DELETE FROM volumen_semanal WHERE ejercicio_id = ? AND semana = ?", ejercicioId, lunes);
+        ejecutar(connection, INSERT_SEMANAL_DESDE_SERIES + " WHERE s.ejercicio_id = ? AND s.fecha BETWEEN ? AND ? " +
+                "GROUP BY s.ejercicio_id", ejercicioId, lunes, lunes.plusDays(6));
+    }
+
+    /**
+     * Si quedan series con la fecha guardada como texto ISO (escritas por una versión
+     * anterior), las convierte a epoch day y reconstruye los agregados, para que el orden,
+     * la paginación y los agregados comparen siempre enteros. Se llama al abrir la base de
+     * datos: en SQLite todo texto va detrás de cualquier entero, así que la comprobación es
+     * una búsqueda por rango en idx_series_ejercicio_fecha y no recorre la tabla.
+     *
+     * @return false si no se pudo comprobar o convertir
+     */
+    boolean normalizarFechas() {
+        String sql = "SELECT EXISTS (SELECT 1 FROM series WHERE ejercicio_id IN " +
+                "(SELECT id FROM catalogo_ejercicios) AND fecha >= '')";
+        boolean hayTexto;
+
+        try (Connection connection = dbManager.getConnection();
+                PreparedStatement pstmt = connection.prepareStatement(sql);
+                ResultSet rs = pstmt.executeQuery()) {
+            hayTexto = rs.next() && rs.getBoolean(1);
+
+        } catch (SQLException | ClassNotFoundException e) {
+            System.err.println("Error al comprobar las fechas de las series: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+
+        return !hayTexto || reconstruir();
+    }
+
+    /**
+     * Vuelve a calcular todas las tablas de agregados a partir de series, en una única
+     * transacción. Sirve para repararlas si se editó la base de datos por fuera de la aplicación;
+     * antes convierte a epoch day las fechas que se hayan guardado como texto.
+     */
+    public boolean reconstruir() {
+        try {
+            dbManager.escribir(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("UPDATE series SET fecha = " + CodecFecha.expresionDia("fecha") +
+                            " WHERE typeof(fecha) = 'text'");
+                    statement.execute("DELETE FROM agregados_ejercicio");
+                    statement.execute("DELETE FROM volumen_diario");
+                    statement.execute("DELETE FROM volumen_semanal");
+                    statement.execute(INSERT_AGREGADOS_DESDE_SERIES + " GROUP BY s.ejercicio_id");
+                    statement.execute(INSERT_DIARIO_DESDE_SERIES + " WHERE s.fecha IS NOT NULL " +
+                            "GROUP BY s.ejercicio_id, s.fecha");
+                    statement.execute(INSERT_SEMANAL_DESDE_SERIES + " WHERE s.fecha IS NOT NULL " +
+                            "GROUP BY s.ejercicio_id, " + EXPRESION_SEMANA);
+                }
+                return null;
+            });
+            return true;
+
+        } catch (SQLException e) {
+            System.err.println("Error al reconstruir los agregados: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Marcas y totales de un ejercicio por nombre, o null si no tiene series
+     */
+    public AgregadosEjercicio obtenerAgregados(String nombre) {
+        String sql = "SELECT a.peso_maximo, a.repeticiones_maximas, a.mejor_1rm, a.volumen_total, a.total_series, " +
+                "a.ultima_serie_id, a.ultima_fecha, c.grupo_muscular, s.peso, s.repeticiones " +
+                "FROM catalogo_ejercicios c JOIN agregados_ejercicio a ON a.ejercicio_id = c.id " +
+                "JOIN series s ON s.id = a.ultima_serie_id WHERE c.nombre = ?";
+
+        try (Connection connection = dbManager.getConnection();
+                PreparedStatement pstmt = connection.prepareStatement(sql)) {
+
+            pstmt.setString(1, nombre);
+
+            // Un mismo nombre puede estar en varios grupos musculares: se combinan sus filas
+            Acumulado total = null;
+            Ejercicio ultimaSerie = null;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if (total == null) {
+                        total = new Acumulado();
+                    }
+                    total.pesoMaximo = Math.max(total.pesoMaximo, rs.getDouble(1));
+                    total.repeticionesMaximas = Math.max(total.repeticionesMaximas, rs.getInt(2));
+                    total.mejor1RM = Math.max(total.mejor1RM, rs.getDouble(3));
+                    total.volumen += rs.getDouble(4);
+                    total.series += rs.getInt(5);
+
+                    int serieId = rs.getInt(6);
+                    LocalDate fecha = CodecFecha.leer(rs, 7);
+                    if (ultimaSerie == null || esPosterior(fecha, serieId, ultimaSerie.getFecha(), ultimaSerie.getId())) {
+                        ultimaSerie = new Ejercicio(serieId, nombre, rs.getString(8), rs.getDouble(9), rs.getInt(10),
+                                fecha);
+                    }
+                }
+            }
+
+            if (total == null) {
+                return null;
+            }
+            return new AgregadosEjercicio(nombre, total.pesoMaximo, total.repeticionesMaximas, total.mejor1RM,
+                    total.volumen, total.series, ultimaSerie);
+
+        } catch (SQLException | ClassNotFoundException e) {
+            System.err.println("Error al obtener agregados del ejercicio: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Volumen por día de un ejercicio, en orden cronológico
+     */
+    public List<AgregadosEjercicio.VolumenPeriodo> obtenerVolumenDiario(String nombre) {
+        return obtenerVolumen(nombre, "volumen_diario", "fecha");
+    }
+
+    /**
+     * Serie diaria del gráfico de progreso (peso máximo, volumen y mejor 1RM por día) leída
+     * de volumen_diario: una fila por día con registros, sin recorrer las series. Si hay
+     * un error de base de datos devuelve la serie vacía.
+     */
+    public DatosProgreso obtenerProgresoDiario(String nombre) {
+        String sql = "SELECT v.fecha, MAX(v.peso_maximo), SUM(v.volumen), MAX(v.mejor_1rm) " +
+                "FROM catalogo_ejercicios c JOIN volumen_diario v ON v.ejercicio_id = c.id " +
+                "WHERE c.nombre = ? GROUP BY v.fecha ORDER BY v.fecha";
+        int cantidad = 0;
+        int[] dias = new int[64];
+        double[] pesoMaximo = new double[64];
+        double[] volumen = new double[64];
+        double[] mejor1RM = new double[64];
+
+        try (Connection connection = dbManager.getConnection();
+                PreparedStatement pstmt = connection.prepareStatement(sql)) {
+
+            pstmt.setString(1, nombre);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if (cantidad == dias.length) {
+                        dias = Arrays.copyOf(dias, cantidad * 2);
+                        pesoMaximo = Arrays.copyOf(pesoMaximo, cantidad * 2);
+                        volumen = Arrays.copyOf(volumen, cantidad * 2);
+                        mejor1RM = Arrays.copyOf(mejor1RM, cantidad * 2);
+                    }
+                    dias[cantidad] = (int) rs.getLong(1);
+                    pesoMaximo[cantidad] = rs.getDouble(2);
+                    volumen[cantidad] = rs.getDouble(3);
+                    mejor1RM[cantidad] = rs.getDouble(4);
+                    cantidad++;
+                }
+            }
+
+        } catch (SQLException | ClassNotFoundException e) {
+            System.err.println("Error al obtener el progreso del ejercicio: " + e.getMessage());
+            e.printStackTrace();
+            cantidad = 0;
+        }
+
+        return new DatosProgreso(nombre, Arrays.copyOf(dias, cantidad), Arrays.copyOf(pesoMaximo, cantidad),
+                Arrays.copyOf(volumen, cantidad), Arrays.copyOf(mejor1RM, cantidad));
+    }
+
+    /**
+     * Volumen por semana (de lunes a domingo) de un ejercicio, en orden cronológico
+     */
+    public List<AgregadosEjercicio.VolumenPeriodo> obtenerVolumenSemanal(String nombre) {
+        return obtenerVolumen(nombre, "volumen_semanal", "semana");
+    }
+
+    private List<AgregadosEjercicio.VolumenPeriodo> obtenerVolumen(String nombre, String tabla, String columna) {
+        List<AgregadosEjercicio.VolumenPeriodo> periodos = new ArrayList<>();
+        String sql = "SELECT v." + columna + ", SUM(v.volumen), SUM(v.series) " +
+                "FROM catalogo_ejercicios c JOIN " + tabla + " v ON v.ejercicio_id = c.id " +
+                "WHERE c.nombre = ? GROUP BY v." + columna + " ORDER BY v." + columna;
+
+        try (Connection connection = dbManager.getConnection();
+                PreparedStatement pstmt = connection.prepareStatement(sql)) {
+
+            pstmt.setString(1, nombre);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    periodos.add(new AgregadosEjercicio.VolumenPeriodo(CodecFecha.leer(rs, 1), rs.getDouble(2),
+                            rs.getInt(3)));
+                }
+            }
+
+        } catch (SQLException | ClassNotFoundException e) {
+            System.err.println("Error al obtener el volumen del ejercicio: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return periodos;
+    }
+
+    static LocalDate inicioSemana(LocalDate fecha) {
+        return fecha.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    /**
+     * Orden del historial: con fecha antes que sin fecha, fecha descendente y después id descendente
+     */
+    private static boolean esPosterior(LocalDate fecha, int id, LocalDate otraFecha, int otroId) {
+        if (fecha == null || otraFecha == null) {
+            return fecha == otraFecha ? id > otroId : otraFecha == null;
+        }
+        int comparacion = fecha.compareTo(otraFecha);
+        return comparacion != 0 ? comparacion > 0 : id > otroId;
+    }
+
+    private void ejecutar(Connection connection, String sql, Object... parametros) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parametros.length; i++) {
+                if (parametros[i] instanceof LocalDate) {
+                    CodecFecha.asignar(pstmt, i + 1, (LocalDate) parametros[i]);
+                } else {
+                    pstmt.setObject(i + 1, parametros[i]);
+                }
+            }
+            pstmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+import java.time.LocalDate;
+
+/**
+ * Marcas y totales precalculados de un ejercicio (todas sus series, sumando los grupos
+ * musculares en los que aparezca el nombre). Se leen de agregados_ejercicio sin recorrer
+ * el historial.
+ */
+public class AgregadosEjercicio {
+
+    /**
+     * Volumen (peso x repeticiones) acumulado en un día o en una semana
+     */
+    public static class VolumenPeriodo {
+        private final LocalDate inicio;
+        private final double volumen;
+        private final int series;
+
+        public VolumenPeriodo(LocalDate inicio, double volumen, int series) {
+            this.inicio = inicio;
+            this.volumen = volumen;
+            this.series = series;
+        }
+
+        /**
+         * Día, o lunes de la semana
+         */
+        public LocalDate getInicio() {
+            return inicio;
+        }
+
+        public double getVolumen() {
+            return volumen;
+        }
+
+        public int getSeries() {
+            return series;
+        }
+    }
+
+    private final String nombre;
+    private final double pesoMaximo;
+    private final int repeticionesMaximas;
+    private final double mejor1RM;
+    private final double volumenTotal;
+    private final int totalSeries;
+    private final Ejercicio ultimaSerie;
+
+    public AgregadosEjercicio(String nombre, double pesoMaximo, int repeticionesMaximas, double mejor1RM,
+            double volumenTotal, int totalSeries, Ejercicio ultimaSerie) {
+        this.nombre = nombre;
+        this.pesoMaximo = pesoMaximo;
+        this.repeticionesMaximas = repeticionesMaximas;
+        this.mejor1RM = mejor1RM;
+        this.volumenTotal = volumenTotal;
+        this.totalSeries = totalSeries;
+        this.ultimaSerie = ultimaSerie;
+    }
+
+    /**
+     * 1RM estimado con la fórmula de Epley; con una sola repetición es el propio peso.
+     * AgregadosDAO usa la misma expresión en SQL para que ambos cálculos coincidan.
+     */
+    public static double estimar1RM(double peso, int repeticiones) {
+        return repeticiones == 1 ? peso : peso * (1 + repeticiones / 30.0);
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public double getPesoMaximo() {
+        return pesoMaximo;
+    }
+
+    public int getRepeticionesMaximas() {
+        return repeticionesMaximas;
+    }
+
+    public double getMejor1RM() {
+        return mejor1RM;
+    }
+
+    public double getVolumenTotal() {
+        return volumenTotal;
+    }
+
+    public int getTotalSeries() {
+        return totalSeries;
+    }
+
+    /**
+     * Serie más reciente en el orden del historial (fecha descendente, sin fecha al final)
+     */
+    public Ejercicio getUltimaSerie() {
+        return ultimaSerie;
+    }
+}
@@ -0,0 +1,125 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Caché en memoria de los nombres de ejercicio por grupo muscular. Refleja exactamente
+ * el contenido de catalogo_ejercicios: EjercicioDAO la precarga al arrancar y la actualiza
+ * tras confirmar cada escritura que crea o borra entradas del catálogo, así que navegar
+ * por las categorías no vuelve a tocar el disco. También guarda los índices de búsqueda
+ * por prefijos de cada grupo ({@link IndiceNombres}), que se descartan con cada cambio.
+ */
+public class CacheNombresEjercicios {
+    private final Map<String, TreeSet<String>> nombresPorGrupo = new HashMap<>();
+    // Nombre -> número de grupos en los que aparece (para la lista completa sin duplicados)
+    private final TreeMap<String, Integer> todos = new TreeMap<>();
+    private boolean cargada;
+    // Grupo (null para todos) -> índice de búsqueda sobre sus nombres actuales
+    private final Map<String, IndiceNombres> indices = new HashMap<>();
+    private int version;
+
+    public synchronized boolean estaCargada() {
+        return cargada;
+    }
+
+    /**
+     * Sustituye el contenido por los pares (nombre, grupo) leídos del catálogo
+     */
+    public synchronized void cargar(List<String[]> paresNombreGrupo) {
+        nombresPorGrupo.clear();
+        todos.clear();
+        for (String[] par : paresNombreGrupo) {
+            agregarSinBloqueo(par[0], par[1]);
+        }
+        cargada = true;
+        cambiar();
+    }
+
+    public synchronized void agregar(String nombre, String grupoMuscular) {
+        if (cargada) {
+            agregarSinBloqueo(nombre, grupoMuscular);
+        }
+    }
+
+    public synchronized void eliminar(String nombre, String grupoMuscular) {
+        if (!cargada) {
+            return;
+        }
+        TreeSet<String> nombres = nombresPorGrupo.get(grupoMuscular);
+        if (nombres == null || !nombres.remove(nombre)) {
+            return;
+        }
+        if (nombres.isEmpty()) {
+            nombresPorGrupo.remove(grupoMuscular);
+        }
+        cambiar();
+        int grupos = todos.get(nombre);
+        if (grupos <= 1) {
+            todos.remove(nombre);
+        } else {
+            todos.put(nombre, grupos - 1);
+        }
+    }
+
+    /**
+     * Nombres únicos ordenados, o null si la caché aún no está cargada
+     */
+    public synchronized List<String> obtenerNombres() {
+        return cargada ? new ArrayList<>(todos.keySet()) : null;
+    }
+
+    /**
+     * Nombres ordenados de un grupo, o null si la caché aún no está cargada
+     */
+    public synchronized List<String> obtenerNombresPorGrupo(String grupoMuscular) {
+        if (!cargada) {
+            return null;
+        }
+        TreeSet<String> nombres = nombresPorGrupo.get(grupoMuscular);
+        return nombres != null ? new ArrayList<>(nombres) : new ArrayList<>();
+    }
+
+    /**
+     * Índice de búsqueda sobre los nombres de un grupo (o de todos con null), o null si la
+     * caché aún no está cargada. Se construye fuera del bloqueo para no retener a las
+     * escrituras, y solo se guarda si la caché no ha cambiado mientras tanto.
+     */
+    public IndiceNombres obtenerIndice(String grupoMuscular) {
+        List<String> nombres;
+        int versionLeida;
+        synchronized (this) {
+            if (!cargada) {
+                return null;
+            }
+            IndiceNombres indice = indices.get(grupoMuscular);
+            if (indice != null) {
+                return indice;
+            }
+            nombres = grupoMuscular == null ? obtenerNombres() : obtenerNombresPorGrupo(grupoMuscular);
+            versionLeida = version;
+        }
+
+        IndiceNombres indice = new IndiceNombres(nombres);
+        synchronized (this) {
+            if (versionLeida == version) {
+                indices.put(grupoMuscular, indice);
+            }
+        }
+        return indice;
+    }
+
+    private void agregarSinBloqueo(String nombre, String grupoMuscular) {
+        if (nombresPorGrupo.computeIfAbsent(grupoMuscular, g -> new TreeSet<>()).add(nombre)) {
+            todos.merge(nombre, 1, Integer::sum);
+            cambiar();
+        }
+    }
+
+    private void cambiar() {
+        version++;
+        indices.clear();
+    }
+}
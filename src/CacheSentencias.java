@@ -0,0 +1,157 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché LRU de PreparedStatement ligada a una conexión física del pool.
+ * La clave es el texto SQL; al cerrar la sentencia entregada solo se limpian sus
+ * parámetros y queda lista para la siguiente llamada, evitando que SQLite vuelva
+ * a analizar y planificar la consulta.
+ *
+ * No es thread-safe: una conexión física solo la usa un hilo a la vez.
+ */
+public class CacheSentencias {
+    private final Connection fisica;
+    private final AtomicLong aciertos;
+    private final AtomicLong fallos;
+    private final LinkedHashMap<String, Entrada> entradas;
+
+    public CacheSentencias(Connection fisica, final int capacidad, AtomicLong aciertos, AtomicLong fallos) {
+        this.fisica = fisica;
+        this.aciertos = aciertos;
+        this.fallos = fallos;
+        this.entradas = new LinkedHashMap<String, Entrada>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                if (size() <= capacidad) {
+                    return false;
+                }
+                eldest.getValue().expulsar();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Devuelve una sentencia preparada para el SQL dado. Si la sentencia en caché ya está
+     * en uso (dos sentencias iguales abiertas a la vez) se prepara una nueva sin cachear.
+     */
+    public PreparedStatement preparar(String sql, Connection conexionPrestada) throws SQLException {
+        Entrada entrada = entradas.get(sql);
+        if (entrada != null && !entrada.enUso) {
+            aciertos.incrementAndGet();
+        } else {
+            fallos.incrementAndGet();
+            if (entrada != null) {
+                return fisica.prepareStatement(sql);
+            }
+            entrada = new Entrada(fisica.prepareStatement(sql));
+            entradas.put(sql, entrada);
+        }
+
+        entrada.enUso = true;
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class },
+                new SentenciaPrestada(entrada, conexionPrestada));
+    }
+
+    /**
+     * Cierra todas las sentencias cacheadas (al descartar la conexión física)
+     */
+    public void cerrar() {
+        for (Entrada entrada : entradas.values()) {
+            entrada.expulsar();
+        }
+        entradas.clear();
+    }
+
+    private static final class Entrada {
+        final PreparedStatement sentencia;
+        boolean enUso;
+        boolean expulsada;
+
+        Entrada(PreparedStatement sentencia) {
+            this.sentencia = sentencia;
+        }
+
+        void liberar() {
+            enUso = false;
+            try {
+                if (expulsada) {
+                    sentencia.close();
+                } else {
+                    sentencia.clearParameters();
+                    sentencia.clearBatch();
+                }
+            } catch (SQLException e) {
+                System.err.println("Error al liberar sentencia cacheada: " + e.getMessage());
+            }
+        }
+
+        void expulsar() {
+            expulsada = true;
+            if (!enUso) {
+                try {
+                    sentencia.close();
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar sentencia cacheada: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Proxy de una sentencia cacheada: close() la devuelve a la caché
+     */
+    private static final class SentenciaPrestada implements InvocationHandler {
+        private final Entrada entrada;
+        private final Connection conexionPrestada;
+        private boolean liberada;
+
+        SentenciaPrestada(Entrada entrada, Connection conexionPrestada) {
+            this.entrada = entrada;
+            this.conexionPrestada = conexionPrestada;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String nombre = method.getName();
+            if (nombre.equals("close")) {
+                if (!liberada) {
+                    liberada = true;
+                    entrada.liberar();
+                }
+                return null;
+            }
+            if (nombre.equals("isClosed")) {
+                return liberada || entrada.sentencia.isClosed();
+            }
+            if (nombre.equals("getConnection")) {
+                return conexionPrestada;
+            }
+            if (nombre.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (nombre.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (liberada) {
+                throw new SQLException("La sentencia ya fue cerrada");
+            }
+
+            try {
+                return method.invoke(entrada.sentencia, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+
+/**
+ * Codificación de las fechas en la base de datos: días desde 1970-01-01 (epoch day) en
+ * columnas INTEGER, que SQLite compara e indexa como enteros y que se leen sin analizar
+ * texto. Las fechas decodificadas salen de una tabla de instancias compartidas
+ * (LocalDate es inmutable), de modo que leer un historial no reserva memoria por fila
+ * una vez que sus días ya se han visto.
+ *
+ * Las filas antiguas con la fecha como texto ISO (yyyy-MM-dd) las reescribe como enteros
+ * AgregadosDAO.normalizarFechas al abrir la base de datos, así que las consultas leen la
+ * columna tal cual.
+ */
+public final class CodecFecha {
+    // Días cubiertos por la tabla: de 1970-01-01 a mediados de 2149
+    private static final int DIAS_EN_CACHE = 1 << 16;
+    private static final LocalDate[] CACHE = new LocalDate[DIAS_EN_CACHE];
+
+    private CodecFecha() {
+    }
+
+    public static long codificar(LocalDate fecha) {
+        return fecha.toEpochDay();
+    }
+
+    public static LocalDate decodificar(long dia) {
+        if (dia < 0 || dia >= DIAS_EN_CACHE) {
+            return LocalDate.ofEpochDay(dia);
+        }
+        // Carrera benigna: dos hilos pueden crear la misma fecha, y cualquiera de las dos vale
+        LocalDate fecha = CACHE[(int) dia];
+        if (fecha == null) {
+            fecha = LocalDate.ofEpochDay(dia);
+            CACHE[(int) dia] = fecha;
+        }
+        return fecha;
+    }
+
+    /**
+     * Lee una columna de fecha (epoch day o NULL)
+     */
+    public static LocalDate leer(ResultSet rs, int columna) throws SQLException {
+        long dia = rs.getLong(columna);
+        return rs.wasNull() ? null : decodificar(dia);
+    }
+
+    public static void asignar(PreparedStatement pstmt, int parametro, LocalDate fecha) throws SQLException {
+        if (fecha != null) {
+            pstmt.setLong(parametro, fecha.toEpochDay());
+        } else {
+            pstmt.setNull(parametro, Types.INTEGER);
+        }
+    }
+
+    /**
+     * Expresión SQL con el epoch day de una columna de fecha, que acepta también filas
+     * antiguas guardadas como texto ISO ('YYYY-MM-DD' da un juliano terminado en .5, así
+     * que la resta es exacta). Solo para convertirlas; las lecturas usan la columna directamente.
+     */
+    static String expresionDia(String columna) {
+        return "CASE WHEN typeof(" + columna + ") = 'text' THEN CAST(julianday(" + columna +
+                ") - 2440587.5 AS INTEGER) ELSE " + columna + " END";
+    }
+
+    /**
+     * Expresión SQL con el lunes de la semana de un epoch day (1970-01-01 fue jueves)
+     */
+    static String expresionLunes(String dia) {
+        return "(" + dia + " - ((" + dia + " + 3) % 7 + 7) % 7)";
+    }
+}
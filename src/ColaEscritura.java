@@ -0,0 +1,275 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Escritor único de una base de datos SQLite. SQLite admite un solo escritor a la vez,
+ * así que en lugar de que cada hilo abra su propia transacción y compita por el
+ * bloqueo (SQLITE_BUSY), las escrituras se encolan y un hilo dedicado las ejecuta.
+ *
+ * El hilo toma todas las operaciones que estén esperando (hasta TAMANO_MAXIMO_GRUPO) y
+ * las confirma juntas en una transacción BEGIN IMMEDIATE con un solo commit. Cada
+ * operación va dentro de su propio SAVEPOINT: si falla se deshace solo ella y el resto
+ * del grupo se confirma igualmente. Las lecturas no pasan por aquí y siguen usando el
+ * pool en paralelo.
+ */
+public class ColaEscritura {
+    private static final int TAMANO_MAXIMO_GRUPO = 64;
+    private static final long ESPERA_CIERRE_MS = 10_000;
+    // Cada cuánto comprueba quien espera una escritura que el hilo escritor sigue vivo
+    private static final long INTERVALO_COMPROBACION_MS = 1_000;
+
+    /**
+     * Escritura que se ejecuta en el hilo escritor, dentro de la transacción del grupo.
+     * No debe hacer commit, rollback ni cambiar el autocommit de la conexión.
+     */
+    public interface Operacion<T> {
+        T ejecutar(Connection connection) throws SQLException;
+    }
+
+    private static final class Pendiente<T> {
+        final Operacion<T> operacion;
+        final Runnable alConfirmar;
+        final CompletableFuture<T> resultado = new CompletableFuture<>();
+        T valor;
+        Throwable error;
+
+        Pendiente(Operacion<T> operacion, Runnable alConfirmar) {
+            this.operacion = operacion;
+            this.alConfirmar = alConfirmar;
+        }
+
+        void ejecutar(Connection connection) throws SQLException {
+            valor = operacion.ejecutar(connection);
+        }
+
+        void completar() {
+            if (error != null) {
+                resultado.completeExceptionally(error);
+            } else {
+                resultado.complete(valor);
+            }
+        }
+    }
+
+    // Marca de fin para el hilo escritor
+    private static final Pendiente<Void> FIN = new Pendiente<>(connection -> null, null);
+
+    private final DatabaseManager dbManager;
+    private final BlockingQueue<Pendiente<?>> cola = new LinkedBlockingQueue<>();
+    private final Thread escritor;
+    private final AtomicLong grupos = new AtomicLong();
+    private final AtomicLong operaciones = new AtomicLong();
+    private volatile boolean cerrada;
+
+    public ColaEscritura(DatabaseManager dbManager, String nombreHilo) {
+        this.dbManager = dbManager;
+        this.escritor = new Thread(this::procesar, nombreHilo);
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Encola la operación y espera a que su grupo se confirme. {@code alConfirmar} (puede
+     * ser null) se ejecuta en el hilo escritor justo después del commit, en el mismo orden
+     * que las escrituras, así que sirve para actualizar cachés en memoria sin que dos
+     * escrituras concurrentes las dejen desordenadas.
+     *
+     * @throws SQLException si la operación o el commit del grupo fallan; en ese caso la
+     *         operación no dejó ningún cambio en la base de datos
+     */
+    public <T> T ejecutar(Operacion<T> operacion, Runnable alConfirmar) throws SQLException {
+        if (Thread.currentThread() == escritor) {
+            throw new IllegalStateException("Una escritura no puede encolar otra: se esperaría a sí misma");
+        }
+        Pendiente<T> pendiente = new Pendiente<>(operacion, alConfirmar);
+        // Con el mismo bloqueo que cerrar(): nada se encola detrás de la marca de fin
+        synchronized (cola) {
+            if (cerrada) {
+                throw new SQLException("La cola de escritura está cerrada");
+            }
+            if (!escritor.isAlive()) {
+                throw new SQLException("El hilo escritor " + escritor.getName() + " terminó");
+            }
+            cola.add(pendiente);
+        }
+        try {
+            while (true) {
+                try {
+                    return pendiente.resultado.get(INTERVALO_COMPROBACION_MS, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // Si el escritor murió ya no completará nada: no esperar para siempre
+                    if (!escritor.isAlive() && !pendiente.resultado.isDone()) {
+                        throw new SQLException("El hilo escritor " + escritor.getName()
+                                + " terminó sin confirmar la escritura");
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido esperando la escritura", e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof SQLException) {
+                throw (SQLException) causa;
+            }
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            if (causa instanceof Error) {
+                throw (Error) causa;
+            }
+            throw new SQLException(causa);
+        }
+    }
+
+    /**
+     * Transacciones confirmadas desde que se creó la cola
+     */
+    public long getGruposConfirmados() {
+        return grupos.get();
+    }
+
+    /**
+     * Operaciones confirmadas; dividido entre los grupos da el tamaño medio de cada commit
+     */
+    public long getOperacionesConfirmadas() {
+        return operaciones.get();
+    }
+
+    /**
+     * Termina las escrituras ya encoladas y detiene el hilo escritor. Las que lleguen
+     * después fallan con SQLException.
+     */
+    public void cerrar() {
+        synchronized (cola) {
+            if (cerrada) {
+                return;
+            }
+            cerrada = true;
+            cola.add(FIN);
+        }
+        if (Thread.currentThread() != escritor) {
+            try {
+                escritor.join(ESPERA_CIERRE_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void procesar() {
+        List<Pendiente<?>> grupo = new ArrayList<>(TAMANO_MAXIMO_GRUPO);
+        while (true) {
+            try {
+                grupo.add(cola.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            cola.drainTo(grupo, TAMANO_MAXIMO_GRUPO - 1);
+
+            // La marca es siempre lo último de la cola
+            boolean fin = grupo.remove(FIN);
+            if (!grupo.isEmpty()) {
+                try {
+                    confirmarGrupo(grupo);
+                } catch (Throwable e) {
+                    // Un Error (OutOfMemoryError, StackOverflowError...) no puede matar al
+                    // escritor dejando a sus llamadores esperando: el grupo falla entero
+                    System.err.println("Error grave al confirmar un grupo de escrituras: " + e);
+                    e.printStackTrace();
+                    for (Pendiente<?> pendiente : grupo) {
+                        pendiente.resultado.completeExceptionally(e);
+                    }
+                }
+            }
+            grupo.clear();
+            if (fin) {
+                return;
+            }
+        }
+    }
+
+    private void confirmarGrupo(List<Pendiente<?>> grupo) {
+        try (Connection connection = dbManager.getConnection();
+                Statement statement = connection.createStatement()) {
+            // IMMEDIATE toma el bloqueo de escritura al empezar: una transacción que lee
+            // antes de escribir no puede quedarse con una instantánea antigua y fallar con
+            // SQLITE_BUSY al intentar escribir (p. ej. si otro proceso usa el fichero)
+            statement.execute("BEGIN IMMEDIATE");
+            try {
+                for (Pendiente<?> pendiente : grupo) {
+                    ejecutarConSavepoint(connection, statement, pendiente);
+                }
+                statement.execute("COMMIT");
+            } catch (Throwable e) {
+                deshacer(statement);
+                throw e;
+            }
+
+        } catch (SQLException | ClassNotFoundException | RuntimeException e) {
+            System.err.println("Error al confirmar un grupo de escrituras: " + e.getMessage());
+            e.printStackTrace();
+            for (Pendiente<?> pendiente : grupo) {
+                pendiente.resultado.completeExceptionally(e instanceof SQLException ? e : new SQLException(e));
+            }
+            return;
+        }
+
+        int confirmadas = 0;
+        for (Pendiente<?> pendiente : grupo) {
+            if (pendiente.error == null) {
+                confirmadas++;
+                if (pendiente.alConfirmar != null) {
+                    // Ya está confirmada: un fallo aquí se registra pero no cambia su resultado
+                    try {
+                        pendiente.alConfirmar.run();
+                    } catch (Throwable e) {
+                        System.err.println("Error tras confirmar una escritura: " + e);
+                        e.printStackTrace();
+                    }
+                }
+            }
+            pendiente.completar();
+        }
+        grupos.incrementAndGet();
+        operaciones.addAndGet(confirmadas);
+    }
+
+    /**
+     * Ejecuta una operación del grupo. Si falla se vuelve al savepoint y el error queda
+     * solo en su resultado; si tampoco se puede volver, falla el grupo entero.
+     */
+    private void ejecutarConSavepoint(Connection connection, Statement statement, Pendiente<?> pendiente)
+            throws SQLException {
+        statement.execute("SAVEPOINT escritura");
+        try {
+            pendiente.ejecutar(connection);
+        } catch (SQLException | RuntimeException e) {
+            pendiente.error = e;
+            statement.execute("ROLLBACK TO escritura");
+        }
+        statement.execute("RELEASE escritura");
+    }
+
+    /**
+     * La transacción se abrió a mano (la conexión sigue en autocommit), así que el pool
+     * no la revierte al devolverla: hay que hacerlo aquí
+     */
+    private void deshacer(Statement statement) {
+        try {
+            statement.execute("ROLLBACK");
+        } catch (SQLException e) {
+            System.err.println("Error al deshacer un grupo de escrituras: " + e.getMessage());
+        }
+    }
+}
@@ -1,58 +1,156 @@
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.sql.Statement;
 
 /**
- * Clase para gestionar la conexión a la base de datos y crear las tablas necesarias
+ * Clase para gestionar la conexión a la base de datos y crear las tablas necesarias.
+ * Las lecturas toman conexiones del pool en paralelo; las escrituras pasan por
+ * {@link #escribir}, que las encola para un único hilo escritor (ver ColaEscritura).
  */
 public class DatabaseManager {
     private static final String DB_PATH = "database/Gymtracker.db";
-    private static final String DB_URL = "jdbc:sqlite:" + DB_PATH;
-    private static DatabaseManager instance;
+
+    // Configuración del pool (sobrescribible con -Dgymtracker.pool.tamano=..., etc.)
+    private static final int TAMANO_POOL_POR_DEFECTO = 4;
+    private static final int CACHE_SIZE_KB_POR_DEFECTO = 16 * 1024;
+    private static final long MMAP_SIZE_POR_DEFECTO = 256L * 1024 * 1024;
+    private static final int CACHE_SENTENCIAS_POR_DEFECTO = 32;
+
+    /**
+     * La instancia compartida se crea al cargar esta clase, la primera vez que se llama a
+     * getInstance(); la JVM garantiza que eso ocurra una sola vez aunque haya varios hilos
+     */
+    private static final class Instancia {
+        static final DatabaseManager INSTANCIA = new DatabaseManager();
+    }
+    
+    private final String rutaBaseDatos;
+    private final PoolConexiones pool;
+    private final ColaEscritura colaEscritura;
+    private final CacheNombresEjercicios cacheNombres = new CacheNombresEjercicios();
     
     private DatabaseManager() {
         // Constructor privado para patrón Singleton
+        this(DB_PATH);
+        // Solo la instancia compartida: las demás las cierra quien las crea, y un hook por
+        // instancia las mantendría vivas hasta el final de la JVM
+        Runtime.getRuntime().addShutdownHook(new Thread(this::cerrar, "cierre-pool-sqlite"));
+    }
+    
+    /**
+     * Instancia independiente sobre otro fichero de base de datos (benchmarks, herramientas,
+     * particiones del servidor); quien la crea debe llamar a cerrar()
+     */
+    DatabaseManager(String rutaBaseDatos) {
+        this.rutaBaseDatos = rutaBaseDatos;
+        pool = new PoolConexiones("jdbc:sqlite:" + rutaBaseDatos,
+                Integer.getInteger("gymtracker.pool.tamano", TAMANO_POOL_POR_DEFECTO),
+                Integer.getInteger("gymtracker.sqlite.cacheKb", CACHE_SIZE_KB_POR_DEFECTO),
+                Long.getLong("gymtracker.sqlite.mmapBytes", MMAP_SIZE_POR_DEFECTO),
+                Integer.getInteger("gymtracker.cacheSentencias.tamano", CACHE_SENTENCIAS_POR_DEFECTO));
+        colaEscritura = new ColaEscritura(this, "escritor-sqlite");
     }
     
     public static DatabaseManager getInstance() {
-        if (instance == null) {
-            instance = new DatabaseManager();
-        }
-        return instance;
+        return Instancia.INSTANCIA;
+    }
+    
+    /**
+     * Fichero de la base de datos; los ficheros auxiliares (p. ej. el diario de series) van a su lado
+     */
+    public String getRutaBaseDatos() {
+        return rutaBaseDatos;
     }
     
     /**
-     * Obtiene una conexión a la base de datos
+     * Obtiene una conexión del pool. Al cerrarla se devuelve al pool en lugar de cerrarse.
      */
     public Connection getConnection() throws SQLException, ClassNotFoundException {
-        Class.forName("org.sqlite.JDBC");
-        return DriverManager.getConnection(DB_URL);
+        return pool.obtener();
     }
     
     /**
-     * Crea la tabla de ejercicios si no existe
+     * Ejecuta una escritura en el hilo escritor, agrupada en una transacción con las demás
+     * que estén esperando, y devuelve su resultado cuando se ha confirmado.
+     * {@code alConfirmar} (puede ser null) se ejecuta tras el commit y en orden de escritura.
+     *
+     * @see ColaEscritura#ejecutar
+     */
+    public <T> T escribir(ColaEscritura.Operacion<T> operacion, Runnable alConfirmar) throws SQLException {
+        return colaEscritura.ejecutar(operacion, alConfirmar);
+    }
+    
+    public <T> T escribir(ColaEscritura.Operacion<T> operacion) throws SQLException {
+        return colaEscritura.ejecutar(operacion, null);
+    }
+    
+    /**
+     * Transacciones confirmadas por el hilo escritor
+     */
+    public long getGruposEscritura() {
+        return colaEscritura.getGruposConfirmados();
+    }
+    
+    /**
+     * Escrituras confirmadas por el hilo escritor
+     */
+    public long getOperacionesEscritura() {
+        return colaEscritura.getOperacionesConfirmadas();
+    }
+    
+    /**
+     * Caché de nombres de ejercicio compartida por todos los DAO de esta base de datos
+     */
+    public CacheNombresEjercicios getCacheNombres() {
+        return cacheNombres;
+    }
+    
+    /**
+     * Veces que una consulta reutilizó una sentencia ya preparada
+     */
+    public long getAciertosCacheSentencias() {
+        return pool.getAciertosCacheSentencias();
+    }
+    
+    /**
+     * Veces que hubo que preparar la sentencia desde cero
+     */
+    public long getFallosCacheSentencias() {
+        return pool.getFallosCacheSentencias();
+    }
+    
+    /**
+     * Entrega a {@code observador} el SQL de cada sentencia preparada en conexiones del
+     * pool (null para dejar de observar); lo usan los arneses de bench
+     */
+    void observarSentencias(java.util.function.Consumer<String> observador) {
+        pool.observarSentencias(observador);
+    }
+    
+    /**
+     * Termina las escrituras encoladas y cierra las conexiones físicas del pool
+     */
+    public void cerrar() {
+        colaEscritura.cerrar();
+        pool.cerrar();
+    }
+    
+    /**
+     * Crea o actualiza el esquema aplicando las migraciones pendientes
      */
     public void initializeDatabase() {
-        String createTableSQL = 
-            "CREATE TABLE IF NOT EXISTS ejercicios (" +
-            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-            "nombre TEXT NOT NULL, " +
-            "grupo_muscular TEXT NOT NULL, " +
-            "peso REAL NOT NULL, " +
-            "repeticiones INTEGER NOT NULL, " +
-            "fecha TEXT" +
-            ");";
-        
-        try (Connection connection = getConnection();
-             Statement statement = connection.createStatement()) {
+        try (Connection connection = getConnection()) {
             
-            statement.execute(createTableSQL);
+            new MigradorEsquema().migrar(connection);
             
         } catch (SQLException | ClassNotFoundException e) {
             System.err.println("Error al inicializar la base de datos: " + e.getMessage());
             e.printStackTrace();
+            // Con el esquema a medio migrar no se toca nada más
+            return;
         }
+        
+        // Filas antiguas con la fecha como texto: se convierten antes de leer nada
+        new AgregadosDAO(this).normalizarFechas();
     }
 }
 
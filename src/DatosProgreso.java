@@ -0,0 +1,159 @@
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Serie diaria de progreso de un ejercicio para el gráfico: por cada día con registros,
+ * el peso máximo, el volumen (peso x repeticiones) y el mejor 1RM estimado. Se guarda en
+ * arrays primitivos ordenados por día (epoch day) para que el gráfico y el
+ * downsampler los recorran sin crear objetos. La interfaz la lee de volumen_diario
+ * (una fila por día) y, al guardar una serie, la actualiza en memoria con agregar();
+ * también se puede calcular desde un {@link HistorialColumnar} ya cargado.
+ */
+public class DatosProgreso {
+
+    /**
+     * Magnitud que se dibuja
+     */
+    public enum Metrica {
+        PESO("Peso máximo", "kg"),
+        VOLUMEN("Volumen", "kg"),
+        UNA_RM("1RM estimado", "kg");
+
+        private final String etiqueta;
+        private final String unidad;
+
+        Metrica(String etiqueta, String unidad) {
+            this.etiqueta = etiqueta;
+            this.unidad = unidad;
+        }
+
+        public String getEtiqueta() {
+            return etiqueta;
+        }
+
+        public String getUnidad() {
+            return unidad;
+        }
+
+        @Override
+        public String toString() {
+            return etiqueta;
+        }
+    }
+
+    private final String nombre;
+    private final int[] dias;
+    private final double[] pesoMaximo;
+    private final double[] volumen;
+    private final double[] mejor1RM;
+
+    public DatosProgreso(String nombre, int[] dias, double[] pesoMaximo, double[] volumen, double[] mejor1RM) {
+        this.nombre = nombre;
+        this.dias = dias;
+        this.pesoMaximo = pesoMaximo;
+        this.volumen = volumen;
+        this.mejor1RM = mejor1RM;
+    }
+
+    /**
+     * Carga la serie diaria del ejercicio de los agregados por día, sin recorrer su
+     * historial. Los registros sin fecha no se pueden situar en el eje temporal y no cuentan.
+     */
+    public static DatosProgreso cargar(EjercicioDAO dao, String nombre) {
+        return dao.getAgregadosDAO().obtenerProgresoDiario(nombre);
+    }
+
+    /**
+     * Serie diaria de un ejercicio a partir de un historial ya cargado
+     */
+    public static DatosProgreso desde(HistorialColumnar historial, String nombre) {
+        int nombreId = historial.buscarNombre(nombre);
+        int n = nombreId >= 0 ? historial.contarDias(nombreId) : 0;
+        int[] dias = new int[n];
+        double[] pesoMaximo = new double[n];
+        double[] volumen = new double[n];
+        double[] mejor1RM = new double[n];
+        if (n > 0) {
+            historial.agruparPorDia(nombreId, dias, pesoMaximo, volumen, mejor1RM);
+        }
+        return new DatosProgreso(nombre, dias, pesoMaximo, volumen, mejor1RM);
+    }
+
+    /**
+     * Copia con {@code serie} sumada a su día (que se crea si no existía), igual que
+     * la suman los agregados al guardarla. Una serie sin fecha no cambia nada.
+     */
+    public DatosProgreso agregar(Ejercicio serie) {
+        if (serie.getFecha() == null) {
+            return this;
+        }
+        int dia = (int) serie.getFecha().toEpochDay();
+        double peso = serie.getPeso();
+        double volumenSerie = peso * serie.getRepeticiones();
+        double estimado = AgregadosEjercicio.estimar1RM(peso, serie.getRepeticiones());
+
+        int indice = Arrays.binarySearch(dias, dia);
+        if (indice >= 0) {
+            double[] nuevoPeso = pesoMaximo.clone();
+            double[] nuevoVolumen = volumen.clone();
+            double[] nuevo1RM = mejor1RM.clone();
+            nuevoPeso[indice] = Math.max(nuevoPeso[indice], peso);
+            nuevoVolumen[indice] += volumenSerie;
+            nuevo1RM[indice] = Math.max(nuevo1RM[indice], estimado);
+            return new DatosProgreso(nombre, dias, nuevoPeso, nuevoVolumen, nuevo1RM);
+        }
+
+        int posicion = -indice - 1;
+        return new DatosProgreso(nombre, insertar(dias, posicion, dia), insertar(pesoMaximo, posicion, peso),
+                insertar(volumen, posicion, volumenSerie), insertar(mejor1RM, posicion, estimado));
+    }
+
+    private static int[] insertar(int[] valores, int posicion, int valor) {
+        int[] resultado = new int[valores.length + 1];
+        System.arraycopy(valores, 0, resultado, 0, posicion);
+        resultado[posicion] = valor;
+        System.arraycopy(valores, posicion, resultado, posicion + 1, valores.length - posicion);
+        return resultado;
+    }
+
+    private static double[] insertar(double[] valores, int posicion, double valor) {
+        double[] resultado = new double[valores.length + 1];
+        System.arraycopy(valores, 0, resultado, 0, posicion);
+        resultado[posicion] = valor;
+        System.arraycopy(valores, posicion, resultado, posicion + 1, valores.length - posicion);
+        return resultado;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public int getCantidad() {
+        return dias.length;
+    }
+
+    /**
+     * Días (epoch day) en orden ascendente. No debe modificarse.
+     */
+    public int[] getDias() {
+        return dias;
+    }
+
+    /**
+     * Valores de la métrica, alineados con getDias(). No deben modificarse.
+     */
+    public double[] getValores(Metrica metrica) {
+        switch (metrica) {
+            case VOLUMEN:
+                return volumen;
+            case UNA_RM:
+                return mejor1RM;
+            default:
+                return pesoMaximo;
+        }
+    }
+
+    public LocalDate getFecha(int indice) {
+        return LocalDate.ofEpochDay(dias[indice]);
+    }
+}
@@ -0,0 +1,109 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Modelo de la pantalla de detalle de un ejercicio. Se carga una sola vez al navegar
+ * (total de registros + primera página del historial) y después se actualiza en memoria
+ * con cada registro guardado, de modo que la tabla de historial, los valores por defecto
+ * del formulario y el grupo muscular se sirven desde aquí sin volver a consultar.
+ * El resto del historial lo pagina {@link HistorialTableModel} bajo demanda.
+ */
+public class DetalleEjercicioModelo {
+    // Mismo orden que la consulta: fecha DESC (sin fecha al final), id DESC
+    static final Comparator<Ejercicio> ORDEN_HISTORIAL = Comparator
+            .comparing(Ejercicio::getFecha, Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder()))
+            // Una serie aún en el diario (id 0) es la más reciente y recibirá el id más alto
+            .thenComparingInt((Ejercicio e) -> e.getId() != 0 ? e.getId() : Integer.MAX_VALUE)
+            .reversed();
+
+    private static final String GRUPO_POR_DEFECTO = "Otro";
+
+    private final String nombre;
+    private final List<Ejercicio> primeraPagina;
+    private final int tamanoPagina;
+    private int total;
+
+    public DetalleEjercicioModelo(String nombre, int total, List<Ejercicio> primeraPagina, int tamanoPagina) {
+        this.nombre = nombre;
+        this.total = total;
+        this.primeraPagina = new ArrayList<>(primeraPagina);
+        this.tamanoPagina = tamanoPagina;
+    }
+
+    /**
+     * Carga el modelo con dos consultas: el total y la primera página
+     */
+    public static DetalleEjercicioModelo cargar(EjercicioDAO dao, String nombre, int tamanoPagina) {
+        int total = dao.contarEjerciciosPorNombre(nombre);
+        List<Ejercicio> primeraPagina = dao.obtenerPaginaPorNombre(nombre, null, 0, tamanoPagina);
+        return new DetalleEjercicioModelo(nombre, Math.max(total, primeraPagina.size()), primeraPagina, tamanoPagina);
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Grupo muscular del registro más reciente, o "Otro" si aún no hay registros
+     */
+    public String getGrupoMuscular() {
+        return primeraPagina.isEmpty() ? GRUPO_POR_DEFECTO : primeraPagina.get(0).getGrupoMuscular();
+    }
+
+    /**
+     * Registro más reciente, o null si no hay ninguno
+     */
+    public Ejercicio getUltimoRegistro() {
+        return primeraPagina.isEmpty() ? null : primeraPagina.get(0);
+    }
+
+    public List<Ejercicio> getPrimeraPagina() {
+        return Collections.unmodifiableList(primeraPagina);
+    }
+
+    /**
+     * Añade un registro recién guardado. Si cae dentro de la primera página se coloca en
+     * su posición (y la página conserva su tamaño); si no, solo cuenta para el total.
+     */
+    public void agregar(Ejercicio ejercicio) {
+        total++;
+        colocar(ejercicio);
+    }
+
+    /**
+     * Asigna a un registro guardado a través del diario (id 0 hasta entonces) el id que
+     * recibió en SQLite y lo recoloca, porque su posición entre los del mismo día depende
+     * del id. Debe llamarse desde el mismo hilo que el resto del modelo (el EDT).
+     */
+    public void asignarId(Ejercicio ejercicio, int id) {
+        for (int i = 0; i < primeraPagina.size(); i++) {
+            if (primeraPagina.get(i) == ejercicio) {
+                primeraPagina.remove(i);
+                ejercicio.setId(id);
+                colocar(ejercicio);
+                return;
+            }
+        }
+        ejercicio.setId(id);
+    }
+
+    private void colocar(Ejercicio ejercicio) {
+        int posicion = Collections.binarySearch(primeraPagina, ejercicio, ORDEN_HISTORIAL);
+        if (posicion < 0) {
+            posicion = -posicion - 1;
+        }
+        if (posicion < tamanoPagina) {
+            primeraPagina.add(posicion, ejercicio);
+            if (primeraPagina.size() > tamanoPagina) {
+                primeraPagina.remove(primeraPagina.size() - 1);
+            }
+        }
+    }
+}
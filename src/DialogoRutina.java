@@ -0,0 +1,125 @@
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Diálogo para crear o editar una rutina: nombre y tabla de ejercicios con su objetivo
+ * (series, repeticiones y peso). El nombre del ejercicio se elige entre los ya
+ * registrados o se escribe uno nuevo.
+ */
+public final class DialogoRutina {
+    private static final String[] COLUMNAS = { "Ejercicio", "Grupo", "Series", "Reps", "Peso" };
+    private static final Class<?>[] CLASES = { String.class, String.class, Integer.class, Integer.class,
+            Double.class };
+
+    private DialogoRutina() {
+    }
+
+    /**
+     * Muestra el diálogo hasta que la rutina sea válida o se cancele.
+     *
+     * @param inicial rutina a editar, o null para una nueva
+     * @return la rutina editada (con el id de {@code inicial}), o null si se cancela
+     */
+    public static Rutina mostrar(Component padre, Rutina inicial, List<String> nombresConocidos,
+            String[] gruposMusculares) {
+        JTextField nombreField = new JTextField(inicial != null ? inicial.getNombre() : "");
+
+        DefaultTableModel modelo = new DefaultTableModel(COLUMNAS, 0) {
+            @Override
+            public Class<?> getColumnClass(int columnIndex) {
+                return CLASES[columnIndex];
+            }
+        };
+        if (inicial != null) {
+            for (Rutina.EjercicioRutina ejercicio : inicial.getEjercicios()) {
+                modelo.addRow(new Object[] { ejercicio.getNombre(), ejercicio.getGrupoMuscular(),
+                        ejercicio.getSeries(), ejercicio.getRepeticiones(), ejercicio.getPeso() });
+            }
+        }
+
+        JTable tabla = new JTable(modelo);
+        tabla.setRowHeight(28);
+        tabla.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        JComboBox<String> nombresCombo = new JComboBox<>(nombresConocidos.toArray(new String[0]));
+        nombresCombo.setEditable(true);
+        tabla.getColumnModel().getColumn(0).setCellEditor(new DefaultCellEditor(nombresCombo));
+        tabla.getColumnModel().getColumn(0).setPreferredWidth(200);
+        tabla.getColumnModel().getColumn(1).setCellEditor(new DefaultCellEditor(new JComboBox<>(gruposMusculares)));
+
+        JButton btnAnadir = new JButton("Añadir ejercicio");
+        btnAnadir.addActionListener(e -> modelo.addRow(new Object[] { "", gruposMusculares[0], 3, 10, 0.0 }));
+        JButton btnQuitar = new JButton("Quitar");
+        btnQuitar.addActionListener(e -> {
+            int fila = tabla.getSelectedRow();
+            if (fila >= 0) {
+                if (tabla.isEditing()) {
+                    tabla.getCellEditor().cancelCellEditing();
+                }
+                modelo.removeRow(fila);
+            }
+        });
+
+        JPanel botones = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        botones.add(btnAnadir);
+        botones.add(btnQuitar);
+
+        JPanel cabecera = new JPanel(new BorderLayout(5, 5));
+        cabecera.add(new JLabel("Nombre de la rutina:"), BorderLayout.NORTH);
+        cabecera.add(nombreField, BorderLayout.CENTER);
+
+        JScrollPane scroll = new JScrollPane(tabla);
+        scroll.setPreferredSize(new Dimension(420, 240));
+
+        JPanel panel = new JPanel(new BorderLayout(5, 10));
+        panel.add(cabecera, BorderLayout.NORTH);
+        panel.add(scroll, BorderLayout.CENTER);
+        panel.add(botones, BorderLayout.SOUTH);
+
+        String titulo = inicial != null ? "Editar rutina" : "Nueva rutina";
+        while (true) {
+            int opcion = JOptionPane.showConfirmDialog(padre, panel, titulo, JOptionPane.OK_CANCEL_OPTION,
+                    JOptionPane.PLAIN_MESSAGE);
+            if (opcion != JOptionPane.OK_OPTION) {
+                return null;
+            }
+            if (tabla.isEditing() && !tabla.getCellEditor().stopCellEditing()) {
+                JOptionPane.showMessageDialog(padre, "Hay una celda con un valor no válido.", "Error",
+                        JOptionPane.ERROR_MESSAGE);
+                continue;
+            }
+
+            Rutina rutina = leerRutina(inicial, nombreField.getText().trim(), modelo);
+            String error = rutina != null ? rutina.validar() : "Completa series, repeticiones y peso de cada ejercicio";
+            if (error == null) {
+                return rutina;
+            }
+            JOptionPane.showMessageDialog(padre, error, "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Rutina con los valores de la tabla, o null si falta algún número
+     */
+    private static Rutina leerRutina(Rutina inicial, String nombre, DefaultTableModel modelo) {
+        List<Rutina.EjercicioRutina> ejercicios = new ArrayList<>();
+        for (int fila = 0; fila < modelo.getRowCount(); fila++) {
+            Object nombreEjercicio = modelo.getValueAt(fila, 0);
+            Object grupo = modelo.getValueAt(fila, 1);
+            Object series = modelo.getValueAt(fila, 2);
+            Object repeticiones = modelo.getValueAt(fila, 3);
+            Object peso = modelo.getValueAt(fila, 4);
+            if (series == null || repeticiones == null || peso == null) {
+                return null;
+            }
+            ejercicios.add(new Rutina.EjercicioRutina(
+                    nombreEjercicio != null ? nombreEjercicio.toString().trim() : "",
+                    grupo != null ? grupo.toString() : "",
+                    ((Number) series).intValue(), ((Number) repeticiones).intValue(),
+                    ((Number) peso).doubleValue()));
+        }
+        return new Rutina(inicial != null ? inicial.getId() : 0, nombre, ejercicios);
+    }
+}
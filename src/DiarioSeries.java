@@ -0,0 +1,640 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Diario de series: registro local de solo añadir, mapeado en memoria, donde se apunta
+ * cada serie nueva antes de llegar a SQLite. Apuntarla cuesta microsegundos (copiar unos
+ * bytes al fichero mapeado) en lugar de esperar a un commit; un hilo en segundo plano
+ * vuelca después las series apuntadas a la base de datos en lotes, con
+ * EjercicioDAO.insertarEjercicios.
+ *
+ * Cada registro lleva una secuencia creciente. La última secuencia volcada se guarda en
+ * la tabla diario_aplicado dentro de la misma transacción que las series, así que al
+ * abrir el diario tras una caída se vuelven a volcar exactamente los registros que no
+ * llegaron a confirmarse: ninguno se pierde y ninguno se inserta dos veces. Cuando todo
+ * está volcado, el diario se vacía y vuelve a empezar desde el principio del fichero; si
+ * nunca llega a vaciarse (escrituras continuas), los pendientes se compactan al principio
+ * en cuanto lo ya volcado ocupa UMBRAL_COMPACTACION, así que el fichero no crece sin límite.
+ *
+ * Formato: cabecera (MAGIA y la posición del primer registro) y registros
+ * [longitud][crc32][datos], con la secuencia al
+ * principio de los datos y por tanto cubierta por el CRC. La longitud se escribe la
+ * última y detrás de cada registro queda un 0, de modo que un registro a medio escribir
+ * no se lee nunca; el CRC descarta además los que el sistema operativo solo llegó a
+ * guardar en parte.
+ *
+ * Lo que ya está en el mapeo sobrevive a que se mate el proceso; frente a un corte de
+ * luz, {@link Sincronizacion} decide cada cuánto se fuerza a disco.
+ */
+public class DiarioSeries {
+
+    /**
+     * Cuándo se fuerza el diario a disco (fsync), configurable con
+     * -Dgymtracker.diario.sincronizacion=siempre|periodica|nunca
+     */
+    public enum Sincronizacion {
+        /** Tras cada serie: no se pierde nada ni con un corte de luz, a costa de un fsync por serie */
+        SIEMPRE,
+        /** Como mucho cada INTERVALO_SINCRONIZACION_MS, desde el hilo que vuelca el diario */
+        PERIODICA,
+        /** Nunca: basta con que el proceso muera, el sistema operativo escribe el mapeo */
+        NUNCA;
+
+        public static Sincronizacion desdePropiedad() {
+            String valor = System.getProperty("gymtracker.diario.sincronizacion", "periodica");
+            try {
+                return valueOf(valor.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Sincronización del diario desconocida: " + valor + "; se usa PERIODICA");
+                return PERIODICA;
+            }
+        }
+    }
+
+    private static final int MAGIA = 0x47544431; // "GTD1"
+    // MAGIA y la posición del primer registro (0 = justo tras la cabecera); solo es
+    // distinta de 0 mientras se compacta
+    private static final int CABECERA = 8;
+    private static final int POSICION_INICIO = 4;
+    // longitud + crc32
+    private static final int CABECERA_REGISTRO = 8;
+    private static final int TAMANO_INICIAL = 1 << 20;
+    private static final int TAMANO_LOTE = 500;
+    private static final int UMBRAL_COMPACTACION = TAMANO_INICIAL / 2;
+    private static final long INTERVALO_SINCRONIZACION_MS = 200;
+    private static final long ESPERA_TRAS_ERROR_MS = 1000;
+
+    /**
+     * Serie apuntada que aún no se ha volcado a SQLite
+     */
+    private static final class Registro {
+        final long secuencia;
+        // Copia de lo apuntado, que es lo que se inserta
+        final Ejercicio serie;
+        // Recibe el id al volcarse (null si nadie lo espera)
+        final IntConsumer alVolcar;
+        // Dónde empieza en el fichero; cambia al compactar (protegida por el monitor)
+        int posicion;
+
+        Registro(long secuencia, Ejercicio serie, IntConsumer alVolcar, int posicion) {
+            this.secuencia = secuencia;
+            this.serie = serie;
+            this.alVolcar = alVolcar;
+            this.posicion = posicion;
+        }
+    }
+
+    /**
+     * Quien espera (ver volcado()) a que se vuelque hasta la secuencia {@code objetivo}
+     */
+    private static final class Espera {
+        final long objetivo;
+        final CompletableFuture<Void> futuro = new CompletableFuture<>();
+
+        Espera(long objetivo) {
+            this.objetivo = objetivo;
+        }
+    }
+
+    private final Path fichero;
+    private final EjercicioDAO ejercicioDAO;
+    private final DatabaseManager dbManager;
+    private final Sincronizacion sincronizacion;
+
+    // Todo lo que sigue se protege con el monitor de la instancia
+    private FileChannel canal;
+    private FileLock bloqueo;
+    private MappedByteBuffer mapa;
+    private int escritura;
+    private long ultimaSecuencia;
+    private long secuenciaAplicada;
+    private boolean sucio;
+    private long ultimoForzado;
+    private boolean cerrado = true;
+    private final ArrayDeque<Registro> pendientes = new ArrayDeque<>();
+    // En orden de objetivo, porque ultimaSecuencia solo crece
+    private final ArrayDeque<Espera> esperas = new ArrayDeque<>();
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer registro = ByteBuffer.allocate(256);
+    private Thread volcador;
+
+    public DiarioSeries(Path fichero, EjercicioDAO ejercicioDAO, DatabaseManager dbManager,
+            Sincronizacion sincronizacion) {
+        this.fichero = fichero;
+        this.ejercicioDAO = ejercicioDAO;
+        this.dbManager = dbManager;
+        this.sincronizacion = sincronizacion;
+    }
+
+    /**
+     * Abre (o crea) el fichero, recupera las series que no se llegaron a volcar y arranca
+     * el hilo que las vuelca. Necesita el esquema ya migrado (tabla diario_aplicado).
+     *
+     * @throws IOException si no se puede abrir el fichero o lo tiene abierto otro proceso
+     */
+    public synchronized void abrir() throws IOException, SQLException {
+        if (!cerrado) {
+            return;
+        }
+        secuenciaAplicada = leerSecuenciaAplicada();
+
+        canal = FileChannel.open(fichero, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            bloqueo = canal.tryLock();
+            if (bloqueo == null) {
+                throw new IOException("El diario " + fichero + " está abierto en otro proceso");
+            }
+            long tamano = Math.max(canal.size(), TAMANO_INICIAL);
+            mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamano);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+
+        if (mapa.getInt(0) != MAGIA) {
+            mapa.putInt(0, MAGIA);
+            mapa.putInt(POSICION_INICIO, 0);
+            mapa.putInt(CABECERA, 0);
+        }
+        recuperar();
+        ultimaSecuencia = Math.max(ultimaSecuencia, secuenciaAplicada);
+        if (!pendientes.isEmpty()) {
+            System.out.println("Diario de series: " + pendientes.size() + " series pendientes de volcar");
+        }
+
+        cerrado = false;
+        volcador = new Thread(this::volcar, "volcado-diario-series");
+        volcador.setDaemon(true);
+        volcador.start();
+    }
+
+    /**
+     * Apunta la serie en el diario y vuelve sin esperar a SQLite
+     *
+     * @return false si la serie no es válida o no se pudo escribir en el diario
+     */
+    public boolean registrar(Ejercicio ejercicio) {
+        return registrar(ejercicio, null);
+    }
+
+    /**
+     * Como {@link #registrar(Ejercicio)}; {@code alVolcar} (puede ser null) recibe el id de
+     * la serie cuando llega a SQLite, en el hilo del diario. El objeto del llamador no se
+     * modifica: si lo comparte con la interfaz, es quien lo actualiza en su hilo.
+     */
+    public boolean registrar(Ejercicio ejercicio, IntConsumer alVolcar) {
+        String error = ejercicio.validar();
+        if (error != null) {
+            System.err.println("Serie no válida: " + error);
+            return false;
+        }
+        byte[] nombre = ejercicio.getNombre().getBytes(StandardCharsets.UTF_8);
+        byte[] grupo = ejercicio.getGrupoMuscular().getBytes(StandardCharsets.UTF_8);
+        // Lo que se vuelca es lo apuntado aunque el llamador modifique después su objeto
+        Ejercicio copia = new Ejercicio(ejercicio.getNombre(), ejercicio.getGrupoMuscular(), ejercicio.getPeso(),
+                ejercicio.getRepeticiones(), ejercicio.getFecha());
+
+        synchronized (this) {
+            if (cerrado) {
+                System.err.println("Error al registrar serie: el diario está cerrado");
+                return false;
+            }
+            try {
+                int posicion = escritura;
+                long secuencia = ultimaSecuencia + 1;
+                codificar(secuencia, nombre, grupo, copia);
+                int longitud = registro.remaining();
+                asegurarEspacio(escritura + CABECERA_REGISTRO + longitud + 4);
+
+                crc.reset();
+                crc.update(registro.array(), 0, longitud);
+                mapa.putInt(escritura + 4, (int) crc.getValue());
+                mapa.position(escritura + CABECERA_REGISTRO);
+                mapa.put(registro);
+                mapa.putInt(escritura + CABECERA_REGISTRO + longitud, 0);
+                // La longitud en último lugar: hasta aquí el registro no existe para recuperar()
+                mapa.putInt(escritura, longitud);
+                escritura += CABECERA_REGISTRO + longitud;
+
+                if (sincronizacion == Sincronizacion.SIEMPRE) {
+                    mapa.force();
+                } else {
+                    sucio = true;
+                }
+                ultimaSecuencia = secuencia;
+                pendientes.add(new Registro(secuencia, copia, alVolcar, posicion));
+                notifyAll();
+                return true;
+
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error al registrar serie en el diario: " + e.getMessage());
+                e.printStackTrace();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Espera a que todo lo registrado hasta ahora esté volcado en SQLite
+     *
+     * @return false si se agotó la espera o el diario se cerró antes
+     */
+    public synchronized boolean esperarVolcado(long milisegundos) {
+        long objetivo = ultimaSecuencia;
+        long ahora = System.currentTimeMillis();
+        long limite = milisegundos < Long.MAX_VALUE - ahora ? ahora + milisegundos : Long.MAX_VALUE;
+        try {
+            while (secuenciaAplicada < objetivo && !cerrado) {
+                long espera = limite - System.currentTimeMillis();
+                if (espera <= 0) {
+                    return false;
+                }
+                wait(espera);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return secuenciaAplicada >= objetivo;
+    }
+
+    /**
+     * Como {@link #esperarVolcado(long)} pero sin ocupar ningún hilo: el futuro se completa
+     * cuando todo lo registrado hasta ahora está en SQLite. Falla si un volcado da error
+     * (el diario lo reintentará; quien lo necesite puede pedir otro futuro) o si el diario
+     * se cierra antes, de modo que nadie sigue adelante sin lo apuntado sin enterarse.
+     */
+    public synchronized CompletableFuture<Void> volcado() {
+        if (secuenciaAplicada >= ultimaSecuencia) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Espera espera = new Espera(ultimaSecuencia);
+        if (cerrado) {
+            espera.futuro.completeExceptionally(new SQLException("El diario se cerró con series sin volcar"));
+        } else {
+            esperas.add(espera);
+        }
+        return espera.futuro;
+    }
+
+    /**
+     * Series apuntadas que aún no están en SQLite
+     */
+    public synchronized int getPendientes() {
+        return pendientes.size();
+    }
+
+    /**
+     * Detiene el volcado y cierra el fichero. Lo que quede pendiente se vuelca la próxima
+     * vez que se abra.
+     */
+    public void cerrar() {
+        Thread hilo;
+        synchronized (this) {
+            if (cerrado) {
+                return;
+            }
+            cerrado = true;
+            notifyAll();
+            hilo = volcador;
+        }
+        try {
+            hilo.join(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        fallarEsperas(new SQLException("El diario se cerró con series sin volcar"));
+        synchronized (this) {
+            if (sincronizacion != Sincronizacion.NUNCA) {
+                mapa.force();
+            }
+            try {
+                bloqueo.release();
+                canal.close();
+            } catch (IOException e) {
+                System.err.println("Error al cerrar el diario: " + e.getMessage());
+            }
+            mapa = null;
+        }
+    }
+
+    private void volcar() {
+        List<Registro> lote = new ArrayList<>(TAMANO_LOTE);
+        while (true) {
+            MappedByteBuffer aForzar = null;
+            synchronized (this) {
+                try {
+                    long espera = esperaHastaForzar();
+                    if (pendientes.isEmpty() && !cerrado && espera > 0) {
+                        wait(espera);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (cerrado) {
+                    return;
+                }
+                if (esperaHastaForzar() == 0) {
+                    aForzar = mapa;
+                    sucio = false;
+                    ultimoForzado = System.currentTimeMillis();
+                }
+                for (Registro pendiente : pendientes) {
+                    lote.add(pendiente);
+                    if (lote.size() == TAMANO_LOTE) {
+                        break;
+                    }
+                }
+            }
+
+            // Fuera del monitor, para que registrar() no espere al fsync
+            if (aForzar != null) {
+                aForzar.force();
+            }
+            if (!lote.isEmpty() && !volcarLote(lote)) {
+                synchronized (this) {
+                    try {
+                        if (!cerrado) {
+                            wait(ESPERA_TRAS_ERROR_MS);
+                        }
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+            lote.clear();
+        }
+    }
+
+    /**
+     * Milisegundos hasta el próximo fsync periódico (0 si toca ya), o
+     * INTERVALO_SINCRONIZACION_MS si no hay nada que forzar
+     */
+    private long esperaHastaForzar() {
+        if (!sucio || sincronizacion != Sincronizacion.PERIODICA) {
+            return INTERVALO_SINCRONIZACION_MS;
+        }
+        return Math.max(0, ultimoForzado + INTERVALO_SINCRONIZACION_MS - System.currentTimeMillis());
+    }
+
+    /**
+     * Inserta el lote y avanza diario_aplicado en la misma transacción
+     */
+    private boolean volcarLote(List<Registro> lote) {
+        long ultima = lote.get(lote.size() - 1).secuencia;
+        List<Ejercicio> series = new ArrayList<>(lote.size());
+        for (Registro pendiente : lote) {
+            series.add(pendiente.serie);
+        }
+
+        ResultadoLote resultado = ejercicioDAO.insertarEjercicios(series, connection -> {
+            try (PreparedStatement pstmt = connection.prepareStatement(
+                    "UPDATE diario_aplicado SET secuencia = ? WHERE id = 1")) {
+                pstmt.setLong(1, ultima);
+                return pstmt.executeUpdate();
+            }
+        });
+        if (resultado.getInsertados() < series.size()) {
+            System.err.println("Error al volcar el diario de series; se reintentará: " + resultado.getFallos());
+            fallarEsperas(new SQLException("No se pudo volcar el diario de series: " + resultado.getFallos()));
+            return false;
+        }
+
+        List<Espera> cumplidas = new ArrayList<>();
+        synchronized (this) {
+            for (int i = 0; i < lote.size(); i++) {
+                pendientes.poll();
+            }
+            secuenciaAplicada = ultima;
+            while (!esperas.isEmpty() && esperas.peek().objetivo <= ultima) {
+                cumplidas.add(esperas.poll());
+            }
+            if (!cerrado) {
+                if (pendientes.isEmpty()) {
+                    vaciar();
+                } else {
+                    compactarSiHaceFalta();
+                }
+            }
+            notifyAll();
+        }
+
+        int[] ids = resultado.getIds();
+        for (int i = 0; i < lote.size(); i++) {
+            IntConsumer alVolcar = lote.get(i).alVolcar;
+            if (alVolcar != null) {
+                try {
+                    alVolcar.accept(ids[i]);
+                } catch (RuntimeException e) {
+                    System.err.println("Error al entregar el id de una serie volcada: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+        }
+        // Después de los ids, para que quien espera ya vea la serie con el suyo
+        for (Espera espera : cumplidas) {
+            espera.futuro.complete(null);
+        }
+        return true;
+    }
+
+    /**
+     * Hace fallar a todos los que esperan un volcado; se completan fuera del monitor
+     */
+    private void fallarEsperas(SQLException error) {
+        List<Espera> fallidas;
+        synchronized (this) {
+            fallidas = new ArrayList<>(esperas);
+            esperas.clear();
+        }
+        for (Espera espera : fallidas) {
+            espera.futuro.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * Todo está en SQLite: el diario vuelve a empezar tras la cabecera. Los registros
+     * viejos que queden detrás tienen secuencias ya aplicadas y no se volverían a volcar.
+     */
+    private void vaciar() {
+        mapa.putInt(CABECERA, 0);
+        // Tras recuperar una compactación a medias la cabecera aún apunta a los originales
+        mapa.putInt(POSICION_INICIO, 0);
+        escritura = CABECERA;
+        sucio = true;
+    }
+
+    /**
+     * Con escrituras continuas el diario no llega a vaciarse: cuando lo ya volcado ocupa
+     * UMBRAL_COMPACTACION y caben detrás los pendientes, estos se copian al principio.
+     * Mientras se copian, la cabecera apunta a los originales, de modo que una caída a
+     * mitad recupera esos y no una copia a medias; los pasos se fuerzan a disco en orden
+     * salvo con Sincronizacion.NUNCA. Es poco frecuente y se hace bajo el monitor.
+     */
+    private void compactarSiHaceFalta() {
+        int inicio = pendientes.peek().posicion;
+        int longitud = escritura - inicio;
+        if (inicio - CABECERA < UMBRAL_COMPACTACION || CABECERA + longitud + 4 > inicio) {
+            return;
+        }
+        boolean forzar = sincronizacion != Sincronizacion.NUNCA;
+
+        mapa.putInt(POSICION_INICIO, inicio);
+        if (forzar) {
+            mapa.force();
+        }
+        ByteBuffer origen = mapa.duplicate();
+        origen.position(inicio).limit(escritura);
+        ByteBuffer destino = mapa.duplicate();
+        destino.position(CABECERA);
+        destino.put(origen);
+        mapa.putInt(CABECERA + longitud, 0);
+        if (forzar) {
+            mapa.force();
+        }
+        // Desde aquí se lee la copia; se fuerza antes de añadir nada detrás de ella
+        mapa.putInt(POSICION_INICIO, 0);
+        if (forzar) {
+            mapa.force();
+        }
+
+        int desplazamiento = inicio - CABECERA;
+        for (Registro pendiente : pendientes) {
+            pendiente.posicion -= desplazamiento;
+        }
+        escritura -= desplazamiento;
+        sucio = false;
+    }
+
+    /**
+     * Lee los registros válidos desde la cabecera y deja pendientes los que tienen una
+     * secuencia posterior a la aplicada
+     */
+    private void recuperar() {
+        // Si se cayó a mitad de compactar, los registros buenos son los originales
+        int inicio = mapa.getInt(POSICION_INICIO);
+        int posicion = inicio >= CABECERA && inicio < mapa.capacity() ? inicio : CABECERA;
+        long anterior = 0;
+        while (posicion + CABECERA_REGISTRO <= mapa.capacity()) {
+            int longitud = mapa.getInt(posicion);
+            if (longitud <= 0 || posicion + CABECERA_REGISTRO + longitud > mapa.capacity()) {
+                break;
+            }
+            byte[] datos = new byte[longitud];
+            mapa.position(posicion + CABECERA_REGISTRO);
+            mapa.get(datos);
+            crc.reset();
+            crc.update(datos, 0, longitud);
+            if ((int) crc.getValue() != mapa.getInt(posicion + 4)) {
+                break;
+            }
+            ByteBuffer lector = ByteBuffer.wrap(datos);
+            long secuencia = lector.getLong();
+            if (secuencia <= anterior) {
+                break;
+            }
+
+            Ejercicio ejercicio = decodificar(lector);
+            if (secuencia > secuenciaAplicada) {
+                if (ejercicio.validar() == null) {
+                    pendientes.add(new Registro(secuencia, ejercicio, null, posicion));
+                } else {
+                    System.err.println("Descartando serie no válida del diario: " + ejercicio);
+                }
+            }
+            anterior = secuencia;
+            posicion += CABECERA_REGISTRO + longitud;
+        }
+        escritura = posicion;
+        ultimaSecuencia = anterior;
+        // Corta cualquier resto de un registro a medio escribir
+        if (escritura + 4 <= mapa.capacity()) {
+            mapa.putInt(escritura, 0);
+        }
+    }
+
+    /**
+     * Datos de un registro en {@code registro}: secuencia, nombre y grupo en UTF-8 con su longitud, peso, repeticiones y epoch day (o
+     * Long.MIN_VALUE sin fecha)
+     */
+    private void codificar(long secuencia, byte[] nombre, byte[] grupo, Ejercicio ejercicio) {
+        int longitud = 8 + 4 + nombre.length + 4 + grupo.length + 8 + 4 + 8;
+        if (registro.capacity() < longitud) {
+            registro = ByteBuffer.allocate(Math.max(longitud, registro.capacity() * 2));
+        }
+        registro.clear();
+        registro.putLong(secuencia);
+        registro.putInt(nombre.length).put(nombre);
+        registro.putInt(grupo.length).put(grupo);
+        registro.putDouble(ejercicio.getPeso());
+        registro.putInt(ejercicio.getRepeticiones());
+        registro.putLong(ejercicio.getFecha() != null ? CodecFecha.codificar(ejercicio.getFecha()) : Long.MIN_VALUE);
+        registro.flip();
+    }
+
+    private static Ejercicio decodificar(ByteBuffer datos) {
+        String nombre = leerTexto(datos);
+        String grupo = leerTexto(datos);
+        double peso = datos.getDouble();
+        int repeticiones = datos.getInt();
+        long dia = datos.getLong();
+        LocalDate fecha = dia != Long.MIN_VALUE ? CodecFecha.decodificar(dia) : null;
+        return new Ejercicio(nombre, grupo, peso, repeticiones, fecha);
+    }
+
+    private static String leerTexto(ByteBuffer datos) {
+        byte[] texto = new byte[datos.getInt()];
+        datos.get(texto);
+        return new String(texto, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Agranda el mapeo (al doble) si el siguiente registro no cabe
+     */
+    private void asegurarEspacio(long necesario) throws IOException {
+        if (necesario <= mapa.capacity()) {
+            return;
+        }
+        long tamano = mapa.capacity();
+        while (tamano < necesario) {
+            tamano *= 2;
+        }
+        if (tamano > Integer.MAX_VALUE) {
+            throw new IOException("El diario de series ha alcanzado el tamaño máximo");
+        }
+        if (sincronizacion != Sincronizacion.NUNCA) {
+            mapa.force();
+        }
+        mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamano);
+    }
+
+    private long leerSecuenciaAplicada() throws SQLException {
+        try (Connection connection = dbManager.getConnection();
+                PreparedStatement pstmt = connection.prepareStatement(
+                        "SELECT secuencia FROM diario_aplicado WHERE id = 1");
+                ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (ClassNotFoundException e) {
+            throw new SQLException(e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Reducción de series temporales con Largest-Triangle-Three-Buckets (LTTB).
+ * Conserva el primer y el último punto y, de cada cubeta intermedia, el que forma el
+ * triángulo de mayor área con el punto elegido antes y la media de la cubeta siguiente,
+ * así los picos y valles siguen visibles aunque se dibuje un punto por píxel.
+ *
+ * Trabaja sobre arrays primitivos y escribe los índices elegidos en un buffer del
+ * llamador, de modo que repintar no reserva memoria.
+ */
+public final class DownsamplerLTTB {
+
+    private DownsamplerLTTB() {
+    }
+
+    /**
+     * Elige como mucho {@code umbral} puntos de los {@code n} primeros de (x, y). Los x
+     * deben estar ordenados de forma ascendente.
+     *
+     * @param indices buffer de salida con capacidad para min(n, umbral) índices
+     * @return cantidad de índices escritos, en orden ascendente
+     */
+    public static int reducir(int[] x, double[] y, int n, int umbral, int[] indices) {
+        if (n <= umbral) {
+            for (int i = 0; i < n; i++) {
+                indices[i] = i;
+            }
+            return n;
+        }
+        if (umbral < 3) {
+            // Sin cubetas intermedias solo se pueden conservar los extremos
+            indices[0] = 0;
+            if (umbral < 2) {
+                return 1;
+            }
+            indices[1] = n - 1;
+            return 2;
+        }
+
+        double tamanoCubeta = (double) (n - 2) / (umbral - 2);
+        int elegidos = 0;
+        int anterior = 0;
+        indices[elegidos++] = 0;
+
+        for (int cubeta = 0; cubeta < umbral - 2; cubeta++) {
+            // Media de la cubeta siguiente (el último punto hace de cubeta final)
+            int inicioSiguiente = (int) ((cubeta + 1) * tamanoCubeta) + 1;
+            int finSiguiente = Math.min((int) ((cubeta + 2) * tamanoCubeta) + 1, n);
+            double mediaX = 0;
+            double mediaY = 0;
+            for (int i = inicioSiguiente; i < finSiguiente; i++) {
+                mediaX += x[i];
+                mediaY += y[i];
+            }
+            int puntosSiguiente = finSiguiente - inicioSiguiente;
+            mediaX /= puntosSiguiente;
+            mediaY /= puntosSiguiente;
+
+            int inicio = (int) (cubeta * tamanoCubeta) + 1;
+            int fin = inicioSiguiente;
+            double ax = x[anterior];
+            double ay = y[anterior];
+            double areaMaxima = -1;
+            int elegido = inicio;
+            for (int i = inicio; i < fin; i++) {
+                // El doble del área basta para comparar
+                double area = Math.abs((ax - mediaX) * (y[i] - ay) - (ax - x[i]) * (mediaY - ay));
+                if (area > areaMaxima) {
+                    areaMaxima = area;
+                    elegido = i;
+                }
+            }
+
+            indices[elegidos++] = elegido;
+            anterior = elegido;
+        }
+
+        indices[elegidos++] = n - 1;
+        return elegidos;
+    }
+
+    /**
+     * Variante que reserva el array de salida
+     */
+    public static int[] reducir(int[] x, double[] y, int umbral) {
+        int[] indices = new int[Math.min(x.length, Math.max(umbral, 1))];
+        int cantidad = reducir(x, y, x.length, umbral, indices);
+        if (cantidad == indices.length) {
+            return indices;
+        }
+        int[] recortado = new int[cantidad];
+        System.arraycopy(indices, 0, recortado, 0, cantidad);
+        return recortado;
+    }
+}
@@ -79,6 +79,26 @@ public class Ejercicio {
         this.fecha = fecha;
     }
     
+    /**
+     * Comprueba los campos obligatorios con las mismas reglas que el formulario.
+     * Devuelve el mensaje de error o null si el ejercicio es válido.
+     */
+    public String validar() {
+        if (nombre == null || nombre.trim().isEmpty()) {
+            return "El nombre del ejercicio es obligatorio";
+        }
+        if (grupoMuscular == null || grupoMuscular.trim().isEmpty()) {
+            return "El grupo muscular es obligatorio";
+        }
+        if (Double.isNaN(peso) || Double.isInfinite(peso)) {
+            return "El peso no es un número válido";
+        }
+        if (repeticiones <= 0) {
+            return "Las repeticiones deben ser mayor a 0";
+        }
+        return null;
+    }
+    
     @Override
     public String toString() {
         return String.format("%s - %s kg x %d reps (%s)", 
@@ -3,45 +3,84 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
- * Clase Data Access Object para manejar las operaciones CRUD de ejercicios
+ * Clase Data Access Object para manejar las operaciones CRUD de ejercicios.
+ * Cada Ejercicio corresponde a una fila de series que referencia por id a su
+ * entrada en catalogo_ejercicios (nombre + grupo muscular).
  */
 public class EjercicioDAO {
+    private static final String SELECT_SERIES =
+            "SELECT s.id, c.nombre, c.grupo_muscular, s.peso, s.repeticiones, s.fecha " +
+            "FROM series s JOIN catalogo_ejercicios c ON c.id = s.ejercicio_id";
+    private static final String INSERT_SERIE =
+            "INSERT INTO series (ejercicio_id, peso, repeticiones, fecha) VALUES (?, ?, ?, ?)";
+    // Filas por executeBatch dentro de la transacción de un lote
+    private static final int TAMANO_TANDA = 1000;
+    // Filas que el driver lee por adelantado al recorrer un ResultSet
+    public static final int FETCH_SIZE_POR_DEFECTO = 500;
+
     private DatabaseManager dbManager;
-    private DateTimeFormatter dateFormatter = DateTimeFormatter.ISO_LOCAL_DATE;
+    private AgregadosDAO agregadosDAO;
 
     public EjercicioDAO() {
-        this.dbManager = DatabaseManager.getInstance();
+        this(DatabaseManager.getInstance());
+    }
+
+    EjercicioDAO(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+        this.agregadosDAO = new AgregadosDAO(dbManager);
     }
 
     /**
-     * Inserta un nuevo ejercicio en la base de datos
+     * Marcas y volúmenes precalculados que este DAO mantiene al escribir
      */
-    public boolean insertarEjercicio(Ejercicio ejercicio) {
-        String sql = "INSERT INTO ejercicios (nombre, grupo_muscular, peso, repeticiones, fecha) VALUES (?, ?, ?, ?, ?)";
+    public AgregadosDAO getAgregadosDAO() {
+        return agregadosDAO;
+    }
 
-        try (Connection connection = dbManager.getConnection();
-                PreparedStatement pstmt = connection.prepareStatement(sql)) {
+    /**
+     * Inserta un nuevo ejercicio en la base de datos y le asigna el id generado.
+     * Como todas las escrituras, pasa por el hilo escritor de DatabaseManager y puede
+     * confirmarse en la misma transacción que las de otros hilos.
+     */
+    public boolean insertarEjercicio(Ejercicio ejercicio) {
+        CambiosCatalogo cambios = new CambiosCatalogo();
+
+        try {
+            int id = dbManager.escribir(connection -> {
+                int ejercicioId = obtenerOCrearIdCatalogo(connection, ejercicio.getNombre(),
+                        ejercicio.getGrupoMuscular(), cambios);
+
+                try (PreparedStatement pstmt = connection.prepareStatement(INSERT_SERIE)) {
+                    pstmt.setInt(1, ejercicioId);
+                    asignarValoresSerie(pstmt, 2, ejercicio);
+                    if (pstmt.executeUpdate() == 0) {
+                        return 0;
+                    }
+                }
+                int idSerie = ultimoIdInsertado(connection);
 
-            pstmt.setString(1, ejercicio.getNombre());
-            pstmt.setString(2, ejercicio.getGrupoMuscular());
-            pstmt.setDouble(3, ejercicio.getPeso());
-            pstmt.setInt(4, ejercicio.getRepeticiones());
+                AgregadosDAO.Pendientes agregados = new AgregadosDAO.Pendientes();
+                agregados.sumar(ejercicioId, idSerie, ejercicio);
+                agregadosDAO.aplicar(connection, agregados);
+                return idSerie;
+            }, () -> cambios.aplicar(dbManager.getCacheNombres()));
 
-            if (ejercicio.getFecha() != null) {
-                pstmt.setString(5, ejercicio.getFecha().format(dateFormatter));
-            } else {
-                pstmt.setString(5, null);
+            if (id == 0) {
+                return false;
             }
+            ejercicio.setId(id);
+            return true;
 
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
-
-        } catch (SQLException | ClassNotFoundException e) {
+        } catch (SQLException e) {
             System.err.println("Error al insertar ejercicio: " + e.getMessage());
             e.printStackTrace();
             return false;
@@ -49,20 +88,233 @@ public class EjercicioDAO {
     }
 
     /**
-     * Método auxiliar para crear un objeto Ejercicio desde un ResultSet
+     * Inserta varios ejercicios en una única transacción usando addBatch/executeBatch,
+     * de modo que todo el lote cuesta un solo commit. Los elementos que no pasan la
+     * validación se informan como fallos y el resto se inserta; si la base de datos
+     * rechaza el lote se revierte entero y todos los elementos válidos se informan como fallidos.
+     * El lote es una sola operación del hilo escritor: se confirma o se deshace completo.
      */
-    private Ejercicio crearEjercicioDesdeResultSet(ResultSet rs) throws SQLException {
-        int id = rs.getInt("id");
-        String nombre = rs.getString("nombre");
-        String grupoMuscular = rs.getString("grupo_muscular");
-        double peso = rs.getDouble("peso");
-        int repeticiones = rs.getInt("repeticiones");
+    public ResultadoLote insertarEjercicios(Collection<Ejercicio> ejercicios) {
+        return insertarEjercicios(ejercicios, null);
+    }
+
+    /**
+     * Como {@link #insertarEjercicios(Collection)}, ejecutando además {@code ademas} (si no
+     * es null) dentro de la misma transacción, después de las inserciones
+     */
+    ResultadoLote insertarEjercicios(Collection<Ejercicio> ejercicios, ColaEscritura.Operacion<?> ademas) {
+        List<Ejercicio> lista = new ArrayList<>(ejercicios);
+        ResultadoLote resultado = new ResultadoLote(lista.size());
+
+        List<Integer> validos = new ArrayList<>();
+        for (int i = 0; i < lista.size(); i++) {
+            String error = lista.get(i).validar();
+            if (error != null) {
+                resultado.registrarFallo(i, error);
+            } else {
+                validos.add(i);
+            }
+        }
+        if (validos.isEmpty()) {
+            return resultado;
+        }
+
+        CambiosCatalogo cambios = new CambiosCatalogo();
+
+        try {
+            dbManager.escribir(connection -> {
+                insertarTandas(connection, lista, validos, resultado, cambios);
+                if (ademas != null) {
+                    ademas.ejecutar(connection);
+                }
+                return null;
+            }, () -> cambios.aplicar(dbManager.getCacheNombres()));
+
+        } catch (SQLException e) {
+            System.err.println("Error al insertar lote de ejercicios: " + e.getMessage());
+            resultado.revertir(validos, e.getMessage());
+        }
+
+        return resultado;
+    }
+
+    /**
+     * Ejecuta el lote en tandas de TAMANO_TANDA filas. Con AUTOINCREMENT y el bloqueo de
+     * escritura ya tomado, los ids de una tanda son consecutivos y terminan en last_insert_rowid().
+     */
+    private void insertarTandas(Connection connection, List<Ejercicio> lista, List<Integer> validos,
+            ResultadoLote resultado, CambiosCatalogo cambios) throws SQLException {
+        Map<String, Integer> idsCatalogo = new HashMap<>();
+        AgregadosDAO.Pendientes agregados = new AgregadosDAO.Pendientes();
+        int[] catalogoPorFila = new int[validos.size()];
+
+        try (PreparedStatement pstmt = connection.prepareStatement(INSERT_SERIE)) {
+            int inicioTanda = 0;
+            for (int n = 0; n < validos.size(); n++) {
+                Ejercicio ejercicio = lista.get(validos.get(n));
+
+                String clave = ejercicio.getNombre() + '\u0000' + ejercicio.getGrupoMuscular();
+                Integer ejercicioId = idsCatalogo.get(clave);
+                if (ejercicioId == null) {
+                    ejercicioId = obtenerOCrearIdCatalogo(connection, ejercicio.getNombre(),
+                            ejercicio.getGrupoMuscular(), cambios);
+                    idsCatalogo.put(clave, ejercicioId);
+                }
+
+                catalogoPorFila[n] = ejercicioId;
+                pstmt.setInt(1, ejercicioId);
+                asignarValoresSerie(pstmt, 2, ejercicio);
+                pstmt.addBatch();
+
+                if ((n + 1) % TAMANO_TANDA == 0 || n == validos.size() - 1) {
+                    pstmt.executeBatch();
+                    int ultimoId = ultimoIdInsertado(connection);
+                    for (int k = inicioTanda; k <= n; k++) {
+                        int id = ultimoId - (n - k);
+                        resultado.registrarId(validos.get(k), id);
+                        agregados.sumar(catalogoPorFila[k], id, lista.get(validos.get(k)));
+                    }
+                    inicioTanda = n + 1;
+                }
+            }
+        }
+
+        agregadosDAO.aplicar(connection, agregados);
+    }
+
+    /**
+     * Altas y bajas del catálogo hechas dentro de una transacción. Se aplican a la caché
+     * de nombres solo después del commit (en el hilo escritor, en orden de escritura),
+     * para que un rollback no la desincronice.
+     */
+    private static final class CambiosCatalogo {
+        private final List<String[]> altas = new ArrayList<>();
+        private final List<String[]> bajas = new ArrayList<>();
 
-        LocalDate fecha = null;
-        String fechaStr = rs.getString("fecha");
-        if (fechaStr != null && !fechaStr.isEmpty()) {
-            fecha = LocalDate.parse(fechaStr, dateFormatter);
+        void aplicar(CacheNombresEjercicios cache) {
+            for (String[] alta : altas) {
+                cache.agregar(alta[0], alta[1]);
+            }
+            for (String[] baja : bajas) {
+                cache.eliminar(baja[0], baja[1]);
+            }
         }
+    }
+
+    /**
+     * Devuelve el id del catálogo para (nombre, grupo muscular), creándolo si no existe.
+     * Debe llamarse dentro de la transacción de la escritura.
+     */
+    private int obtenerOCrearIdCatalogo(Connection connection, String nombre, String grupoMuscular,
+            CambiosCatalogo cambios) throws SQLException {
+        String selectSql = "SELECT id FROM catalogo_ejercicios WHERE nombre = ? AND grupo_muscular = ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(selectSql)) {
+            pstmt.setString(1, nombre);
+            pstmt.setString(2, grupoMuscular);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
+        }
+
+        String insertSql = "INSERT INTO catalogo_ejercicios (nombre, grupo_muscular) VALUES (?, ?)";
+        try (PreparedStatement pstmt = connection.prepareStatement(insertSql)) {
+            pstmt.setString(1, nombre);
+            pstmt.setString(2, grupoMuscular);
+            pstmt.executeUpdate();
+        }
+        cambios.altas.add(new String[] { nombre, grupoMuscular });
+        return ultimoIdInsertado(connection);
+    }
+
+    private int ultimoIdInsertado(Connection connection) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement("SELECT last_insert_rowid()");
+                ResultSet rs = pstmt.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    /**
+     * Id de catálogo y fecha de una serie antes de modificarla o borrarla
+     */
+    private static final class SerieGuardada {
+        final int ejercicioId;
+        final LocalDate fecha;
+
+        SerieGuardada(int ejercicioId, LocalDate fecha) {
+            this.ejercicioId = ejercicioId;
+            this.fecha = fecha;
+        }
+    }
+
+    /**
+     * Id de catálogo y fecha guardados de una serie, o null si la serie no existe
+     */
+    private SerieGuardada obtenerSerieGuardada(Connection connection, int serieId) throws SQLException {
+        String sql = "SELECT ejercicio_id, fecha FROM series WHERE id = ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, serieId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return new SerieGuardada(rs.getInt(1), CodecFecha.leer(rs, 2));
+            }
+        }
+    }
+
+    /**
+     * Borra la entrada del catálogo si ya no le queda ninguna serie, para que el
+     * ejercicio deje de aparecer en las listas de nombres
+     */
+    private void eliminarCatalogoSinSeries(Connection connection, int ejercicioId, CambiosCatalogo cambios)
+            throws SQLException {
+        String selectSql = "SELECT nombre, grupo_muscular FROM catalogo_ejercicios WHERE id = ? " +
+                "AND NOT EXISTS (SELECT 1 FROM series WHERE ejercicio_id = ?)";
+        String[] baja = null;
+        try (PreparedStatement pstmt = connection.prepareStatement(selectSql)) {
+            pstmt.setInt(1, ejercicioId);
+            pstmt.setInt(2, ejercicioId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    baja = new String[] { rs.getString(1), rs.getString(2) };
+                }
+            }
+        }
+        if (baja == null) {
+            return;
+        }
+
+        try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM catalogo_ejercicios WHERE id = ?")) {
+            pstmt.setInt(1, ejercicioId);
+            pstmt.executeUpdate();
+        }
+        cambios.bajas.add(baja);
+    }
+
+    /**
+     * Asigna peso, repeticiones y fecha a partir del parámetro indicado
+     */
+    private void asignarValoresSerie(PreparedStatement pstmt, int primerParametro, Ejercicio ejercicio)
+            throws SQLException {
+        pstmt.setDouble(primerParametro, ejercicio.getPeso());
+        pstmt.setInt(primerParametro + 1, ejercicio.getRepeticiones());
+        CodecFecha.asignar(pstmt, primerParametro + 2, ejercicio.getFecha());
+    }
+
+    /**
+     * Método auxiliar para crear un objeto Ejercicio desde una fila de SELECT_SERIES.
+     * Las columnas se leen por posición para no buscar cada nombre en cada fila.
+     */
+    private Ejercicio crearEjercicioDesdeResultSet(ResultSet rs) throws SQLException {
+        int id = rs.getInt(1);
+        String nombre = rs.getString(2);
+        String grupoMuscular = rs.getString(3);
+        double peso = rs.getDouble(4);
+        int repeticiones = rs.getInt(5);
+        LocalDate fecha = CodecFecha.leer(rs, 6);
 
         return new Ejercicio(id, nombre, grupoMuscular, peso, repeticiones, fecha);
     }
@@ -72,30 +324,170 @@ public class EjercicioDAO {
      */
     public List<Ejercicio> obtenerTodosLosEjercicios() {
         List<Ejercicio> ejercicios = new ArrayList<>();
-        String sql = "SELECT * FROM ejercicios ORDER BY fecha DESC, id DESC";
+        recorrerTodosLosEjercicios(FETCH_SIZE_POR_DEFECTO, ejercicios::add);
+        return ejercicios;
+    }
 
-        try (Connection connection = dbManager.getConnection();
-                PreparedStatement pstmt = connection.prepareStatement(sql);
-                ResultSet rs = pstmt.executeQuery()) {
+    /**
+     * Obtiene ejercicios filtrados por nombre
+     */
+    public List<Ejercicio> obtenerEjerciciosPorNombre(String nombreEjercicio) {
+        List<Ejercicio> ejercicios = new ArrayList<>();
+        recorrerEjerciciosPorNombre(nombreEjercicio, FETCH_SIZE_POR_DEFECTO, ejercicios::add);
+        return ejercicios;
+    }
 
-            while (rs.next()) {
-                ejercicios.add(crearEjercicioDesdeResultSet(rs));
+    /**
+     * Recorre todos los ejercicios (mismo orden que obtenerTodosLosEjercicios) entregándolos
+     * uno a uno al visitante, sin acumularlos en memoria. La conexión, la sentencia y el
+     * ResultSet se cierran al terminar, también si el visitante lanza una excepción.
+     *
+     * @return número de ejercicios recorridos, o -1 si hubo un error de base de datos
+     */
+    public long recorrerTodosLosEjercicios(int fetchSize, Consumer<? super Ejercicio> visitante) {
+        return recorrer(null, fetchSize, visitante, "Error al obtener ejercicios: ");
+    }
+
+    /**
+     * Igual que recorrerTodosLosEjercicios pero solo para un ejercicio
+     */
+    public long recorrerEjerciciosPorNombre(String nombreEjercicio, int fetchSize, Consumer<? super Ejercicio> visitante) {
+        return recorrer(nombreEjercicio, fetchSize, visitante, "Error al obtener ejercicios por nombre: ");
+    }
+
+    private long recorrer(String nombreEjercicio, int fetchSize, Consumer<? super Ejercicio> visitante,
+            String mensajeError) {
+        long recorridos = 0;
+
+        try (Connection connection = dbManager.getConnection()) {
+            StringBuilder sql = new StringBuilder(SELECT_SERIES);
+            FiltroCatalogo filtro = null;
+            if (nombreEjercicio != null) {
+                // Filtrar por id y no por c.nombre: así el orden sale de idx_series_ejercicio_fecha
+                filtro = obtenerFiltroCatalogo(connection, nombreEjercicio);
+                if (filtro == null) {
+                    return 0;
+                }
+                sql.append(" WHERE ").append(filtro.condicion);
+            }
+            sql.append(" ORDER BY s.fecha DESC, s.id DESC");
+
+            try (PreparedStatement pstmt = connection.prepareStatement(sql.toString())) {
+                pstmt.setFetchSize(fetchSize);
+                if (filtro != null) {
+                    filtro.asignar(pstmt);
+                }
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        visitante.accept(crearEjercicioDesdeResultSet(rs));
+                        recorridos++;
+                    }
+                }
             }
 
         } catch (SQLException | ClassNotFoundException e) {
-            System.err.println("Error al obtener ejercicios: " + e.getMessage());
+            System.err.println(mensajeError + e.getMessage());
             e.printStackTrace();
+            return -1;
         }
 
-        return ejercicios;
+        return recorridos;
     }
 
     /**
-     * Obtiene ejercicios filtrados por nombre
+     * Recibe una entrada del catálogo
      */
-    public List<Ejercicio> obtenerEjerciciosPorNombre(String nombreEjercicio) {
-        List<Ejercicio> ejercicios = new ArrayList<>();
-        String sql = "SELECT * FROM ejercicios WHERE nombre = ? ORDER BY fecha DESC, id DESC";
+    public interface VisitanteCatalogo {
+        void visitar(int ejercicioId, String nombre, String grupoMuscular);
+    }
+
+    /**
+     * Recibe las columnas de una serie como primitivos, sin crear objetos por fila.
+     * La fecha llega como epoch day, o SIN_FECHA si la serie no la tiene.
+     */
+    public interface VisitanteSerie {
+        int SIN_FECHA = Integer.MIN_VALUE;
+
+        void visitar(int serieId, int ejercicioId, double peso, int repeticiones, int dia);
+    }
+
+    /**
+     * Lectura para análisis: entrega primero las entradas del catálogo y después las series
+     * como columnas primitivas, ambas dentro de la misma transacción de lectura para que
+     * toda serie referencie una entrada ya entregada. Con nombre, solo ese ejercicio y en
+     * orden cronológico (las series sin fecha primero); sin nombre, todas las series en
+     * orden de inserción.
+     *
+     * @return número de series recorridas, o -1 si hubo un error de base de datos
+     */
+    public long recorrerSeries(String nombreEjercicio, int fetchSize, VisitanteCatalogo visitanteCatalogo,
+            VisitanteSerie visitanteSerie) {
+        String sqlCatalogo = "SELECT id, nombre, grupo_muscular FROM catalogo_ejercicios"
+                + (nombreEjercicio != null ? " WHERE nombre = ?" : "");
+        String sqlSeries = "SELECT s.id, s.ejercicio_id, s.peso, s.repeticiones, s.fecha FROM series s";
+        List<Integer> ids = new ArrayList<>();
+        long recorridos = 0;
+
+        try (Connection connection = dbManager.getConnection()) {
+            connection.setAutoCommit(false);
+
+            try (PreparedStatement pstmt = connection.prepareStatement(sqlCatalogo)) {
+                if (nombreEjercicio != null) {
+                    pstmt.setString(1, nombreEjercicio);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        ids.add(rs.getInt(1));
+                        visitanteCatalogo.visitar(rs.getInt(1), rs.getString(2), rs.getString(3));
+                    }
+                }
+            }
+
+            FiltroCatalogo filtro = null;
+            if (nombreEjercicio != null) {
+                if (ids.isEmpty()) {
+                    connection.commit();
+                    return 0;
+                }
+                // Por id, con los del catálogo ya leídos, para recorrer idx_series_ejercicio_fecha en orden
+                filtro = crearFiltroCatalogo(ids);
+                sqlSeries += " WHERE " + filtro.condicion + " ORDER BY s.fecha, s.id";
+            }
+
+            try (PreparedStatement pstmt = connection.prepareStatement(sqlSeries)) {
+                pstmt.setFetchSize(fetchSize);
+                if (filtro != null) {
+                    filtro.asignar(pstmt);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        int dia = rs.getInt(5);
+                        if (rs.wasNull()) {
+                            dia = VisitanteSerie.SIN_FECHA;
+                        }
+                        visitanteSerie.visitar(rs.getInt(1), rs.getInt(2), rs.getDouble(3), rs.getInt(4), dia);
+                        recorridos++;
+                    }
+                }
+            }
+
+            connection.commit();
+
+        } catch (SQLException | ClassNotFoundException e) {
+            System.err.println("Error al recorrer las series: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+
+        return recorridos;
+    }
+
+    /**
+     * Cuenta los registros del historial de un ejercicio
+     */
+    public int contarEjerciciosPorNombre(String nombreEjercicio) {
+        String sql = "SELECT COUNT(*) FROM series s JOIN catalogo_ejercicios c ON c.id = s.ejercicio_id WHERE c.nombre = ?";
 
         try (Connection connection = dbManager.getConnection();
                 PreparedStatement pstmt = connection.prepareStatement(sql)) {
@@ -103,45 +495,191 @@ public class EjercicioDAO {
             pstmt.setString(1, nombreEjercicio);
 
             try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    ejercicios.add(crearEjercicioDesdeResultSet(rs));
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+
+        } catch (SQLException | ClassNotFoundException e) {
+            System.err.println("Error al contar ejercicios por nombre: " + e.getMessage());
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    /**
+     * Obtiene una página del historial de un ejercicio, en el mismo orden que
+     * obtenerEjerciciosPorNombre, con paginación por clave (fecha, id): devuelve hasta
+     * {@code limite} registros posteriores a {@code despuesDe} (null = desde el principio)
+     * tras saltar {@code desplazamiento} registros.
+     *
+     * Los registros con fecha se recorren con una búsqueda por rango sobre
+     * idx_series_ejercicio_fecha; los que no tienen fecha van al final y se leen aparte.
+     */
+    public List<Ejercicio> obtenerPaginaPorNombre(String nombreEjercicio, Ejercicio despuesDe, int desplazamiento,
+            int limite) {
+        List<Ejercicio> pagina = new ArrayList<>();
+
+        try (Connection connection = dbManager.getConnection()) {
+            FiltroCatalogo filtro = obtenerFiltroCatalogo(connection, nombreEjercicio);
+            if (filtro == null) {
+                return pagina;
+            }
+
+            if (despuesDe == null || despuesDe.getFecha() != null) {
+                leerSegmentoHistorial(connection, filtro, true, despuesDe, desplazamiento, limite, pagina);
+
+                int faltan = limite - pagina.size();
+                if (faltan > 0) {
+                    // Si no salió ninguna fila con fecha puede que el salto las haya superado todas
+                    int desplazamientoSinFecha = 0;
+                    if (pagina.isEmpty() && desplazamiento > 0) {
+                        desplazamientoSinFecha = Math.max(0,
+                                desplazamiento - contarSegmentoConFecha(connection, filtro, despuesDe));
+                    }
+                    leerSegmentoHistorial(connection, filtro, false, null, desplazamientoSinFecha, faltan, pagina);
                 }
+            } else {
+                leerSegmentoHistorial(connection, filtro, false, despuesDe, desplazamiento, limite, pagina);
             }
 
         } catch (SQLException | ClassNotFoundException e) {
-            System.err.println("Error al obtener ejercicios por nombre: " + e.getMessage());
+            System.err.println("Error al obtener página del historial: " + e.getMessage());
             e.printStackTrace();
         }
 
-        return ejercicios;
+        return pagina;
     }
 
     /**
-     * Actualiza un ejercicio existente
+     * Condición sobre s.ejercicio_id para un nombre. Con un único id de catálogo (lo habitual)
+     * se usa igualdad, para que SQLite recorra el índice ya ordenado sin ordenar en memoria.
      */
-    public boolean actualizarEjercicio(Ejercicio ejercicio) {
-        String sql = "UPDATE ejercicios SET nombre = ?, grupo_muscular = ?, peso = ?, repeticiones = ?, fecha = ? WHERE id = ?";
+    private static final class FiltroCatalogo {
+        final String condicion;
+        final Integer idUnico;
 
-        try (Connection connection = dbManager.getConnection();
-                PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        FiltroCatalogo(String condicion, Integer idUnico) {
+            this.condicion = condicion;
+            this.idUnico = idUnico;
+        }
 
-            pstmt.setString(1, ejercicio.getNombre());
-            pstmt.setString(2, ejercicio.getGrupoMuscular());
-            pstmt.setDouble(3, ejercicio.getPeso());
-            pstmt.setInt(4, ejercicio.getRepeticiones());
+        int asignar(PreparedStatement pstmt) throws SQLException {
+            if (idUnico == null) {
+                return 1;
+            }
+            pstmt.setInt(1, idUnico);
+            return 2;
+        }
+    }
 
-            if (ejercicio.getFecha() != null) {
-                pstmt.setString(5, ejercicio.getFecha().format(dateFormatter));
-            } else {
-                pstmt.setString(5, null);
+    private FiltroCatalogo obtenerFiltroCatalogo(Connection connection, String nombreEjercicio) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement pstmt = connection.prepareStatement("SELECT id FROM catalogo_ejercicios WHERE nombre = ?")) {
+            pstmt.setString(1, nombreEjercicio);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        return ids.isEmpty() ? null : crearFiltroCatalogo(ids);
+    }
+
+    private static FiltroCatalogo crearFiltroCatalogo(List<Integer> ids) {
+        if (ids.size() == 1) {
+            return new FiltroCatalogo("s.ejercicio_id = ?", ids.get(0));
+        }
+        StringBuilder condicion = new StringBuilder("s.ejercicio_id IN (");
+        for (int i = 0; i < ids.size(); i++) {
+            condicion.append(i == 0 ? "" : ", ").append(ids.get(i));
+        }
+        return new FiltroCatalogo(condicion.append(')').toString(), null);
+    }
+
+    private void leerSegmentoHistorial(Connection connection, FiltroCatalogo filtro, boolean conFecha,
+            Ejercicio despuesDe, int desplazamiento, int limite, List<Ejercicio> destino) throws SQLException {
+        StringBuilder sql = new StringBuilder(SELECT_SERIES).append(" WHERE ").append(filtro.condicion);
+        sql.append(condicionSegmento(conFecha, despuesDe));
+        sql.append(" ORDER BY s.fecha DESC, s.id DESC LIMIT ? OFFSET ?");
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql.toString())) {
+            int parametro = asignarClaveSegmento(pstmt, filtro.asignar(pstmt), conFecha, despuesDe);
+            pstmt.setInt(parametro, limite);
+            pstmt.setInt(parametro + 1, desplazamiento);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    destino.add(crearEjercicioDesdeResultSet(rs));
+                }
             }
+        }
+    }
 
-            pstmt.setInt(6, ejercicio.getId());
+    private int contarSegmentoConFecha(Connection connection, FiltroCatalogo filtro, Ejercicio despuesDe)
+            throws SQLException {
+        String sql = "SELECT COUNT(*) FROM series s WHERE " + filtro.condicion + condicionSegmento(true, despuesDe);
 
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            asignarClaveSegmento(pstmt, filtro.asignar(pstmt), true, despuesDe);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
 
-        } catch (SQLException | ClassNotFoundException e) {
+    private static String condicionSegmento(boolean conFecha, Ejercicio despuesDe) {
+        if (conFecha) {
+            return despuesDe != null ? " AND (s.fecha, s.id) < (?, ?)" : " AND s.fecha IS NOT NULL";
+        }
+        return despuesDe != null ? " AND s.fecha IS NULL AND s.id < ?" : " AND s.fecha IS NULL";
+    }
+
+    private int asignarClaveSegmento(PreparedStatement pstmt, int parametro, boolean conFecha, Ejercicio despuesDe)
+            throws SQLException {
+        if (despuesDe == null) {
+            return parametro;
+        }
+        if (conFecha) {
+            CodecFecha.asignar(pstmt, parametro++, despuesDe.getFecha());
+        }
+        pstmt.setInt(parametro++, despuesDe.getId());
+        return parametro;
+    }
+
+    /**
+     * Actualiza un ejercicio existente
+     */
+    public boolean actualizarEjercicio(Ejercicio ejercicio) {
+        String sql = "UPDATE series SET ejercicio_id = ?, peso = ?, repeticiones = ?, fecha = ? WHERE id = ?";
+        CambiosCatalogo cambios = new CambiosCatalogo();
+
+        try {
+            return dbManager.escribir(connection -> {
+                SerieGuardada anterior = obtenerSerieGuardada(connection, ejercicio.getId());
+                if (anterior == null) {
+                    return false;
+                }
+                int ejercicioId = obtenerOCrearIdCatalogo(connection, ejercicio.getNombre(),
+                        ejercicio.getGrupoMuscular(), cambios);
+
+                int rowsAffected;
+                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                    pstmt.setInt(1, ejercicioId);
+                    asignarValoresSerie(pstmt, 2, ejercicio);
+                    pstmt.setInt(5, ejercicio.getId());
+                    rowsAffected = pstmt.executeUpdate();
+                }
+
+                agregadosDAO.recalcular(connection, ejercicioId, ejercicio.getFecha());
+                if (anterior.ejercicioId != ejercicioId || !Objects.equals(anterior.fecha, ejercicio.getFecha())) {
+                    agregadosDAO.recalcular(connection, anterior.ejercicioId, anterior.fecha);
+                }
+                if (anterior.ejercicioId != ejercicioId) {
+                    eliminarCatalogoSinSeries(connection, anterior.ejercicioId, cambios);
+                }
+                return rowsAffected > 0;
+            }, () -> cambios.aplicar(dbManager.getCacheNombres()));
+
+        } catch (SQLException e) {
             System.err.println("Error al actualizar ejercicio: " + e.getMessage());
             e.printStackTrace();
             return false;
@@ -152,16 +690,27 @@ public class EjercicioDAO {
      * Elimina un ejercicio por su ID
      */
     public boolean eliminarEjercicio(int id) {
-        String sql = "DELETE FROM ejercicios WHERE id = ?";
-
-        try (Connection connection = dbManager.getConnection();
-                PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        String sql = "DELETE FROM series WHERE id = ?";
+        CambiosCatalogo cambios = new CambiosCatalogo();
+
+        try {
+            return dbManager.escribir(connection -> {
+                SerieGuardada anterior = obtenerSerieGuardada(connection, id);
+                if (anterior == null) {
+                    return false;
+                }
 
-            pstmt.setInt(1, id);
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+                int rowsAffected;
+                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                    pstmt.setInt(1, id);
+                    rowsAffected = pstmt.executeUpdate();
+                }
+                agregadosDAO.recalcular(connection, anterior.ejercicioId, anterior.fecha);
+                eliminarCatalogoSinSeries(connection, anterior.ejercicioId, cambios);
+                return rowsAffected > 0;
+            }, () -> cambios.aplicar(dbManager.getCacheNombres()));
 
-        } catch (SQLException | ClassNotFoundException e) {
+        } catch (SQLException e) {
             System.err.println("Error al eliminar ejercicio: " + e.getMessage());
             e.printStackTrace();
             return false;
@@ -172,8 +721,13 @@ public class EjercicioDAO {
      * Obtiene la lista de nombres de ejercicios filtrados por grupo muscular
      */
     public List<String> obtenerNombresEjerciciosPorGrupo(String grupoMuscular) {
+        CacheNombresEjercicios cache = dbManager.getCacheNombres();
+        if (cache.estaCargada() || precargarCacheNombres()) {
+            return cache.obtenerNombresPorGrupo(grupoMuscular);
+        }
+
         List<String> nombres = new ArrayList<>();
-        String sql = "SELECT DISTINCT nombre FROM ejercicios WHERE grupo_muscular = ? ORDER BY nombre";
+        String sql = "SELECT DISTINCT nombre FROM catalogo_ejercicios WHERE grupo_muscular = ? ORDER BY nombre";
 
         try (Connection connection = dbManager.getConnection();
                 PreparedStatement pstmt = connection.prepareStatement(sql)) {
@@ -198,8 +752,13 @@ public class EjercicioDAO {
      * Obtiene la lista de nombres únicos de ejercicios
      */
     public List<String> obtenerNombresEjercicios() {
+        CacheNombresEjercicios cache = dbManager.getCacheNombres();
+        if (cache.estaCargada() || precargarCacheNombres()) {
+            return cache.obtenerNombres();
+        }
+
         List<String> nombres = new ArrayList<>();
-        String sql = "SELECT DISTINCT nombre FROM ejercicios ORDER BY nombre";
+        String sql = "SELECT DISTINCT nombre FROM catalogo_ejercicios ORDER BY nombre";
 
         try (Connection connection = dbManager.getConnection();
                 PreparedStatement pstmt = connection.prepareStatement(sql);
@@ -216,4 +775,52 @@ public class EjercicioDAO {
 
         return nombres;
     }
+
+    /**
+     * Busca nombres de ejercicio por prefijos de sus palabras, sin distinguir mayúsculas
+     * ni tildes, dentro de un grupo o en todos (grupo null). Se resuelve en memoria con
+     * el índice de la caché de nombres.
+     */
+    public List<String> buscarNombresEjercicios(String grupoMuscular, String consulta, int limite) {
+        CacheNombresEjercicios cache = dbManager.getCacheNombres();
+        IndiceNombres indice = cache.estaCargada() || precargarCacheNombres()
+                ? cache.obtenerIndice(grupoMuscular) : null;
+        if (indice == null) {
+            // Sin caché: índice de un solo uso sobre los nombres leídos de la base de datos
+            indice = new IndiceNombres(grupoMuscular == null ? obtenerNombresEjercicios()
+                    : obtenerNombresEjerciciosPorGrupo(grupoMuscular));
+        }
+        return indice.buscar(consulta, limite);
+    }
+
+    /**
+     * Carga la caché de nombres desde el catálogo. Se mantiene el bloqueo de la caché
+     * durante la lectura para que las escrituras que confirmen mientras tanto se apliquen
+     * después de la carga y no se pierdan.
+     */
+    public boolean precargarCacheNombres() {
+        CacheNombresEjercicios cache = dbManager.getCacheNombres();
+        String sql = "SELECT nombre, grupo_muscular FROM catalogo_ejercicios";
+
+        synchronized (cache) {
+            List<String[]> pares = new ArrayList<>();
+
+            try (Connection connection = dbManager.getConnection();
+                    PreparedStatement pstmt = connection.prepareStatement(sql);
+                    ResultSet rs = pstmt.executeQuery()) {
+
+                while (rs.next()) {
+                    pares.add(new String[] { rs.getString(1), rs.getString(2) });
+                }
+
+            } catch (SQLException | ClassNotFoundException e) {
+                System.err.println("Error al precargar la caché de nombres: " + e.getMessage());
+                e.printStackTrace();
+                return false;
+            }
+
+            cache.cargar(pares);
+            return true;
+        }
+    }
 }
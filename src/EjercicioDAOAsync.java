@@ -0,0 +1,182 @@
+import javax.swing.SwingUtilities;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Versión asíncrona de EjercicioDAO para la interfaz gráfica: cada operación se ejecuta
+ * en un executor propio y devuelve un CompletableFuture, de modo que el acceso a disco
+ * nunca bloquea el hilo de eventos de Swing. Para entregar el resultado en el EDT
+ * se usa {@link SolicitudEnCurso}. Si se registra una inicialización (migraciones,
+ * precarga de cachés), todas las operaciones posteriores esperan a que termine.
+ *
+ * Con un {@link DiarioSeries} (ver usarDiario) las series nuevas se apuntan en el diario
+ * en lugar de esperar al commit, y el resto de operaciones se encadenan detrás del
+ * volcado de lo apuntado (sin ocupar un hilo mientras esperan), de modo que siempre leen
+ * lo último guardado; si el volcado falla, la operación falla en lugar de leer sin ello.
+ */
+public class EjercicioDAOAsync {
+    private static final int HILOS_SIN_VIRTUALES = 4;
+
+    private final EjercicioDAO dao;
+    private final ExecutorService executor;
+    private volatile CompletableFuture<?> preparado = CompletableFuture.completedFuture(null);
+    private volatile DiarioSeries diario;
+    // Inserciones lanzadas y aún sin apuntar, que las demás operaciones esperan (protegido con el monitor)
+    private CompletableFuture<?> apuntes = CompletableFuture.completedFuture(null);
+
+    public EjercicioDAOAsync(EjercicioDAO dao) {
+        this(dao, crearExecutor("gymtracker-dao"));
+    }
+
+    public EjercicioDAOAsync(EjercicioDAO dao, ExecutorService executor) {
+        this.dao = dao;
+        this.executor = executor;
+    }
+
+    static ExecutorService crearExecutor(String prefijo) {
+        return crearExecutor(prefijo, HILOS_SIN_VIRTUALES);
+    }
+
+    /**
+     * Usa hilos virtuales si la JVM los soporta (Java 21+); si no, un pool fijo de
+     * {@code hilosSinVirtuales} hilos daemon
+     */
+    static ExecutorService crearExecutor(String prefijo, int hilosSinVirtuales) {
+        try {
+            Method porTarea = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) porTarea.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger contador = new AtomicInteger();
+            ThreadFactory fabrica = tarea -> {
+                Thread hilo = new Thread(tarea, prefijo + "-" + contador.incrementAndGet());
+                hilo.setDaemon(true);
+                return hilo;
+            };
+            return Executors.newFixedThreadPool(hilosSinVirtuales, fabrica);
+        }
+    }
+
+    public EjercicioDAO getDao() {
+        return dao;
+    }
+
+    /**
+     * Desde ahora insertarEjercicio apunta las series en {@code diario}, que ya debe estar abierto
+     */
+    public void usarDiario(DiarioSeries diario) {
+        this.diario = diario;
+    }
+
+    public CompletableFuture<Boolean> insertarEjercicio(Ejercicio ejercicio) {
+        return insertarEjercicio(ejercicio, null);
+    }
+
+    /**
+     * Inserta una copia de {@code ejercicio}, que no se modifica fuera del hilo que llama.
+     * {@code alAsignarId} (puede ser null) recibe en el EDT el id de la serie cuando está en
+     * SQLite; con diario eso ocurre después de completarse el futuro.
+     */
+    public CompletableFuture<Boolean> insertarEjercicio(Ejercicio ejercicio, IntConsumer alAsignarId) {
+        Ejercicio copia = new Ejercicio(ejercicio.getNombre(), ejercicio.getGrupoMuscular(), ejercicio.getPeso(),
+                ejercicio.getRepeticiones(), ejercicio.getFecha());
+        IntConsumer enEdt = alAsignarId != null ? id -> SwingUtilities.invokeLater(() -> alAsignarId.accept(id)) : null;
+        CompletableFuture<Boolean> futuro = preparado.thenApplyAsync(listo -> {
+            DiarioSeries actual = diario;
+            if (actual != null) {
+                return actual.registrar(copia, enEdt);
+            }
+            if (!dao.insertarEjercicio(copia)) {
+                return false;
+            }
+            if (enEdt != null) {
+                enEdt.accept(copia.getId());
+            }
+            return true;
+        }, executor);
+        CompletableFuture<?> apuntado = futuro.handle((exito, error) -> null);
+        synchronized (this) {
+            apuntes = apuntes.isDone() ? apuntado : CompletableFuture.allOf(apuntes, apuntado);
+        }
+        return futuro;
+    }
+
+    public CompletableFuture<ResultadoLote> insertarEjercicios(Collection<Ejercicio> ejercicios) {
+        return ejecutar(() -> dao.insertarEjercicios(ejercicios));
+    }
+
+    public CompletableFuture<List<Ejercicio>> obtenerTodosLosEjercicios() {
+        return ejecutar(dao::obtenerTodosLosEjercicios);
+    }
+
+    public CompletableFuture<List<Ejercicio>> obtenerEjerciciosPorNombre(String nombreEjercicio) {
+        return ejecutar(() -> dao.obtenerEjerciciosPorNombre(nombreEjercicio));
+    }
+
+    public CompletableFuture<Boolean> actualizarEjercicio(Ejercicio ejercicio) {
+        return ejecutar(() -> dao.actualizarEjercicio(ejercicio));
+    }
+
+    public CompletableFuture<Boolean> eliminarEjercicio(int id) {
+        return ejecutar(() -> dao.eliminarEjercicio(id));
+    }
+
+    public CompletableFuture<List<String>> obtenerNombresEjerciciosPorGrupo(String grupoMuscular) {
+        return ejecutar(() -> dao.obtenerNombresEjerciciosPorGrupo(grupoMuscular));
+    }
+
+    public CompletableFuture<List<String>> obtenerNombresEjercicios() {
+        return ejecutar(dao::obtenerNombresEjercicios);
+    }
+
+    public CompletableFuture<List<String>> buscarNombresEjercicios(String grupoMuscular, String consulta, int limite) {
+        return ejecutar(() -> dao.buscarNombresEjercicios(grupoMuscular, consulta, limite));
+    }
+
+    /**
+     * Lanza la inicialización de la base de datos en el executor sin bloquear al llamador;
+     * las operaciones pedidas desde ahora se encolan detrás de ella. Si la inicialización
+     * falla, el futuro devuelto falla, pero el error solo se registra: las operaciones
+     * siguientes se ejecutan igualmente (con lo que haya podido prepararse).
+     */
+    public CompletableFuture<Void> inicializar(Runnable inicializacion) {
+        CompletableFuture<Void> futuro = preparado.thenRunAsync(inicializacion, executor);
+        preparado = futuro.handle((listo, error) -> {
+            if (error != null) {
+                Throwable causa = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                System.err.println("Error al inicializar el acceso a datos: " + causa);
+                causa.printStackTrace();
+            }
+            return null;
+        });
+        return futuro;
+    }
+
+    /**
+     * Ejecuta cualquier otra tarea en el executor del DAO, detrás de las inserciones ya
+     * pedidas y, con diario, de su volcado a SQLite
+     */
+    public <T> CompletableFuture<T> ejecutar(Supplier<T> tarea) {
+        CompletableFuture<Void> anteriores;
+        synchronized (this) {
+            anteriores = CompletableFuture.allOf(preparado, apuntes);
+        }
+        return anteriores.thenCompose(listo -> {
+            DiarioSeries actual = diario;
+            return actual != null ? actual.volcado() : CompletableFuture.<Void>completedFuture(null);
+        }).thenApplyAsync(listo -> tarea.get(), executor);
+    }
+
+    public void cerrar() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,598 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Estadísticas sobre todo el registro de entrenamiento: volumen semanal por grupo
+ * muscular y, por ejercicio, marcas, días con récord y tendencia del 1RM estimado.
+ *
+ * El cálculo paralelo reparte las filas de un {@link HistorialColumnar} en tramos
+ * contiguos que empiezan y terminan en un cambio de semana, y los procesa en el
+ * ForkJoinPool común. Como cada clave (grupo, semana) y (ejercicio, día) cae entera en un
+ * único tramo y se acumula en el mismo orden de filas que en la versión secuencial, las
+ * sumas en coma flotante salen idénticas bit a bit; {@link #calcularSecuencial} es la
+ * implementación de referencia con la que se comparan.
+ */
+public class EstadisticasEntrenamiento {
+    // Tramos por hilo del pool, para repartir bien aunque las semanas tengan tamaños distintos
+    private static final int TRAMOS_POR_HILO = 4;
+
+    /**
+     * Volumen (peso x repeticiones) de un grupo muscular en una semana
+     */
+    public static class VolumenSemanal {
+        private final String grupoMuscular;
+        private final LocalDate semana;
+        private final double volumen;
+
+        public VolumenSemanal(String grupoMuscular, LocalDate semana, double volumen) {
+            this.grupoMuscular = grupoMuscular;
+            this.semana = semana;
+            this.volumen = volumen;
+        }
+
+        public String getGrupoMuscular() {
+            return grupoMuscular;
+        }
+
+        /**
+         * Lunes de la semana
+         */
+        public LocalDate getSemana() {
+            return semana;
+        }
+
+        public double getVolumen() {
+            return volumen;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof VolumenSemanal)) {
+                return false;
+            }
+            VolumenSemanal otro = (VolumenSemanal) o;
+            return grupoMuscular.equals(otro.grupoMuscular) && semana.equals(otro.semana)
+                    && Double.compare(volumen, otro.volumen) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(grupoMuscular, semana, volumen);
+        }
+
+        @Override
+        public String toString() {
+            return semana + " " + grupoMuscular + ": " + volumen;
+        }
+    }
+
+    /**
+     * Resumen de un ejercicio a partir de sus mejores valores por día
+     */
+    public static class ResumenEjercicio {
+        private final String nombre;
+        private final int diasEntrenados;
+        private final double pesoMaximo;
+        private final double mejor1RM;
+        private final int diasConRecordPeso;
+        private final int diasConRecord1RM;
+        private final double tendencia1RMSemanal;
+
+        public ResumenEjercicio(String nombre, int diasEntrenados, double pesoMaximo, double mejor1RM,
+                int diasConRecordPeso, int diasConRecord1RM, double tendencia1RMSemanal) {
+            this.nombre = nombre;
+            this.diasEntrenados = diasEntrenados;
+            this.pesoMaximo = pesoMaximo;
+            this.mejor1RM = mejor1RM;
+            this.diasConRecordPeso = diasConRecordPeso;
+            this.diasConRecord1RM = diasConRecord1RM;
+            this.tendencia1RMSemanal = tendencia1RMSemanal;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public int getDiasEntrenados() {
+            return diasEntrenados;
+        }
+
+        public double getPesoMaximo() {
+            return pesoMaximo;
+        }
+
+        public double getMejor1RM() {
+            return mejor1RM;
+        }
+
+        /**
+         * Días en los que el peso máximo superó al de todos los días anteriores
+         * (el primer día no cuenta como récord)
+         */
+        public int getDiasConRecordPeso() {
+            return diasConRecordPeso;
+        }
+
+        /**
+         * Igual que getDiasConRecordPeso pero con el 1RM estimado
+         */
+        public int getDiasConRecord1RM() {
+            return diasConRecord1RM;
+        }
+
+        /**
+         * Pendiente de la recta de mínimos cuadrados del mejor 1RM diario, en kg por semana
+         */
+        public double getTendencia1RMSemanal() {
+            return tendencia1RMSemanal;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ResumenEjercicio)) {
+                return false;
+            }
+            ResumenEjercicio otro = (ResumenEjercicio) o;
+            return nombre.equals(otro.nombre) && diasEntrenados == otro.diasEntrenados
+                    && Double.compare(pesoMaximo, otro.pesoMaximo) == 0
+                    && Double.compare(mejor1RM, otro.mejor1RM) == 0
+                    && diasConRecordPeso == otro.diasConRecordPeso && diasConRecord1RM == otro.diasConRecord1RM
+                    && Double.compare(tendencia1RMSemanal, otro.tendencia1RMSemanal) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(nombre, diasEntrenados, pesoMaximo, mejor1RM, tendencia1RMSemanal);
+        }
+
+        @Override
+        public String toString() {
+            return nombre + ": " + diasEntrenados + " días, máx " + pesoMaximo + " kg, 1RM " + mejor1RM
+                    + ", récords " + diasConRecordPeso + "/" + diasConRecord1RM
+                    + ", tendencia " + tendencia1RMSemanal + " kg/semana";
+        }
+    }
+
+    private static final Comparator<VolumenSemanal> ORDEN_VOLUMEN = Comparator
+            .comparing(VolumenSemanal::getSemana).thenComparing(VolumenSemanal::getGrupoMuscular);
+
+    private final List<VolumenSemanal> volumenSemanal;
+    private final List<ResumenEjercicio> resumenes;
+
+    private EstadisticasEntrenamiento(List<VolumenSemanal> volumenSemanal, List<ResumenEjercicio> resumenes) {
+        volumenSemanal.sort(ORDEN_VOLUMEN);
+        resumenes.sort(Comparator.comparing(ResumenEjercicio::getNombre));
+        this.volumenSemanal = Collections.unmodifiableList(volumenSemanal);
+        this.resumenes = Collections.unmodifiableList(resumenes);
+    }
+
+    /**
+     * Lee todas las series en streaming y calcula las estadísticas en paralelo.
+     * Devuelve null si falla la lectura.
+     */
+    public static EstadisticasEntrenamiento cargar(EjercicioDAO dao) {
+        HistorialColumnar historial = HistorialColumnar.cargarTodo(dao);
+        return historial != null ? calcular(historial) : null;
+    }
+
+    /**
+     * Volumen semanal por grupo muscular, ordenado por semana y grupo
+     */
+    public List<VolumenSemanal> getVolumenSemanal() {
+        return volumenSemanal;
+    }
+
+    /**
+     * Resumen por ejercicio, ordenado por nombre
+     */
+    public List<ResumenEjercicio> getResumenes() {
+        return resumenes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof EstadisticasEntrenamiento)) {
+            return false;
+        }
+        EstadisticasEntrenamiento otras = (EstadisticasEntrenamiento) o;
+        return volumenSemanal.equals(otras.volumenSemanal) && resumenes.equals(otras.resumenes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(volumenSemanal, resumenes);
+    }
+
+    // --- Cálculo paralelo ---
+
+    /**
+     * Calcula las estadísticas repartiendo el trabajo en el pool del hilo que llama
+     * (el ForkJoinPool común, salvo que se invoque desde otro ForkJoinPool)
+     */
+    public static EstadisticasEntrenamiento calcular(HistorialColumnar historial) {
+        int paralelismo = ForkJoinPool.getCommonPoolParallelism();
+        if (Thread.currentThread() instanceof ForkJoinWorkerThread) {
+            paralelismo = ((ForkJoinWorkerThread) Thread.currentThread()).getPool().getParallelism();
+        }
+        int[] limites = dividirPorSemanas(historial, paralelismo * TRAMOS_POR_HILO);
+
+        // Fase 1: cada tramo acumula sus semanas y sus días de forma independiente
+        List<Tramo> tramos = IntStream.range(0, limites.length - 1).parallel()
+                .mapToObj(t -> new Tramo(historial).procesar(limites[t], limites[t + 1]))
+                .collect(Collectors.toList());
+
+        List<VolumenSemanal> volumen = new ArrayList<>();
+        for (Tramo tramo : tramos) {
+            tramo.volcarVolumen(historial, volumen);
+        }
+
+        // Fase 2: se reparten los días por ejercicio respetando el orden de los tramos y
+        // cada ejercicio se resume por separado
+        int ejercicios = historial.getCantidadNombres();
+        int[] diasPorEjercicio = new int[ejercicios];
+        for (Tramo tramo : tramos) {
+            for (int i = 0; i < tramo.dias.cantidad; i++) {
+                diasPorEjercicio[tramo.dias.claves[i]]++;
+            }
+        }
+        SerieDiaria[] series = new SerieDiaria[ejercicios];
+        for (int e = 0; e < ejercicios; e++) {
+            series[e] = new SerieDiaria(diasPorEjercicio[e]);
+        }
+        for (Tramo tramo : tramos) {
+            Entradas dias = tramo.dias;
+            for (int i = 0; i < dias.cantidad; i++) {
+                series[dias.claves[i]].agregar(dias.periodos[i], dias.valores[i], dias.valoresExtra[i]);
+            }
+        }
+
+        List<ResumenEjercicio> resumenes = IntStream.range(0, ejercicios).parallel()
+                .filter(e -> series[e].cantidad > 0)
+                .mapToObj(e -> series[e].resumir(historial.getNombre(e)))
+                .collect(Collectors.toList());
+
+        return new EstadisticasEntrenamiento(volumen, resumenes);
+    }
+
+    /**
+     * Cortes del rango de filas con fecha en unos {@code tramos} trozos parecidos, cada
+     * uno movido hasta el siguiente cambio de semana
+     */
+    private static int[] dividirPorSemanas(HistorialColumnar historial, int tramos) {
+        int inicio = historial.getPrimeraFilaConFecha();
+        int fin = historial.getCantidad();
+        int tamano = Math.max(1, (fin - inicio + tramos - 1) / tramos);
+
+        int[] limites = new int[tramos + 1];
+        int cantidad = 0;
+        limites[cantidad++] = inicio;
+        int corte = inicio + tamano;
+        while (corte < fin) {
+            int semana = inicioSemana(historial.getDia(corte - 1));
+            while (corte < fin && inicioSemana(historial.getDia(corte)) == semana) {
+                corte++;
+            }
+            if (corte < fin) {
+                limites[cantidad++] = corte;
+            }
+            corte += tamano;
+        }
+        limites[cantidad++] = fin;
+        return Arrays.copyOf(limites, cantidad);
+    }
+
+    /**
+     * Resultado de un tramo: volumen por (grupo, semana) y mejores valores por
+     * (ejercicio, día), en orden cronológico
+     */
+    private static final class Tramo {
+        private final HistorialColumnar historial;
+        // Acumuladores de la semana y el día en curso, indexados por id de grupo / ejercicio
+        private final double[] volumenGrupo;
+        private final boolean[] grupoTocado;
+        private final int[] gruposTocados;
+        private final double[] pesoEjercicio;
+        private final double[] unaRMEjercicio;
+        private final boolean[] ejercicioTocado;
+        private final int[] ejerciciosTocados;
+        private int cantidadGrupos;
+        private int cantidadEjercicios;
+
+        final Entradas semanas = new Entradas();
+        final Entradas dias = new Entradas();
+
+        Tramo(HistorialColumnar historial) {
+            this.historial = historial;
+            int grupos = historial.getCantidadGrupos();
+            int ejercicios = historial.getCantidadNombres();
+            volumenGrupo = new double[grupos];
+            grupoTocado = new boolean[grupos];
+            gruposTocados = new int[grupos];
+            pesoEjercicio = new double[ejercicios];
+            unaRMEjercicio = new double[ejercicios];
+            ejercicioTocado = new boolean[ejercicios];
+            ejerciciosTocados = new int[ejercicios];
+        }
+
+        Tramo procesar(int desde, int hasta) {
+            if (desde >= hasta) {
+                return this;
+            }
+            int semana = inicioSemana(historial.getDia(desde));
+            int dia = historial.getDia(desde);
+
+            for (int i = desde; i < hasta; i++) {
+                int diaFila = historial.getDia(i);
+                if (diaFila != dia) {
+                    cerrarDia(dia);
+                    dia = diaFila;
+                    int semanaFila = inicioSemana(diaFila);
+                    if (semanaFila != semana) {
+                        cerrarSemana(semana);
+                        semana = semanaFila;
+                    }
+                }
+
+                double peso = historial.getPeso(i);
+                int repeticiones = historial.getRepeticiones(i);
+
+                int grupo = historial.getGrupoId(i);
+                if (!grupoTocado[grupo]) {
+                    grupoTocado[grupo] = true;
+                    gruposTocados[cantidadGrupos++] = grupo;
+                }
+                volumenGrupo[grupo] += peso * repeticiones;
+
+                int ejercicio = historial.getNombreId(i);
+                double estimado = AgregadosEjercicio.estimar1RM(peso, repeticiones);
+                if (!ejercicioTocado[ejercicio]) {
+                    ejercicioTocado[ejercicio] = true;
+                    ejerciciosTocados[cantidadEjercicios++] = ejercicio;
+                    pesoEjercicio[ejercicio] = peso;
+                    unaRMEjercicio[ejercicio] = estimado;
+                } else {
+                    pesoEjercicio[ejercicio] = Math.max(pesoEjercicio[ejercicio], peso);
+                    unaRMEjercicio[ejercicio] = Math.max(unaRMEjercicio[ejercicio], estimado);
+                }
+            }
+            cerrarDia(dia);
+            cerrarSemana(semana);
+            return this;
+        }
+
+        private void cerrarDia(int dia) {
+            for (int k = 0; k < cantidadEjercicios; k++) {
+                int ejercicio = ejerciciosTocados[k];
+                dias.agregar(dia, ejercicio, pesoEjercicio[ejercicio], unaRMEjercicio[ejercicio]);
+                ejercicioTocado[ejercicio] = false;
+            }
+            cantidadEjercicios = 0;
+        }
+
+        private void cerrarSemana(int semana) {
+            for (int k = 0; k < cantidadGrupos; k++) {
+                int grupo = gruposTocados[k];
+                semanas.agregar(semana, grupo, volumenGrupo[grupo], 0);
+                volumenGrupo[grupo] = 0;
+                grupoTocado[grupo] = false;
+            }
+            cantidadGrupos = 0;
+        }
+
+        void volcarVolumen(HistorialColumnar historial, List<VolumenSemanal> destino) {
+            for (int i = 0; i < semanas.cantidad; i++) {
+                destino.add(new VolumenSemanal(historial.getGrupo(semanas.claves[i]),
+                        LocalDate.ofEpochDay(semanas.periodos[i]), semanas.valores[i]));
+            }
+        }
+    }
+
+    /**
+     * Lista creciente de (periodo, clave, valor, valor extra) en arrays primitivos
+     */
+    private static final class Entradas {
+        int[] periodos = new int[256];
+        int[] claves = new int[256];
+        double[] valores = new double[256];
+        double[] valoresExtra = new double[256];
+        int cantidad;
+
+        void agregar(int periodo, int clave, double valor, double valorExtra) {
+            if (cantidad == periodos.length) {
+                int capacidad = cantidad * 2;
+                periodos = Arrays.copyOf(periodos, capacidad);
+                claves = Arrays.copyOf(claves, capacidad);
+                valores = Arrays.copyOf(valores, capacidad);
+                valoresExtra = Arrays.copyOf(valoresExtra, capacidad);
+            }
+            periodos[cantidad] = periodo;
+            claves[cantidad] = clave;
+            valores[cantidad] = valor;
+            valoresExtra[cantidad] = valorExtra;
+            cantidad++;
+        }
+    }
+
+    /**
+     * Mejor peso y mejor 1RM por día de un ejercicio, en orden cronológico
+     */
+    private static final class SerieDiaria {
+        final int[] dias;
+        final double[] pesoMaximo;
+        final double[] mejor1RM;
+        int cantidad;
+
+        SerieDiaria(int capacidad) {
+            dias = new int[capacidad];
+            pesoMaximo = new double[capacidad];
+            mejor1RM = new double[capacidad];
+        }
+
+        void agregar(int dia, double peso, double unaRM) {
+            dias[cantidad] = dia;
+            pesoMaximo[cantidad] = peso;
+            mejor1RM[cantidad] = unaRM;
+            cantidad++;
+        }
+
+        /**
+         * Recorre los días en orden: récords acumulados y tendencia del 1RM
+         */
+        ResumenEjercicio resumir(String nombre) {
+            double maximoPeso = pesoMaximo[0];
+            double maximo1RM = mejor1RM[0];
+            int recordsPeso = 0;
+            int records1RM = 0;
+            for (int k = 1; k < cantidad; k++) {
+                if (pesoMaximo[k] > maximoPeso) {
+                    maximoPeso = pesoMaximo[k];
+                    recordsPeso++;
+                }
+                if (mejor1RM[k] > maximo1RM) {
+                    maximo1RM = mejor1RM[k];
+                    records1RM++;
+                }
+            }
+            return new ResumenEjercicio(nombre, cantidad, maximoPeso, maximo1RM, recordsPeso, records1RM,
+                    pendiente(dias, mejor1RM, cantidad) * 7);
+        }
+    }
+
+    /**
+     * Pendiente de mínimos cuadrados centrando en la media para no perder precisión con
+     * días grandes; 0 si no hay al menos dos días
+     */
+    private static double pendiente(int[] x, double[] y, int n) {
+        if (n < 2) {
+            return 0;
+        }
+        double mediaX = 0;
+        double mediaY = 0;
+        for (int i = 0; i < n; i++) {
+            mediaX += x[i];
+            mediaY += y[i];
+        }
+        mediaX /= n;
+        mediaY /= n;
+
+        double sxx = 0;
+        double sxy = 0;
+        for (int i = 0; i < n; i++) {
+            double dx = x[i] - mediaX;
+            sxx += dx * dx;
+            sxy += dx * (y[i] - mediaY);
+        }
+        return sxx > 0 ? sxy / sxx : 0;
+    }
+
+    /**
+     * Lunes (epoch day) de la semana de un día; el epoch day 0 fue jueves
+     */
+    static int inicioSemana(int dia) {
+        return dia - Math.floorMod(dia + 3, 7);
+    }
+
+    // --- Referencia secuencial ---
+
+    /**
+     * Implementación directa en un solo hilo, con mapas ordenados: sirve de referencia
+     * para comprobar que la versión paralela da exactamente el mismo resultado. No
+     * comparte código de cálculo con ella: agrupa, cuenta los récords y ajusta la recta
+     * por su cuenta, con la misma definición (mínimos cuadrados centrados en la media).
+     */
+    public static EstadisticasEntrenamiento calcularSecuencial(HistorialColumnar historial) {
+        Map<Integer, Map<String, Double>> volumenPorSemana = new TreeMap<>();
+        Map<String, TreeMap<Integer, double[]>> mejoresPorDia = new TreeMap<>();
+
+        for (int i = historial.getPrimeraFilaConFecha(); i < historial.getCantidad(); i++) {
+            int dia = historial.getDia(i);
+            double peso = historial.getPeso(i);
+            int repeticiones = historial.getRepeticiones(i);
+
+            volumenPorSemana.computeIfAbsent(inicioSemana(dia), s -> new TreeMap<>())
+                    .merge(historial.getGrupo(historial.getGrupoId(i)), peso * repeticiones, Double::sum);
+
+            double estimado = AgregadosEjercicio.estimar1RM(peso, repeticiones);
+            TreeMap<Integer, double[]> porDia = mejoresPorDia.computeIfAbsent(
+                    historial.getNombre(historial.getNombreId(i)), n -> new TreeMap<>());
+            double[] mejores = porDia.get(dia);
+            if (mejores == null) {
+                porDia.put(dia, new double[] { peso, estimado });
+            } else {
+                mejores[0] = Math.max(mejores[0], peso);
+                mejores[1] = Math.max(mejores[1], estimado);
+            }
+        }
+
+        List<VolumenSemanal> volumen = new ArrayList<>();
+        for (Map.Entry<Integer, Map<String, Double>> semana : volumenPorSemana.entrySet()) {
+            for (Map.Entry<String, Double> grupo : semana.getValue().entrySet()) {
+                volumen.add(new VolumenSemanal(grupo.getKey(), LocalDate.ofEpochDay(semana.getKey()),
+                        grupo.getValue()));
+            }
+        }
+
+        List<ResumenEjercicio> resumenes = new ArrayList<>();
+        for (Map.Entry<String, TreeMap<Integer, double[]>> ejercicio : mejoresPorDia.entrySet()) {
+            TreeMap<Integer, double[]> porDia = ejercicio.getValue();
+            double maximoPeso = 0;
+            double maximo1RM = 0;
+            int recordsPeso = 0;
+            int records1RM = 0;
+            double sumaDias = 0;
+            double suma1RM = 0;
+            boolean primero = true;
+            for (Map.Entry<Integer, double[]> dia : porDia.entrySet()) {
+                double peso = dia.getValue()[0];
+                double unaRM = dia.getValue()[1];
+                if (primero) {
+                    maximoPeso = peso;
+                    maximo1RM = unaRM;
+                    primero = false;
+                } else {
+                    if (peso > maximoPeso) {
+                        maximoPeso = peso;
+                        recordsPeso++;
+                    }
+                    if (unaRM > maximo1RM) {
+                        maximo1RM = unaRM;
+                        records1RM++;
+                    }
+                }
+                sumaDias += dia.getKey();
+                suma1RM += unaRM;
+            }
+
+            // Recta de mínimos cuadrados del 1RM frente al día, en kg por semana
+            int n = porDia.size();
+            double tendencia = 0;
+            if (n >= 2) {
+                double mediaDias = sumaDias / n;
+                double media1RM = suma1RM / n;
+                double sxx = 0;
+                double sxy = 0;
+                for (Map.Entry<Integer, double[]> dia : porDia.entrySet()) {
+                    double dx = dia.getKey() - mediaDias;
+                    sxx += dx * dx;
+                    sxy += dx * (dia.getValue()[1] - media1RM);
+                }
+                tendencia = sxx > 0 ? sxy / sxx * 7 : 0;
+            }
+            resumenes.add(new ResumenEjercicio(ejercicio.getKey(), n, maximoPeso, maximo1RM, recordsPeso,
+                    records1RM, tendencia));
+        }
+
+        return new EstadisticasEntrenamiento(volumen, resumenes);
+    }
+}
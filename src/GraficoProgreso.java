@@ -0,0 +1,319 @@
+import javax.swing.JPanel;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Gráfico de progreso de un ejercicio dibujado con Java2D.
+ *
+ * La capa estática (fondo, rejilla, ejes y línea) se dibuja una sola vez en una imagen y
+ * solo se rehace cuando cambian los datos, la métrica o el tamaño; al mover el ratón
+ * únicamente se pinta encima el marcador del punto más cercano. La línea se reduce con
+ * {@link DownsamplerLTTB} a un punto por píxel de ancho, así el coste no depende de la
+ * longitud del historial.
+ */
+public class GraficoProgreso extends JPanel {
+    private static final long serialVersionUID = 1L;
+    private static final int MARGEN_IZQUIERDO = 48;
+    private static final int MARGEN_DERECHO = 14;
+    private static final int MARGEN_SUPERIOR = 14;
+    private static final int MARGEN_INFERIOR = 24;
+    private static final int LINEAS_REJILLA = 4;
+    // Por debajo de esta cantidad de puntos se marca cada uno
+    private static final int MAXIMO_PUNTOS_MARCADOS = 60;
+    private static final Font FUENTE_EJES = new Font("Segoe UI", Font.PLAIN, 11);
+    private static final Font FUENTE_MARCADOR = new Font("Segoe UI", Font.BOLD, 12);
+
+    private final Color colorLinea;
+    private final Color colorRejilla;
+    private final Color colorTexto;
+
+    private DatosProgreso datos;
+    private DatosProgreso.Metrica metrica = DatosProgreso.Metrica.PESO;
+    private String mensaje = "Sin datos";
+
+    // Capa estática cacheada y la escala con la que se generó
+    private BufferedImage capaEstatica;
+    private double escalaCapa;
+    private int[] indicesVisibles = new int[0];
+    private double minimoX;
+    private double maximoX;
+    private double minimoY;
+    private double maximoY;
+
+    private int indiceMarcado = -1;
+
+    public GraficoProgreso(Color fondo, Color linea, Color rejilla, Color texto) {
+        this.colorLinea = linea;
+        this.colorRejilla = rejilla;
+        this.colorTexto = texto;
+        setBackground(fondo);
+        setOpaque(true);
+        setPreferredSize(new Dimension(0, 200));
+
+        MouseAdapter raton = new MouseAdapter() {
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                marcar(buscarIndiceCercano(e.getX()));
+            }
+
+            @Override
+            public void mouseExited(MouseEvent e) {
+                marcar(-1);
+            }
+        };
+        addMouseListener(raton);
+        addMouseMotionListener(raton);
+    }
+
+    /**
+     * Sustituye los datos dibujados; null deja el gráfico vacío con el mensaje indicado
+     */
+    public void setDatos(DatosProgreso datos, String mensajeSinDatos) {
+        this.datos = datos;
+        this.mensaje = mensajeSinDatos;
+        invalidarCapa();
+    }
+
+    public void setMetrica(DatosProgreso.Metrica metrica) {
+        if (this.metrica != metrica) {
+            this.metrica = metrica;
+            invalidarCapa();
+        }
+    }
+
+    public DatosProgreso.Metrica getMetrica() {
+        return metrica;
+    }
+
+    private void invalidarCapa() {
+        capaEstatica = null;
+        indiceMarcado = -1;
+        repaint();
+    }
+
+    private void marcar(int indice) {
+        if (indice != indiceMarcado) {
+            indiceMarcado = indice;
+            repaint();
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            int ancho = getWidth();
+            int alto = getHeight();
+            if (datos == null || datos.getCantidad() == 0) {
+                dibujarMensaje(g2, ancho, alto);
+                return;
+            }
+
+            double escala = g2.getTransform().getScaleX();
+            if (capaEstatica == null || escala != escalaCapa
+                    || capaEstatica.getWidth() != (int) Math.ceil(ancho * escala)
+                    || capaEstatica.getHeight() != (int) Math.ceil(alto * escala)) {
+                capaEstatica = dibujarCapaEstatica(ancho, alto, escala);
+                escalaCapa = escala;
+            }
+            g2.drawImage(capaEstatica, 0, 0, ancho, alto, null);
+
+            if (indiceMarcado >= 0 && indiceMarcado < datos.getCantidad()) {
+                dibujarMarcador(g2, ancho, alto);
+            }
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    /**
+     * Dibuja fondo, rejilla, etiquetas y la línea reducida en una imagen nueva del tamaño
+     * del componente (en píxeles de dispositivo)
+     */
+    BufferedImage dibujarCapaEstatica(int ancho, int alto, double escala) {
+        BufferedImage imagen = new BufferedImage(Math.max(1, (int) Math.ceil(ancho * escala)),
+                Math.max(1, (int) Math.ceil(alto * escala)), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = imagen.createGraphics();
+        try {
+            g2.scale(escala, escala);
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2.setColor(getBackground());
+            g2.fillRect(0, 0, ancho, alto);
+
+            int[] dias = datos.getDias();
+            double[] valores = datos.getValores(metrica);
+            int n = datos.getCantidad();
+            calcularRangos(dias, valores, n);
+
+            int anchoGrafico = Math.max(1, ancho - MARGEN_IZQUIERDO - MARGEN_DERECHO);
+            if (indicesVisibles.length < Math.min(n, anchoGrafico)) {
+                indicesVisibles = new int[Math.min(n, anchoGrafico)];
+            }
+            int visibles = DownsamplerLTTB.reducir(dias, valores, n, anchoGrafico, indicesVisibles);
+
+            dibujarRejilla(g2, ancho, alto);
+            dibujarLinea(g2, dias, valores, visibles, ancho, alto);
+        } finally {
+            g2.dispose();
+        }
+        return imagen;
+    }
+
+    private void calcularRangos(int[] dias, double[] valores, int n) {
+        minimoX = dias[0];
+        maximoX = dias[n - 1];
+        if (maximoX == minimoX) {
+            minimoX -= 1;
+            maximoX += 1;
+        }
+
+        double minimo = Double.POSITIVE_INFINITY;
+        double maximo = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            minimo = Math.min(minimo, valores[i]);
+            maximo = Math.max(maximo, valores[i]);
+        }
+        double margen = maximo > minimo ? (maximo - minimo) * 0.08 : Math.max(1, Math.abs(maximo) * 0.1);
+        minimoY = Math.max(0, minimo - margen);
+        maximoY = maximo + margen;
+    }
+
+    private void dibujarRejilla(Graphics2D g2, int ancho, int alto) {
+        g2.setFont(FUENTE_EJES);
+        FontMetrics fm = g2.getFontMetrics();
+        int abajo = alto - MARGEN_INFERIOR;
+
+        for (int i = 0; i <= LINEAS_REJILLA; i++) {
+            double valor = minimoY + (maximoY - minimoY) * i / LINEAS_REJILLA;
+            int y = (int) Math.round(aY(valor, alto));
+            g2.setColor(colorRejilla);
+            g2.drawLine(MARGEN_IZQUIERDO, y, ancho - MARGEN_DERECHO, y);
+            g2.setColor(colorTexto);
+            String etiqueta = formatearValor(valor);
+            g2.drawString(etiqueta, MARGEN_IZQUIERDO - 6 - fm.stringWidth(etiqueta), y + fm.getAscent() / 2 - 1);
+        }
+
+        String inicio = datos.getFecha(0).toString();
+        String fin = datos.getFecha(datos.getCantidad() - 1).toString();
+        int yTexto = abajo + fm.getAscent() + 6;
+        g2.drawString(inicio, MARGEN_IZQUIERDO, yTexto);
+        if (datos.getCantidad() > 1) {
+            g2.drawString(fin, ancho - MARGEN_DERECHO - fm.stringWidth(fin), yTexto);
+        }
+        g2.drawString(metrica.getEtiqueta() + " (" + metrica.getUnidad() + ")", MARGEN_IZQUIERDO + 4,
+                MARGEN_SUPERIOR + fm.getAscent());
+    }
+
+    private void dibujarLinea(Graphics2D g2, int[] dias, double[] valores, int visibles, int ancho, int alto) {
+        Path2D.Double linea = new Path2D.Double(Path2D.WIND_NON_ZERO, visibles);
+        for (int k = 0; k < visibles; k++) {
+            int i = indicesVisibles[k];
+            double x = aX(dias[i], ancho);
+            double y = aY(valores[i], alto);
+            if (k == 0) {
+                linea.moveTo(x, y);
+            } else {
+                linea.lineTo(x, y);
+            }
+        }
+
+        g2.setColor(colorLinea);
+        g2.setStroke(new BasicStroke(2f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        g2.draw(linea);
+
+        if (visibles <= MAXIMO_PUNTOS_MARCADOS) {
+            for (int k = 0; k < visibles; k++) {
+                int i = indicesVisibles[k];
+                int x = (int) Math.round(aX(dias[i], ancho));
+                int y = (int) Math.round(aY(valores[i], alto));
+                g2.fillOval(x - 3, y - 3, 6, 6);
+            }
+        }
+    }
+
+    private void dibujarMarcador(Graphics2D g2, int ancho, int alto) {
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+        double valor = datos.getValores(metrica)[indiceMarcado];
+        int x = (int) Math.round(aX(datos.getDias()[indiceMarcado], ancho));
+        int y = (int) Math.round(aY(valor, alto));
+
+        g2.setColor(colorRejilla);
+        g2.drawLine(x, MARGEN_SUPERIOR, x, alto - MARGEN_INFERIOR);
+        g2.setColor(colorLinea);
+        g2.fillOval(x - 5, y - 5, 10, 10);
+
+        g2.setFont(FUENTE_MARCADOR);
+        FontMetrics fm = g2.getFontMetrics();
+        String texto = datos.getFecha(indiceMarcado) + "  " + formatearValor(valor) + " " + metrica.getUnidad();
+        int anchoTexto = fm.stringWidth(texto);
+        int xTexto = Math.max(MARGEN_IZQUIERDO, Math.min(x - anchoTexto / 2, ancho - MARGEN_DERECHO - anchoTexto));
+        int yTexto = Math.max(MARGEN_SUPERIOR + fm.getAscent(), y - 10);
+        g2.setColor(getBackground());
+        g2.fillRect(xTexto - 4, yTexto - fm.getAscent(), anchoTexto + 8, fm.getHeight());
+        g2.setColor(colorTexto);
+        g2.drawString(texto, xTexto, yTexto);
+    }
+
+    private void dibujarMensaje(Graphics2D g2, int ancho, int alto) {
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setFont(FUENTE_MARCADOR);
+        g2.setColor(colorTexto);
+        FontMetrics fm = g2.getFontMetrics();
+        g2.drawString(mensaje, (ancho - fm.stringWidth(mensaje)) / 2, (alto + fm.getAscent()) / 2);
+    }
+
+    /**
+     * Día con registro más cercano a la coordenada x del ratón, o -1 si no hay datos
+     */
+    private int buscarIndiceCercano(int xRaton) {
+        if (datos == null || datos.getCantidad() == 0 || capaEstatica == null) {
+            return -1;
+        }
+        int anchoGrafico = Math.max(1, getWidth() - MARGEN_IZQUIERDO - MARGEN_DERECHO);
+        double dia = minimoX + (xRaton - MARGEN_IZQUIERDO) * (maximoX - minimoX) / anchoGrafico;
+
+        int[] dias = datos.getDias();
+        int n = datos.getCantidad();
+        int posicion = Arrays.binarySearch(dias, 0, n, (int) Math.round(dia));
+        if (posicion >= 0) {
+            return posicion;
+        }
+        int siguiente = -posicion - 1;
+        if (siguiente == 0) {
+            return 0;
+        }
+        if (siguiente == n) {
+            return n - 1;
+        }
+        return dia - dias[siguiente - 1] <= dias[siguiente] - dia ? siguiente - 1 : siguiente;
+    }
+
+    private double aX(double dia, int ancho) {
+        int anchoGrafico = ancho - MARGEN_IZQUIERDO - MARGEN_DERECHO;
+        return MARGEN_IZQUIERDO + (dia - minimoX) / (maximoX - minimoX) * anchoGrafico;
+    }
+
+    private double aY(double valor, int alto) {
+        int altoGrafico = alto - MARGEN_SUPERIOR - MARGEN_INFERIOR;
+        return MARGEN_SUPERIOR + (1 - (valor - minimoY) / (maximoY - minimoY)) * altoGrafico;
+    }
+
+    private static String formatearValor(double valor) {
+        return Math.abs(valor) >= 100 ? String.format("%.0f", valor) : String.format("%.1f", valor);
+    }
+}
@@ -1,9 +1,18 @@
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import java.awt.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 /**
  * Interfaz gráfica principal para el sistema de seguimiento de ejercicios
@@ -28,15 +37,23 @@ public class GymTrackerGUI extends JFrame {
     private static final Font FUENTE_BOTON = new Font("Segoe UI", Font.BOLD, 14);
     private static final Font FUENTE_LABEL = new Font("Segoe UI", Font.BOLD, 14);
 
+    private static final String[] GRUPOS_MUSCULARES = { "Pecho", "Espalda", "Piernas", "Brazos", "Hombros", "Core",
+            "Glúteos", "Otro" };
+
     private EjercicioDAO ejercicioDAO;
-    private DefaultTableModel tableModelDetalle;
+    private EjercicioDAOAsync ejercicioDAOAsync;
+    private RutinaDAO rutinaDAO;
+    private DiarioSeries diarioSeries;
+    private HistorialTableModel tableModelDetalle;
+    private GraficoProgreso graficoProgreso;
     private JTable tablaDetalle;
     private JList<String> listaEjercicios;
     private DefaultListModel<String> listModel;
 
-    // Panel principal (card layout)
+    // Panel principal (card layout); cada página se construye la primera vez que se muestra
     private JPanel cardPanel;
     private CardLayout cardLayout;
+    private final Set<String> tarjetasCreadas = new HashSet<>();
 
     // Componentes del formulario
     private JTextField nombreField;
@@ -52,13 +69,57 @@ public class GymTrackerGUI extends JFrame {
     private JTextField fechaNuevoField;
     private JLabel tituloEjercicioLabel;
     private String ejercicioSeleccionadoNombre;
+    private DetalleEjercicioModelo detalleActual;
+    // Serie diaria dibujada en el gráfico del detalle; null mientras se carga
+    private DatosProgreso progresoActual;
     private String grupoActual;
     private JLabel tituloListaLabel;
 
+    // Componentes de rutinas y sesión
+    private DefaultListModel<Rutina> rutinasModel;
+    private JList<Rutina> listaRutinas;
+    private SesionTableModel sesionTableModel;
+    private JTable tablaSesion;
+    private JLabel tituloSesionLabel;
+    private JTextField fechaSesionField;
+    private JButton btnRegistrarSesion;
+    private SesionEntrenamiento sesionActual;
+    private JTextField busquedaField;
+    private Timer temporizadorBusqueda;
+
+    // Peticiones asíncronas por vista (se cancelan al navegar a otra pantalla)
+    private final SolicitudEnCurso solicitudLista = new SolicitudEnCurso();
+    private final SolicitudEnCurso solicitudDetalle = new SolicitudEnCurso();
+    private final SolicitudEnCurso solicitudProgreso = new SolicitudEnCurso();
+    private final SolicitudEnCurso solicitudRutinas = new SolicitudEnCurso();
+    private JLabel estadoCargaLabel;
+    private int cargasPendientes;
+
+    // Espera tras la última pulsación antes de buscar y máximo de resultados mostrados
+    private static final int ESPERA_BUSQUEDA_MS = 150;
+    private static final int LIMITE_BUSQUEDA = 200;
+    // Máximo que el arranque espera a volcar lo que quedó en el diario de series
+    private static final long ESPERA_RECUPERACION_DIARIO_MS = 30_000;
+    // Filas rechazadas que se listan en el resumen de una importación
+    private static final int MAX_ERRORES_IMPORTACION = 10;
+    private static final String EXTENSION_INSTANTANEA = ".gts";
+
     public GymTrackerGUI() {
         try {
             ejercicioDAO = new EjercicioDAO();
-            DatabaseManager.getInstance().initializeDatabase();
+            ejercicioDAOAsync = new EjercicioDAOAsync(ejercicioDAO);
+            rutinaDAO = new RutinaDAO();
+            DatabaseManager dbManager = DatabaseManager.getInstance();
+            diarioSeries = new DiarioSeries(Paths.get(dbManager.getRutaBaseDatos() + ".diario"), ejercicioDAO,
+                    dbManager, DiarioSeries.Sincronizacion.desdePropiedad());
+            // Migraciones y caché de nombres en segundo plano mientras se construye la
+            // ventana; las consultas de la interfaz se encolan detrás
+            CompletableFuture<Void> inicializacion = ejercicioDAOAsync.inicializar(() -> {
+                dbManager.initializeDatabase();
+                abrirDiario();
+                ejercicioDAO.precargarCacheNombres();
+                MedicionArranque.fase("base de datos lista");
+            });
 
             setTitle("GymTracker");
             setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -75,8 +136,10 @@ public class GymTrackerGUI extends JFrame {
 
             crearMenuBar();
             crearInterfaz();
+            MedicionArranque.fase("ventana construida");
 
             // Asegurar que la ventana sea visible
+            MedicionArranque.alMostrar(this, inicializacion);
             setVisible(true);
             toFront();
             requestFocus();
@@ -91,6 +154,24 @@ public class GymTrackerGUI extends JFrame {
         }
     }
 
+    /**
+     * Abre el diario de series y vuelca lo que quedara pendiente de la última ejecución
+     * antes de las primeras consultas. Si no se puede abrir, las series se guardan
+     * directamente en SQLite.
+     */
+    private void abrirDiario() {
+        try {
+            diarioSeries.abrir();
+            if (!diarioSeries.esperarVolcado(ESPERA_RECUPERACION_DIARIO_MS)) {
+                System.err.println("El diario de series sigue pendiente de volcar; se reintentará en segundo plano");
+            }
+            ejercicioDAOAsync.usarDiario(diarioSeries);
+        } catch (IOException | SQLException e) {
+            System.err.println("Error al abrir el diario de series: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
     private void crearMenuBar() {
         JMenuBar menuBar = new JMenuBar();
         menuBar.setBackground(COLOR_FONDO_PANEL);
@@ -115,6 +196,51 @@ public class GymTrackerGUI extends JFrame {
 
         menuBar.add(menuEjercicios);
 
+        // Menú Rutinas
+        JMenu menuRutinas = new JMenu("Rutinas");
+        menuRutinas.setForeground(COLOR_TEXTO_CLARO);
+        menuRutinas.setFont(FUENTE_NORMAL);
+
+        JMenuItem itemRutinas = new JMenuItem("Mis Rutinas");
+        itemRutinas.setForeground(COLOR_TEXTO_CLARO);
+        itemRutinas.setBackground(COLOR_FONDO_PANEL);
+        itemRutinas.addActionListener(e -> mostrarRutinas());
+        menuRutinas.add(itemRutinas);
+
+        menuBar.add(menuRutinas);
+
+        // Menú Datos
+        JMenu menuDatos = new JMenu("Datos");
+        menuDatos.setForeground(COLOR_TEXTO_CLARO);
+        menuDatos.setFont(FUENTE_NORMAL);
+
+        JMenuItem itemImportar = new JMenuItem("Importar series...");
+        itemImportar.setForeground(COLOR_TEXTO_CLARO);
+        itemImportar.setBackground(COLOR_FONDO_PANEL);
+        itemImportar.addActionListener(e -> importarSeries());
+        menuDatos.add(itemImportar);
+
+        JMenuItem itemExportar = new JMenuItem("Exportar series...");
+        itemExportar.setForeground(COLOR_TEXTO_CLARO);
+        itemExportar.setBackground(COLOR_FONDO_PANEL);
+        itemExportar.addActionListener(e -> exportarSeries());
+        menuDatos.add(itemExportar);
+        menuDatos.addSeparator();
+
+        JMenuItem itemCopia = new JMenuItem("Crear copia de seguridad...");
+        itemCopia.setForeground(COLOR_TEXTO_CLARO);
+        itemCopia.setBackground(COLOR_FONDO_PANEL);
+        itemCopia.addActionListener(e -> crearCopiaSeguridad());
+        menuDatos.add(itemCopia);
+
+        JMenuItem itemRestaurar = new JMenuItem("Restaurar copia de seguridad...");
+        itemRestaurar.setForeground(COLOR_TEXTO_CLARO);
+        itemRestaurar.setBackground(COLOR_FONDO_PANEL);
+        itemRestaurar.addActionListener(e -> restaurarCopiaSeguridad());
+        menuDatos.add(itemRestaurar);
+
+        menuBar.add(menuDatos);
+
         // Menú Ayuda
         JMenu menuAyuda = new JMenu("Ayuda");
         menuAyuda.setForeground(COLOR_TEXTO_CLARO);
@@ -140,35 +266,68 @@ public class GymTrackerGUI extends JFrame {
         cardPanel = new JPanel(cardLayout);
         cardPanel.setBackground(COLOR_FONDO_OSCURO);
 
-        // Página principal - Lista simple de ejercicios
-        // Página Categorías (Nueva Principal)
-        JPanel panelCategorias = crearPanelCategorias();
-        cardPanel.add(panelCategorias, "CATEGORIAS");
-
-        // Página Lista de Ejercicios
-        JPanel panelLista = crearPanelListaEjercicios();
-        cardPanel.add(panelLista, "LISTA_EJERCICIOS");
-
-        // Página detalle de ejercicio
-        JPanel panelDetalle = crearPanelDetalleEjercicio();
-        JScrollPane scrollDetalle = new JScrollPane(panelDetalle);
-        scrollDetalle.setBorder(null);
-        scrollDetalle.getViewport().setBackground(COLOR_FONDO_OSCURO);
-        scrollDetalle.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
-        estilizarScrollBar(scrollDetalle);
-        cardPanel.add(scrollDetalle, "DETALLE");
-
-        // Página formulario - con scroll
-        JPanel panelFormulario = crearPanelFormulario();
-        JScrollPane scrollFormulario = new JScrollPane(panelFormulario);
-        scrollFormulario.setBorder(null);
-        scrollFormulario.getViewport().setBackground(COLOR_FONDO_OSCURO); // Fix background match
-        scrollFormulario.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
-        estilizarScrollBar(scrollFormulario);
-        cardPanel.add(scrollFormulario, "FORMULARIO");
-
+        // Solo la página inicial (Categorías); el resto se crea al navegar a ella
         add(cardPanel, BorderLayout.CENTER);
-        cardLayout.show(cardPanel, "CATEGORIAS");
+        mostrarTarjeta("CATEGORIAS");
+
+        // Indicador de carga mientras hay consultas en segundo plano
+        estadoCargaLabel = new JLabel("Cargando...", SwingConstants.CENTER);
+        estadoCargaLabel.setFont(FUENTE_NORMAL);
+        estadoCargaLabel.setForeground(COLOR_TEXTO_SECUNDARIO);
+        estadoCargaLabel.setOpaque(true);
+        estadoCargaLabel.setBackground(COLOR_FONDO_PANEL);
+        estadoCargaLabel.setBorder(BorderFactory.createEmptyBorder(5, 0, 5, 0));
+        estadoCargaLabel.setVisible(false);
+        add(estadoCargaLabel, BorderLayout.SOUTH);
+    }
+
+    /**
+     * Construye la página la primera vez que se necesita
+     */
+    private void asegurarTarjeta(String nombre) {
+        if (!tarjetasCreadas.add(nombre)) {
+            return;
+        }
+
+        JComponent tarjeta;
+        switch (nombre) {
+            case "CATEGORIAS":
+                tarjeta = crearPanelCategorias();
+                break;
+            case "LISTA_EJERCICIOS":
+                tarjeta = crearPanelListaEjercicios();
+                break;
+            case "DETALLE":
+                tarjeta = crearScrollPagina(crearPanelDetalleEjercicio());
+                break;
+            case "FORMULARIO":
+                tarjeta = crearScrollPagina(crearPanelFormulario());
+                break;
+            case "RUTINAS":
+                tarjeta = crearPanelRutinas();
+                break;
+            case "SESION":
+                tarjeta = crearPanelSesion();
+                break;
+            default:
+                throw new IllegalArgumentException("Página desconocida: " + nombre);
+        }
+        cardPanel.add(tarjeta, nombre);
+        MedicionArranque.fase("página " + nombre + " construida");
+    }
+
+    private void mostrarTarjeta(String nombre) {
+        asegurarTarjeta(nombre);
+        cardLayout.show(cardPanel, nombre);
+    }
+
+    private JScrollPane crearScrollPagina(JPanel pagina) {
+        JScrollPane scroll = new JScrollPane(pagina);
+        scroll.setBorder(null);
+        scroll.getViewport().setBackground(COLOR_FONDO_OSCURO); // Fix background match
+        scroll.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
+        estilizarScrollBar(scroll);
+        return scroll;
     }
 
     private JPanel crearPanelCategorias() {
@@ -184,9 +343,7 @@ public class GymTrackerGUI extends JFrame {
         JPanel gridPanel = new JPanel(new GridLayout(0, 2, 15, 15));
         gridPanel.setBackground(COLOR_FONDO_OSCURO);
 
-        String[] categorias = { "Pecho", "Espalda", "Piernas", "Brazos", "Hombros", "Core", "Glúteos", "Otro" };
-
-        for (String cat : categorias) {
+        for (String cat : GRUPOS_MUSCULARES) {
             JButton btnCat = new JButton(cat);
             btnCat.setFont(new Font("Segoe UI", Font.BOLD, 16));
             btnCat.setBackground(COLOR_FONDO_PANEL);
@@ -243,7 +400,32 @@ public class GymTrackerGUI extends JFrame {
         // Spacer para centrar título
         headerPanel.add(Box.createHorizontalStrut(50), BorderLayout.EAST);
 
-        panel.add(headerPanel, BorderLayout.NORTH);
+        // Búsqueda incremental: cada pulsación reinicia la espera y la consulta se hace en
+        // segundo plano; una búsqueda nueva cancela la anterior (solicitudLista)
+        busquedaField = crearTextField();
+        busquedaField.setToolTipText("Buscar por el principio de las palabras, sin tildes (p. ej. \"press banc\")");
+        temporizadorBusqueda = new Timer(ESPERA_BUSQUEDA_MS, e -> cargarListaEjercicios(grupoActual));
+        temporizadorBusqueda.setRepeats(false);
+        busquedaField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            public void insertUpdate(javax.swing.event.DocumentEvent e) {
+                temporizadorBusqueda.restart();
+            }
+
+            public void removeUpdate(javax.swing.event.DocumentEvent e) {
+                temporizadorBusqueda.restart();
+            }
+
+            public void changedUpdate(javax.swing.event.DocumentEvent e) {
+                temporizadorBusqueda.restart();
+            }
+        });
+
+        JPanel cabeceraPanel = new JPanel(new BorderLayout());
+        cabeceraPanel.setBackground(COLOR_FONDO_OSCURO);
+        cabeceraPanel.add(headerPanel, BorderLayout.NORTH);
+        cabeceraPanel.add(busquedaField, BorderLayout.SOUTH);
+
+        panel.add(cabeceraPanel, BorderLayout.NORTH);
 
         // Lista de ejercicios
         listModel = new DefaultListModel<>();
@@ -340,43 +522,216 @@ public class GymTrackerGUI extends JFrame {
 
         panel.add(panelSuperior, BorderLayout.NORTH);
 
-        // Tabla de historial del ejercicio
-        String[] columnas = { "Peso", "Reps", "Fecha" }; // Simplified columns for mobile
-        tableModelDetalle = new DefaultTableModel(columnas, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        // Tabla de historial del ejercicio (paginada bajo demanda)
+        tableModelDetalle = new HistorialTableModel(ejercicioDAOAsync);
 
         tablaDetalle = new JTable(tableModelDetalle);
-        tablaDetalle.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
-        tablaDetalle.setFont(FUENTE_NORMAL);
-        tablaDetalle.setRowHeight(45);
-        tablaDetalle.setBackground(COLOR_FONDO_PANEL);
-        tablaDetalle.setForeground(COLOR_TEXTO_CLARO);
-        tablaDetalle.setGridColor(COLOR_BORDE);
-        tablaDetalle.setShowVerticalLines(false);
-        tablaDetalle.setSelectionBackground(COLOR_SECUNDARIO);
-        tablaDetalle.setSelectionForeground(COLOR_ACCENT);
+        JScrollPane scrollTabla = crearScrollTabla(tablaDetalle);
+
+        // Gráfico de progreso encima de la tabla
+        JPanel panelCentral = new JPanel(new BorderLayout(10, 10));
+        panelCentral.setBackground(COLOR_FONDO_OSCURO);
+        panelCentral.add(crearPanelProgreso(), BorderLayout.NORTH);
+        panelCentral.add(scrollTabla, BorderLayout.CENTER);
+        panel.add(panelCentral, BorderLayout.CENTER);
+
+        // Panel para agregar nuevo registro
+        JPanel panelAgregar = crearPanelAgregarRegistro();
+        panel.add(panelAgregar, BorderLayout.SOUTH);
+
+        return panel;
+    }
+
+    private JScrollPane crearScrollTabla(JTable tabla) {
+        tabla.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        tabla.setFont(FUENTE_NORMAL);
+        tabla.setRowHeight(45);
+        tabla.setBackground(COLOR_FONDO_PANEL);
+        tabla.setForeground(COLOR_TEXTO_CLARO);
+        tabla.setGridColor(COLOR_BORDE);
+        tabla.setShowVerticalLines(false);
+        tabla.setSelectionBackground(COLOR_SECUNDARIO);
+        tabla.setSelectionForeground(COLOR_ACCENT);
 
         // Estilizar header de la tabla
-        JTableHeader header = tablaDetalle.getTableHeader();
+        JTableHeader header = tabla.getTableHeader();
         header.setFont(FUENTE_LABEL);
         header.setBackground(COLOR_FONDO_OSCURO);
         header.setForeground(COLOR_TEXTO_SECUNDARIO);
         header.setPreferredSize(new Dimension(header.getWidth(), 40));
         header.setBorder(BorderFactory.createMatteBorder(0, 0, 1, 0, COLOR_ACCENT));
 
-        JScrollPane scrollTabla = new JScrollPane(tablaDetalle);
+        JScrollPane scrollTabla = new JScrollPane(tabla);
         scrollTabla.setBorder(BorderFactory.createLineBorder(COLOR_BORDE, 1));
         scrollTabla.getViewport().setBackground(COLOR_FONDO_PANEL);
         estilizarScrollBar(scrollTabla);
-        panel.add(scrollTabla, BorderLayout.CENTER);
+        return scrollTabla;
+    }
 
-        // Panel para agregar nuevo registro
-        JPanel panelAgregar = crearPanelAgregarRegistro();
-        panel.add(panelAgregar, BorderLayout.SOUTH);
+    private JPanel crearPanelRutinas() {
+        JPanel panel = new JPanel(new BorderLayout(15, 15));
+        panel.setBackground(COLOR_FONDO_OSCURO);
+        panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(COLOR_FONDO_OSCURO);
+        headerPanel.setBorder(BorderFactory.createEmptyBorder(0, 0, 10, 0));
+
+        JButton btnVolver = crearBoton("←", COLOR_SECUNDARIO);
+        btnVolver.setPreferredSize(new Dimension(50, 50));
+        btnVolver.addActionListener(e -> mostrarCategorias());
+        headerPanel.add(btnVolver, BorderLayout.WEST);
+
+        JLabel titulo = new JLabel("RUTINAS", SwingConstants.CENTER);
+        titulo.setFont(FUENTE_TITULO);
+        titulo.setForeground(COLOR_TEXTO_CLARO);
+        headerPanel.add(titulo, BorderLayout.CENTER);
+        headerPanel.add(Box.createHorizontalStrut(50), BorderLayout.EAST);
+
+        panel.add(headerPanel, BorderLayout.NORTH);
+
+        rutinasModel = new DefaultListModel<>();
+        listaRutinas = new JList<>(rutinasModel);
+        listaRutinas.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        listaRutinas.setBackground(COLOR_FONDO_OSCURO);
+        listaRutinas.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        listaRutinas.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                    boolean isSelected, boolean cellHasFocus) {
+                Rutina rutina = (Rutina) value;
+
+                JPanel card = new JPanel(new BorderLayout());
+                card.setBackground(isSelected ? COLOR_SECUNDARIO : COLOR_FONDO_PANEL);
+                card.setBorder(BorderFactory.createCompoundBorder(
+                        BorderFactory.createEmptyBorder(0, 0, 10, 0),
+                        BorderFactory.createCompoundBorder(
+                                BorderFactory.createLineBorder(isSelected ? COLOR_ACCENT : COLOR_BORDE, 1),
+                                BorderFactory.createEmptyBorder(15, 15, 15, 15))));
+
+                JLabel label = new JLabel(rutina.getNombre());
+                label.setFont(new Font("Segoe UI", Font.BOLD, 16));
+                label.setForeground(isSelected ? COLOR_ACCENT : COLOR_TEXTO_CLARO);
+                card.add(label, BorderLayout.CENTER);
+
+                JLabel resumen = new JLabel(rutina.getEjercicios().size() + " ejercicios · "
+                        + rutina.getTotalSeries() + " series");
+                resumen.setFont(FUENTE_NORMAL);
+                resumen.setForeground(COLOR_TEXTO_SECUNDARIO);
+                card.add(resumen, BorderLayout.SOUTH);
+
+                return card;
+            }
+        });
+        listaRutinas.addMouseListener(new java.awt.event.MouseAdapter() {
+            public void mouseClicked(java.awt.event.MouseEvent evt) {
+                if (evt.getClickCount() == 2 && listaRutinas.getSelectedValue() != null) {
+                    empezarSesion(listaRutinas.getSelectedValue());
+                }
+            }
+        });
+
+        JScrollPane scrollLista = new JScrollPane(listaRutinas);
+        scrollLista.setBorder(null);
+        scrollLista.getViewport().setBackground(COLOR_FONDO_OSCURO);
+        estilizarScrollBar(scrollLista);
+        panel.add(scrollLista, BorderLayout.CENTER);
+
+        JPanel panelEdicion = new JPanel(new GridLayout(1, 3, 10, 0));
+        panelEdicion.setBackground(COLOR_FONDO_OSCURO);
+
+        JButton btnNueva = crearBoton("Nueva", COLOR_SECUNDARIO);
+        btnNueva.addActionListener(e -> editarRutina(null));
+        panelEdicion.add(btnNueva);
+
+        JButton btnEditar = crearBoton("Editar", COLOR_SECUNDARIO);
+        btnEditar.addActionListener(e -> {
+            if (listaRutinas.getSelectedValue() != null) {
+                editarRutina(listaRutinas.getSelectedValue());
+            }
+        });
+        panelEdicion.add(btnEditar);
+
+        JButton btnEliminar = crearBoton("Eliminar", COLOR_SECUNDARIO);
+        btnEliminar.addActionListener(e -> eliminarRutina(listaRutinas.getSelectedValue()));
+        panelEdicion.add(btnEliminar);
+
+        JButton btnEmpezar = crearBoton("Empezar Sesión", COLOR_ACCENT);
+        btnEmpezar.addActionListener(e -> {
+            if (listaRutinas.getSelectedValue() != null) {
+                empezarSesion(listaRutinas.getSelectedValue());
+            } else {
+                mostrarMensaje("Selecciona una rutina.", "Aviso", JOptionPane.WARNING_MESSAGE);
+            }
+        });
+
+        JPanel panelBotones = new JPanel(new GridLayout(2, 1, 0, 10));
+        panelBotones.setBackground(COLOR_FONDO_OSCURO);
+        panelBotones.setBorder(BorderFactory.createEmptyBorder(10, 0, 0, 0));
+        panelBotones.add(panelEdicion);
+        panelBotones.add(btnEmpezar);
+        panel.add(panelBotones, BorderLayout.SOUTH);
+
+        return panel;
+    }
+
+    private JPanel crearPanelSesion() {
+        JPanel panel = new JPanel(new BorderLayout(15, 15));
+        panel.setBackground(COLOR_FONDO_OSCURO);
+        panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+
+        JPanel panelSuperior = new JPanel(new BorderLayout(10, 10));
+        panelSuperior.setBackground(COLOR_FONDO_OSCURO);
+
+        JButton btnVolver = crearBoton("←", COLOR_SECUNDARIO);
+        btnVolver.setPreferredSize(new Dimension(50, 50));
+        btnVolver.addActionListener(e -> mostrarRutinas());
+        panelSuperior.add(btnVolver, BorderLayout.WEST);
+
+        tituloSesionLabel = new JLabel("", SwingConstants.CENTER);
+        tituloSesionLabel.setFont(FUENTE_TITULO);
+        tituloSesionLabel.setForeground(COLOR_ACCENT);
+        panelSuperior.add(tituloSesionLabel, BorderLayout.CENTER);
+
+        JPanel panelFecha = new JPanel(new BorderLayout(10, 0));
+        panelFecha.setBackground(COLOR_FONDO_OSCURO);
+        panelFecha.add(crearLabel("Fecha (YYYY-MM-DD)"), BorderLayout.WEST);
+        fechaSesionField = crearTextField();
+        panelFecha.add(fechaSesionField, BorderLayout.CENTER);
+        panelSuperior.add(panelFecha, BorderLayout.SOUTH);
+
+        panel.add(panelSuperior, BorderLayout.NORTH);
+
+        // Series de la sesión ya rellenadas; peso y repeticiones se editan en la tabla
+        sesionTableModel = new SesionTableModel();
+        tablaSesion = new JTable(sesionTableModel);
+        panel.add(crearScrollTabla(tablaSesion), BorderLayout.CENTER);
+
+        btnRegistrarSesion = crearBoton("Registrar Sesión", COLOR_ACCENT);
+        btnRegistrarSesion.addActionListener(e -> registrarSesion());
+        panel.add(btnRegistrarSesion, BorderLayout.SOUTH);
+
+        return panel;
+    }
+
+    private JPanel crearPanelProgreso() {
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.setBackground(COLOR_FONDO_OSCURO);
+
+        JComboBox<DatosProgreso.Metrica> metricaCombo = new JComboBox<>(DatosProgreso.Metrica.values());
+        metricaCombo.setFont(FUENTE_NORMAL);
+        metricaCombo.setBackground(COLOR_FONDO_OSCURO);
+        metricaCombo.setForeground(COLOR_TEXTO_CLARO);
+        metricaCombo.setBorder(BorderFactory.createLineBorder(COLOR_BORDE));
+        ((JComponent) metricaCombo.getRenderer()).setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
+        metricaCombo.setPreferredSize(new Dimension(0, 35));
+        panel.add(metricaCombo, BorderLayout.NORTH);
+
+        graficoProgreso = new GraficoProgreso(COLOR_FONDO_PANEL, COLOR_ACCENT, COLOR_BORDE, COLOR_TEXTO_SECUNDARIO);
+        graficoProgreso.setBorder(BorderFactory.createLineBorder(COLOR_BORDE, 1));
+        metricaCombo.addActionListener(
+                e -> graficoProgreso.setMetrica((DatosProgreso.Metrica) metricaCombo.getSelectedItem()));
+        panel.add(graficoProgreso, BorderLayout.CENTER);
 
         return panel;
     }
@@ -526,8 +881,7 @@ public class GymTrackerGUI extends JFrame {
         gbc.gridy++;
         panel.add(crearLabel("Grupo Muscular"), gbc);
         gbc.gridy++;
-        String[] gruposMusculares = { "Pecho", "Espalda", "Piernas", "Brazos", "Hombros", "Core", "Glúteos", "Otro" };
-        grupoMuscularCombo = crearComboBox(gruposMusculares);
+        grupoMuscularCombo = crearComboBox(GRUPOS_MUSCULARES);
         panel.add(grupoMuscularCombo, gbc);
 
         // Peso
@@ -661,27 +1015,93 @@ public class GymTrackerGUI extends JFrame {
         return btn;
     }
 
+    /**
+     * Lanza una consulta en segundo plano mostrando el indicador de carga y entrega
+     * el resultado en el EDT si la petición sigue vigente
+     */
+    private <T> void cargarAsync(SolicitudEnCurso solicitud, CompletableFuture<T> futuro, Consumer<? super T> alCompletar) {
+        iniciarCarga();
+        futuro.whenComplete((resultado, error) -> SwingUtilities.invokeLater(this::terminarCarga));
+        solicitud.ejecutar(futuro, alCompletar, this::mostrarErrorAsync);
+    }
+
+    /**
+     * Igual que cargarAsync pero para escrituras: no se cancelan al navegar
+     */
+    private <T> void escribirAsync(CompletableFuture<T> futuro, Consumer<? super T> alCompletar) {
+        cargarAsync(new SolicitudEnCurso(), futuro, alCompletar);
+    }
+
+    private void iniciarCarga() {
+        cargasPendientes++;
+        estadoCargaLabel.setVisible(true);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+    }
+
+    private void terminarCarga() {
+        cargasPendientes = Math.max(0, cargasPendientes - 1);
+        if (cargasPendientes == 0) {
+            estadoCargaLabel.setVisible(false);
+            setCursor(Cursor.getDefaultCursor());
+        }
+    }
+
+    private void mostrarErrorAsync(Throwable error) {
+        System.err.println("Error en operación de base de datos: " + error.getMessage());
+        error.printStackTrace();
+        mostrarMensaje("Error al acceder a la base de datos: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+    }
+
+    private void cancelarCargasLista() {
+        solicitudLista.cancelar();
+        if (temporizadorBusqueda != null) {
+            temporizadorBusqueda.stop();
+        }
+    }
+
+    private void cancelarCargasDetalle() {
+        solicitudDetalle.cancelar();
+        solicitudProgreso.cancelar();
+    }
+
     private void cargarListaEjercicios(String grupo) {
         listModel.clear();
-        List<String> nombres;
-        if (grupo == null || grupo.isEmpty()) {
-            nombres = ejercicioDAO.obtenerNombresEjercicios();
+        CompletableFuture<List<String>> futuro;
+        String consulta = busquedaField.getText();
+        if (!consulta.trim().isEmpty()) {
+            futuro = ejercicioDAOAsync.buscarNombresEjercicios(
+                    grupo == null || grupo.isEmpty() ? null : grupo, consulta, LIMITE_BUSQUEDA);
+        } else if (grupo == null || grupo.isEmpty()) {
+            futuro = ejercicioDAOAsync.obtenerNombresEjercicios();
         } else {
-            nombres = ejercicioDAO.obtenerNombresEjerciciosPorGrupo(grupo);
+            futuro = ejercicioDAOAsync.obtenerNombresEjerciciosPorGrupo(grupo);
         }
 
-        for (String nombre : nombres) {
-            listModel.addElement(nombre);
-        }
+        cargarAsync(solicitudLista, futuro, nombres -> {
+            for (String nombre : nombres) {
+                listModel.addElement(nombre);
+            }
+        });
     }
 
     private void mostrarCategorias() {
+        cancelarCargasLista();
+        cancelarCargasDetalle();
+        solicitudRutinas.cancelar();
         limpiarFormulario();
         grupoActual = null;
-        cardLayout.show(cardPanel, "CATEGORIAS");
+        mostrarTarjeta("CATEGORIAS");
     }
 
     private void mostrarListaEjerciciosPorGrupo(String grupo) {
+        asegurarTarjeta("LISTA_EJERCICIOS");
+        cancelarCargasDetalle();
+        solicitudRutinas.cancelar();
+        // La búsqueda se conserva al volver del detalle, pero no al cambiar de grupo
+        if (grupo == null ? grupoActual != null : !grupo.equals(grupoActual)) {
+            busquedaField.setText("");
+            temporizadorBusqueda.stop();
+        }
         grupoActual = grupo;
         cargarListaEjercicios(grupo);
 
@@ -689,15 +1109,20 @@ public class GymTrackerGUI extends JFrame {
             tituloListaLabel.setText(grupo != null ? grupo.toUpperCase() : "EJERCICIOS");
         }
 
-        cardLayout.show(cardPanel, "LISTA_EJERCICIOS");
+        mostrarTarjeta("LISTA_EJERCICIOS");
     }
 
     private void mostrarFormulario() {
+        asegurarTarjeta("FORMULARIO");
+        cancelarCargasLista();
+        cancelarCargasDetalle();
+        solicitudRutinas.cancelar();
         limpiarFormulario();
-        cardLayout.show(cardPanel, "FORMULARIO");
+        mostrarTarjeta("FORMULARIO");
     }
 
     private void mostrarDetalleEjercicio(String nombreEjercicio) {
+        asegurarTarjeta("DETALLE");
         ejercicioSeleccionadoNombre = nombreEjercicio;
 
         // Actualizar título
@@ -705,16 +1130,60 @@ public class GymTrackerGUI extends JFrame {
             tituloEjercicioLabel.setText(nombreEjercicio.toUpperCase());
         }
 
-        cargarHistorialEjercicio(nombreEjercicio);
-        cargarUltimoRegistroEnCampos(nombreEjercicio);
-        cardLayout.show(cardPanel, "DETALLE");
+        cargarDetalleEjercicio(nombreEjercicio);
+        mostrarTarjeta("DETALLE");
+    }
+
+    /**
+     * Carga el historial una sola vez y construye el modelo del detalle,
+     * del que salen tanto la tabla como los valores por defecto del formulario
+     */
+    private void cargarDetalleEjercicio(String nombreEjercicio) {
+        detalleActual = null;
+        tableModelDetalle.limpiar();
+        cargarAsync(solicitudDetalle,
+                ejercicioDAOAsync.ejecutar(() -> DetalleEjercicioModelo.cargar(ejercicioDAO, nombreEjercicio,
+                        HistorialTableModel.TAMANO_PAGINA)),
+                modelo -> {
+                    detalleActual = modelo;
+                    tableModelDetalle.cargar(modelo);
+                    mostrarUltimoRegistroEnCampos(modelo);
+                });
+        cargarProgreso(nombreEjercicio);
     }
 
-    private void cargarUltimoRegistroEnCampos(String nombreEjercicio) {
-        List<Ejercicio> ejercicios = ejercicioDAO.obtenerEjerciciosPorNombre(nombreEjercicio);
+    /**
+     * Lee la serie diaria del gráfico de los agregados por día, una vez por navegación y
+     * aparte de la tabla paginada
+     */
+    private void cargarProgreso(String nombreEjercicio) {
+        progresoActual = null;
+        graficoProgreso.setDatos(null, "Cargando...");
+        cargarAsync(solicitudProgreso,
+                ejercicioDAOAsync.ejecutar(() -> DatosProgreso.cargar(ejercicioDAO, nombreEjercicio)),
+                datos -> {
+                    progresoActual = datos;
+                    graficoProgreso.setDatos(datos, "Sin registros con fecha");
+                });
+    }
+
+    /**
+     * Suma una serie recién guardada al gráfico en memoria; solo si aún se estaba cargando
+     * se vuelve a leer, porque la lectura en curso pudo empezar antes de guardarla
+     */
+    private void agregarAlProgreso(Ejercicio serie) {
+        DatosProgreso progreso = progresoActual;
+        if (progreso != null && progreso.getNombre().equals(serie.getNombre())) {
+            progresoActual = progreso.agregar(serie);
+            graficoProgreso.setDatos(progresoActual, "Sin registros con fecha");
+        } else {
+            cargarProgreso(serie.getNombre());
+        }
+    }
 
-        if (!ejercicios.isEmpty()) {
-            Ejercicio ultimoEjercicio = ejercicios.get(0);
+    private void mostrarUltimoRegistroEnCampos(DetalleEjercicioModelo modelo) {
+        Ejercicio ultimoEjercicio = modelo.getUltimoRegistro();
+        if (ultimoEjercicio != null) {
             if (pesoNuevoField != null)
                 pesoNuevoField.setText(String.format("%.1f", ultimoEjercicio.getPeso()));
             if (repeticionesNuevoField != null)
@@ -731,25 +1200,15 @@ public class GymTrackerGUI extends JFrame {
         }
     }
 
-    private void cargarHistorialEjercicio(String nombreEjercicio) {
-        tableModelDetalle.setRowCount(0);
-        List<Ejercicio> ejercicios = ejercicioDAO.obtenerEjerciciosPorNombre(nombreEjercicio);
-
-        for (Ejercicio ejercicio : ejercicios) {
-            Object[] fila = {
-                    ejercicio.getPeso() + " kg",
-                    ejercicio.getRepeticiones(),
-                    ejercicio.getFecha() != null ? ejercicio.getFecha().toString() : "-"
-            };
-            tableModelDetalle.addRow(fila);
-        }
-    }
-
     private void guardarNuevoRegistro() {
         if (ejercicioSeleccionadoNombre == null || ejercicioSeleccionadoNombre.isEmpty()) {
             mostrarMensaje("Error: No hay ejercicio seleccionado.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
+        if (detalleActual == null || !detalleActual.getNombre().equals(ejercicioSeleccionadoNombre)) {
+            mostrarMensaje("El historial del ejercicio aún se está cargando.", "Aviso", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
 
         double peso = 0.0;
         try {
@@ -782,19 +1241,32 @@ public class GymTrackerGUI extends JFrame {
             return;
         }
 
-        List<Ejercicio> ejercicios = ejercicioDAO.obtenerEjerciciosPorNombre(ejercicioSeleccionadoNombre);
-        String grupoMuscular = ejercicios.isEmpty() ? "Otro" : ejercicios.get(0).getGrupoMuscular();
-
-        Ejercicio nuevoEjercicio = new Ejercicio(ejercicioSeleccionadoNombre, grupoMuscular, peso, repeticiones, fecha);
-        boolean exito = ejercicioDAO.insertarEjercicio(nuevoEjercicio);
+        DetalleEjercicioModelo modelo = detalleActual;
+        Ejercicio nuevoEjercicio = new Ejercicio(modelo.getNombre(), modelo.getGrupoMuscular(),
+                peso, repeticiones, fecha);
 
-        if (exito) {
-            mostrarMensaje("Registro guardado correctamente.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
-            cargarHistorialEjercicio(ejercicioSeleccionadoNombre);
-            cargarUltimoRegistroEnCampos(ejercicioSeleccionadoNombre);
-        } else {
-            mostrarMensaje("Error al guardar el registro.", "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        // El id llega en el EDT cuando la serie está en SQLite (con el diario, más tarde)
+        IntConsumer alAsignarId = id -> {
+            modelo.asignarId(nuevoEjercicio, id);
+            if (modelo == detalleActual) {
+                tableModelDetalle.cargar(modelo);
+            }
+        };
+        escribirAsync(ejercicioDAOAsync.insertarEjercicio(nuevoEjercicio, alAsignarId), exito -> {
+            if (exito) {
+                mostrarMensaje("Registro guardado correctamente.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
+                // Actualización incremental: la primera página se corrige en memoria y
+                // el resto del historial se vuelve a paginar solo si se llega a ver
+                modelo.agregar(nuevoEjercicio);
+                if (modelo == detalleActual) {
+                    tableModelDetalle.cargar(modelo);
+                    mostrarUltimoRegistroEnCampos(modelo);
+                    agregarAlProgreso(nuevoEjercicio);
+                }
+            } else {
+                mostrarMensaje("Error al guardar el registro.", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
     }
 
     private void guardarEjercicio() {
@@ -838,14 +1310,136 @@ public class GymTrackerGUI extends JFrame {
         }
 
         Ejercicio ejercicio = new Ejercicio(nombre, grupoMuscular, peso, repeticiones, fecha);
-        boolean exito = ejercicioDAO.insertarEjercicio(ejercicio);
+        btnGuardar.setEnabled(false);
+
+        CompletableFuture<Boolean> guardado = ejercicioDAOAsync.insertarEjercicio(ejercicio);
+        guardado.whenComplete((exito, error) -> SwingUtilities.invokeLater(() -> btnGuardar.setEnabled(true)));
+        escribirAsync(guardado, exito -> {
+            if (exito) {
+                mostrarMensaje("Ejercicio guardado correctamente.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
+                mostrarListaEjerciciosPorGrupo(grupoMuscular);
+            } else {
+                mostrarMensaje("Error al guardar el ejercicio.", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
+    }
 
-        if (exito) {
-            mostrarMensaje("Ejercicio guardado correctamente.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
-            mostrarListaEjerciciosPorGrupo(grupoMuscular);
-        } else {
-            mostrarMensaje("Error al guardar el ejercicio.", "Error", JOptionPane.ERROR_MESSAGE);
+    private void mostrarRutinas() {
+        asegurarTarjeta("RUTINAS");
+        cancelarCargasLista();
+        cancelarCargasDetalle();
+        sesionActual = null;
+        rutinasModel.clear();
+        cargarAsync(solicitudRutinas, ejercicioDAOAsync.ejecutar(rutinaDAO::obtenerRutinas), rutinas -> {
+            for (Rutina rutina : rutinas) {
+                rutinasModel.addElement(rutina);
+            }
+        });
+        mostrarTarjeta("RUTINAS");
+    }
+
+    private void editarRutina(Rutina inicial) {
+        // Nombres ya registrados como sugerencias (la caché suele estar cargada); petición
+        // aparte para no cancelar la carga de la lista de rutinas
+        cargarAsync(new SolicitudEnCurso(), ejercicioDAOAsync.obtenerNombresEjercicios(), nombres -> {
+            Rutina rutina = DialogoRutina.mostrar(this, inicial, nombres, GRUPOS_MUSCULARES);
+            if (rutina == null) {
+                return;
+            }
+            escribirAsync(ejercicioDAOAsync.ejecutar(() -> rutinaDAO.guardarRutina(rutina)), exito -> {
+                if (exito) {
+                    mostrarRutinas();
+                } else {
+                    mostrarMensaje("Error al guardar la rutina. ¿Ya existe una con ese nombre?", "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                }
+            });
+        });
+    }
+
+    private void eliminarRutina(Rutina rutina) {
+        if (rutina == null) {
+            return;
+        }
+        int opcion = JOptionPane.showConfirmDialog(this, "¿Eliminar la rutina " + rutina.getNombre() + "?",
+                "Eliminar rutina", JOptionPane.YES_NO_OPTION);
+        if (opcion != JOptionPane.YES_OPTION) {
+            return;
+        }
+        escribirAsync(ejercicioDAOAsync.ejecutar(() -> rutinaDAO.eliminarRutina(rutina.getId())), exito -> {
+            if (exito) {
+                mostrarRutinas();
+            } else {
+                mostrarMensaje("Error al eliminar la rutina.", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
+    }
+
+    /**
+     * Prepara la sesión de la rutina con todas sus series rellenadas desde el último
+     * registro de cada ejercicio
+     */
+    private void empezarSesion(Rutina rutina) {
+        asegurarTarjeta("SESION");
+        LocalDate hoy = LocalDate.now();
+        cargarAsync(solicitudRutinas, ejercicioDAOAsync.ejecutar(() -> rutinaDAO.prepararSesion(rutina, hoy)),
+                sesion -> {
+                    if (sesion == null) {
+                        mostrarMensaje("Error al preparar la sesión.", "Error", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                    sesionActual = sesion;
+                    sesionTableModel.cargar(sesion);
+                    tituloSesionLabel.setText(rutina.getNombre().toUpperCase());
+                    fechaSesionField.setText(hoy.toString());
+                    mostrarTarjeta("SESION");
+                });
+    }
+
+    /**
+     * Guarda todas las series de la sesión en una sola transacción
+     */
+    private void registrarSesion() {
+        SesionEntrenamiento sesion = sesionActual;
+        if (sesion == null) {
+            return;
+        }
+        if (tablaSesion.isEditing() && !tablaSesion.getCellEditor().stopCellEditing()) {
+            mostrarMensaje("Hay una serie con un valor no válido.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        try {
+            String fechaStr = fechaSesionField.getText().trim();
+            sesion.setFecha(fechaStr.isEmpty() ? null : LocalDate.parse(fechaStr));
+        } catch (Exception e) {
+            mostrarMensaje("Formato de fecha inválido. Use YYYY-MM-DD", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        // Se valida todo antes de guardar para no registrar una sesión a medias
+        for (Ejercicio serie : sesion.getSeries()) {
+            String error = serie.validar();
+            if (error != null) {
+                mostrarMensaje(serie.getNombre() + ": " + error, "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
         }
+
+        btnRegistrarSesion.setEnabled(false);
+        CompletableFuture<ResultadoLote> guardado = ejercicioDAOAsync.ejecutar(() -> rutinaDAO.registrarSesion(sesion));
+        guardado.whenComplete((resultado, error) -> SwingUtilities.invokeLater(() -> btnRegistrarSesion.setEnabled(true)));
+        escribirAsync(guardado, resultado -> {
+            if (!resultado.hayFallos()) {
+                mostrarMensaje("Sesión registrada: " + resultado.getInsertados() + " series.", "Éxito",
+                        JOptionPane.INFORMATION_MESSAGE);
+                if (sesion == sesionActual) {
+                    mostrarRutinas();
+                }
+            } else {
+                mostrarMensaje("Error al registrar la sesión: " + resultado.getFallos().get(0).getMotivo(), "Error",
+                        JOptionPane.ERROR_MESSAGE);
+            }
+        });
     }
 
     private void limpiarFormulario() {
@@ -861,6 +1455,134 @@ public class GymTrackerGUI extends JFrame {
             fechaField.setText(LocalDate.now().toString());
     }
 
+    /**
+     * Importa series desde un CSV o JSON elegido por el usuario; el fichero se lee en
+     * streaming en segundo plano y al terminar se muestra el resumen de filas rechazadas
+     */
+    private void importarSeries() {
+        JFileChooser selector = crearSelectorIntercambio();
+        if (selector.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path fichero = selector.getSelectedFile().toPath();
+        IntercambioSeries intercambio = new IntercambioSeries(ejercicioDAO);
+        escribirAsync(ejercicioDAOAsync.ejecutar(() -> {
+            try {
+                return intercambio.importar(fichero);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }), resultado -> {
+            StringBuilder mensaje = new StringBuilder(String.format("%d series importadas de %d filas leídas.",
+                    resultado.getImportadas(), resultado.getLeidas()));
+            if (resultado.getRechazadas() > 0) {
+                mensaje.append(String.format("%n%d filas rechazadas:", resultado.getRechazadas()));
+                List<String> errores = resultado.getErrores();
+                for (int i = 0; i < Math.min(errores.size(), MAX_ERRORES_IMPORTACION); i++) {
+                    mensaje.append(System.lineSeparator()).append(errores.get(i));
+                }
+            }
+            mostrarMensaje(mensaje.toString(), "Importación",
+                    resultado.getRechazadas() > 0 ? JOptionPane.WARNING_MESSAGE : JOptionPane.INFORMATION_MESSAGE);
+            if (grupoActual != null) {
+                cargarListaEjercicios(grupoActual);
+            }
+        });
+    }
+
+    /**
+     * Exporta todo el historial al CSV o JSON elegido, según la extensión del fichero
+     */
+    private void exportarSeries() {
+        JFileChooser selector = crearSelectorIntercambio();
+        if (selector.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path fichero = selector.getSelectedFile().toPath();
+        if (!fichero.getFileName().toString().contains(".")) {
+            fichero = fichero.resolveSibling(fichero.getFileName() + ".csv");
+        }
+        Path destino = fichero;
+        IntercambioSeries intercambio = new IntercambioSeries(ejercicioDAO);
+        escribirAsync(ejercicioDAOAsync.ejecutar(() -> {
+            try {
+                return intercambio.exportar(destino);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }), exportadas -> mostrarMensaje(exportadas + " series exportadas a " + destino.getFileName() + ".",
+                "Exportación", JOptionPane.INFORMATION_MESSAGE));
+    }
+
+    /**
+     * Guarda una instantánea del historial; se puede hacer mientras se registran series
+     */
+    private void crearCopiaSeguridad() {
+        JFileChooser selector = crearSelectorInstantanea();
+        if (selector.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path fichero = selector.getSelectedFile().toPath();
+        if (!fichero.getFileName().toString().endsWith(EXTENSION_INSTANTANEA)) {
+            fichero = fichero.resolveSibling(fichero.getFileName() + EXTENSION_INSTANTANEA);
+        }
+        Path destino = fichero;
+        escribirAsync(ejercicioDAOAsync.ejecutar(() -> {
+            try {
+                return crearInstantanea().crear(destino);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }), resumen -> mostrarMensaje("Copia guardada en " + destino.getFileName() + ": " + resumen.getFilas()
+                + " series.", "Copia de seguridad", JOptionPane.INFORMATION_MESSAGE));
+    }
+
+    /**
+     * Sustituye todo el historial por el de una instantánea, previa confirmación; si el
+     * fichero está dañado no se cambia nada
+     */
+    private void restaurarCopiaSeguridad() {
+        JFileChooser selector = crearSelectorInstantanea();
+        if (selector.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        int confirmacion = JOptionPane.showConfirmDialog(this,
+                "Se sustituirá todo el historial de ejercicios por el de la copia. ¿Continuar?",
+                "Restaurar copia de seguridad", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+        if (confirmacion != JOptionPane.YES_OPTION) {
+            return;
+        }
+        Path origen = selector.getSelectedFile().toPath();
+        escribirAsync(ejercicioDAOAsync.ejecutar(() -> {
+            try {
+                return crearInstantanea().restaurar(origen);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }), resumen -> {
+            mostrarMensaje(resumen.getFilas() + " series restauradas de la copia del " + resumen.getCreadaEn() + ".",
+                    "Copia de seguridad", JOptionPane.INFORMATION_MESSAGE);
+            mostrarCategorias();
+        });
+    }
+
+    private InstantaneaSeries crearInstantanea() {
+        return new InstantaneaSeries(ejercicioDAO, DatabaseManager.getInstance());
+    }
+
+    private JFileChooser crearSelectorInstantanea() {
+        JFileChooser selector = new JFileChooser();
+        selector.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("Copia de GymTracker",
+                EXTENSION_INSTANTANEA.substring(1)));
+        return selector;
+    }
+
+    private JFileChooser crearSelectorIntercambio() {
+        JFileChooser selector = new JFileChooser();
+        selector.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("CSV o JSON", "csv", "json"));
+        return selector;
+    }
+
     private void mostrarMensaje(String mensaje, String titulo, int tipo) {
         JOptionPane.showMessageDialog(this, mensaje, titulo, tipo);
     }
@@ -0,0 +1,382 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Historial en columnas de arrays primitivos para análisis: una fila por serie con su
+ * día (epoch day), peso, repeticiones y los ids internados del nombre y del grupo
+ * muscular. Frente a una List&lt;Ejercicio&gt; evita un objeto, un LocalDate y dos String
+ * por fila, y las agregaciones recorren arrays contiguos sin reservar memoria.
+ *
+ * Las filas quedan en orden cronológico (a igualdad de día, en el orden de llegada; las
+ * que no tienen fecha al principio), que es lo que necesitan las agregaciones por día y
+ * las ventanas móviles.
+ * No es thread-safe para escritura; una vez cargado se puede leer desde varios hilos.
+ */
+public class HistorialColumnar {
+    public static final int SIN_FECHA = EjercicioDAO.VisitanteSerie.SIN_FECHA;
+    // Filtro de nombre que acepta todas las filas
+    public static final int TODOS = -1;
+
+    private static final int CAPACIDAD_INICIAL = 1024;
+
+    private int[] ids = new int[CAPACIDAD_INICIAL];
+    private int[] dias = new int[CAPACIDAD_INICIAL];
+    private double[] pesos = new double[CAPACIDAD_INICIAL];
+    private int[] repeticiones = new int[CAPACIDAD_INICIAL];
+    private int[] nombreIds = new int[CAPACIDAD_INICIAL];
+    private int[] grupoIds = new int[CAPACIDAD_INICIAL];
+    private int cantidad;
+    private boolean ordenado = true;
+
+    private final List<String> nombres = new ArrayList<>();
+    private final Map<String, Integer> idsPorNombre = new HashMap<>();
+    private final List<String> grupos = new ArrayList<>();
+    private final Map<String, Integer> idsPorGrupo = new HashMap<>();
+
+    /**
+     * Carga el historial de un ejercicio (todos sus grupos musculares)
+     */
+    public static HistorialColumnar cargar(EjercicioDAO dao, String nombre) {
+        return new Cargador().cargar(dao, nombre);
+    }
+
+    /**
+     * Carga todas las series de la base de datos
+     */
+    public static HistorialColumnar cargarTodo(EjercicioDAO dao) {
+        return new Cargador().cargar(dao, null);
+    }
+
+    /**
+     * Traduce ids del catálogo a ids internados mientras llegan las filas del DAO
+     */
+    private static final class Cargador implements EjercicioDAO.VisitanteCatalogo, EjercicioDAO.VisitanteSerie {
+        private final HistorialColumnar historial = new HistorialColumnar();
+        private int[] nombrePorCatalogo = new int[64];
+        private int[] grupoPorCatalogo = new int[64];
+
+        HistorialColumnar cargar(EjercicioDAO dao, String nombre) {
+            if (dao.recorrerSeries(nombre, EjercicioDAO.FETCH_SIZE_POR_DEFECTO, this, this) < 0) {
+                return null;
+            }
+            historial.ordenarPorFecha();
+            return historial;
+        }
+
+        @Override
+        public void visitar(int ejercicioId, String nombre, String grupoMuscular) {
+            if (ejercicioId >= nombrePorCatalogo.length) {
+                int capacidad = Math.max(ejercicioId + 1, nombrePorCatalogo.length * 2);
+                nombrePorCatalogo = Arrays.copyOf(nombrePorCatalogo, capacidad);
+                grupoPorCatalogo = Arrays.copyOf(grupoPorCatalogo, capacidad);
+            }
+            nombrePorCatalogo[ejercicioId] = historial.internarNombre(nombre);
+            grupoPorCatalogo[ejercicioId] = historial.internarGrupo(grupoMuscular);
+        }
+
+        @Override
+        public void visitar(int serieId, int ejercicioId, double peso, int repeticiones, int dia) {
+            historial.agregar(serieId, nombrePorCatalogo[ejercicioId], grupoPorCatalogo[ejercicioId], peso,
+                    repeticiones, dia);
+        }
+    }
+
+    public int internarNombre(String nombre) {
+        return internar(nombre, nombres, idsPorNombre);
+    }
+
+    public int internarGrupo(String grupoMuscular) {
+        return internar(grupoMuscular, grupos, idsPorGrupo);
+    }
+
+    private static int internar(String valor, List<String> valores, Map<String, Integer> ids) {
+        Integer id = ids.get(valor);
+        if (id == null) {
+            id = valores.size();
+            valores.add(valor);
+            ids.put(valor, id);
+        }
+        return id;
+    }
+
+    /**
+     * Añade una fila al final. Si rompe el orden cronológico hay que llamar a
+     * ordenarPorFecha() antes de usar las agregaciones por día.
+     */
+    public void agregar(int serieId, int nombreId, int grupoId, double peso, int reps, int dia) {
+        if (cantidad == dias.length) {
+            int capacidad = cantidad + (cantidad >> 1);
+            ids = Arrays.copyOf(ids, capacidad);
+            dias = Arrays.copyOf(dias, capacidad);
+            pesos = Arrays.copyOf(pesos, capacidad);
+            repeticiones = Arrays.copyOf(repeticiones, capacidad);
+            nombreIds = Arrays.copyOf(nombreIds, capacidad);
+            grupoIds = Arrays.copyOf(grupoIds, capacidad);
+        }
+        if (cantidad > 0 && dia < dias[cantidad - 1]) {
+            ordenado = false;
+        }
+        ids[cantidad] = serieId;
+        dias[cantidad] = dia;
+        pesos[cantidad] = peso;
+        repeticiones[cantidad] = reps;
+        nombreIds[cantidad] = nombreId;
+        grupoIds[cantidad] = grupoId;
+        cantidad++;
+    }
+
+    /**
+     * Ordena las filas por día de forma estable. Si ya lo están no hace nada.
+     */
+    public void ordenarPorFecha() {
+        if (ordenado) {
+            return;
+        }
+        // Cada clave lleva el día en la parte alta y la posición en la baja; ordenar los
+        // long da una permutación estable sin objetos intermedios
+        long[] claves = new long[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            claves[i] = (long) dias[i] << 32 | i;
+        }
+        Arrays.sort(claves);
+
+        int[] permutacion = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            permutacion[i] = (int) claves[i];
+        }
+        ids = permutar(ids, permutacion);
+        dias = permutar(dias, permutacion);
+        repeticiones = permutar(repeticiones, permutacion);
+        nombreIds = permutar(nombreIds, permutacion);
+        grupoIds = permutar(grupoIds, permutacion);
+        double[] pesosOrdenados = new double[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            pesosOrdenados[i] = pesos[permutacion[i]];
+        }
+        pesos = pesosOrdenados;
+        ordenado = true;
+    }
+
+    private int[] permutar(int[] valores, int[] permutacion) {
+        int[] resultado = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            resultado[i] = valores[permutacion[i]];
+        }
+        return resultado;
+    }
+
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    public int getId(int fila) {
+        return ids[fila];
+    }
+
+    public int getDia(int fila) {
+        return dias[fila];
+    }
+
+    public double getPeso(int fila) {
+        return pesos[fila];
+    }
+
+    public int getRepeticiones(int fila) {
+        return repeticiones[fila];
+    }
+
+    public int getNombreId(int fila) {
+        return nombreIds[fila];
+    }
+
+    public int getGrupoId(int fila) {
+        return grupoIds[fila];
+    }
+
+    public String getNombre(int nombreId) {
+        return nombres.get(nombreId);
+    }
+
+    public String getGrupo(int grupoId) {
+        return grupos.get(grupoId);
+    }
+
+    public int getCantidadNombres() {
+        return nombres.size();
+    }
+
+    public int getCantidadGrupos() {
+        return grupos.size();
+    }
+
+    /**
+     * Índice de la primera fila con fecha; las anteriores no la tienen
+     */
+    public int getPrimeraFilaConFecha() {
+        return primeraFilaDesde(SIN_FECHA + 1);
+    }
+
+    /**
+     * Id internado de un nombre, o -1 si no aparece
+     */
+    public int buscarNombre(String nombre) {
+        Integer id = idsPorNombre.get(nombre);
+        return id != null ? id : -1;
+    }
+
+    // --- Agregaciones sin reservas de memoria. nombreId puede ser TODOS. ---
+
+    /**
+     * Suma de peso x repeticiones de las filas con día en [desdeDia, hastaDia]
+     */
+    public double sumaVolumen(int nombreId, int desdeDia, int hastaDia) {
+        double suma = 0;
+        for (int i = primeraFilaDesde(desdeDia); i < cantidad && dias[i] <= hastaDia; i++) {
+            if (nombreId == TODOS || nombreIds[i] == nombreId) {
+                suma += pesos[i] * repeticiones[i];
+            }
+        }
+        return suma;
+    }
+
+    public double maximoPeso(int nombreId) {
+        double maximo = 0;
+        for (int i = 0; i < cantidad; i++) {
+            if ((nombreId == TODOS || nombreIds[i] == nombreId) && pesos[i] > maximo) {
+                maximo = pesos[i];
+            }
+        }
+        return maximo;
+    }
+
+    public int maximoRepeticiones(int nombreId) {
+        int maximo = 0;
+        for (int i = 0; i < cantidad; i++) {
+            if ((nombreId == TODOS || nombreIds[i] == nombreId) && repeticiones[i] > maximo) {
+                maximo = repeticiones[i];
+            }
+        }
+        return maximo;
+    }
+
+    public double mejor1RM(int nombreId) {
+        double maximo = 0;
+        for (int i = 0; i < cantidad; i++) {
+            if (nombreId == TODOS || nombreIds[i] == nombreId) {
+                maximo = Math.max(maximo, AgregadosEjercicio.estimar1RM(pesos[i], repeticiones[i]));
+            }
+        }
+        return maximo;
+    }
+
+    /**
+     * Número de días distintos con filas del nombre, para dimensionar los buffers de salida
+     */
+    public int contarDias(int nombreId) {
+        int total = 0;
+        int anterior = SIN_FECHA;
+        for (int i = primeraFilaDesde(SIN_FECHA + 1); i < cantidad; i++) {
+            if ((nombreId == TODOS || nombreIds[i] == nombreId) && dias[i] != anterior) {
+                anterior = dias[i];
+                total++;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Agrupa por día: peso máximo, volumen y mejor 1RM estimado. Las filas sin fecha se
+     * omiten. Los buffers deben tener al menos contarDias(nombreId) posiciones.
+     *
+     * @return número de días escritos
+     */
+    public int agruparPorDia(int nombreId, int[] diasSalida, double[] pesoMaximo, double[] volumen,
+            double[] mejor1RM) {
+        int k = -1;
+        for (int i = primeraFilaDesde(SIN_FECHA + 1); i < cantidad; i++) {
+            if (nombreId != TODOS && nombreIds[i] != nombreId) {
+                continue;
+            }
+            double estimado = AgregadosEjercicio.estimar1RM(pesos[i], repeticiones[i]);
+            if (k < 0 || diasSalida[k] != dias[i]) {
+                k++;
+                diasSalida[k] = dias[i];
+                pesoMaximo[k] = pesos[i];
+                volumen[k] = pesos[i] * repeticiones[i];
+                mejor1RM[k] = estimado;
+            } else {
+                pesoMaximo[k] = Math.max(pesoMaximo[k], pesos[i]);
+                volumen[k] += pesos[i] * repeticiones[i];
+                mejor1RM[k] = Math.max(mejor1RM[k], estimado);
+            }
+        }
+        return k + 1;
+    }
+
+    /**
+     * Volumen acumulado en una ventana móvil de {@code ventanaDias} días que termina en
+     * cada día con registros (por ejemplo 7 para el volumen semanal móvil). Los buffers
+     * deben tener al menos contarDias(nombreId) posiciones.
+     *
+     * @return número de días escritos
+     */
+    public int volumenMovil(int nombreId, int ventanaDias, int[] diasSalida, double[] volumenSalida) {
+        if (ventanaDias < 1) {
+            throw new IllegalArgumentException("La ventana debe ser de al menos un día");
+        }
+        int k = -1;
+        int inicioVentana = primeraFilaDesde(SIN_FECHA + 1);
+        double suma = 0;
+        int i = inicioVentana;
+        while (i < cantidad) {
+            int dia = dias[i];
+            // Sumar todas las filas de este día
+            boolean hayFilas = false;
+            for (; i < cantidad && dias[i] == dia; i++) {
+                if (nombreId == TODOS || nombreIds[i] == nombreId) {
+                    suma += pesos[i] * repeticiones[i];
+                    hayFilas = true;
+                }
+            }
+            // Sacar las que quedan fuera de la ventana
+            for (; dias[inicioVentana] <= dia - ventanaDias; inicioVentana++) {
+                if (nombreId == TODOS || nombreIds[inicioVentana] == nombreId) {
+                    suma -= pesos[inicioVentana] * repeticiones[inicioVentana];
+                }
+            }
+            if (hayFilas) {
+                k++;
+                diasSalida[k] = dia;
+                volumenSalida[k] = suma;
+            }
+        }
+        return k + 1;
+    }
+
+    /**
+     * Primera fila con día mayor o igual que el indicado (búsqueda binaria)
+     */
+    private int primeraFilaDesde(int dia) {
+        comprobarOrden();
+        int bajo = 0;
+        int alto = cantidad;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (dias[medio] < dia) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    private void comprobarOrden() {
+        if (!ordenado) {
+            throw new IllegalStateException("El historial no está ordenado por fecha; llamar a ordenarPorFecha()");
+        }
+    }
+}
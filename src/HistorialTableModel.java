@@ -0,0 +1,160 @@
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * TableModel perezoso para el historial de un ejercicio. Solo conoce el total de filas;
+ * las páginas se piden en segundo plano cuando la tabla las pinta y se guarda una
+ * ventana acotada de páginas (LRU), así que un historial enorme no ocupa más memoria
+ * que uno corto. Mientras llega una página sus celdas muestran "...".
+ *
+ * Para saltar a cualquier zona se recuerda la clave (fecha, id) con la que termina cada
+ * página ya vista y se pagina desde la más cercana con EjercicioDAO.obtenerPaginaPorNombre.
+ * Debe usarse solo desde el EDT.
+ */
+public class HistorialTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+    public static final int TAMANO_PAGINA = 200;
+    private static final int MAX_PAGINAS_EN_MEMORIA = 10;
+    private static final String[] COLUMNAS = { "Peso", "Reps", "Fecha" }; // Simplified columns for mobile
+    private static final String CARGANDO = "...";
+
+    private final EjercicioDAOAsync ejercicioDAOAsync;
+
+    private String nombre;
+    private int total;
+    // Se incrementa al cambiar de ejercicio para descartar respuestas de páginas antiguas
+    private int generacion;
+
+    private final LinkedHashMap<Integer, List<Ejercicio>> paginas =
+            new LinkedHashMap<Integer, List<Ejercicio>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, List<Ejercicio>> eldest) {
+                    return size() > MAX_PAGINAS_EN_MEMORIA;
+                }
+            };
+    // Página -> último registro de la página anterior (null para la página 0)
+    private final TreeMap<Integer, Ejercicio> anclas = new TreeMap<>();
+    private final Set<Integer> pendientes = new HashSet<>();
+
+    public HistorialTableModel(EjercicioDAOAsync ejercicioDAOAsync) {
+        this.ejercicioDAOAsync = ejercicioDAOAsync;
+    }
+
+    /**
+     * Muestra el historial del modelo de detalle, usando su primera página ya cargada
+     */
+    public void cargar(DetalleEjercicioModelo detalle) {
+        reiniciar(detalle.getNombre(), detalle.getTotal());
+        if (!detalle.getPrimeraPagina().isEmpty()) {
+            guardarPagina(0, detalle.getPrimeraPagina());
+        }
+        fireTableDataChanged();
+    }
+
+    public void limpiar() {
+        reiniciar(null, 0);
+        fireTableDataChanged();
+    }
+
+    private void reiniciar(String nuevoNombre, int nuevoTotal) {
+        generacion++;
+        nombre = nuevoNombre;
+        total = nuevoTotal;
+        paginas.clear();
+        anclas.clear();
+        anclas.put(0, null);
+        pendientes.clear();
+    }
+
+    @Override
+    public int getRowCount() {
+        return total;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNAS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNAS[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        int pagina = row / TAMANO_PAGINA;
+        List<Ejercicio> datos = paginas.get(pagina);
+        if (datos == null) {
+            solicitarPagina(pagina);
+            return CARGANDO;
+        }
+
+        int indice = row % TAMANO_PAGINA;
+        if (indice >= datos.size()) {
+            return CARGANDO;
+        }
+
+        Ejercicio ejercicio = datos.get(indice);
+        switch (column) {
+            case 0:
+                return ejercicio.getPeso() + " kg";
+            case 1:
+                return ejercicio.getRepeticiones();
+            default:
+                return ejercicio.getFecha() != null ? ejercicio.getFecha().toString() : "-";
+        }
+    }
+
+    private void solicitarPagina(int pagina) {
+        if (nombre == null || !pendientes.add(pagina)) {
+            return;
+        }
+
+        Map.Entry<Integer, Ejercicio> ancla = anclas.floorEntry(pagina);
+        Ejercicio despuesDe = ancla.getValue();
+        int desplazamiento = (pagina - ancla.getKey()) * TAMANO_PAGINA;
+        String nombrePedido = nombre;
+        int generacionPedida = generacion;
+
+        ejercicioDAOAsync.ejecutar(() -> ejercicioDAOAsync.getDao()
+                .obtenerPaginaPorNombre(nombrePedido, despuesDe, desplazamiento, TAMANO_PAGINA))
+                .whenComplete((datos, error) -> SwingUtilities.invokeLater(() -> {
+                    if (generacionPedida != generacion) {
+                        return;
+                    }
+                    pendientes.remove(pagina);
+                    if (error != null) {
+                        System.err.println("Error al cargar página del historial: " + error.getMessage());
+                        return;
+                    }
+
+                    guardarPagina(pagina, datos);
+                    int desde = pagina * TAMANO_PAGINA;
+                    int hasta = Math.min(total, desde + TAMANO_PAGINA) - 1;
+                    if (hasta >= desde) {
+                        fireTableRowsUpdated(desde, hasta);
+                    }
+                }));
+    }
+
+    private void guardarPagina(int pagina, List<Ejercicio> datos) {
+        paginas.put(pagina, datos);
+        // Una serie aún en el diario (id 0) no sirve de clave: (fecha, 0) dejaría fuera las
+        // ya guardadas de ese día. Sin clave, la página siguiente se pide desde una anterior.
+        if (!datos.isEmpty() && datos.get(datos.size() - 1).getId() != 0) {
+            anclas.put(pagina + 1, datos.get(datos.size() - 1));
+        }
+    }
+}
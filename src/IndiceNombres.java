@@ -0,0 +1,167 @@
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Índice inmutable de búsqueda por prefijos sobre una lista ordenada de nombres de
+ * ejercicio. Cada nombre se normaliza (minúsculas, sin tildes, signos como separadores)
+ * y se parte en palabras; la consulta se normaliza igual y cada una de sus palabras debe
+ * ser prefijo de alguna palabra del nombre, en cualquier orden: "press banc" encuentra
+ * "Press de Banca con Barra" y "sentadilla bulg" encuentra "Sentadilla Búlgara".
+ *
+ * Las palabras de todos los nombres forman un array ordenado, así que las que empiezan
+ * por un prefijo son un rango contiguo que se localiza con dos búsquedas binarias. Se
+ * toma como candidatos el rango más corto de entre las palabras de la consulta y se
+ * comprueban las demás sobre las palabras de cada candidato.
+ */
+public class IndiceNombres {
+    private final String[] nombres;
+    private final String[][] palabrasPorNombre;
+    private final String[] palabras;
+    private final int[] nombreDePalabra;
+
+    /**
+     * @param nombres nombres sin duplicados en el orden en que se quieren los resultados
+     */
+    public IndiceNombres(List<String> nombres) {
+        this.nombres = nombres.toArray(new String[0]);
+        this.palabrasPorNombre = new String[this.nombres.length][];
+
+        int total = 0;
+        for (int i = 0; i < this.nombres.length; i++) {
+            palabrasPorNombre[i] = separarPalabras(normalizar(this.nombres[i]));
+            total += palabrasPorNombre[i].length;
+        }
+
+        // Ordena los pares (palabra, nombre) por palabra usando un array de índices
+        String[] sinOrdenar = new String[total];
+        int[] nombreSinOrdenar = new int[total];
+        Integer[] orden = new Integer[total];
+        int k = 0;
+        for (int i = 0; i < this.nombres.length; i++) {
+            for (String palabra : palabrasPorNombre[i]) {
+                sinOrdenar[k] = palabra;
+                nombreSinOrdenar[k] = i;
+                orden[k] = k;
+                k++;
+            }
+        }
+        Arrays.sort(orden, (a, b) -> sinOrdenar[a].compareTo(sinOrdenar[b]));
+
+        palabras = new String[total];
+        nombreDePalabra = new int[total];
+        for (int i = 0; i < total; i++) {
+            palabras[i] = sinOrdenar[orden[i]];
+            nombreDePalabra[i] = nombreSinOrdenar[orden[i]];
+        }
+    }
+
+    public int getCantidad() {
+        return nombres.length;
+    }
+
+    /**
+     * Nombres que encajan con la consulta, en el orden del índice y como mucho
+     * {@code limite}. Una consulta sin palabras devuelve los primeros nombres.
+     */
+    public List<String> buscar(String consulta, int limite) {
+        String[] terminos = separarPalabras(normalizar(consulta));
+        List<String> resultado = new ArrayList<>();
+        if (terminos.length == 0) {
+            for (int i = 0; i < nombres.length && resultado.size() < limite; i++) {
+                resultado.add(nombres[i]);
+            }
+            return resultado;
+        }
+
+        // Rango de palabras de cada término; los candidatos salen del más corto
+        int mejorInicio = 0;
+        int mejorFin = -1;
+        int mejorTermino = -1;
+        for (int t = 0; t < terminos.length; t++) {
+            int inicio = primeraNoMenor(terminos[t]);
+            int fin = primeraNoMenor(terminos[t] + Character.MAX_VALUE);
+            if (inicio == fin) {
+                return resultado;
+            }
+            if (mejorTermino < 0 || fin - inicio < mejorFin - mejorInicio) {
+                mejorInicio = inicio;
+                mejorFin = fin;
+                mejorTermino = t;
+            }
+        }
+
+        int[] candidatos = new int[mejorFin - mejorInicio];
+        for (int i = mejorInicio; i < mejorFin; i++) {
+            candidatos[i - mejorInicio] = nombreDePalabra[i];
+        }
+        Arrays.sort(candidatos);
+
+        for (int i = 0; i < candidatos.length && resultado.size() < limite; i++) {
+            int nombre = candidatos[i];
+            // Un nombre con varias palabras del mismo prefijo aparece repetido
+            if (i > 0 && candidatos[i - 1] == nombre) {
+                continue;
+            }
+            if (contieneTerminos(palabrasPorNombre[nombre], terminos, mejorTermino)) {
+                resultado.add(nombres[nombre]);
+            }
+        }
+        return resultado;
+    }
+
+    private static boolean contieneTerminos(String[] palabrasNombre, String[] terminos, int yaComprobado) {
+        for (int t = 0; t < terminos.length; t++) {
+            if (t == yaComprobado) {
+                continue;
+            }
+            boolean encontrado = false;
+            for (String palabra : palabrasNombre) {
+                if (palabra.startsWith(terminos[t])) {
+                    encontrado = true;
+                    break;
+                }
+            }
+            if (!encontrado) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int primeraNoMenor(String clave) {
+        int bajo = 0;
+        int alto = palabras.length;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (palabras[medio].compareTo(clave) < 0) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * Minúsculas sin tildes ni diéresis, con todo lo que no sea letra o dígito como espacio
+     */
+    static String normalizar(String texto) {
+        String descompuesto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder normalizado = new StringBuilder(descompuesto.length());
+        for (int i = 0; i < descompuesto.length(); i++) {
+            char c = descompuesto.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            normalizado.append(Character.isLetterOrDigit(c) ? Character.toLowerCase(c) : ' ');
+        }
+        return normalizado.toString();
+    }
+
+    private static String[] separarPalabras(String normalizado) {
+        String recortado = normalizado.trim();
+        return recortado.isEmpty() ? new String[0] : recortado.split(" +");
+    }
+}
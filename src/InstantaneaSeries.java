@@ -0,0 +1,898 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Copia de seguridad del historial (catálogo y series) en un formato binario propio,
+ * compacto y verificable, pensada para sacarse con la aplicación abierta y restaurarse
+ * en bloque.
+ *
+ * La instantánea se lee con EjercicioDAO.recorrerSeries, dentro de una única transacción
+ * de lectura: con WAL ve la base de datos tal como estaba al empezar aunque otros hilos
+ * o procesos sigan escribiendo. Se escribe a un fichero temporal que solo sustituye al
+ * destino cuando está completo y forzado a disco.
+ *
+ * Formato (versión VERSION, enteros big-endian):
+ * cabecera [MAGIA][versión][creada en, ms] y bloques
+ * [tipo][filas][longitud][longitud comprimida][crc32][datos comprimidos con Deflate].
+ * El CRC cubre los campos de la cabecera del bloque y los datos comprimidos. Primero va
+ * un bloque de catálogo (id, nombre, grupo muscular), después bloques de hasta
+ * FILAS_POR_BLOQUE series y al final un bloque de cierre con el total de filas y de
+ * bloques, así que un fichero truncado no pasa la verificación. Dentro de un bloque de
+ * series los datos van por columnas (ids, ejercicio, día, repeticiones, peso) en varints
+ * con deltas, que Deflate comprime mucho mejor que filas intercaladas; el peso va en
+ * centésimas si todo el bloque lo permite sin perder precisión y si no como double.
+ *
+ * Restaurar sustituye catálogo, series y agregados en una sola transacción a través de
+ * la cola de escritura: se verifica cada bloque mientras se inserta y ante cualquier
+ * error la base de datos queda como estaba. Las rutinas no forman parte de la instantánea.
+ */
+public class InstantaneaSeries {
+    private static final int MAGIA = 0x47545331; // "GTS1"
+    public static final int VERSION = 1;
+    // MAGIA, versión y fecha de creación
+    private static final int CABECERA = 16;
+    // tipo, filas, longitud, longitud comprimida y crc32
+    private static final int CABECERA_BLOQUE = 17;
+    private static final byte BLOQUE_CATALOGO = 1;
+    private static final byte BLOQUE_SERIES = 2;
+    private static final byte BLOQUE_FIN = 3;
+    private static final int FILAS_POR_BLOQUE = 65_536;
+    // Límite de cordura para no reservar memoria a partir de una longitud dañada
+    private static final int LONGITUD_MAXIMA_BLOQUE = 64 << 20;
+    private static final byte PESO_DOUBLE = 0;
+    private static final byte PESO_CENTESIMAS = 1;
+    // Filas por sentencia INSERT al restaurar (5 parámetros por fila, lejos del límite de SQLite)
+    private static final int FILAS_POR_INSERT = 200;
+
+    /**
+     * Resumen de una instantánea creada, verificada o restaurada
+     */
+    public static class Resumen {
+        private final long filas;
+        private final int ejercicios;
+        private final int bloques;
+        private final long bytes;
+        private final long creadaEn;
+
+        Resumen(long filas, int ejercicios, int bloques, long bytes, long creadaEn) {
+            this.filas = filas;
+            this.ejercicios = ejercicios;
+            this.bloques = bloques;
+            this.bytes = bytes;
+            this.creadaEn = creadaEn;
+        }
+
+        public long getFilas() {
+            return filas;
+        }
+
+        public int getEjercicios() {
+            return ejercicios;
+        }
+
+        public int getBloques() {
+            return bloques;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public Instant getCreadaEn() {
+            return Instant.ofEpochMilli(creadaEn);
+        }
+
+        @Override
+        public String toString() {
+            return filas + " series de " + ejercicios + " ejercicios en " + bloques + " bloques (" + bytes
+                    + " bytes), creada " + getCreadaEn();
+        }
+    }
+
+    private final EjercicioDAO ejercicioDAO;
+    private final DatabaseManager dbManager;
+
+    public InstantaneaSeries(EjercicioDAO ejercicioDAO, DatabaseManager dbManager) {
+        this.ejercicioDAO = ejercicioDAO;
+        this.dbManager = dbManager;
+    }
+
+    // ---------------------------------------------------------------- crear
+
+    /**
+     * Guarda en {@code destino} una instantánea coherente del historial sin bloquear a
+     * quien esté escribiendo
+     */
+    public Resumen crear(Path destino) throws IOException {
+        Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+        long creadaEn = System.currentTimeMillis();
+        Resumen resumen;
+
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+                EscritorBloques escritor = new EscritorBloques(canal)) {
+            ByteBuffer cabecera = ByteBuffer.allocate(CABECERA);
+            cabecera.putInt(MAGIA).putInt(VERSION).putLong(creadaEn).flip();
+            escribirTodo(canal, cabecera);
+
+            Volcador volcador = new Volcador(escritor);
+            long filas;
+            try {
+                filas = ejercicioDAO.recorrerSeries(null, EjercicioDAO.FETCH_SIZE_POR_DEFECTO, volcador, volcador);
+                if (filas >= 0) {
+                    volcador.terminar();
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (filas < 0) {
+                throw new IOException("No se pudo leer el historial de la base de datos");
+            }
+
+            // El cierre no se cuenta entre los bloques
+            int bloques = escritor.bloques;
+            Bufer fin = new Bufer(16);
+            fin.escribirVarint(filas);
+            fin.escribirVarint(bloques);
+            escritor.escribir(BLOQUE_FIN, 0, fin);
+            canal.force(true);
+            resumen = new Resumen(filas, volcador.catalogo.tamano, bloques, canal.position(), creadaEn);
+
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+
+        Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return resumen;
+    }
+
+    /**
+     * Recibe catálogo y series de recorrerSeries y los agrupa en bloques. El catálogo
+     * llega entero antes de la primera serie.
+     */
+    private static final class Volcador implements EjercicioDAO.VisitanteCatalogo, EjercicioDAO.VisitanteSerie {
+        private final EscritorBloques escritor;
+        private final Catalogo catalogo = new Catalogo();
+        private final Columnas columnas = new Columnas();
+        private final Bufer datos = new Bufer(1 << 20);
+        private boolean catalogoEscrito;
+
+        Volcador(EscritorBloques escritor) {
+            this.escritor = escritor;
+        }
+
+        @Override
+        public void visitar(int ejercicioId, String nombre, String grupoMuscular) {
+            catalogo.agregar(ejercicioId, nombre, grupoMuscular);
+        }
+
+        @Override
+        public void visitar(int serieId, int ejercicioId, double peso, int repeticiones, int dia) {
+            try {
+                if (!catalogoEscrito) {
+                    escribirCatalogo();
+                }
+                columnas.agregar(serieId, ejercicioId, dia, repeticiones, peso);
+                if (columnas.filas == FILAS_POR_BLOQUE) {
+                    escribirSeries();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void terminar() throws IOException {
+            if (!catalogoEscrito) {
+                escribirCatalogo();
+            }
+            if (columnas.filas > 0) {
+                escribirSeries();
+            }
+        }
+
+        private void escribirCatalogo() throws IOException {
+            datos.reiniciar();
+            catalogo.codificar(datos);
+            escritor.escribir(BLOQUE_CATALOGO, catalogo.tamano, datos);
+            catalogoEscrito = true;
+        }
+
+        private void escribirSeries() throws IOException {
+            datos.reiniciar();
+            columnas.codificar(datos);
+            escritor.escribir(BLOQUE_SERIES, columnas.filas, datos);
+            columnas.filas = 0;
+        }
+    }
+
+    /**
+     * Comprime y escribe bloques con su cabecera y su CRC
+     */
+    private static final class EscritorBloques implements AutoCloseable {
+        private final FileChannel canal;
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final ByteBuffer cabecera = ByteBuffer.allocate(CABECERA_BLOQUE);
+        private final CRC32 crc = new CRC32();
+        private byte[] comprimidos = new byte[1 << 16];
+        private int bloques;
+
+        EscritorBloques(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        void escribir(byte tipo, int filas, Bufer datos) throws IOException {
+            deflater.reset();
+            deflater.setInput(datos.datos, 0, datos.posicion);
+            deflater.finish();
+            int longitudComprimida = 0;
+            while (!deflater.finished()) {
+                if (longitudComprimida == comprimidos.length) {
+                    comprimidos = Arrays.copyOf(comprimidos, comprimidos.length * 2);
+                }
+                longitudComprimida += deflater.deflate(comprimidos, longitudComprimida,
+                        comprimidos.length - longitudComprimida);
+            }
+
+            cabecera.clear();
+            cabecera.put(tipo).putInt(filas).putInt(datos.posicion).putInt(longitudComprimida);
+            crc.reset();
+            crc.update(cabecera.array(), 0, cabecera.position());
+            crc.update(comprimidos, 0, longitudComprimida);
+            cabecera.putInt((int) crc.getValue()).flip();
+
+            ByteBuffer[] partes = { cabecera, ByteBuffer.wrap(comprimidos, 0, longitudComprimida) };
+            while (partes[1].hasRemaining()) {
+                canal.write(partes);
+            }
+            bloques++;
+        }
+
+        @Override
+        public void close() {
+            deflater.end();
+        }
+    }
+
+    // ---------------------------------------------------------------- verificar y restaurar
+
+    /**
+     * Recorre la instantánea completa comprobando CRC, estructura y que cada serie
+     * apunte a un ejercicio del catálogo, sin tocar la base de datos
+     */
+    public Resumen verificar(Path origen) throws IOException {
+        try {
+            return leer(origen, null);
+        } catch (SQLException e) {
+            // Sin receptor no se ejecuta SQL
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Sustituye catálogo, series y agregados por el contenido de la instantánea, todo o
+     * nada. Si el fichero está dañado lanza IOException y la base de datos no cambia.
+     */
+    public Resumen restaurar(Path origen) throws IOException {
+        Restauracion restauracion = new Restauracion();
+        try {
+            return dbManager.escribir(connection -> {
+                try {
+                    List<String> indices = quitarIndicesSeries(connection);
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("DELETE FROM agregados_ejercicio");
+                        statement.execute("DELETE FROM volumen_diario");
+                        statement.execute("DELETE FROM volumen_semanal");
+                        statement.execute("DELETE FROM series");
+                        statement.execute("DELETE FROM catalogo_ejercicios");
+                    }
+                    restauracion.connection = connection;
+                    restauracion.agregadosDAO = ejercicioDAO.getAgregadosDAO();
+                    Resumen resumen = leer(origen, restauracion);
+                    restauracion.insertarPendientes();
+
+                    // Construir los índices al final, de una vez, es más rápido que mantenerlos fila a fila
+                    try (Statement statement = connection.createStatement()) {
+                        for (String indice : indices) {
+                            statement.execute(indice);
+                        }
+                    }
+                    return resumen;
+
+                } catch (IOException e) {
+                    throw new SQLException("Instantánea no válida: " + e.getMessage(), e);
+                } finally {
+                    restauracion.cerrar();
+                }
+            }, () -> dbManager.getCacheNombres().cargar(restauracion.paresNombreGrupo));
+
+        } catch (SQLException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Error al restaurar la instantánea: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Borra los índices de la tabla series y devuelve las sentencias para recrearlos
+     */
+    private static List<String> quitarIndicesSeries(Connection connection) throws SQLException {
+        List<String> indices = new ArrayList<>();
+        List<String> nombres = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT name, sql FROM sqlite_master " +
+                        "WHERE type = 'index' AND tbl_name = 'series' AND sql IS NOT NULL")) {
+            while (rs.next()) {
+                nombres.add(rs.getString(1));
+                indices.add(rs.getString(2));
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (String nombre : nombres) {
+                statement.execute("DROP INDEX \"" + nombre.replace("\"", "\"\"") + "\"");
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Lo que se hace con cada bloque ya verificado y descomprimido
+     */
+    private interface Receptor {
+        void catalogo(Catalogo catalogo) throws SQLException;
+
+        void series(Columnas columnas) throws SQLException;
+    }
+
+    /**
+     * Inserta los bloques en la conexión del hilo escritor, FILAS_POR_INSERT series por
+     * sentencia, y suma cada bloque a los agregados sin volver a leer la tabla series
+     */
+    private static final class Restauracion implements Receptor {
+        private Connection connection;
+        private AgregadosDAO agregadosDAO;
+        private PreparedStatement insertSeries;
+        private final List<String[]> paresNombreGrupo = new ArrayList<>();
+        private final Columnas pendientes = new Columnas();
+
+        @Override
+        public void catalogo(Catalogo catalogo) throws SQLException {
+            try (PreparedStatement pstmt = connection.prepareStatement(
+                    "INSERT INTO catalogo_ejercicios (id, nombre, grupo_muscular) VALUES (?, ?, ?)")) {
+                for (int i = 0; i < catalogo.tamano; i++) {
+                    pstmt.setInt(1, catalogo.ids[i]);
+                    pstmt.setString(2, catalogo.nombres[i]);
+                    pstmt.setString(3, catalogo.grupos[i]);
+                    pstmt.addBatch();
+                    paresNombreGrupo.add(new String[] { catalogo.nombres[i], catalogo.grupos[i] });
+                }
+                pstmt.executeBatch();
+            }
+        }
+
+        @Override
+        public void series(Columnas columnas) throws SQLException {
+            AgregadosDAO.Pendientes agregados = new AgregadosDAO.Pendientes();
+            for (int i = 0; i < columnas.filas; i++) {
+                int dia = columnas.dias[i];
+                agregados.sumar(columnas.ejercicioIds[i], columnas.ids[i], columnas.pesos[i], columnas.repeticiones[i],
+                        dia == EjercicioDAO.VisitanteSerie.SIN_FECHA ? null : CodecFecha.decodificar(dia));
+            }
+            agregadosDAO.aplicar(connection, agregados);
+
+            if (insertSeries == null) {
+                insertSeries = connection.prepareStatement(sentenciaInsert(FILAS_POR_INSERT));
+            }
+            int fila = 0;
+            // Lo que sobró del bloque anterior se completa primero hasta una sentencia entera
+            while (pendientes.filas > 0 && fila < columnas.filas) {
+                columnas.copiarFila(fila++, pendientes);
+                if (pendientes.filas == FILAS_POR_INSERT) {
+                    insertar(insertSeries, pendientes, 0, FILAS_POR_INSERT);
+                    pendientes.filas = 0;
+                }
+            }
+            for (; fila + FILAS_POR_INSERT <= columnas.filas; fila += FILAS_POR_INSERT) {
+                insertar(insertSeries, columnas, fila, FILAS_POR_INSERT);
+            }
+            for (; fila < columnas.filas; fila++) {
+                columnas.copiarFila(fila, pendientes);
+            }
+        }
+
+        void insertarPendientes() throws SQLException {
+            if (pendientes.filas > 0) {
+                try (PreparedStatement pstmt = connection.prepareStatement(sentenciaInsert(pendientes.filas))) {
+                    insertar(pstmt, pendientes, 0, pendientes.filas);
+                }
+                pendientes.filas = 0;
+            }
+        }
+
+        void cerrar() throws SQLException {
+            if (insertSeries != null) {
+                insertSeries.close();
+            }
+        }
+
+        private static String sentenciaInsert(int filas) {
+            StringBuilder sql = new StringBuilder("INSERT INTO series (id, ejercicio_id, peso, repeticiones, fecha) VALUES ");
+            for (int i = 0; i < filas; i++) {
+                sql.append(i == 0 ? "(?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?)");
+            }
+            return sql.toString();
+        }
+
+        private static void insertar(PreparedStatement pstmt, Columnas columnas, int desde, int filas)
+                throws SQLException {
+            int parametro = 1;
+            for (int i = desde; i < desde + filas; i++) {
+                pstmt.setInt(parametro++, columnas.ids[i]);
+                pstmt.setInt(parametro++, columnas.ejercicioIds[i]);
+                pstmt.setDouble(parametro++, columnas.pesos[i]);
+                pstmt.setInt(parametro++, columnas.repeticiones[i]);
+                if (columnas.dias[i] == EjercicioDAO.VisitanteSerie.SIN_FECHA) {
+                    pstmt.setNull(parametro++, Types.INTEGER);
+                } else {
+                    pstmt.setInt(parametro++, columnas.dias[i]);
+                }
+            }
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Lee y verifica la instantánea bloque a bloque, entregando cada uno al receptor (si
+     * no es null) en cuanto se ha comprobado
+     */
+    private static Resumen leer(Path origen, Receptor receptor) throws IOException, SQLException {
+        try (FileChannel canal = FileChannel.open(origen, StandardOpenOption.READ);
+                LectorBloques lector = new LectorBloques(canal)) {
+            ByteBuffer cabecera = ByteBuffer.allocate(CABECERA);
+            leerTodo(canal, cabecera);
+            cabecera.flip();
+            if (cabecera.getInt() != MAGIA) {
+                throw new IOException("El fichero no es una instantánea de GymTracker");
+            }
+            int version = cabecera.getInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Versión de instantánea no soportada: " + version);
+            }
+            long creadaEn = cabecera.getLong();
+
+            Catalogo catalogo = new Catalogo();
+            Columnas columnas = new Columnas();
+            Bufer datos = new Bufer(1 << 20);
+            long filas = 0;
+            int bloques = 0;
+
+            if (lector.siguiente(datos) != BLOQUE_CATALOGO) {
+                throw new IOException("Falta el catálogo al principio de la instantánea");
+            }
+            catalogo.decodificar(datos, lector.filas);
+            bloques++;
+            if (receptor != null) {
+                receptor.catalogo(catalogo);
+            }
+
+            byte tipo;
+            while ((tipo = lector.siguiente(datos)) == BLOQUE_SERIES) {
+                columnas.decodificar(datos, lector.filas, catalogo);
+                filas += columnas.filas;
+                bloques++;
+                if (receptor != null) {
+                    receptor.series(columnas);
+                }
+            }
+            if (tipo != BLOQUE_FIN) {
+                throw new IOException("Bloque de tipo " + tipo + " inesperado tras el bloque " + bloques);
+            }
+            long filasDeclaradas = datos.leerVarint();
+            long bloquesDeclarados = datos.leerVarint();
+            datos.comprobarFin();
+            if (filasDeclaradas != filas || bloquesDeclarados != bloques) {
+                throw new IOException("El cierre declara " + filasDeclaradas + " series en " + bloquesDeclarados
+                        + " bloques y hay " + filas + " en " + bloques);
+            }
+            if (canal.position() != canal.size()) {
+                throw new IOException("Datos sobrantes tras el cierre de la instantánea");
+            }
+            return new Resumen(filas, catalogo.tamano, bloques, canal.size(), creadaEn);
+        }
+    }
+
+    /**
+     * Lee bloques, comprueba su CRC y los descomprime
+     */
+    private static final class LectorBloques implements AutoCloseable {
+        private final FileChannel canal;
+        private final Inflater inflater = new Inflater();
+        private final ByteBuffer cabecera = ByteBuffer.allocate(CABECERA_BLOQUE);
+        private final CRC32 crc = new CRC32();
+        private ByteBuffer comprimidos = ByteBuffer.allocate(1 << 16);
+        // Filas declaradas por el último bloque leído
+        private int filas;
+
+        LectorBloques(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        /**
+         * Deja en {@code datos} el contenido del siguiente bloque y devuelve su tipo
+         */
+        byte siguiente(Bufer datos) throws IOException {
+            long inicio = canal.position();
+            cabecera.clear();
+            leerTodo(canal, cabecera);
+            cabecera.flip();
+            byte tipo = cabecera.get();
+            filas = cabecera.getInt();
+            int longitud = cabecera.getInt();
+            int longitudComprimida = cabecera.getInt();
+            int crcDeclarado = cabecera.getInt();
+            if (filas < 0 || longitud < 0 || longitud > LONGITUD_MAXIMA_BLOQUE || longitudComprimida < 0
+                    || longitudComprimida > LONGITUD_MAXIMA_BLOQUE) {
+                throw new IOException("Cabecera de bloque dañada en la posición " + inicio);
+            }
+
+            if (comprimidos.capacity() < longitudComprimida) {
+                comprimidos = ByteBuffer.allocate(Math.max(longitudComprimida, comprimidos.capacity() * 2));
+            }
+            comprimidos.clear().limit(longitudComprimida);
+            leerTodo(canal, comprimidos);
+            crc.reset();
+            crc.update(cabecera.array(), 0, CABECERA_BLOQUE - 4);
+            crc.update(comprimidos.array(), 0, longitudComprimida);
+            if ((int) crc.getValue() != crcDeclarado) {
+                throw new IOException("CRC incorrecto en el bloque de la posición " + inicio);
+            }
+
+            datos.reiniciar();
+            datos.asegurar(longitud);
+            inflater.reset();
+            inflater.setInput(comprimidos.array(), 0, longitudComprimida);
+            try {
+                int leidos = 0;
+                while (leidos < longitud && !inflater.finished()) {
+                    int n = inflater.inflate(datos.datos, leidos, longitud - leidos);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    leidos += n;
+                }
+                if (leidos != longitud || !inflater.finished()) {
+                    throw new IOException("Longitud descomprimida incorrecta en el bloque de la posición " + inicio);
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Bloque mal comprimido en la posición " + inicio, e);
+            }
+            datos.limite = longitud;
+            return tipo;
+        }
+
+        @Override
+        public void close() {
+            inflater.end();
+        }
+    }
+
+    // ---------------------------------------------------------------- columnas y codificación
+
+    /**
+     * Entradas del catálogo de ejercicios
+     */
+    private static final class Catalogo {
+        private int[] ids = new int[64];
+        private String[] nombres = new String[64];
+        private String[] grupos = new String[64];
+        private int tamano;
+        // Para comprobar que cada serie referencia una entrada: ids de catálogo presentes
+        private boolean[] presentes = new boolean[64];
+
+        void agregar(int id, String nombre, String grupo) {
+            if (tamano == ids.length) {
+                ids = Arrays.copyOf(ids, tamano * 2);
+                nombres = Arrays.copyOf(nombres, tamano * 2);
+                grupos = Arrays.copyOf(grupos, tamano * 2);
+            }
+            ids[tamano] = id;
+            nombres[tamano] = nombre;
+            grupos[tamano] = grupo;
+            tamano++;
+            if (id >= 0) {
+                if (id >= presentes.length) {
+                    presentes = Arrays.copyOf(presentes, Math.max(id + 1, presentes.length * 2));
+                }
+                presentes[id] = true;
+            }
+        }
+
+        boolean contiene(int id) {
+            return id >= 0 && id < presentes.length && presentes[id];
+        }
+
+        void codificar(Bufer datos) {
+            for (int i = 0; i < tamano; i++) {
+                datos.escribirVarint(ids[i]);
+                datos.escribirCadena(nombres[i]);
+                datos.escribirCadena(grupos[i]);
+            }
+        }
+
+        void decodificar(Bufer datos, int entradas) throws IOException {
+            for (int i = 0; i < entradas; i++) {
+                long id = datos.leerVarint();
+                if (id <= 0 || id > Integer.MAX_VALUE) {
+                    throw new IOException("Id de catálogo no válido: " + id);
+                }
+                if (contiene((int) id)) {
+                    throw new IOException("Id de catálogo repetido: " + id);
+                }
+                agregar((int) id, datos.leerCadena(), datos.leerCadena());
+            }
+            datos.comprobarFin();
+        }
+    }
+
+    /**
+     * Un bloque de series en columnas de primitivos
+     */
+    private static final class Columnas {
+        private final int[] ids = new int[FILAS_POR_BLOQUE];
+        private final int[] ejercicioIds = new int[FILAS_POR_BLOQUE];
+        private final int[] dias = new int[FILAS_POR_BLOQUE];
+        private final int[] repeticiones = new int[FILAS_POR_BLOQUE];
+        private final double[] pesos = new double[FILAS_POR_BLOQUE];
+        private int filas;
+
+        void agregar(int id, int ejercicioId, int dia, int repeticiones, double peso) {
+            ids[filas] = id;
+            ejercicioIds[filas] = ejercicioId;
+            dias[filas] = dia;
+            this.repeticiones[filas] = repeticiones;
+            pesos[filas] = peso;
+            filas++;
+        }
+
+        void copiarFila(int fila, Columnas destino) {
+            destino.agregar(ids[fila], ejercicioIds[fila], dias[fila], repeticiones[fila], pesos[fila]);
+        }
+
+        /**
+         * Cada columna seguida: ids y días como diferencia con la fila anterior, que en
+         * orden de inserción son casi siempre 0 o 1
+         */
+        void codificar(Bufer datos) {
+            long anterior = 0;
+            for (int i = 0; i < filas; i++) {
+                datos.escribirZigZag(ids[i] - anterior);
+                anterior = ids[i];
+            }
+            for (int i = 0; i < filas; i++) {
+                datos.escribirVarint(ejercicioIds[i]);
+            }
+            anterior = 0;
+            for (int i = 0; i < filas; i++) {
+                datos.escribirZigZag((long) dias[i] - anterior);
+                anterior = dias[i];
+            }
+            for (int i = 0; i < filas; i++) {
+                datos.escribirZigZag(repeticiones[i]);
+            }
+            if (pesosEnCentesimas()) {
+                datos.escribirByte(PESO_CENTESIMAS);
+                for (int i = 0; i < filas; i++) {
+                    datos.escribirZigZag(Math.round(pesos[i] * 100));
+                }
+            } else {
+                datos.escribirByte(PESO_DOUBLE);
+                for (int i = 0; i < filas; i++) {
+                    datos.escribirLong(Double.doubleToLongBits(pesos[i]));
+                }
+            }
+        }
+
+        private boolean pesosEnCentesimas() {
+            for (int i = 0; i < filas; i++) {
+                double centesimas = pesos[i] * 100;
+                if (Math.abs(centesimas) > 1e15 || Math.round(centesimas) / 100.0 != pesos[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void decodificar(Bufer datos, int filas, Catalogo catalogo) throws IOException {
+            if (filas == 0 || filas > FILAS_POR_BLOQUE) {
+                throw new IOException("Bloque de series con " + filas + " filas");
+            }
+            this.filas = filas;
+            long anterior = 0;
+            for (int i = 0; i < filas; i++) {
+                anterior += datos.leerZigZag();
+                if (anterior <= 0 || anterior > Integer.MAX_VALUE) {
+                    throw new IOException("Id de serie no válido: " + anterior);
+                }
+                ids[i] = (int) anterior;
+            }
+            for (int i = 0; i < filas; i++) {
+                long ejercicioId = datos.leerVarint();
+                if (ejercicioId > Integer.MAX_VALUE || !catalogo.contiene((int) ejercicioId)) {
+                    throw new IOException("La serie " + ids[i] + " apunta al ejercicio " + ejercicioId
+                            + ", que no está en el catálogo");
+                }
+                ejercicioIds[i] = (int) ejercicioId;
+            }
+            anterior = 0;
+            for (int i = 0; i < filas; i++) {
+                anterior += datos.leerZigZag();
+                if (anterior < Integer.MIN_VALUE || anterior > Integer.MAX_VALUE) {
+                    throw new IOException("Fecha no válida en la serie " + ids[i]);
+                }
+                dias[i] = (int) anterior;
+            }
+            for (int i = 0; i < filas; i++) {
+                long valor = datos.leerZigZag();
+                if (valor < Integer.MIN_VALUE || valor > Integer.MAX_VALUE) {
+                    throw new IOException("Repeticiones no válidas en la serie " + ids[i]);
+                }
+                repeticiones[i] = (int) valor;
+            }
+            byte codificacionPeso = datos.leerByte();
+            if (codificacionPeso == PESO_CENTESIMAS) {
+                for (int i = 0; i < filas; i++) {
+                    pesos[i] = datos.leerZigZag() / 100.0;
+                }
+            } else if (codificacionPeso == PESO_DOUBLE) {
+                for (int i = 0; i < filas; i++) {
+                    pesos[i] = Double.longBitsToDouble(datos.leerLong());
+                }
+            } else {
+                throw new IOException("Codificación de peso desconocida: " + codificacionPeso);
+            }
+            datos.comprobarFin();
+        }
+    }
+
+    /**
+     * Array de bytes creciente con varints (LEB128) y zigzag para los valores con signo
+     */
+    private static final class Bufer {
+        private byte[] datos;
+        private int posicion;
+        private int limite;
+
+        Bufer(int capacidad) {
+            datos = new byte[capacidad];
+        }
+
+        void reiniciar() {
+            posicion = 0;
+            limite = 0;
+        }
+
+        void asegurar(int bytes) {
+            if (datos.length - posicion < bytes) {
+                datos = Arrays.copyOf(datos, Math.max(posicion + bytes, datos.length * 2));
+            }
+        }
+
+        void escribirByte(byte valor) {
+            asegurar(1);
+            datos[posicion++] = valor;
+        }
+
+        void escribirVarint(long valor) {
+            asegurar(10);
+            while ((valor & ~0x7FL) != 0) {
+                datos[posicion++] = (byte) ((valor & 0x7F) | 0x80);
+                valor >>>= 7;
+            }
+            datos[posicion++] = (byte) valor;
+        }
+
+        void escribirZigZag(long valor) {
+            escribirVarint((valor << 1) ^ (valor >> 63));
+        }
+
+        void escribirLong(long valor) {
+            asegurar(8);
+            for (int desplazamiento = 56; desplazamiento >= 0; desplazamiento -= 8) {
+                datos[posicion++] = (byte) (valor >>> desplazamiento);
+            }
+        }
+
+        void escribirCadena(String valor) {
+            byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+            escribirVarint(bytes.length);
+            asegurar(bytes.length);
+            System.arraycopy(bytes, 0, datos, posicion, bytes.length);
+            posicion += bytes.length;
+        }
+
+        byte leerByte() throws IOException {
+            if (posicion >= limite) {
+                throw new IOException("Bloque más corto de lo que indica su contenido");
+            }
+            return datos[posicion++];
+        }
+
+        long leerVarint() throws IOException {
+            long valor = 0;
+            for (int desplazamiento = 0; desplazamiento < 64; desplazamiento += 7) {
+                byte b = leerByte();
+                valor |= (long) (b & 0x7F) << desplazamiento;
+                if (b >= 0) {
+                    return valor;
+                }
+            }
+            throw new IOException("Varint demasiado largo");
+        }
+
+        long leerZigZag() throws IOException {
+            long valor = leerVarint();
+            return (valor >>> 1) ^ -(valor & 1);
+        }
+
+        long leerLong() throws IOException {
+            long valor = 0;
+            for (int i = 0; i < 8; i++) {
+                valor = (valor << 8) | (leerByte() & 0xFF);
+            }
+            return valor;
+        }
+
+        String leerCadena() throws IOException {
+            long longitud = leerVarint();
+            if (longitud < 0 || longitud > limite - posicion) {
+                throw new IOException("Cadena más larga que el bloque");
+            }
+            String valor = new String(datos, posicion, (int) longitud, StandardCharsets.UTF_8);
+            posicion += (int) longitud;
+            return valor;
+        }
+
+        void comprobarFin() throws IOException {
+            if (posicion != limite) {
+                throw new IOException("Bytes sobrantes al final del bloque");
+            }
+        }
+    }
+
+    private static void escribirTodo(FileChannel canal, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+    }
+
+    private static void leerTodo(FileChannel canal, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (canal.read(buffer) < 0) {
+                throw new EOFException("Instantánea truncada");
+            }
+        }
+    }
+}
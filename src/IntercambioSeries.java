@@ -0,0 +1,693 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Importación y exportación de series en CSV o JSON, en streaming: el fichero se lee y se
+ * escribe fila a fila, así que la memoria no depende de su tamaño.
+ *
+ * Los dos formatos usan los mismos campos que el servidor HTTP: nombre, grupoMuscular,
+ * peso, repeticiones y fecha (yyyy-MM-dd, opcional). El CSV lleva una cabecera con esos
+ * nombres en cualquier orden (se aceptan también grupo_muscular y mayúsculas) y el JSON
+ * es un array de objetos.
+ *
+ * Al importar, cada fila se valida con las mismas reglas que el formulario de nuevo
+ * ejercicio; las no válidas se cuentan y se informan con su número de fila, y las demás
+ * se insertan en lotes de TAMANO_LOTE con EjercicioDAO.insertarEjercicios (una
+ * transacción por lote). La lectura del fichero y la inserción van en hilos distintos,
+ * con una cola de pocos lotes entre ambos.
+ */
+public class IntercambioSeries {
+    private static final int TAMANO_LOTE = 5000;
+    // Lotes leídos que pueden esperar a insertarse; acota la memoria de la importación
+    private static final int LOTES_EN_COLA = 2;
+    // Errores que se guardan con su detalle; del resto solo se lleva la cuenta
+    private static final int MAXIMO_ERRORES_DETALLADOS = 100;
+    // Tamaño máximo de una fila CSV o de un objeto JSON
+    private static final int MAXIMO_CARACTERES_FILA = 64 * 1024;
+    private static final String[] CAMPOS = { "nombre", "grupoMuscular", "peso", "repeticiones", "fecha" };
+
+    public enum Formato {
+        CSV, JSON;
+
+        /**
+         * Formato según la extensión del fichero (.csv o .json)
+         */
+        public static Formato desdeFichero(Path fichero) {
+            String nombre = fichero.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (nombre.endsWith(".csv")) {
+                return CSV;
+            }
+            if (nombre.endsWith(".json")) {
+                return JSON;
+            }
+            throw new IllegalArgumentException("Formato desconocido para " + fichero + " (se espera .csv o .json)");
+        }
+    }
+
+    /**
+     * Resumen de una importación
+     */
+    public static class ResultadoImportacion {
+        private long leidas;
+        private long importadas;
+        private long rechazadas;
+        private final List<String> errores = new ArrayList<>();
+
+        void rechazar(long fila, String motivo) {
+            rechazadas++;
+            if (errores.size() < MAXIMO_ERRORES_DETALLADOS) {
+                errores.add("Fila " + fila + ": " + motivo);
+            }
+        }
+
+        public long getLeidas() {
+            return leidas;
+        }
+
+        public long getImportadas() {
+            return importadas;
+        }
+
+        public long getRechazadas() {
+            return rechazadas;
+        }
+
+        /**
+         * Detalle de los primeros MAXIMO_ERRORES_DETALLADOS rechazos
+         */
+        public List<String> getErrores() {
+            return Collections.unmodifiableList(errores);
+        }
+
+        @Override
+        public String toString() {
+            return leidas + " filas leídas, " + importadas + " importadas, " + rechazadas + " rechazadas";
+        }
+    }
+
+    private final EjercicioDAO ejercicioDAO;
+
+    public IntercambioSeries(EjercicioDAO ejercicioDAO) {
+        this.ejercicioDAO = ejercicioDAO;
+    }
+
+    // ---------------------------------------------------------------- importación
+
+    public ResultadoImportacion importar(Path fichero) throws IOException {
+        try (BufferedReader lector = Files.newBufferedReader(fichero, StandardCharsets.UTF_8)) {
+            return importar(lector, Formato.desdeFichero(fichero));
+        }
+    }
+
+    /**
+     * Importa todas las filas de {@code lector}. Un error de formato que impide seguir
+     * leyendo (JSON mal formado, CSV sin cabecera) lanza IOException; lo ya insertado se queda.
+     */
+    public ResultadoImportacion importar(Reader lector, Formato formato) throws IOException {
+        LectorFilas filas = formato == Formato.CSV ? new LectorCsv(lector) : new LectorJson(lector);
+        ResultadoImportacion resultado = new ResultadoImportacion();
+
+        BlockingQueue<List<Ejercicio>> lotes = new ArrayBlockingQueue<>(LOTES_EN_COLA);
+        List<Ejercicio> fin = new ArrayList<>();
+        long[] insertadas = new long[1];
+        String[] errorInsercion = new String[1];
+        Thread insercion = new Thread(() -> {
+            try {
+                List<Ejercicio> lote;
+                while ((lote = lotes.take()) != fin) {
+                    ResultadoLote resultadoLote = ejercicioDAO.insertarEjercicios(lote);
+                    insertadas[0] += resultadoLote.getInsertados();
+                    if (resultadoLote.hayFallos() && errorInsercion[0] == null) {
+                        errorInsercion[0] = resultadoLote.getFallos().get(0).getMotivo();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                errorInsercion[0] = e.toString();
+                e.printStackTrace();
+            }
+        }, "importacion-series");
+        insercion.setDaemon(true);
+        insercion.start();
+
+        try {
+            List<Ejercicio> lote = new ArrayList<>(TAMANO_LOTE);
+            String[] valores;
+            while ((valores = filas.siguiente()) != null) {
+                resultado.leidas++;
+                Ejercicio ejercicio = crearEjercicio(valores, resultado, filas.getFila());
+                if (ejercicio == null) {
+                    continue;
+                }
+                lote.add(ejercicio);
+                if (lote.size() == TAMANO_LOTE) {
+                    encolar(lotes, lote, insercion);
+                    lote = new ArrayList<>(TAMANO_LOTE);
+                }
+            }
+            if (!lote.isEmpty()) {
+                encolar(lotes, lote, insercion);
+            }
+        } finally {
+            // Los lotes ya encolados se insertan también si la lectura falló a medias
+            try {
+                encolar(lotes, fin, insercion);
+                insercion.join();
+            } catch (IOException e) {
+                // El hilo de inserción ya terminó
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // join() publica lo que escribió el hilo de inserción
+            resultado.importadas = insertadas[0];
+            if (errorInsercion[0] != null) {
+                System.err.println("Error al insertar lotes importados: " + errorInsercion[0]);
+            }
+        }
+
+        long validas = resultado.leidas - resultado.rechazadas;
+        if (resultado.importadas < validas) {
+            resultado.errores.add((validas - resultado.importadas) + " filas válidas no se pudieron guardar: "
+                    + errorInsercion[0]);
+        }
+        return resultado;
+    }
+
+    /**
+     * Espera hueco en la cola mientras el hilo de inserción siga vivo
+     */
+    private static void encolar(BlockingQueue<List<Ejercicio>> lotes, List<Ejercicio> lote, Thread insercion)
+            throws IOException {
+        try {
+            while (!lotes.offer(lote, 100, TimeUnit.MILLISECONDS)) {
+                if (!insercion.isAlive()) {
+                    throw new IOException("La inserción de la importación se detuvo");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Importación interrumpida", e);
+        }
+    }
+
+    /**
+     * Valida una fila con las reglas del formulario de nuevo ejercicio; null si se rechaza
+     */
+    private static Ejercicio crearEjercicio(String[] valores, ResultadoImportacion resultado, long fila) {
+        String nombre = recortar(valores[0]);
+        String grupoMuscular = recortar(valores[1]);
+        if (nombre.isEmpty()) {
+            resultado.rechazar(fila, "falta el nombre del ejercicio");
+            return null;
+        }
+
+        double peso;
+        try {
+            peso = Double.parseDouble(recortar(valores[2]));
+        } catch (NumberFormatException e) {
+            resultado.rechazar(fila, "peso no válido: " + valores[2]);
+            return null;
+        }
+
+        int repeticiones;
+        try {
+            repeticiones = Integer.parseInt(recortar(valores[3]));
+        } catch (NumberFormatException e) {
+            resultado.rechazar(fila, "repeticiones no válidas: " + valores[3]);
+            return null;
+        }
+
+        LocalDate fecha = null;
+        String textoFecha = recortar(valores[4]);
+        if (!textoFecha.isEmpty()) {
+            try {
+                fecha = LocalDate.parse(textoFecha);
+            } catch (DateTimeParseException e) {
+                resultado.rechazar(fila, "fecha no válida (use YYYY-MM-DD): " + textoFecha);
+                return null;
+            }
+        }
+
+        Ejercicio ejercicio = new Ejercicio(nombre, grupoMuscular, peso, repeticiones, fecha);
+        String error = ejercicio.validar();
+        if (error != null) {
+            resultado.rechazar(fila, error);
+            return null;
+        }
+        return ejercicio;
+    }
+
+    private static String recortar(String valor) {
+        return valor == null ? "" : valor.trim();
+    }
+
+    /**
+     * Índice en CAMPOS de un nombre de columna o clave JSON, o -1 si no es ninguno
+     */
+    private static int indiceCampo(String nombre) {
+        String normalizado = nombre.trim().replace("_", "").toLowerCase(Locale.ROOT);
+        for (int i = 0; i < CAMPOS.length; i++) {
+            if (CAMPOS[i].toLowerCase(Locale.ROOT).equals(normalizado)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Fuente de filas ya separadas en los valores de CAMPOS (null si falta alguno)
+     */
+    private interface LectorFilas {
+        String[] siguiente() throws IOException;
+
+        /** Número de la última fila devuelta, para los mensajes de error */
+        long getFila();
+    }
+
+    /**
+     * CSV según RFC 4180: comas, comillas dobles para campos con comas, comillas o saltos
+     * de línea, y "" para una comilla dentro de un campo entrecomillado
+     */
+    private static final class LectorCsv implements LectorFilas {
+        private final Reader lector;
+        private final char[] buffer = new char[64 * 1024];
+        private int posicion;
+        private int limite;
+        private final StringBuilder campo = new StringBuilder();
+        private final List<String> campos = new ArrayList<>();
+        private int[] columnas;
+        private long fila;
+
+        LectorCsv(Reader lector) {
+            this.lector = lector;
+        }
+
+        @Override
+        public String[] siguiente() throws IOException {
+            if (columnas == null) {
+                leerCabecera();
+            }
+            while (leerRegistro()) {
+                fila++;
+                if (campos.size() == 1 && campos.get(0).isEmpty()) {
+                    continue; // línea en blanco
+                }
+                String[] valores = new String[CAMPOS.length];
+                for (int i = 0; i < columnas.length; i++) {
+                    if (columnas[i] >= 0 && i < campos.size()) {
+                        valores[columnas[i]] = campos.get(i);
+                    }
+                }
+                return valores;
+            }
+            return null;
+        }
+
+        @Override
+        public long getFila() {
+            return fila;
+        }
+
+        private void leerCabecera() throws IOException {
+            if (!leerRegistro()) {
+                throw new IOException("El CSV está vacío: falta la cabecera");
+            }
+            columnas = new int[campos.size()];
+            boolean[] presentes = new boolean[CAMPOS.length];
+            for (int i = 0; i < campos.size(); i++) {
+                String nombre = campos.get(i);
+                // Marca de orden de bytes de algunos editores
+                if (i == 0 && !nombre.isEmpty() && nombre.charAt(0) == '\uFEFF') {
+                    nombre = nombre.substring(1);
+                }
+                columnas[i] = indiceCampo(nombre);
+                if (columnas[i] >= 0) {
+                    presentes[columnas[i]] = true;
+                }
+            }
+            // La fecha es opcional
+            for (int i = 0; i < CAMPOS.length - 1; i++) {
+                if (!presentes[i]) {
+                    throw new IOException("Falta la columna " + CAMPOS[i] + " en la cabecera del CSV");
+                }
+            }
+        }
+
+        /**
+         * Lee un registro completo en {@code campos}; false al final del fichero
+         */
+        private boolean leerRegistro() throws IOException {
+            campos.clear();
+            campo.setLength(0);
+            int leidos = 0;
+            boolean entreComillas = false;
+            boolean algo = false;
+            while (true) {
+                int c = leer();
+                if (c < 0) {
+                    if (entreComillas) {
+                        throw new IOException("Comillas sin cerrar al final del CSV (fila " + (fila + 1) + ")");
+                    }
+                    if (!algo) {
+                        return false;
+                    }
+                    campos.add(campo.toString());
+                    return true;
+                }
+                algo = true;
+                if (++leidos > MAXIMO_CARACTERES_FILA) {
+                    throw new IOException("Fila " + (fila + 1) + " del CSV demasiado larga");
+                }
+                if (entreComillas) {
+                    if (c == '"') {
+                        if (mirar() == '"') {
+                            leer();
+                            campo.append('"');
+                        } else {
+                            entreComillas = false;
+                        }
+                    } else {
+                        campo.append((char) c);
+                    }
+                } else if (c == '"') {
+                    entreComillas = true;
+                } else if (c == ',') {
+                    campos.add(campo.toString());
+                    campo.setLength(0);
+                } else if (c == '\n' || c == '\r') {
+                    if (c == '\r' && mirar() == '\n') {
+                        leer();
+                    }
+                    campos.add(campo.toString());
+                    return true;
+                } else {
+                    campo.append((char) c);
+                }
+            }
+        }
+
+        private int leer() throws IOException {
+            if (posicion == limite && !rellenar()) {
+                return -1;
+            }
+            return buffer[posicion++];
+        }
+
+        private int mirar() throws IOException {
+            if (posicion == limite && !rellenar()) {
+                return -1;
+            }
+            return buffer[posicion];
+        }
+
+        private boolean rellenar() throws IOException {
+            limite = lector.read(buffer, 0, buffer.length);
+            posicion = 0;
+            if (limite <= 0) {
+                limite = 0;
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Array JSON de objetos planos. Cada objeto se recorta del flujo por sí solo (contando
+     * llaves fuera de las cadenas) y se analiza con {@link Json#leer}, de modo que en
+     * memoria solo hay un objeto cada vez.
+     */
+    private static final class LectorJson implements LectorFilas {
+        private final Reader lector;
+        private final char[] buffer = new char[64 * 1024];
+        private int posicion;
+        private int limite;
+        private final StringBuilder objeto = new StringBuilder();
+        private boolean empezado;
+        private boolean terminado;
+        private long fila;
+
+        LectorJson(Reader lector) {
+            this.lector = lector;
+        }
+
+        @Override
+        public String[] siguiente() throws IOException {
+            if (terminado) {
+                return null;
+            }
+            int c = saltarEspacios();
+            if (!empezado) {
+                if (c != '[') {
+                    throw new IOException("Se esperaba un array JSON de series");
+                }
+                empezado = true;
+                c = saltarEspacios();
+                if (c == ']') {
+                    terminado = true;
+                    return null;
+                }
+            } else if (c == ',') {
+                c = saltarEspacios();
+            } else if (c == ']') {
+                terminado = true;
+                return null;
+            } else {
+                throw new IOException("Se esperaba ',' o ']' tras la serie " + fila);
+            }
+            if (c != '{') {
+                throw new IOException("Se esperaba un objeto en la serie " + (fila + 1));
+            }
+
+            fila++;
+            leerObjeto();
+            Object valor;
+            try {
+                valor = Json.leer(objeto.toString());
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Serie " + fila + ": " + e.getMessage(), e);
+            }
+
+            String[] valores = new String[CAMPOS.length];
+            for (Map.Entry<?, ?> entrada : ((Map<?, ?>) valor).entrySet()) {
+                int indice = indiceCampo(String.valueOf(entrada.getKey()));
+                if (indice >= 0 && entrada.getValue() != null) {
+                    valores[indice] = texto(entrada.getValue());
+                }
+            }
+            return valores;
+        }
+
+        @Override
+        public long getFila() {
+            return fila;
+        }
+
+        /**
+         * Números enteros sin ".0", para que repeticiones = 10 se lea como "10"
+         */
+        private static String texto(Object valor) {
+            if (valor instanceof Double) {
+                double numero = (Double) valor;
+                if (numero == Math.rint(numero) && Math.abs(numero) < 1e15) {
+                    return Long.toString((long) numero);
+                }
+            }
+            return valor.toString();
+        }
+
+        /**
+         * Copia en {@code objeto} desde la '{' ya leída hasta su '}' de cierre
+         */
+        private void leerObjeto() throws IOException {
+            objeto.setLength(0);
+            objeto.append('{');
+            int profundidad = 1;
+            boolean enCadena = false;
+            boolean escapado = false;
+            while (profundidad > 0) {
+                int c = leer();
+                if (c < 0) {
+                    throw new IOException("JSON incompleto en la serie " + fila);
+                }
+                if (objeto.length() >= MAXIMO_CARACTERES_FILA) {
+                    throw new IOException("Serie " + fila + " del JSON demasiado larga");
+                }
+                objeto.append((char) c);
+                if (enCadena) {
+                    if (escapado) {
+                        escapado = false;
+                    } else if (c == '\\') {
+                        escapado = true;
+                    } else if (c == '"') {
+                        enCadena = false;
+                    }
+                } else if (c == '"') {
+                    enCadena = true;
+                } else if (c == '{' || c == '[') {
+                    profundidad++;
+                } else if (c == '}' || c == ']') {
+                    profundidad--;
+                }
+            }
+        }
+
+        private int saltarEspacios() throws IOException {
+            int c;
+            do {
+                c = leer();
+            } while (c >= 0 && Character.isWhitespace(c));
+            if (c < 0) {
+                throw new IOException("JSON incompleto: falta el cierre del array");
+            }
+            return c;
+        }
+
+        private int leer() throws IOException {
+            if (posicion == limite) {
+                limite = lector.read(buffer, 0, buffer.length);
+                posicion = 0;
+                if (limite <= 0) {
+                    limite = 0;
+                    return -1;
+                }
+            }
+            return buffer[posicion++];
+        }
+    }
+
+    // ---------------------------------------------------------------- exportación
+
+    /**
+     * Exporta todas las series en orden de inserción
+     *
+     * @return series exportadas
+     */
+    public long exportar(Path fichero) throws IOException {
+        try (BufferedWriter escritor = Files.newBufferedWriter(fichero, StandardCharsets.UTF_8)) {
+            return exportar(escritor, Formato.desdeFichero(fichero));
+        }
+    }
+
+    /**
+     * Escribe las series según se leen de la base de datos con EjercicioDAO.recorrerSeries,
+     * sin cargarlas en memoria (solo el catálogo de nombres)
+     */
+    public long exportar(Writer escritor, Formato formato) throws IOException {
+        Map<Integer, String[]> catalogo = new HashMap<>();
+        StringBuilder linea = new StringBuilder(128);
+        boolean json = formato == Formato.JSON;
+        long[] escritas = new long[1];
+
+        if (json) {
+            escritor.write('[');
+        } else {
+            escritor.write("nombre,grupoMuscular,peso,repeticiones,fecha\n");
+        }
+
+        long recorridas;
+        try {
+            recorridas = ejercicioDAO.recorrerSeries(null, EjercicioDAO.FETCH_SIZE_POR_DEFECTO,
+                    (ejercicioId, nombre, grupoMuscular) -> catalogo.put(ejercicioId,
+                            new String[] { nombre, grupoMuscular }),
+                    (serieId, ejercicioId, peso, repeticiones, dia) -> {
+                        String[] entrada = catalogo.get(ejercicioId);
+                        linea.setLength(0);
+                        if (json) {
+                            linea.append(escritas[0] == 0 ? "\n" : ",\n");
+                            linea.append("{\"nombre\":");
+                            Json.escribirCadena(entrada[0], linea);
+                            linea.append(",\"grupoMuscular\":");
+                            Json.escribirCadena(entrada[1], linea);
+                            linea.append(",\"peso\":");
+                            anadirNumero(peso, linea);
+                            linea.append(",\"repeticiones\":").append(repeticiones).append(",\"fecha\":");
+                            if (dia == EjercicioDAO.VisitanteSerie.SIN_FECHA) {
+                                linea.append("null");
+                            } else {
+                                linea.append('"').append(CodecFecha.decodificar(dia)).append('"');
+                            }
+                            linea.append('}');
+                        } else {
+                            anadirCampoCsv(entrada[0], linea);
+                            linea.append(',');
+                            anadirCampoCsv(entrada[1], linea);
+                            linea.append(',');
+                            anadirNumero(peso, linea);
+                            linea.append(',').append(repeticiones).append(',');
+                            if (dia != EjercicioDAO.VisitanteSerie.SIN_FECHA) {
+                                linea.append(CodecFecha.decodificar(dia));
+                            }
+                            linea.append('\n');
+                        }
+                        try {
+                            escritor.append(linea);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        escritas[0]++;
+                    });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (recorridas < 0) {
+            throw new IOException("Error de base de datos al exportar las series");
+        }
+
+        if (json) {
+            escritor.write(escritas[0] == 0 ? "]\n" : "\n]\n");
+        }
+        escritor.flush();
+        return escritas[0];
+    }
+
+    /**
+     * Los pesos enteros sin ".0"
+     */
+    private static void anadirNumero(double numero, StringBuilder salida) {
+        if (numero == Math.rint(numero) && Math.abs(numero) < 1e15) {
+            salida.append((long) numero);
+        } else {
+            salida.append(numero);
+        }
+    }
+
+    private static void anadirCampoCsv(String valor, StringBuilder salida) {
+        boolean comillas = false;
+        for (int i = 0; i < valor.length() && !comillas; i++) {
+            char c = valor.charAt(i);
+            comillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!comillas) {
+            salida.append(valor);
+            return;
+        }
+        salida.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') {
+                salida.append('"');
+            }
+            salida.append(c);
+        }
+        salida.append('"');
+    }
+}
@@ -0,0 +1,282 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON mínimo para el servidor HTTP, sin dependencias: escribe mapas, colecciones,
+ * cadenas, números, booleanos y null, y lee un documento a los mismos tipos (objetos
+ * como LinkedHashMap, arrays como ArrayList y todos los números como Double).
+ */
+public final class Json {
+
+    private Json() {
+    }
+
+    public static String escribir(Object valor) {
+        StringBuilder salida = new StringBuilder();
+        escribir(valor, salida);
+        return salida.toString();
+    }
+
+    private static void escribir(Object valor, StringBuilder salida) {
+        if (valor == null) {
+            salida.append("null");
+        } else if (valor instanceof String) {
+            escribirCadena((String) valor, salida);
+        } else if (valor instanceof Double || valor instanceof Float) {
+            double numero = ((Number) valor).doubleValue();
+            if (Double.isNaN(numero) || Double.isInfinite(numero)) {
+                salida.append("null");
+            } else if (numero == Math.rint(numero) && Math.abs(numero) < 1e15) {
+                salida.append((long) numero);
+            } else {
+                salida.append(numero);
+            }
+        } else if (valor instanceof Number || valor instanceof Boolean) {
+            salida.append(valor);
+        } else if (valor instanceof Map) {
+            salida.append('{');
+            boolean primero = true;
+            for (Map.Entry<?, ?> entrada : ((Map<?, ?>) valor).entrySet()) {
+                if (!primero) {
+                    salida.append(',');
+                }
+                primero = false;
+                escribirCadena(String.valueOf(entrada.getKey()), salida);
+                salida.append(':');
+                escribir(entrada.getValue(), salida);
+            }
+            salida.append('}');
+        } else if (valor instanceof Collection) {
+            salida.append('[');
+            boolean primero = true;
+            for (Object elemento : (Collection<?>) valor) {
+                if (!primero) {
+                    salida.append(',');
+                }
+                primero = false;
+                escribir(elemento, salida);
+            }
+            salida.append(']');
+        } else {
+            escribirCadena(valor.toString(), salida);
+        }
+    }
+
+    static void escribirCadena(String texto, StringBuilder salida) {
+        salida.append('"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '"':
+                    salida.append("\\\"");
+                    break;
+                case '\\':
+                    salida.append("\\\\");
+                    break;
+                case '\n':
+                    salida.append("\\n");
+                    break;
+                case '\r':
+                    salida.append("\\r");
+                    break;
+                case '\t':
+                    salida.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        salida.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        salida.append(c);
+                    }
+            }
+        }
+        salida.append('"');
+    }
+
+    /**
+     * Lee un documento JSON completo
+     *
+     * @throws IllegalArgumentException si el texto no es JSON válido
+     */
+    public static Object leer(String texto) {
+        Lector lector = new Lector(texto);
+        lector.saltarEspacios();
+        Object valor = lector.leerValor();
+        lector.saltarEspacios();
+        if (lector.posicion != texto.length()) {
+            throw lector.error("contenido después del valor");
+        }
+        return valor;
+    }
+
+    private static final class Lector {
+        private final String texto;
+        private int posicion;
+
+        Lector(String texto) {
+            this.texto = texto;
+        }
+
+        Object leerValor() {
+            if (posicion >= texto.length()) {
+                throw error("fin inesperado");
+            }
+            char c = texto.charAt(posicion);
+            switch (c) {
+                case '{':
+                    return leerObjeto();
+                case '[':
+                    return leerArray();
+                case '"':
+                    return leerCadena();
+                case 't':
+                    return leerLiteral("true", Boolean.TRUE);
+                case 'f':
+                    return leerLiteral("false", Boolean.FALSE);
+                case 'n':
+                    return leerLiteral("null", null);
+                default:
+                    if (c == '-' || (c >= '0' && c <= '9')) {
+                        return leerNumero();
+                    }
+                    throw error("carácter inesperado '" + c + "'");
+            }
+        }
+
+        private Map<String, Object> leerObjeto() {
+            Map<String, Object> objeto = new LinkedHashMap<>();
+            posicion++;
+            saltarEspacios();
+            if (consumir('}')) {
+                return objeto;
+            }
+            do {
+                saltarEspacios();
+                if (posicion >= texto.length() || texto.charAt(posicion) != '"') {
+                    throw error("se esperaba el nombre de un campo");
+                }
+                String clave = leerCadena();
+                saltarEspacios();
+                if (!consumir(':')) {
+                    throw error("se esperaba ':'");
+                }
+                saltarEspacios();
+                objeto.put(clave, leerValor());
+                saltarEspacios();
+            } while (consumir(','));
+            if (!consumir('}')) {
+                throw error("se esperaba '}'");
+            }
+            return objeto;
+        }
+
+        private List<Object> leerArray() {
+            List<Object> array = new ArrayList<>();
+            posicion++;
+            saltarEspacios();
+            if (consumir(']')) {
+                return array;
+            }
+            do {
+                saltarEspacios();
+                array.add(leerValor());
+                saltarEspacios();
+            } while (consumir(','));
+            if (!consumir(']')) {
+                throw error("se esperaba ']'");
+            }
+            return array;
+        }
+
+        private String leerCadena() {
+            StringBuilder cadena = new StringBuilder();
+            posicion++;
+            while (posicion < texto.length()) {
+                char c = texto.charAt(posicion++);
+                if (c == '"') {
+                    return cadena.toString();
+                }
+                if (c != '\\') {
+                    cadena.append(c);
+                    continue;
+                }
+                if (posicion >= texto.length()) {
+                    break;
+                }
+                char escapado = texto.charAt(posicion++);
+                switch (escapado) {
+                    case 'b':
+                        cadena.append('\b');
+                        break;
+                    case 'f':
+                        cadena.append('\f');
+                        break;
+                    case 'n':
+                        cadena.append('\n');
+                        break;
+                    case 'r':
+                        cadena.append('\r');
+                        break;
+                    case 't':
+                        cadena.append('\t');
+                        break;
+                    case 'u':
+                        if (posicion + 4 > texto.length()) {
+                            throw error("escape \\u incompleto");
+                        }
+                        try {
+                            cadena.append((char) Integer.parseInt(texto.substring(posicion, posicion + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("escape \\u no válido");
+                        }
+                        posicion += 4;
+                        break;
+                    default:
+                        cadena.append(escapado);
+                }
+            }
+            throw error("cadena sin cerrar");
+        }
+
+        private Double leerNumero() {
+            int inicio = posicion;
+            while (posicion < texto.length() && "+-0123456789.eE".indexOf(texto.charAt(posicion)) >= 0) {
+                posicion++;
+            }
+            try {
+                return Double.valueOf(texto.substring(inicio, posicion));
+            } catch (NumberFormatException e) {
+                throw error("número no válido");
+            }
+        }
+
+        private Object leerLiteral(String literal, Object valor) {
+            if (!texto.startsWith(literal, posicion)) {
+                throw error("literal no válido");
+            }
+            posicion += literal.length();
+            return valor;
+        }
+
+        private boolean consumir(char c) {
+            if (posicion < texto.length() && texto.charAt(posicion) == c) {
+                posicion++;
+                return true;
+            }
+            return false;
+        }
+
+        void saltarEspacios() {
+            while (posicion < texto.length() && Character.isWhitespace(texto.charAt(posicion))) {
+                posicion++;
+            }
+        }
+
+        IllegalArgumentException error(String motivo) {
+            return new IllegalArgumentException("JSON no válido en la posición " + posicion + ": " + motivo);
+        }
+    }
+}
@@ -5,7 +5,30 @@ import javax.swing.JOptionPane;
  * Clase principal que inicia la aplicación GymTracker
  */
 public class Main {
+    private static final int PUERTO_SERVIDOR = 8080;
+    private static final String DIRECTORIO_USUARIOS = "database/usuarios";
+
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--reconstruir-agregados")) {
+            reconstruirAgregados();
+            return;
+        }
+        if (args.length > 1 && (args[0].equals("--importar") || args[0].equals("--exportar"))) {
+            intercambiarSeries(args[0].equals("--importar"), java.nio.file.Paths.get(args[1]));
+            return;
+        }
+        if (args.length > 1 && (args[0].equals("--instantanea") || args[0].equals("--verificar-instantanea")
+                || args[0].equals("--restaurar"))) {
+            instantanea(args[0], java.nio.file.Paths.get(args[1]));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--servidor")) {
+            iniciarServidor(args);
+            return;
+        }
+
+        MedicionArranque.fase("main");
+
         // Iniciar la interfaz gráfica en el hilo de eventos de Swing
         SwingUtilities.invokeLater(new Runnable() {
             @Override
@@ -25,5 +48,85 @@ public class Main {
             }
         });
     }
-}
 
+    /**
+     * Arranca el servidor HTTP sin interfaz: --servidor [puerto] [carpeta de bases de datos]
+     */
+    private static void iniciarServidor(String[] args) {
+        int puerto = args.length > 1 ? Integer.parseInt(args[1]) : PUERTO_SERVIDOR;
+        java.nio.file.Path directorio = java.nio.file.Paths.get(args.length > 2 ? args[2] : DIRECTORIO_USUARIOS);
+        try {
+            ServidorHttp servidor = new ServidorHttp(puerto, directorio);
+            servidor.iniciar();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> servidor.detener(5), "cierre-servidor"));
+            System.out.println("Servidor GymTracker en http://localhost:" + servidor.getPuerto() + "/ (datos en "
+                    + directorio + ")");
+        } catch (java.io.IOException e) {
+            System.err.println("Error al iniciar el servidor: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Importa o exporta el historial en CSV o JSON sin abrir la interfaz:
+     * --importar fichero | --exportar fichero (.csv o .json, el formato sale de la extensión)
+     */
+    private static void intercambiarSeries(boolean importar, java.nio.file.Path fichero) {
+        DatabaseManager.getInstance().initializeDatabase();
+        IntercambioSeries intercambio = new IntercambioSeries(new EjercicioDAO());
+        try {
+            if (importar) {
+                IntercambioSeries.ResultadoImportacion resultado = intercambio.importar(fichero);
+                System.out.println(resultado);
+                for (String error : resultado.getErrores()) {
+                    System.err.println(error);
+                }
+            } else {
+                System.out.println(intercambio.exportar(fichero) + " series exportadas a " + fichero);
+            }
+        } catch (java.io.IOException | IllegalArgumentException e) {
+            System.err.println("Error al " + (importar ? "importar " : "exportar ") + fichero + ": " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Copia de seguridad del historial sin abrir la interfaz: --instantanea fichero la crea
+     * (también con la aplicación abierta), --verificar-instantanea fichero la comprueba y
+     * --restaurar fichero sustituye el historial por su contenido
+     */
+    private static void instantanea(String opcion, java.nio.file.Path fichero) {
+        DatabaseManager dbManager = DatabaseManager.getInstance();
+        dbManager.initializeDatabase();
+        InstantaneaSeries instantanea = new InstantaneaSeries(new EjercicioDAO(), dbManager);
+        try {
+            InstantaneaSeries.Resumen resumen;
+            if (opcion.equals("--instantanea")) {
+                resumen = instantanea.crear(fichero);
+            } else if (opcion.equals("--verificar-instantanea")) {
+                resumen = instantanea.verificar(fichero);
+            } else {
+                resumen = instantanea.restaurar(fichero);
+            }
+            System.out.println(fichero + ": " + resumen);
+        } catch (java.io.IOException e) {
+            System.err.println("Error con la instantánea " + fichero + ": " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Recalcula las tablas de marcas y volumen desde el historial, sin abrir la interfaz
+     */
+    private static void reconstruirAgregados() {
+        DatabaseManager.getInstance().initializeDatabase();
+        if (new AgregadosDAO().reconstruir()) {
+            System.out.println("Agregados reconstruidos correctamente.");
+        } else {
+            System.exit(1);
+        }
+    }
+}
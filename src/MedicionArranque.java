@@ -0,0 +1,69 @@
+import java.awt.EventQueue;
+import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Medición del tiempo de arranque, desde que arranca la JVM hasta el primer frame de la
+ * ventana principal, con marcas intermedias por fase (ventana construida, base de datos
+ * lista, páginas construidas al navegar). Se activa con -Dgymtracker.arranque.medir=true
+ * y escribe líneas "Arranque: ..." en la salida estándar; la del primer frame es la que
+ * lee bench/arranque.sh.
+ * Con -Dgymtracker.arranque.salir=true la aplicación termina tras el primer frame y el
+ * trabajo de arranque en segundo plano, para los arranques de medición y la ejecución de
+ * entrenamiento del archivo AppCDS (que así incluye también las clases del driver).
+ */
+public final class MedicionArranque {
+    private static final boolean MEDIR = Boolean.getBoolean("gymtracker.arranque.medir");
+    private static final boolean SALIR = Boolean.getBoolean("gymtracker.arranque.salir");
+
+    private MedicionArranque() {
+    }
+
+    /**
+     * Anota que ha terminado una fase; se puede llamar desde cualquier hilo
+     */
+    public static void fase(String nombre) {
+        if (MEDIR) {
+            System.out.println("Arranque: " + nombre + " a los " + milisegundosDesdeInicio() + " ms ["
+                    + Thread.currentThread().getName() + "]");
+        }
+    }
+
+    /**
+     * Registra el primer frame de la ventana: la ventana se ha abierto y la cola de eventos
+     * ha despachado el pintado inicial que tenía pendiente. Con salida tras el arranque,
+     * se espera además a {@code pendiente}.
+     */
+    public static void alMostrar(Window ventana, CompletableFuture<?> pendiente) {
+        if (!MEDIR && !SALIR) {
+            return;
+        }
+        ventana.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                ventana.removeWindowListener(this);
+                EventQueue.invokeLater(() -> {
+                    if (MEDIR) {
+                        System.out.println("Arranque: primer frame en " + milisegundosDesdeInicio() + " ms");
+                    }
+                    if (SALIR) {
+                        pendiente.whenComplete((resultado, error) -> EventQueue.invokeLater(() -> {
+                            ventana.dispose();
+                            System.exit(0);
+                        }));
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Milisegundos desde que arrancó la JVM
+     */
+    static long milisegundosDesdeInicio() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
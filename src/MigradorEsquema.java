@@ -0,0 +1,303 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Aplica al arrancar las migraciones de esquema pendientes, en orden y cada una en su
+ * propia transacción. La versión aplicada se registra en la tabla schema_version.
+ * Para cambiar el esquema se añade una nueva Migracion al final de la lista; las
+ * existentes no se modifican nunca.
+ */
+public class MigradorEsquema {
+
+    /**
+     * Una migración versionada: lista de sentencias SQL que se ejecutan juntas
+     */
+    public static class Migracion {
+        private final int version;
+        private final String descripcion;
+        private final List<String> sentencias;
+
+        public Migracion(int version, String descripcion, String... sentencias) {
+            this.version = version;
+            this.descripcion = descripcion;
+            this.sentencias = Arrays.asList(sentencias);
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        public String getDescripcion() {
+            return descripcion;
+        }
+
+        public void aplicar(Connection connection) throws SQLException {
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : sentencias) {
+                    statement.execute(sql);
+                }
+            }
+        }
+    }
+
+    private static final List<Migracion> MIGRACIONES = Collections.unmodifiableList(Arrays.asList(
+            new Migracion(1, "Tabla de ejercicios",
+                    "CREATE TABLE IF NOT EXISTS ejercicios (" +
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    "nombre TEXT NOT NULL, " +
+                    "grupo_muscular TEXT NOT NULL, " +
+                    "peso REAL NOT NULL, " +
+                    "repeticiones INTEGER NOT NULL, " +
+                    "fecha TEXT" +
+                    ")"),
+            new Migracion(2, "Índice para el historial por nombre",
+                    "CREATE INDEX IF NOT EXISTS idx_ejercicios_nombre_fecha " +
+                    "ON ejercicios (nombre, fecha DESC, id DESC)"),
+            new Migracion(3, "Índice para los nombres por grupo muscular",
+                    "CREATE INDEX IF NOT EXISTS idx_ejercicios_grupo_nombre " +
+                    "ON ejercicios (grupo_muscular, nombre)"),
+            new Migracion(4, "Catálogo de ejercicios y tabla de series normalizada",
+                    "CREATE TABLE catalogo_ejercicios (" +
+                    "id INTEGER PRIMARY KEY, " +
+                    "nombre TEXT NOT NULL, " +
+                    "grupo_muscular TEXT NOT NULL, " +
+                    "UNIQUE (nombre, grupo_muscular)" +
+                    ")",
+                    "INSERT INTO catalogo_ejercicios (nombre, grupo_muscular) " +
+                    "SELECT nombre, grupo_muscular FROM ejercicios " +
+                    "GROUP BY nombre, grupo_muscular ORDER BY MIN(id)",
+                    "CREATE TABLE series (" +
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    "ejercicio_id INTEGER NOT NULL REFERENCES catalogo_ejercicios (id), " +
+                    "peso REAL NOT NULL, " +
+                    "repeticiones INTEGER NOT NULL, " +
+                    "fecha TEXT" +
+                    ")",
+                    // Se conservan los ids para no romper referencias externas
+                    "INSERT INTO series (id, ejercicio_id, peso, repeticiones, fecha) " +
+                    "SELECT e.id, c.id, e.peso, e.repeticiones, e.fecha FROM ejercicios e " +
+                    "JOIN catalogo_ejercicios c ON c.nombre = e.nombre AND c.grupo_muscular = e.grupo_muscular " +
+                    "ORDER BY e.id",
+                    "DELETE FROM sqlite_sequence WHERE name = 'series'",
+                    "INSERT INTO sqlite_sequence (name, seq) " +
+                    "SELECT 'series', seq FROM sqlite_sequence WHERE name = 'ejercicios'",
+                    "DROP TABLE ejercicios",
+                    "CREATE INDEX idx_series_ejercicio_fecha ON series (ejercicio_id, fecha DESC, id DESC)",
+                    "CREATE INDEX idx_catalogo_grupo_nombre ON catalogo_ejercicios (grupo_muscular, nombre)"),
+            new Migracion(5, "Agregados de marcas y volumen por ejercicio",
+                    "CREATE TABLE agregados_ejercicio (" +
+                    "ejercicio_id INTEGER PRIMARY KEY REFERENCES catalogo_ejercicios (id) ON DELETE CASCADE, " +
+                    "peso_maximo REAL NOT NULL, " +
+                    "repeticiones_maximas INTEGER NOT NULL, " +
+                    "mejor_1rm REAL NOT NULL, " +
+                    "volumen_total REAL NOT NULL, " +
+                    "total_series INTEGER NOT NULL, " +
+                    "ultima_serie_id INTEGER NOT NULL, " +
+                    "ultima_fecha TEXT" +
+                    ")",
+                    "CREATE TABLE volumen_diario (" +
+                    "ejercicio_id INTEGER NOT NULL REFERENCES catalogo_ejercicios (id) ON DELETE CASCADE, " +
+                    "fecha TEXT NOT NULL, " +
+                    "volumen REAL NOT NULL, " +
+                    "series INTEGER NOT NULL, " +
+                    "PRIMARY KEY (ejercicio_id, fecha)" +
+                    ") WITHOUT ROWID",
+                    "CREATE TABLE volumen_semanal (" +
+                    "ejercicio_id INTEGER NOT NULL REFERENCES catalogo_ejercicios (id) ON DELETE CASCADE, " +
+                    "semana TEXT NOT NULL, " +
+                    "volumen REAL NOT NULL, " +
+                    "series INTEGER NOT NULL, " +
+                    "PRIMARY KEY (ejercicio_id, semana)" +
+                    ") WITHOUT ROWID",
+                    "INSERT INTO agregados_ejercicio SELECT s.ejercicio_id, MAX(s.peso), MAX(s.repeticiones), " +
+                    "MAX(CASE WHEN s.repeticiones = 1 THEN s.peso ELSE s.peso * (1 + s.repeticiones / 30.0) END), " +
+                    "SUM(s.peso * s.repeticiones), COUNT(*), " +
+                    "(SELECT u.id FROM series u WHERE u.ejercicio_id = s.ejercicio_id " +
+                    "ORDER BY u.fecha DESC, u.id DESC LIMIT 1), " +
+                    "(SELECT u.fecha FROM series u WHERE u.ejercicio_id = s.ejercicio_id " +
+                    "ORDER BY u.fecha DESC, u.id DESC LIMIT 1) " +
+                    "FROM series s GROUP BY s.ejercicio_id",
+                    "INSERT INTO volumen_diario SELECT ejercicio_id, fecha, SUM(peso * repeticiones), COUNT(*) " +
+                    "FROM series WHERE fecha IS NOT NULL GROUP BY ejercicio_id, fecha",
+                    "INSERT INTO volumen_semanal SELECT ejercicio_id, date(fecha, 'weekday 0', '-6 days'), " +
+                    "SUM(peso * repeticiones), COUNT(*) FROM series WHERE fecha IS NOT NULL " +
+                    "GROUP BY ejercicio_id, date(fecha, 'weekday 0', '-6 days')"),
+            new Migracion(6, "Fechas como días desde 1970 (INTEGER) en series y agregados",
+                    "CREATE TABLE series_nueva (" +
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    "ejercicio_id INTEGER NOT NULL REFERENCES catalogo_ejercicios (id), " +
+                    "peso REAL NOT NULL, " +
+                    "repeticiones INTEGER NOT NULL, " +
+                    "fecha INTEGER" +
+                    ")",
+                    // 'YYYY-MM-DD' da un juliano terminado en .5, así que la resta es exacta
+                    "INSERT INTO series_nueva (id, ejercicio_id, peso, repeticiones, fecha) " +
+                    "SELECT id, ejercicio_id, peso, repeticiones, CAST(julianday(fecha) - 2440587.5 AS INTEGER) " +
+                    "FROM series ORDER BY id",
+                    "DELETE FROM sqlite_sequence WHERE name = 'series_nueva'",
+                    "INSERT INTO sqlite_sequence (name, seq) " +
+                    "SELECT 'series_nueva', seq FROM sqlite_sequence WHERE name = 'series'",
+                    "DROP TABLE series",
+                    "ALTER TABLE series_nueva RENAME TO series",
+                    "CREATE INDEX idx_series_ejercicio_fecha ON series (ejercicio_id, fecha DESC, id DESC)",
+                    "DROP TABLE agregados_ejercicio",
+                    "DROP TABLE volumen_diario",
+                    "DROP TABLE volumen_semanal",
+                    "CREATE TABLE agregados_ejercicio (" +
+                    "ejercicio_id INTEGER PRIMARY KEY REFERENCES catalogo_ejercicios (id) ON DELETE CASCADE, " +
+                    "peso_maximo REAL NOT NULL, " +
+                    "repeticiones_maximas INTEGER NOT NULL, " +
+                    "mejor_1rm REAL NOT NULL, " +
+                    "volumen_total REAL NOT NULL, " +
+                    "total_series INTEGER NOT NULL, " +
+                    "ultima_serie_id INTEGER NOT NULL, " +
+                    "ultima_fecha INTEGER" +
+                    ")",
+                    "CREATE TABLE volumen_diario (" +
+                    "ejercicio_id INTEGER NOT NULL REFERENCES catalogo_ejercicios (id) ON DELETE CASCADE, " +
+                    "fecha INTEGER NOT NULL, " +
+                    "volumen REAL NOT NULL, " +
+                    "series INTEGER NOT NULL, " +
+                    "PRIMARY KEY (ejercicio_id, fecha)" +
+                    ") WITHOUT ROWID",
+                    "CREATE TABLE volumen_semanal (" +
+                    "ejercicio_id INTEGER NOT NULL REFERENCES catalogo_ejercicios (id) ON DELETE CASCADE, " +
+                    "semana INTEGER NOT NULL, " +
+                    "volumen REAL NOT NULL, " +
+                    "series INTEGER NOT NULL, " +
+                    "PRIMARY KEY (ejercicio_id, semana)" +
+                    ") WITHOUT ROWID",
+                    "INSERT INTO agregados_ejercicio SELECT s.ejercicio_id, MAX(s.peso), MAX(s.repeticiones), " +
+                    "MAX(CASE WHEN s.repeticiones = 1 THEN s.peso ELSE s.peso * (1 + s.repeticiones / 30.0) END), " +
+                    "SUM(s.peso * s.repeticiones), COUNT(*), " +
+                    "(SELECT u.id FROM series u WHERE u.ejercicio_id = s.ejercicio_id " +
+                    "ORDER BY u.fecha DESC, u.id DESC LIMIT 1), " +
+                    "(SELECT u.fecha FROM series u WHERE u.ejercicio_id = s.ejercicio_id " +
+                    "ORDER BY u.fecha DESC, u.id DESC LIMIT 1) " +
+                    "FROM series s GROUP BY s.ejercicio_id",
+                    "INSERT INTO volumen_diario SELECT ejercicio_id, fecha, SUM(peso * repeticiones), COUNT(*) " +
+                    "FROM series WHERE fecha IS NOT NULL GROUP BY ejercicio_id, fecha",
+                    // Lunes de la semana: 1970-01-01 (día 0) fue jueves
+                    "INSERT INTO volumen_semanal SELECT ejercicio_id, fecha - ((fecha + 3) % 7 + 7) % 7, " +
+                    "SUM(peso * repeticiones), COUNT(*) FROM series WHERE fecha IS NOT NULL " +
+                    "GROUP BY ejercicio_id, fecha - ((fecha + 3) % 7 + 7) % 7"),
+            new Migracion(7, "Rutinas de entrenamiento",
+                    "CREATE TABLE rutinas (" +
+                    "id INTEGER PRIMARY KEY, " +
+                    "nombre TEXT NOT NULL UNIQUE" +
+                    ")",
+                    // Los ejercicios van por nombre y grupo, no por id de catálogo: una
+                    // rutina puede incluir ejercicios aún sin series, que no están en el catálogo
+                    "CREATE TABLE rutina_ejercicios (" +
+                    "rutina_id INTEGER NOT NULL REFERENCES rutinas (id) ON DELETE CASCADE, " +
+                    "posicion INTEGER NOT NULL, " +
+                    "nombre TEXT NOT NULL, " +
+                    "grupo_muscular TEXT NOT NULL, " +
+                    "series INTEGER NOT NULL, " +
+                    "repeticiones INTEGER NOT NULL, " +
+                    "peso REAL NOT NULL, " +
+                    "PRIMARY KEY (rutina_id, posicion)" +
+                    ") WITHOUT ROWID"),
+            // Última secuencia del diario de series (DiarioSeries) ya volcada a series; se
+            // actualiza en la misma transacción que las inserciones
+            new Migracion(8, "Secuencia aplicada del diario de series",
+                    "CREATE TABLE diario_aplicado (" +
+                    "id INTEGER PRIMARY KEY CHECK (id = 1), " +
+                    "secuencia INTEGER NOT NULL" +
+                    ")",
+                    "INSERT INTO diario_aplicado (id, secuencia) VALUES (1, 0)"),
+            // Peso máximo y mejor 1RM por día, para que el gráfico de progreso se cargue de
+            // volumen_diario sin recorrer las series
+            new Migracion(9, "Marcas diarias en volumen_diario",
+                    "ALTER TABLE volumen_diario ADD COLUMN peso_maximo REAL NOT NULL DEFAULT 0",
+                    "ALTER TABLE volumen_diario ADD COLUMN mejor_1rm REAL NOT NULL DEFAULT 0",
+                    "DELETE FROM volumen_diario",
+                    "INSERT INTO volumen_diario (ejercicio_id, fecha, volumen, series, peso_maximo, mejor_1rm) " +
+                    "SELECT ejercicio_id, fecha, SUM(peso * repeticiones), COUNT(*), MAX(peso), " +
+                    "MAX(CASE WHEN repeticiones = 1 THEN peso ELSE peso * (1 + repeticiones / 30.0) END) " +
+                    "FROM series WHERE fecha IS NOT NULL GROUP BY ejercicio_id, fecha")));
+
+    private final List<Migracion> migraciones;
+
+    public MigradorEsquema() {
+        this(MIGRACIONES);
+    }
+
+    public MigradorEsquema(List<Migracion> migraciones) {
+        List<Migracion> ordenadas = new ArrayList<>(migraciones);
+        ordenadas.sort((a, b) -> Integer.compare(a.getVersion(), b.getVersion()));
+        this.migraciones = ordenadas;
+    }
+
+    /**
+     * Aplica las migraciones cuya versión sea mayor que la registrada.
+     * Si una falla se revierte y no se aplican las siguientes.
+     *
+     * @return versión del esquema tras migrar
+     */
+    public int migrar(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "version INTEGER PRIMARY KEY, " +
+                    "descripcion TEXT NOT NULL, " +
+                    "aplicada_en TEXT NOT NULL" +
+                    ")");
+        }
+
+        int versionActual = obtenerVersion(connection);
+        for (Migracion migracion : migraciones) {
+            if (migracion.getVersion() <= versionActual) {
+                continue;
+            }
+
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                // Otro proceso pudo haberla aplicado mientras tanto
+                if (obtenerVersion(connection) < migracion.getVersion()) {
+                    migracion.aplicar(connection);
+                    registrarVersion(connection, migracion);
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw new SQLException("Error en la migración " + migracion.getVersion() + " ("
+                        + migracion.getDescripcion() + "): " + e.getMessage(), e);
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+
+            versionActual = migracion.getVersion();
+            System.out.println("Esquema migrado a la versión " + versionActual + ": " + migracion.getDescripcion());
+        }
+        return versionActual;
+    }
+
+    /**
+     * Versión más alta aplicada, o 0 si la base de datos es nueva
+     */
+    public static int obtenerVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private void registrarVersion(Connection connection, Migracion migracion) throws SQLException {
+        String sql = "INSERT INTO schema_version (version, descripcion, aplicada_en) VALUES (?, ?, ?)";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, migracion.getVersion());
+            pstmt.setString(2, migracion.getDescripcion());
+            pstmt.setString(3, LocalDateTime.now().toString());
+            pstmt.executeUpdate();
+        }
+    }
+}
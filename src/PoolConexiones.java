@@ -0,0 +1,289 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Pool acotado de conexiones SQLite de larga duración.
+ * Cada conexión física se configura una sola vez (PRAGMAs) al crearse y se reutiliza
+ * entre consultas. Lo que se entrega es un proxy cuyo close() devuelve la conexión al pool,
+ * así el código que usa try-with-resources no necesita cambiar.
+ * Cada conexión física lleva además su propia {@link CacheSentencias}.
+ */
+public class PoolConexiones {
+    private static final long ESPERA_MAXIMA_MS = 10_000;
+    // Cada cuánto vuelve a mirar un hilo en espera si se liberó cupo (una conexión descartada)
+    private static final long INTERVALO_ESPERA_MS = 50;
+
+    private final String url;
+    private final int tamanoMaximo;
+    private final int cacheSizeKb;
+    private final long mmapSizeBytes;
+    private final int capacidadCacheSentencias;
+
+    private final BlockingQueue<Connection> libres = new LinkedBlockingQueue<>();
+    private final List<Connection> todas = new CopyOnWriteArrayList<>();
+    private final AtomicInteger creadas = new AtomicInteger();
+    private final Map<Connection, CacheSentencias> caches = new ConcurrentHashMap<>();
+    private final AtomicLong aciertosCache = new AtomicLong();
+    private final AtomicLong fallosCache = new AtomicLong();
+    // Recibe el SQL de cada prepareStatement (arneses de bench que cuentan consultas o revisan planes)
+    private volatile Consumer<String> observadorSentencias;
+    private volatile boolean driverCargado;
+    private volatile boolean cerrado;
+
+    public PoolConexiones(String url, int tamanoMaximo, int cacheSizeKb, long mmapSizeBytes,
+            int capacidadCacheSentencias) {
+        if (tamanoMaximo <= 0) {
+            throw new IllegalArgumentException("El tamaño del pool debe ser mayor a 0");
+        }
+        this.url = url;
+        this.tamanoMaximo = tamanoMaximo;
+        this.cacheSizeKb = cacheSizeKb;
+        this.mmapSizeBytes = mmapSizeBytes;
+        this.capacidadCacheSentencias = capacidadCacheSentencias;
+    }
+
+    /**
+     * Obtiene una conexión del pool. Si no hay libres y el pool está lleno, espera
+     * hasta que otra se devuelva o, si se descarta una, hasta que haya cupo para abrir
+     * otra.
+     */
+    public Connection obtener() throws SQLException, ClassNotFoundException {
+        cargarDriver();
+
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ESPERA_MAXIMA_MS);
+        Connection fisica = libres.poll();
+        while (fisica == null) {
+            if (cerrado) {
+                throw new SQLException("El pool de conexiones está cerrado");
+            }
+            fisica = crearSiHayCupo();
+            if (fisica != null) {
+                break;
+            }
+            long restante = limite - System.nanoTime();
+            if (restante <= 0) {
+                throw new SQLException("No hay conexiones libres tras " + ESPERA_MAXIMA_MS + " ms (tamaño del pool: "
+                        + tamanoMaximo + ")");
+            }
+            // Una conexión descartada libera cupo sin pasar por libres: se espera a trozos
+            try {
+                fisica = libres.poll(Math.min(restante, TimeUnit.MILLISECONDS.toNanos(INTERVALO_ESPERA_MS)),
+                        TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrumpido esperando una conexión libre", e);
+            }
+        }
+        if (cerrado) {
+            descartar(fisica);
+            throw new SQLException("El pool de conexiones está cerrado");
+        }
+        return envolver(fisica);
+    }
+
+    public int getTamanoMaximo() {
+        return tamanoMaximo;
+    }
+
+    public int getConexionesCreadas() {
+        return creadas.get();
+    }
+
+    public long getAciertosCacheSentencias() {
+        return aciertosCache.get();
+    }
+
+    public long getFallosCacheSentencias() {
+        return fallosCache.get();
+    }
+
+    /**
+     * Registra quién recibe el SQL de cada sentencia preparada en conexiones del pool
+     * (null para dejar de observar)
+     */
+    void observarSentencias(Consumer<String> observador) {
+        observadorSentencias = observador;
+    }
+
+    /**
+     * Cierra las conexiones físicas libres. Las que estén prestadas se cierran al devolverse,
+     * así que no se corta ninguna consulta en curso.
+     */
+    public void cerrar() {
+        cerrado = true;
+        Connection fisica;
+        while ((fisica = libres.poll()) != null) {
+            descartar(fisica);
+        }
+    }
+
+    private void cargarDriver() throws ClassNotFoundException {
+        if (!driverCargado) {
+            Class.forName("org.sqlite.JDBC");
+            driverCargado = true;
+        }
+    }
+
+    private Connection crearSiHayCupo() throws SQLException {
+        while (true) {
+            int actuales = creadas.get();
+            if (actuales >= tamanoMaximo) {
+                return null;
+            }
+            if (creadas.compareAndSet(actuales, actuales + 1)) {
+                break;
+            }
+        }
+
+        Connection fisica = null;
+        try {
+            fisica = DriverManager.getConnection(url);
+            configurar(fisica);
+            caches.put(fisica, new CacheSentencias(fisica, capacidadCacheSentencias, aciertosCache, fallosCache));
+            todas.add(fisica);
+            return fisica;
+        } catch (SQLException e) {
+            creadas.decrementAndGet();
+            // Abierta pero sin configurar (p. ej. un PRAGMA que falló): no debe quedar el fichero abierto
+            if (fisica != null) {
+                cerrarFisica(fisica);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * PRAGMAs que se aplican una única vez por conexión física
+     */
+    private void configurar(Connection fisica) throws SQLException {
+        try (Statement statement = fisica.createStatement()) {
+            statement.execute("PRAGMA journal_mode = WAL");
+            statement.execute("PRAGMA synchronous = NORMAL");
+            statement.execute("PRAGMA cache_size = -" + cacheSizeKb);
+            statement.execute("PRAGMA mmap_size = " + mmapSizeBytes);
+            statement.execute("PRAGMA busy_timeout = 5000");
+            statement.execute("PRAGMA foreign_keys = ON");
+        }
+    }
+
+    private void devolver(Connection fisica) {
+        try {
+            if (fisica.isClosed()) {
+                descartar(fisica);
+                return;
+            }
+            if (!fisica.getAutoCommit()) {
+                fisica.rollback();
+                fisica.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Descartando conexión defectuosa: " + e.getMessage());
+            descartar(fisica);
+            return;
+        }
+
+        if (cerrado) {
+            descartar(fisica);
+        } else {
+            libres.offer(fisica);
+            // cerrar() pudo vaciar libres justo antes de este offer
+            if (cerrado && libres.remove(fisica)) {
+                descartar(fisica);
+            }
+        }
+    }
+
+    private void descartar(Connection fisica) {
+        if (todas.remove(fisica)) {
+            creadas.decrementAndGet();
+        }
+        cerrarFisica(fisica);
+    }
+
+    private void cerrarFisica(Connection fisica) {
+        CacheSentencias cache = caches.remove(fisica);
+        if (cache != null) {
+            cache.cerrar();
+        }
+        try {
+            fisica.close();
+        } catch (SQLException e) {
+            System.err.println("Error al cerrar conexión: " + e.getMessage());
+        }
+    }
+
+    private Connection envolver(Connection fisica) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new ConexionPrestada(fisica));
+    }
+
+    /**
+     * Proxy de un préstamo: close() devuelve la conexión física al pool una sola vez
+     */
+    private class ConexionPrestada implements InvocationHandler {
+        private final Connection fisica;
+        private boolean devuelta;
+
+        ConexionPrestada(Connection fisica) {
+            this.fisica = fisica;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String nombre = method.getName();
+            if (nombre.equals("close")) {
+                if (!devuelta) {
+                    devuelta = true;
+                    devolver(fisica);
+                }
+                return null;
+            }
+            if (nombre.equals("isClosed")) {
+                return devuelta || fisica.isClosed();
+            }
+            if (nombre.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (nombre.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (devuelta) {
+                throw new SQLException("La conexión ya fue devuelta al pool");
+            }
+            Consumer<String> observador = observadorSentencias;
+            if (observador != null && nombre.equals("prepareStatement")) {
+                observador.accept((String) args[0]);
+            }
+            if (nombre.equals("prepareStatement") && args.length == 1) {
+                CacheSentencias cache = caches.get(fisica);
+                if (cache != null) {
+                    return cache.preparar((String) args[0], (Connection) proxy);
+                }
+            }
+
+            try {
+                return method.invoke(fisica, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de una inserción por lotes: id generado para cada elemento (en el mismo
+ * orden de entrada, 0 si no se insertó) y la lista de fallos con su posición.
+ */
+public class ResultadoLote {
+
+    /**
+     * Elemento del lote que no se pudo insertar
+     */
+    public static class Fallo {
+        private final int indice;
+        private final String motivo;
+
+        public Fallo(int indice, String motivo) {
+            this.indice = indice;
+            this.motivo = motivo;
+        }
+
+        public int getIndice() {
+            return indice;
+        }
+
+        public String getMotivo() {
+            return motivo;
+        }
+
+        @Override
+        public String toString() {
+            return "#" + indice + ": " + motivo;
+        }
+    }
+
+    private final int[] ids;
+    private final List<Fallo> fallos = new ArrayList<>();
+    private int insertados;
+
+    public ResultadoLote(int tamano) {
+        this.ids = new int[tamano];
+    }
+
+    void registrarId(int indice, int id) {
+        ids[indice] = id;
+        insertados++;
+    }
+
+    void registrarFallo(int indice, String motivo) {
+        fallos.add(new Fallo(indice, motivo));
+    }
+
+    /**
+     * Marca como fallidos los elementos válidos cuando la transacción se revierte
+     */
+    void revertir(List<Integer> indicesValidos, String motivo) {
+        for (int indice : indicesValidos) {
+            ids[indice] = 0;
+            fallos.add(new Fallo(indice, motivo));
+        }
+        insertados = 0;
+    }
+
+    public int[] getIds() {
+        return ids.clone();
+    }
+
+    public int getInsertados() {
+        return insertados;
+    }
+
+    public List<Fallo> getFallos() {
+        return Collections.unmodifiableList(fallos);
+    }
+
+    public boolean hayFallos() {
+        return !fallos.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d insertados, %d fallidos", insertados, fallos.size());
+    }
+}
@@ -0,0 +1,124 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Rutina de entrenamiento: lista ordenada de ejercicios con las series, repeticiones y
+ * peso objetivo de cada uno. Sirve de plantilla para registrar una sesión completa
+ * (ver RutinaDAO.prepararSesion).
+ */
+public class Rutina {
+
+    /**
+     * Ejercicio de una rutina con su objetivo
+     */
+    public static class EjercicioRutina {
+        private final String nombre;
+        private final String grupoMuscular;
+        private final int series;
+        private final int repeticiones;
+        private final double peso;
+
+        public EjercicioRutina(String nombre, String grupoMuscular, int series, int repeticiones, double peso) {
+            this.nombre = nombre;
+            this.grupoMuscular = grupoMuscular;
+            this.series = series;
+            this.repeticiones = repeticiones;
+            this.peso = peso;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public String getGrupoMuscular() {
+            return grupoMuscular;
+        }
+
+        public int getSeries() {
+            return series;
+        }
+
+        public int getRepeticiones() {
+            return repeticiones;
+        }
+
+        public double getPeso() {
+            return peso;
+        }
+    }
+
+    private int id;
+    private final String nombre;
+    private final List<EjercicioRutina> ejercicios;
+
+    // Constructor para crear nuevas rutinas (sin ID)
+    public Rutina(String nombre, List<EjercicioRutina> ejercicios) {
+        this(0, nombre, ejercicios);
+    }
+
+    public Rutina(int id, String nombre, List<EjercicioRutina> ejercicios) {
+        this.id = id;
+        this.nombre = nombre;
+        this.ejercicios = new ArrayList<>(ejercicios);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public List<EjercicioRutina> getEjercicios() {
+        return Collections.unmodifiableList(ejercicios);
+    }
+
+    /**
+     * Total de series de una sesión de la rutina
+     */
+    public int getTotalSeries() {
+        int total = 0;
+        for (EjercicioRutina ejercicio : ejercicios) {
+            total += ejercicio.getSeries();
+        }
+        return total;
+    }
+
+    /**
+     * Devuelve el mensaje de error o null si la rutina es válida
+     */
+    public String validar() {
+        if (nombre == null || nombre.trim().isEmpty()) {
+            return "El nombre de la rutina es obligatorio";
+        }
+        if (ejercicios.isEmpty()) {
+            return "La rutina debe tener al menos un ejercicio";
+        }
+        for (EjercicioRutina ejercicio : ejercicios) {
+            if (ejercicio.getNombre() == null || ejercicio.getNombre().trim().isEmpty()) {
+                return "El nombre del ejercicio es obligatorio";
+            }
+            if (ejercicio.getGrupoMuscular() == null || ejercicio.getGrupoMuscular().trim().isEmpty()) {
+                return "El grupo muscular de " + ejercicio.getNombre() + " es obligatorio";
+            }
+            if (ejercicio.getSeries() <= 0 || ejercicio.getRepeticiones() <= 0) {
+                return "Las series y repeticiones de " + ejercicio.getNombre() + " deben ser mayores a 0";
+            }
+            if (ejercicio.getPeso() < 0 || Double.isNaN(ejercicio.getPeso()) || Double.isInfinite(ejercicio.getPeso())) {
+                return "El peso de " + ejercicio.getNombre() + " no es válido";
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%d ejercicios, %d series)", nombre, ejercicios.size(), getTotalSeries());
+    }
+}
@@ -0,0 +1,255 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Access Object de las rutinas (rutinas y rutina_ejercicios) y de las sesiones
+ * que se registran a partir de ellas.
+ *
+ * Una sesión se prepara con una sola consulta (la rutina junto con las series del
+ * último día de cada ejercicio, localizado por agregados_ejercicio) y se guarda con
+ * EjercicioDAO.insertarEjercicios: todas las series en una transacción y un solo commit.
+ */
+public class RutinaDAO {
+    private static final String SELECT_RUTINAS =
+            "SELECT r.id, r.nombre, e.nombre, e.grupo_muscular, e.series, e.repeticiones, e.peso " +
+            "FROM rutinas r LEFT JOIN rutina_ejercicios e ON e.rutina_id = r.id ";
+    private static final String INSERT_EJERCICIO_RUTINA =
+            "INSERT INTO rutina_ejercicios (rutina_id, posicion, nombre, grupo_muscular, series, repeticiones, peso) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    // Cada ejercicio de la rutina con las series de su último día registrado (o la
+    // última serie si no tiene fechas); sin historial, una fila con s.* a NULL. Con IS
+    // la búsqueda usa el índice por (ejercicio_id, fecha) y no recorre el historial.
+    private static final String SELECT_ULTIMAS_SERIES =
+            "SELECT e.posicion, s.peso, s.repeticiones " +
+            "FROM rutina_ejercicios e " +
+            "LEFT JOIN catalogo_ejercicios c ON c.nombre = e.nombre AND c.grupo_muscular = e.grupo_muscular " +
+            "LEFT JOIN agregados_ejercicio a ON a.ejercicio_id = c.id " +
+            "LEFT JOIN series s ON s.ejercicio_id = c.id AND s.fecha IS a.ultima_fecha " +
+            "AND (a.ultima_fecha IS NOT NULL OR s.id = a.ultima_serie_id) " +
+            "WHERE e.rutina_id = ? ORDER BY e.posicion, s.id";
+
+    private DatabaseManager dbManager;
+    private EjercicioDAO ejercicioDAO;
+
+    public RutinaDAO() {
+        this(DatabaseManager.getInstance());
+    }
+
+    RutinaDAO(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+        this.ejercicioDAO = new EjercicioDAO(dbManager);
+    }
+
+    /**
+     * Inserta la rutina (id 0) o reemplaza la existente con sus ejercicios, en una
+     * transacción del hilo escritor. A una rutina nueva se le asigna el id generado.
+     */
+    public boolean guardarRutina(Rutina rutina) {
+        String error = rutina.validar();
+        if (error != null) {
+            System.err.println("Rutina no válida: " + error);
+            return false;
+        }
+
+        try {
+            int id = dbManager.escribir(connection -> guardarEnTransaccion(connection, rutina));
+            if (id == 0) {
+                return false;
+            }
+            rutina.setId(id);
+            return true;
+
+        } catch (SQLException e) {
+            System.err.println("Error al guardar rutina: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Escribe la rutina en la transacción del hilo escritor y devuelve su id, o 0 si
+     * había que reemplazar una rutina que ya no existe
+     */
+    private int guardarEnTransaccion(Connection connection, Rutina rutina) throws SQLException {
+        int id = rutina.getId();
+        if (id == 0) {
+            try (PreparedStatement pstmt = connection.prepareStatement("INSERT INTO rutinas (nombre) VALUES (?)")) {
+                pstmt.setString(1, rutina.getNombre());
+                pstmt.executeUpdate();
+            }
+            id = ultimoIdInsertado(connection);
+        } else {
+            try (PreparedStatement pstmt = connection.prepareStatement("UPDATE rutinas SET nombre = ? WHERE id = ?")) {
+                pstmt.setString(1, rutina.getNombre());
+                pstmt.setInt(2, id);
+                if (pstmt.executeUpdate() == 0) {
+                    return 0;
+                }
+            }
+            try (PreparedStatement pstmt = connection.prepareStatement(
+                    "DELETE FROM rutina_ejercicios WHERE rutina_id = ?")) {
+                pstmt.setInt(1, id);
+                pstmt.executeUpdate();
+            }
+        }
+
+        try (PreparedStatement pstmt = connection.prepareStatement(INSERT_EJERCICIO_RUTINA)) {
+            int posicion = 0;
+            for (Rutina.EjercicioRutina ejercicio : rutina.getEjercicios()) {
+                pstmt.setInt(1, id);
+                pstmt.setInt(2, posicion++);
+                pstmt.setString(3, ejercicio.getNombre());
+                pstmt.setString(4, ejercicio.getGrupoMuscular());
+                pstmt.setInt(5, ejercicio.getSeries());
+                pstmt.setInt(6, ejercicio.getRepeticiones());
+                pstmt.setDouble(7, ejercicio.getPeso());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+        return id;
+    }
+
+    /**
+     * Todas las rutinas con sus ejercicios, ordenadas por nombre
+     */
+    public List<Rutina> obtenerRutinas() {
+        return leerRutinas(SELECT_RUTINAS + "ORDER BY r.nombre, r.id, e.posicion", 0);
+    }
+
+    /**
+     * Rutina con sus ejercicios, o null si no existe
+     */
+    public Rutina obtenerRutina(int id) {
+        List<Rutina> rutinas = leerRutinas(SELECT_RUTINAS + "WHERE r.id = ? ORDER BY e.posicion", id);
+        return rutinas.isEmpty() ? null : rutinas.get(0);
+    }
+
+    private List<Rutina> leerRutinas(String sql, int id) {
+        List<Rutina> rutinas = new ArrayList<>();
+
+        try (Connection connection = dbManager.getConnection();
+                PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            if (id != 0) {
+                pstmt.setInt(1, id);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int idActual = 0;
+                String nombreActual = null;
+                List<Rutina.EjercicioRutina> ejercicios = new ArrayList<>();
+                while (rs.next()) {
+                    int idRutina = rs.getInt(1);
+                    if (idRutina != idActual) {
+                        if (idActual != 0) {
+                            rutinas.add(new Rutina(idActual, nombreActual, ejercicios));
+                        }
+                        idActual = idRutina;
+                        nombreActual = rs.getString(2);
+                        ejercicios.clear();
+                    }
+                    // Rutina sin ejercicios: LEFT JOIN con columnas a NULL
+                    String nombreEjercicio = rs.getString(3);
+                    if (nombreEjercicio != null) {
+                        ejercicios.add(new Rutina.EjercicioRutina(nombreEjercicio, rs.getString(4),
+                                rs.getInt(5), rs.getInt(6), rs.getDouble(7)));
+                    }
+                }
+                if (idActual != 0) {
+                    rutinas.add(new Rutina(idActual, nombreActual, ejercicios));
+                }
+            }
+
+        } catch (SQLException | ClassNotFoundException e) {
+            System.err.println("Error al obtener rutinas: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return rutinas;
+    }
+
+    public boolean eliminarRutina(int id) {
+        try {
+            return dbManager.escribir(connection -> {
+                try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM rutinas WHERE id = ?")) {
+                    pstmt.setInt(1, id);
+                    return pstmt.executeUpdate() > 0;
+                }
+            });
+
+        } catch (SQLException e) {
+            System.err.println("Error al eliminar rutina: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Prepara una sesión de la rutina con fecha {@code fecha}. La serie k de cada
+     * ejercicio copia peso y repeticiones de la serie k de su último día registrado (o de
+     * la última de ese día si aquel tuvo menos series); un ejercicio sin historial usa el
+     * objetivo de la rutina. Devuelve null si hay un error de base de datos.
+     */
+    public SesionEntrenamiento prepararSesion(Rutina rutina, LocalDate fecha) {
+        List<List<double[]>> anteriores = new ArrayList<>();
+        for (int i = 0; i < rutina.getEjercicios().size(); i++) {
+            anteriores.add(new ArrayList<>());
+        }
+
+        try (Connection connection = dbManager.getConnection();
+                PreparedStatement pstmt = connection.prepareStatement(SELECT_ULTIMAS_SERIES)) {
+            pstmt.setInt(1, rutina.getId());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int posicion = rs.getInt(1);
+                    double peso = rs.getDouble(2);
+                    if (!rs.wasNull() && posicion < anteriores.size()) {
+                        anteriores.get(posicion).add(new double[] { peso, rs.getInt(3) });
+                    }
+                }
+            }
+
+        } catch (SQLException | ClassNotFoundException e) {
+            System.err.println("Error al preparar sesión: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+
+        List<Ejercicio> series = new ArrayList<>(rutina.getTotalSeries());
+        for (int i = 0; i < rutina.getEjercicios().size(); i++) {
+            Rutina.EjercicioRutina ejercicio = rutina.getEjercicios().get(i);
+            List<double[]> ultimoDia = anteriores.get(i);
+            for (int k = 0; k < ejercicio.getSeries(); k++) {
+                double peso = ejercicio.getPeso();
+                int repeticiones = ejercicio.getRepeticiones();
+                if (!ultimoDia.isEmpty()) {
+                    double[] anterior = ultimoDia.get(Math.min(k, ultimoDia.size() - 1));
+                    peso = anterior[0];
+                    repeticiones = (int) anterior[1];
+                }
+                series.add(new Ejercicio(ejercicio.getNombre(), ejercicio.getGrupoMuscular(), peso, repeticiones,
+                        fecha));
+            }
+        }
+        return new SesionEntrenamiento(rutina, fecha, series);
+    }
+
+    /**
+     * Guarda todas las series de la sesión en una única transacción por lotes
+     */
+    public ResultadoLote registrarSesion(SesionEntrenamiento sesion) {
+        return ejercicioDAO.insertarEjercicios(sesion.getSeries());
+    }
+
+    private int ultimoIdInsertado(Connection connection) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement("SELECT last_insert_rowid()");
+                ResultSet rs = pstmt.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,607 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Servidor HTTP sin interfaz gráfica (com.sun.net.httpserver del JDK) con endpoints JSON
+ * sobre EjercicioDAO para varios usuarios. Cada usuario tiene su propia base de datos
+ * SQLite en {@code <directorio>/<usuario>.db}, con su DatabaseManager, pool y caché de
+ * nombres, así que los usuarios no comparten bloqueos de escritura. Las peticiones se
+ * atienden en hilos virtuales cuando la JVM los tiene (Java 21+).
+ *
+ * Endpoints (nombres de ejercicio codificados en la ruta con %XX):
+ * <pre>
+ *   GET    /salud
+ *   GET    /usuarios/{usuario}/ejercicios[?grupo=...][&amp;q=...&amp;limite=...]  nombres
+ *   GET    /usuarios/{usuario}/ejercicios/{nombre}/series[?limite=...][&amp;despuesDeId=...&amp;despuesDeFecha=...]
+ *   GET    /usuarios/{usuario}/ejercicios/{nombre}/agregados
+ *   POST   /usuarios/{usuario}/series        una serie (objeto) o un lote (array)
+ *   PUT    /usuarios/{usuario}/series/{id}
+ *   DELETE /usuarios/{usuario}/series/{id}
+ * </pre>
+ * Una serie es {"nombre", "grupoMuscular", "peso", "repeticiones", "fecha": "YYYY-MM-DD" o null}.
+ * El historial se pagina por clave: la página siguiente se pide con el id y la fecha
+ * (sin despuesDeFecha si era null) de la última serie recibida.
+ *
+ * Se mantienen abiertas como mucho MAX_PARTICIONES bases de datos; al pasar de ahí se
+ * cierra la usada hace más tiempo en cuanto termina la última petición que la usa.
+ */
+public class ServidorHttp {
+    private static final Pattern USUARIO_VALIDO = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    private static final int LIMITE_POR_DEFECTO = 100;
+    private static final int LIMITE_MAXIMO = 1000;
+    private static final int HILOS_SIN_VIRTUALES = Integer.getInteger("gymtracker.servidor.hilos", 32);
+    private static final int MAX_PARTICIONES = Integer.getInteger("gymtracker.servidor.particiones", 64);
+    private static final int MAX_CUERPO_BYTES = Integer.getInteger("gymtracker.servidor.maxCuerpoBytes", 8 << 20);
+    private static final String TIPO_JSON = "application/json; charset=utf-8";
+
+    /**
+     * Base de datos y DAO de un usuario. La abre la primera petición que la necesita, fuera
+     * del bloqueo de {@code particiones}, y las demás esperan a {@code abierta}; {@code usos}
+     * y {@code retirada} se protegen con ese bloqueo.
+     */
+    private static final class Particion {
+        final String usuario;
+        // Se completa con dbManager y dao ya asignados (o falla si no se pudo abrir)
+        final CompletableFuture<Void> abierta = new CompletableFuture<>();
+        // Se completa cuando, ya retirada, termina de cerrarse
+        final CompletableFuture<Void> cerrada = new CompletableFuture<>();
+        DatabaseManager dbManager;
+        EjercicioDAO dao;
+        int usos;
+        boolean retirada;
+
+        Particion(String usuario) {
+            this.usuario = usuario;
+        }
+    }
+
+    /**
+     * Error que se devuelve al cliente con su código HTTP
+     */
+    private static final class ErrorHttp extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        final int codigo;
+
+        ErrorHttp(int codigo, String mensaje) {
+            super(mensaje);
+            this.codigo = codigo;
+        }
+    }
+
+    private final Path directorio;
+    private final HttpServer servidor;
+    private final ExecutorService executor;
+    // En orden de acceso: la primera es la usada hace más tiempo
+    private final Map<String, Particion> particiones = new LinkedHashMap<>(16, 0.75f, true);
+    // Retiradas que aún no han terminado de cerrarse, protegidas con el bloqueo de particiones
+    private final Map<String, Particion> retiradas = new HashMap<>();
+
+    /**
+     * @param puerto puerto de escucha (0 para uno libre)
+     * @param directorio carpeta de las bases de datos de los usuarios
+     */
+    public ServidorHttp(int puerto, Path directorio) throws IOException {
+        this.directorio = directorio;
+        Files.createDirectories(directorio);
+        this.executor = EjercicioDAOAsync.crearExecutor("gymtracker-http", HILOS_SIN_VIRTUALES);
+        // Sin TCP_NODELAY las respuestas pequeñas esperan al ACK retardado del cliente
+        // (~40 ms por petición con keep-alive); el JDK lee la propiedad al crear el primer servidor
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        this.servidor = HttpServer.create(new InetSocketAddress(puerto), 0);
+        servidor.setExecutor(executor);
+        servidor.createContext("/", this::atender);
+    }
+
+    public void iniciar() {
+        servidor.start();
+    }
+
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    /**
+     * Deja de aceptar peticiones, espera a las que están en curso y cierra las bases de datos
+     */
+    public void detener(int segundosEspera) {
+        servidor.stop(segundosEspera);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(segundosEspera, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Particion> abiertas;
+        synchronized (particiones) {
+            abiertas = new ArrayList<>(particiones.values());
+            particiones.clear();
+        }
+        for (Particion particion : abiertas) {
+            if (particion.dbManager != null) {
+                particion.dbManager.cerrar();
+            }
+        }
+    }
+
+    private void atender(HttpExchange intercambio) throws IOException {
+        try {
+            Object respuesta = despachar(intercambio);
+            if (respuesta == null) {
+                responder(intercambio, 204, null);
+            } else {
+                responder(intercambio, intercambio.getRequestMethod().equals("POST") ? 201 : 200, respuesta);
+            }
+        } catch (ErrorHttp e) {
+            responder(intercambio, e.codigo, Collections.singletonMap("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            responder(intercambio, 400, Collections.singletonMap("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            System.err.println("Error al atender " + intercambio.getRequestURI() + ": " + e.getMessage());
+            e.printStackTrace();
+            responder(intercambio, 500, Collections.singletonMap("error", "Error interno"));
+        } finally {
+            intercambio.close();
+        }
+    }
+
+    /**
+     * Resuelve la ruta y devuelve el cuerpo de la respuesta (null para 204)
+     */
+    private Object despachar(HttpExchange intercambio) throws IOException, ErrorHttp {
+        String metodo = intercambio.getRequestMethod();
+        String[] partes = separarRuta(intercambio.getRequestURI().getRawPath());
+        Map<String, String> parametros = leerParametros(intercambio.getRequestURI().getRawQuery());
+
+        if (partes.length == 1 && partes[0].equals("salud")) {
+            exigirMetodo(metodo, "GET");
+            return Collections.singletonMap("estado", "ok");
+        }
+        // Se comprueba el recurso antes de crear la base de datos de un usuario nuevo
+        if (partes.length < 3 || !partes[0].equals("usuarios")
+                || !(partes[2].equals("ejercicios") || partes[2].equals("series"))) {
+            throw new ErrorHttp(404, "Ruta no encontrada");
+        }
+        Particion particion = obtenerParticion(partes[1]);
+        try {
+            return despachar(particion.dao, metodo, partes, parametros, intercambio);
+        } finally {
+            liberarParticion(particion);
+        }
+    }
+
+    private Object despachar(EjercicioDAO dao, String metodo, String[] partes, Map<String, String> parametros,
+            HttpExchange intercambio) throws IOException, ErrorHttp {
+        if (partes[2].equals("ejercicios")) {
+            if (partes.length == 3) {
+                exigirMetodo(metodo, "GET");
+                return listarNombres(dao, parametros);
+            }
+            if (partes.length == 5 && partes[4].equals("series")) {
+                exigirMetodo(metodo, "GET");
+                int limite = Math.min(leerEntero(parametros, "limite", LIMITE_POR_DEFECTO), LIMITE_MAXIMO);
+                Ejercicio despuesDe = leerClavePagina(parametros, partes[3]);
+                List<Map<String, Object>> series = new ArrayList<>();
+                for (Ejercicio ejercicio : dao.obtenerPaginaPorNombre(partes[3], despuesDe, 0, limite)) {
+                    series.add(aJson(ejercicio));
+                }
+                return series;
+            }
+            if (partes.length == 5 && partes[4].equals("agregados")) {
+                exigirMetodo(metodo, "GET");
+                AgregadosEjercicio agregados = dao.getAgregadosDAO().obtenerAgregados(partes[3]);
+                if (agregados == null) {
+                    throw new ErrorHttp(404, "El ejercicio no tiene series");
+                }
+                return aJson(agregados);
+            }
+        } else if (partes[2].equals("series")) {
+            if (partes.length == 3) {
+                exigirMetodo(metodo, "POST");
+                return insertar(dao, Json.leer(leerCuerpo(intercambio)));
+            }
+            if (partes.length == 4) {
+                int id = leerId(partes[3]);
+                if (metodo.equals("PUT")) {
+                    Ejercicio ejercicio = desdeJson(Json.leer(leerCuerpo(intercambio)));
+                    ejercicio.setId(id);
+                    String error = ejercicio.validar();
+                    if (error != null) {
+                        throw new ErrorHttp(400, error);
+                    }
+                    if (!dao.actualizarEjercicio(ejercicio)) {
+                        throw new ErrorHttp(404, "No se pudo actualizar la serie " + id);
+                    }
+                    return aJson(ejercicio);
+                }
+                exigirMetodo(metodo, "DELETE");
+                if (!dao.eliminarEjercicio(id)) {
+                    throw new ErrorHttp(404, "No se pudo eliminar la serie " + id);
+                }
+                return null;
+            }
+        }
+        throw new ErrorHttp(404, "Ruta no encontrada");
+    }
+
+    /**
+     * Partición del usuario, creando y migrando su base de datos la primera vez. Queda en
+     * uso hasta liberarParticion; si con ella se supera MAX_PARTICIONES se retiran las
+     * usadas hace más tiempo.
+     *
+     * Bajo el bloqueo solo se reserva la partición: abrir, migrar y precargar la caché lo
+     * hace después la petición que la ha creado, así que un usuario nuevo no detiene a los
+     * demás. Un fichero nunca tiene dos DatabaseManager: si el usuario tiene una partición
+     * retirada que sigue en uso se recupera, y si se está cerrando la nueva espera a que
+     * termine antes de abrirlo.
+     */
+    private Particion obtenerParticion(String usuario) throws ErrorHttp {
+        if (!USUARIO_VALIDO.matcher(usuario).matches()) {
+            throw new ErrorHttp(400, "Usuario no válido (letras, dígitos, '_' o '-', hasta 64)");
+        }
+        List<Particion> cerrar = new ArrayList<>();
+        Particion particion;
+        Particion anterior = null;
+        boolean abrir = false;
+        synchronized (particiones) {
+            particion = particiones.get(usuario);
+            if (particion == null) {
+                Particion retirada = retiradas.get(usuario);
+                if (retirada != null && retirada.usos > 0) {
+                    retiradas.remove(usuario);
+                    retirada.retirada = false;
+                    particion = retirada;
+                } else {
+                    anterior = retirada;
+                    particion = new Particion(usuario);
+                    abrir = true;
+                }
+                particiones.put(usuario, particion);
+
+                Iterator<Particion> antiguas = particiones.values().iterator();
+                while (particiones.size() > MAX_PARTICIONES && antiguas.hasNext()) {
+                    Particion antigua = antiguas.next();
+                    antiguas.remove();
+                    antigua.retirada = true;
+                    retiradas.put(antigua.usuario, antigua);
+                    if (antigua.usos == 0) {
+                        cerrar.add(antigua);
+                    }
+                }
+            }
+            particion.usos++;
+        }
+        for (Particion antigua : cerrar) {
+            cerrarRetirada(antigua);
+        }
+
+        if (abrir) {
+            abrirParticion(particion, anterior);
+        }
+        try {
+            particion.abierta.join();
+        } catch (CompletionException e) {
+            liberarParticion(particion);
+            throw e;
+        }
+        return particion;
+    }
+
+    /**
+     * Abre, migra y precarga la base de datos de una partición recién creada, fuera del
+     * bloqueo. Si falla, la partición se quita para que la siguiente petición lo reintente.
+     */
+    private void abrirParticion(Particion particion, Particion anterior) {
+        try {
+            if (anterior != null) {
+                anterior.cerrada.join();
+            }
+            particion.dbManager = new DatabaseManager(directorio.resolve(particion.usuario + ".db").toString());
+            particion.dbManager.initializeDatabase();
+            EjercicioDAO dao = new EjercicioDAO(particion.dbManager);
+            dao.precargarCacheNombres();
+            particion.dao = dao;
+            particion.abierta.complete(null);
+        } catch (RuntimeException e) {
+            // Se cierra antes de quitarla: hasta entonces quien llegue la encuentra y falla con ella
+            if (particion.dbManager != null) {
+                particion.dbManager.cerrar();
+            }
+            synchronized (particiones) {
+                particiones.remove(particion.usuario, particion);
+                retiradas.remove(particion.usuario, particion);
+                particion.retirada = false;
+            }
+            particion.abierta.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Fin de una petición sobre la partición; la cierra si se retiró mientras estaba en uso
+     */
+    private void liberarParticion(Particion particion) {
+        boolean cerrar;
+        synchronized (particiones) {
+            particion.usos--;
+            cerrar = particion.retirada && particion.usos == 0;
+        }
+        if (cerrar) {
+            cerrarRetirada(particion);
+        }
+    }
+
+    /**
+     * Cierra una partición retirada que ya nadie usa
+     */
+    private void cerrarRetirada(Particion particion) {
+        try {
+            if (particion.dbManager != null) {
+                particion.dbManager.cerrar();
+            }
+        } finally {
+            synchronized (particiones) {
+                retiradas.remove(particion.usuario, particion);
+            }
+            particion.cerrada.complete(null);
+        }
+    }
+
+    /**
+     * Clave de la última serie de la página anterior (despuesDeId y, si tenía fecha,
+     * despuesDeFecha), o null para la primera página
+     */
+    private static Ejercicio leerClavePagina(Map<String, String> parametros, String nombre) {
+        String fecha = parametros.get("despuesDeFecha");
+        if (!parametros.containsKey("despuesDeId")) {
+            if (fecha != null) {
+                throw new IllegalArgumentException("despuesDeFecha requiere despuesDeId");
+            }
+            return null;
+        }
+        int id = leerEntero(parametros, "despuesDeId", 0);
+        try {
+            return new Ejercicio(id, nombre, null, 0, 0, fecha != null ? LocalDate.parse(fecha) : null);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Fecha no válida (YYYY-MM-DD): " + fecha);
+        }
+    }
+
+    private List<String> listarNombres(EjercicioDAO dao, Map<String, String> parametros) {
+        String grupo = parametros.get("grupo");
+        String consulta = parametros.get("q");
+        if (consulta != null) {
+            int limite = Math.min(leerEntero(parametros, "limite", LIMITE_POR_DEFECTO), LIMITE_MAXIMO);
+            return dao.buscarNombresEjercicios(grupo, consulta, limite);
+        }
+        return grupo != null ? dao.obtenerNombresEjerciciosPorGrupo(grupo) : dao.obtenerNombresEjercicios();
+    }
+
+    /**
+     * Una serie devuelve la serie con su id; un lote, los ids y los fallos por posición
+     */
+    private Object insertar(EjercicioDAO dao, Object cuerpo) throws ErrorHttp {
+        if (!(cuerpo instanceof List)) {
+            Ejercicio ejercicio = desdeJson(cuerpo);
+            String error = ejercicio.validar();
+            if (error != null) {
+                throw new ErrorHttp(400, error);
+            }
+            if (!dao.insertarEjercicio(ejercicio)) {
+                throw new ErrorHttp(500, "Error al guardar la serie");
+            }
+            return aJson(ejercicio);
+        }
+
+        List<Ejercicio> lote = new ArrayList<>();
+        for (Object elemento : (List<?>) cuerpo) {
+            lote.add(desdeJson(elemento));
+        }
+        ResultadoLote resultado = dao.insertarEjercicios(lote);
+        List<Map<String, Object>> fallos = new ArrayList<>();
+        for (ResultadoLote.Fallo fallo : resultado.getFallos()) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("indice", fallo.getIndice());
+            json.put("motivo", fallo.getMotivo());
+            fallos.add(json);
+        }
+        List<Integer> ids = new ArrayList<>();
+        for (int id : resultado.getIds()) {
+            ids.add(id);
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("insertados", resultado.getInsertados());
+        json.put("ids", ids);
+        json.put("fallos", fallos);
+        return json;
+    }
+
+    private static Map<String, Object> aJson(Ejercicio ejercicio) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", ejercicio.getId());
+        json.put("nombre", ejercicio.getNombre());
+        json.put("grupoMuscular", ejercicio.getGrupoMuscular());
+        json.put("peso", ejercicio.getPeso());
+        json.put("repeticiones", ejercicio.getRepeticiones());
+        json.put("fecha", ejercicio.getFecha() != null ? ejercicio.getFecha().toString() : null);
+        return json;
+    }
+
+    private static Map<String, Object> aJson(AgregadosEjercicio agregados) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("nombre", agregados.getNombre());
+        json.put("pesoMaximo", agregados.getPesoMaximo());
+        json.put("repeticionesMaximas", agregados.getRepeticionesMaximas());
+        json.put("mejor1RM", agregados.getMejor1RM());
+        json.put("volumenTotal", agregados.getVolumenTotal());
+        json.put("totalSeries", agregados.getTotalSeries());
+        json.put("ultimaSerie", agregados.getUltimaSerie() != null ? aJson(agregados.getUltimaSerie()) : null);
+        return json;
+    }
+
+    private static Ejercicio desdeJson(Object valor) {
+        if (!(valor instanceof Map)) {
+            throw new IllegalArgumentException("Se esperaba un objeto serie");
+        }
+        Map<?, ?> json = (Map<?, ?>) valor;
+        Object fecha = json.get("fecha");
+        try {
+            return new Ejercicio(cadena(json, "nombre"), cadena(json, "grupoMuscular"), numero(json, "peso"),
+                    (int) numero(json, "repeticiones"), fecha != null ? LocalDate.parse(fecha.toString()) : null);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Fecha no válida (YYYY-MM-DD): " + fecha);
+        }
+    }
+
+    private static String cadena(Map<?, ?> json, String campo) {
+        Object valor = json.get(campo);
+        if (!(valor instanceof String)) {
+            throw new IllegalArgumentException("Falta el campo de texto '" + campo + "'");
+        }
+        return (String) valor;
+    }
+
+    private static double numero(Map<?, ?> json, String campo) {
+        Object valor = json.get(campo);
+        if (!(valor instanceof Number)) {
+            throw new IllegalArgumentException("Falta el campo numérico '" + campo + "'");
+        }
+        return ((Number) valor).doubleValue();
+    }
+
+    private static void exigirMetodo(String metodo, String esperado) throws ErrorHttp {
+        if (!metodo.equals(esperado)) {
+            throw new ErrorHttp(405, "Método no permitido: " + metodo);
+        }
+    }
+
+    private static int leerId(String texto) throws ErrorHttp {
+        try {
+            return Integer.parseInt(texto);
+        } catch (NumberFormatException e) {
+            throw new ErrorHttp(400, "Id no válido: " + texto);
+        }
+    }
+
+    private static int leerEntero(Map<String, String> parametros, String nombre, int porDefecto) {
+        String valor = parametros.get(nombre);
+        if (valor == null) {
+            return porDefecto;
+        }
+        try {
+            int numero = Integer.parseInt(valor);
+            if (numero < 0) {
+                throw new IllegalArgumentException("El parámetro '" + nombre + "' no puede ser negativo");
+            }
+            return numero;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("El parámetro '" + nombre + "' debe ser un entero");
+        }
+    }
+
+    /**
+     * Segmentos de la ruta ya decodificados; '+' se conserva (solo %XX se decodifica)
+     */
+    private static String[] separarRuta(String rutaCruda) {
+        List<String> partes = new ArrayList<>();
+        for (String segmento : rutaCruda.split("/")) {
+            if (!segmento.isEmpty()) {
+                partes.add(decodificar(segmento.replace("+", "%2B")));
+            }
+        }
+        return partes.toArray(new String[0]);
+    }
+
+    private static Map<String, String> leerParametros(String consultaCruda) {
+        Map<String, String> parametros = new HashMap<>();
+        if (consultaCruda == null || consultaCruda.isEmpty()) {
+            return parametros;
+        }
+        for (String par : consultaCruda.split("&")) {
+            int igual = par.indexOf('=');
+            if (igual > 0) {
+                parametros.put(decodificar(par.substring(0, igual)), decodificar(par.substring(igual + 1)));
+            }
+        }
+        return parametros;
+    }
+
+    private static String decodificar(String texto) {
+        try {
+            return URLDecoder.decode(texto, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Cuerpo de la petición como texto; 413 si pasa de MAX_CUERPO_BYTES, sin leer más allá
+     */
+    private static String leerCuerpo(HttpExchange intercambio) throws IOException, ErrorHttp {
+        String longitud = intercambio.getRequestHeaders().getFirst("Content-Length");
+        try {
+            if (longitud != null && Long.parseLong(longitud.trim()) > MAX_CUERPO_BYTES) {
+                throw cuerpoDemasiadoGrande();
+            }
+        } catch (NumberFormatException e) {
+            throw new ErrorHttp(400, "Content-Length no válido: " + longitud);
+        }
+
+        try (InputStream entrada = intercambio.getRequestBody()) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int leidos;
+            while ((leidos = entrada.read(buffer)) != -1) {
+                // Sin Content-Length (chunked) se corta al pasar del máximo
+                if (bytes.size() + leidos > MAX_CUERPO_BYTES) {
+                    throw cuerpoDemasiadoGrande();
+                }
+                bytes.write(buffer, 0, leidos);
+            }
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static ErrorHttp cuerpoDemasiadoGrande() {
+        return new ErrorHttp(413, "El cuerpo supera el máximo de " + MAX_CUERPO_BYTES + " bytes");
+    }
+
+    private static void responder(HttpExchange intercambio, int codigo, Object cuerpo) throws IOException {
+        if (cuerpo == null) {
+            intercambio.sendResponseHeaders(codigo, -1);
+            return;
+        }
+        byte[] bytes = Json.escribir(cuerpo).getBytes(StandardCharsets.UTF_8);
+        intercambio.getResponseHeaders().set("Content-Type", TIPO_JSON);
+        intercambio.sendResponseHeaders(codigo, bytes.length);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sesión de entrenamiento a partir de una rutina: todas sus series ya rellenadas con
+ * el último registro de cada ejercicio, listas para editarse y guardarse de una vez con
+ * RutinaDAO.registrarSesion. Las series se guardan en el orden de la rutina.
+ */
+public class SesionEntrenamiento {
+    private final Rutina rutina;
+    private LocalDate fecha;
+    private final List<Ejercicio> series;
+
+    public SesionEntrenamiento(Rutina rutina, LocalDate fecha, List<Ejercicio> series) {
+        this.rutina = rutina;
+        this.fecha = fecha;
+        this.series = new ArrayList<>(series);
+    }
+
+    public Rutina getRutina() {
+        return rutina;
+    }
+
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    /**
+     * Cambia la fecha de la sesión y de todas sus series
+     */
+    public void setFecha(LocalDate fecha) {
+        this.fecha = fecha;
+        for (Ejercicio serie : series) {
+            serie.setFecha(fecha);
+        }
+    }
+
+    /**
+     * Series de la sesión; se pueden modificar peso y repeticiones antes de registrarla
+     */
+    public List<Ejercicio> getSeries() {
+        return Collections.unmodifiableList(series);
+    }
+}
@@ -0,0 +1,92 @@
+import javax.swing.table.AbstractTableModel;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * TableModel de una sesión de entrenamiento en curso: una fila por serie, con el peso y
+ * las repeticiones editables. Los cambios se escriben directamente en las series de la
+ * sesión, que se guardan todas juntas al registrarla. Debe usarse solo desde el EDT.
+ */
+public class SesionTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+    private static final String[] COLUMNAS = { "Ejercicio", "Serie", "Peso", "Reps" };
+
+    private List<Ejercicio> series = Collections.emptyList();
+    // Número de cada serie dentro de su ejercicio (1, 2, 3...)
+    private int[] numeros = new int[0];
+
+    public void cargar(SesionEntrenamiento sesion) {
+        series = sesion != null ? sesion.getSeries() : Collections.<Ejercicio>emptyList();
+        numeros = new int[series.size()];
+        for (int i = 0; i < series.size(); i++) {
+            boolean mismoEjercicio = i > 0 && series.get(i).getNombre().equals(series.get(i - 1).getNombre());
+            numeros[i] = mismoEjercicio ? numeros[i - 1] + 1 : 1;
+        }
+        fireTableDataChanged();
+    }
+
+    @Override
+    public int getRowCount() {
+        return series.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNAS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNAS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        switch (columnIndex) {
+            case 1:
+            case 3:
+                return Integer.class;
+            case 2:
+                return Double.class;
+            default:
+                return String.class;
+        }
+    }
+
+    @Override
+    public boolean isCellEditable(int rowIndex, int columnIndex) {
+        return columnIndex >= 2;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Ejercicio serie = series.get(rowIndex);
+        switch (columnIndex) {
+            case 0:
+                // El nombre solo en la primera serie de cada ejercicio
+                return numeros[rowIndex] == 1 ? serie.getNombre() : "";
+            case 1:
+                return numeros[rowIndex];
+            case 2:
+                return serie.getPeso();
+            case 3:
+                return serie.getRepeticiones();
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public void setValueAt(Object valor, int rowIndex, int columnIndex) {
+        if (valor == null) {
+            return;
+        }
+        Ejercicio serie = series.get(rowIndex);
+        if (columnIndex == 2) {
+            serie.setPeso(((Number) valor).doubleValue());
+        } else if (columnIndex == 3) {
+            serie.setRepeticiones(((Number) valor).intValue());
+        }
+        fireTableCellUpdated(rowIndex, columnIndex);
+    }
+}
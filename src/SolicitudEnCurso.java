@@ -0,0 +1,55 @@
+import javax.swing.SwingUtilities;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Petición asíncrona vigente de una vista. Al lanzar una nueva se cancela la anterior
+ * y el resultado solo se entrega, en el hilo de eventos de Swing, si sigue siendo la
+ * vigente; así una respuesta lenta nunca pisa la pantalla a la que el usuario ya navegó.
+ *
+ * Todos los métodos deben llamarse desde el EDT.
+ */
+public class SolicitudEnCurso {
+    private CompletableFuture<?> actual;
+
+    public <T> void ejecutar(CompletableFuture<T> futuro, Consumer<? super T> alCompletar,
+            Consumer<Throwable> alFallar) {
+        cancelar();
+        actual = futuro;
+
+        futuro.whenComplete((resultado, error) -> SwingUtilities.invokeLater(() -> {
+            if (actual != futuro) {
+                return;
+            }
+            actual = null;
+
+            if (error == null) {
+                alCompletar.accept(resultado);
+                return;
+            }
+            Throwable causa = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause()
+                    : error;
+            if (!(causa instanceof CancellationException)) {
+                alFallar.accept(causa);
+            }
+        }));
+    }
+
+    /**
+     * Descarta la petición vigente, si la hay
+     */
+    public void cancelar() {
+        if (actual != null) {
+            CompletableFuture<?> anterior = actual;
+            actual = null;
+            anterior.cancel(true);
+        }
+    }
+
+    public boolean enCurso() {
+        return actual != null;
+    }
+}